@@ -0,0 +1,164 @@
+package ca.crimsonglow.skiplist;
+
+import java.util.SplittableRandom;
+
+/**
+ * Selects levels like {@link RandomLevelGenerator}, but shifts its probability to suit the workload of the skip list
+ * that uses it. The list reports each read and write, and measures the length of the search path of a sample of them.
+ * At the end of each window of samples, the generator moves to the probability that minimizes the expected cost per
+ * operation:
+ * <pre>
+ *     cost(p) = scale * search(p) + writeFraction * LINK_COST / (1 - p)
+ *     search(p) = ln(n) / (p * ln(1 / p)) + 1 / (1 - p)
+ * </pre>
+ * where search(p) is the expected number of nodes examined by a search of n entries, 1 / (1 - p) is the expected
+ * height of a new tower, and scale is the ratio of the observed search path length to the one expected at the current
+ * probability. Searches that take longer than the model predicts, such as through towers built at an earlier
+ * probability, therefore weigh more heavily than the cost of building taller towers. Read-heavy workloads settle near
+ * 1 / e, and write-heavy workloads at lower probabilities.
+ */
+class AdaptiveLevelGenerator implements LevelGenerator {
+    // One operation in this many has its search path measured. It must be a power of two.
+    static final int SAMPLE_INTERVAL = 64;
+    // The number of samples in each window, after which the probability may change.
+    static final int SAMPLES_PER_WINDOW = 64;
+    // The range and granularity of the probabilities considered.
+    static final double MIN_PROBABILITY = 0.0625;
+    static final double MAX_PROBABILITY = 0.5;
+    private static final double PROBABILITY_STEP = 0.03125;
+    // The cost of one level of a new tower, relative to examining one node during a search. Besides linking it, the
+    // level has to be allocated, and later collected once the node is removed.
+    private static final double LINK_COST = 16;
+    // The weight given to the latest window when smoothing the observations.
+    private static final double SMOOTHING = 0.25;
+    // The relative improvement in cost required to change the probability, so that it does not oscillate.
+    private static final double HYSTERESIS = 0.02;
+    // The bounds of the ratio of observed to expected search path length.
+    private static final double MIN_SCALE = 0.5;
+    private static final double MAX_SCALE = 4;
+    private final int maxLevel;
+    // The source of random bits, kept across changes of probability.
+    private final SplittableRandom random;
+    // Selects levels at the current probability.
+    private RandomLevelGenerator delegate;
+    // The operations recorded in the current window.
+    private int reads;
+    private int writes;
+    // The number of operations recorded, used to select samples.
+    private int operations;
+    // The samples taken in the current window.
+    private long pathLengthSum;
+    private int samples;
+    private int sizeAtLastSample;
+    // The smoothed observations of previous windows, or NaN before the first window ends.
+    private double writeFraction = Double.NaN;
+    private double scale = Double.NaN;
+
+    AdaptiveLevelGenerator(double initialProbability, int maxLevel, SplittableRandom random) {
+        this.maxLevel = maxLevel;
+        this.random = random;
+        this.delegate = new RandomLevelGenerator(initialProbability, maxLevel, random::nextLong);
+    }
+
+    @Override
+    public int nextLevel() {
+        return delegate.nextLevel();
+    }
+
+    @Override
+    public double getProbability() {
+        return delegate.getProbability();
+    }
+
+    @Override
+    public int getMaxLevel() {
+        return maxLevel;
+    }
+
+    /**
+     * Records a lookup.
+     *
+     * @return True if the length of its search path should be measured and passed to
+     * {@link #recordSearchPathLength(int, int)}.
+     */
+    boolean recordRead() {
+        reads++;
+        return (++operations & (SAMPLE_INTERVAL - 1)) == 0;
+    }
+
+    /**
+     * Records an insertion or removal.
+     *
+     * @return True if the length of its search path should be measured and passed to
+     * {@link #recordSearchPathLength(int, int)}.
+     */
+    boolean recordWrite() {
+        writes++;
+        return (++operations & (SAMPLE_INTERVAL - 1)) == 0;
+    }
+
+    /**
+     * Records the number of nodes examined by a sampled search, adapting the probability at the end of a window.
+     *
+     * @param pathLength The number of nodes examined, counting one per level for the node at which the search
+     *                   descended.
+     * @param size       The size of the list at the time of the search.
+     */
+    void recordSearchPathLength(int pathLength, int size) {
+        pathLengthSum += pathLength;
+        sizeAtLastSample = size;
+        if (++samples == SAMPLES_PER_WINDOW) {
+            adapt();
+        }
+    }
+
+    // Smooths the observations of the window that just ended into those of earlier windows and moves to the
+    // probability of least expected cost, if it is sufficiently cheaper than the current one.
+    private void adapt() {
+        double windowWriteFraction = (double) writes / (reads + writes);
+        double expected = getExpectedSearchPathLength(getProbability(), sizeAtLastSample);
+        double windowScale = Math.max(MIN_SCALE, Math.min(MAX_SCALE, ((double) pathLengthSum / samples) / expected));
+        writeFraction = Double.isNaN(writeFraction) ? windowWriteFraction : smooth(writeFraction, windowWriteFraction);
+        scale = Double.isNaN(scale) ? windowScale : smooth(scale, windowScale);
+        reads = 0;
+        writes = 0;
+        pathLengthSum = 0;
+        samples = 0;
+
+        double best = getProbability();
+        double bestCost = Double.POSITIVE_INFINITY;
+        for (double p = MIN_PROBABILITY; p <= MAX_PROBABILITY; p += PROBABILITY_STEP) {
+            double cost = getCost(p, sizeAtLastSample);
+            if (cost < bestCost) {
+                best = p;
+                bestCost = cost;
+            }
+        }
+
+        if (bestCost < getCost(getProbability(), sizeAtLastSample) * (1 - HYSTERESIS)) {
+            delegate = new RandomLevelGenerator(best, maxLevel, random::nextLong);
+        }
+    }
+
+    private static double smooth(double previous, double latest) {
+        return previous + SMOOTHING * (latest - previous);
+    }
+
+    // Gets the expected cost of an operation at a probability, given the observations so far.
+    double getCost(double p, int size) {
+        return scale * getExpectedSearchPathLength(p, size) + writeFraction * LINK_COST / (1 - p);
+    }
+
+    // Gets the expected number of nodes examined by a search of a list built at a probability.
+    static double getExpectedSearchPathLength(double p, int size) {
+        return Math.log(Math.max(2, size)) / (p * -Math.log(p)) + 1 / (1 - p);
+    }
+
+    double getWriteFraction() {
+        return writeFraction;
+    }
+
+    double getScale() {
+        return scale;
+    }
+}
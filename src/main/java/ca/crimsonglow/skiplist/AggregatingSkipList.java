@@ -0,0 +1,252 @@
+package ca.crimsonglow.skiplist;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+
+/**
+ * A skip list that caches a summary of the values spanned by each link above the bottom level, so that the values in
+ * any range of keys can be aggregated in O(log n) expected time.
+ * <p>
+ * Summaries are computed by mapping each value to a summary and combining summaries with an associative operator that
+ * has an identity, such as addition with zero, or min with the greatest possible value. The summary of a link covers
+ * its source node and every node up to, but not including, its target. Summaries are maintained by every operation
+ * that inserts or removes a mapping or replaces a value, whether through the map, its views or a cursor, at the cost of
+ * O(log n) extra work per operation.
+ *
+ * @param <K> The type of keys.
+ * @param <V> The type of values.
+ * @param <A> The type of summaries.
+ */
+public class AggregatingSkipList<K extends Comparable<K>, V, A> extends SkipList<K, V> {
+    // Maps a value to its summary.
+    private final Function<? super V, ? extends A> mapper;
+    // The summary of no values.
+    private final A identity;
+    // Combines two adjacent summaries.
+    private final BinaryOperator<A> combiner;
+    // The predecessors of a node at each level, reused between value replacements.
+    private Node<K, V>[] updatePreds;
+
+    /**
+     * Creates a new aggregating skip list with the default iteration probability.
+     *
+     * @param mapper   Maps a value to its summary.
+     * @param identity The summary of no values.
+     * @param combiner Combines two adjacent summaries. It must be associative.
+     */
+    public AggregatingSkipList(Function<? super V, ? extends A> mapper, A identity, BinaryOperator<A> combiner) {
+        this(LevelGenerator.DEFAULT_PROBABILITY, mapper, identity, combiner);
+    }
+
+    /**
+     * Creates a new aggregating skip list with the specified iteration probability.
+     *
+     * @param iterationProbability The probability with which to continue iterating during level selection.
+     * @param mapper               Maps a value to its summary.
+     * @param identity             The summary of no values.
+     * @param combiner             Combines two adjacent summaries. It must be associative.
+     */
+    public AggregatingSkipList(double iterationProbability, Function<? super V, ? extends A> mapper, A identity,
+                               BinaryOperator<A> combiner) {
+        this(LevelGenerator.splittable(iterationProbability, LevelGenerator.maxLevelFor(Integer.MAX_VALUE, iterationProbability)),
+                mapper, identity, combiner);
+    }
+
+    /**
+     * Creates a new aggregating skip list that selects levels with the specified generator.
+     *
+     * @param levelGenerator The generator of levels for new nodes.
+     * @param mapper         Maps a value to its summary.
+     * @param identity       The summary of no values.
+     * @param combiner       Combines two adjacent summaries. It must be associative.
+     */
+    public AggregatingSkipList(LevelGenerator levelGenerator, Function<? super V, ? extends A> mapper, A identity,
+                               BinaryOperator<A> combiner) {
+        super(levelGenerator);
+        this.mapper = Objects.requireNonNull(mapper);
+        this.identity = identity;
+        this.combiner = Objects.requireNonNull(combiner);
+    }
+
+    /**
+     * Aggregates every value in the list.
+     *
+     * @return The combined summary of every value, in key order.
+     */
+    public A aggregate() {
+        return aggregate(getFirstNode(), null, false);
+    }
+
+    /**
+     * Aggregates the values of the keys from fromKey, inclusive, to toKey, exclusive.
+     *
+     * @param fromKey The low endpoint of the range, inclusive.
+     * @param toKey   The high endpoint of the range, exclusive.
+     * @return The combined summary of the values in the range, in key order.
+     */
+    public A aggregate(K fromKey, K toKey) {
+        return aggregate(fromKey, true, toKey, false);
+    }
+
+    /**
+     * Aggregates the values of the keys in a range.
+     *
+     * @param fromKey       The low endpoint of the range.
+     * @param fromInclusive Whether the low endpoint is included in the range.
+     * @param toKey         The high endpoint of the range.
+     * @param toInclusive   Whether the high endpoint is included in the range.
+     * @return The combined summary of the values in the range, in key order.
+     */
+    public A aggregate(K fromKey, boolean fromInclusive, K toKey, boolean toInclusive) {
+        Objects.requireNonNull(fromKey);
+        Objects.requireNonNull(toKey);
+        if (fromKey.compareTo(toKey) > 0) {
+            throw new IllegalArgumentException("fromKey > toKey");
+        }
+
+        return aggregate(fromInclusive ? getCeilingNode(fromKey) : getHigherNode(fromKey), toKey, toInclusive);
+    }
+
+    // Aggregates the values from a node to a bound, or to the end of the list if the bound is null. At each node, the
+    // highest link whose target does not pass the bound is followed, so the walk climbs the towers after the start
+    // and descends them before the bound, as a search does in reverse.
+    private A aggregate(Node<K, V> cur, K toKey, boolean toInclusive) {
+        A result = identity;
+        while (cur != null && isBeforeBound(cur.key, toKey, toInclusive)) {
+            int level = cur.getHeight() - 1;
+            while (level > 0 && !isWithinBound(cur.getNext(level), toKey)) {
+                level--;
+            }
+
+            result = combiner.apply(result, getSummary(cur, level));
+            cur = cur.getNext(level);
+        }
+
+        return result;
+    }
+
+    private static <K extends Comparable<K>> boolean isBeforeBound(K key, K toKey, boolean toInclusive) {
+        if (toKey == null) {
+            return true;
+        }
+
+        int c = key.compareTo(toKey);
+        return c < 0 || (c == 0 && toInclusive);
+    }
+
+    // Checks whether every node before the target of a link is within a bound. That holds for a link to the end of the
+    // list only if there is no bound.
+    private static <K extends Comparable<K>, V> boolean isWithinBound(Node<K, V> target, K toKey) {
+        if (toKey == null) {
+            return true;
+        }
+
+        return target != null && target.key.compareTo(toKey) <= 0;
+    }
+
+    @Override
+    Node<K, V> newNode(K key, V value, int height) {
+        return new SummaryNode(key, value, height);
+    }
+
+    @Override
+    void afterLink(Node<K, V>[] preds, Node<K, V> n) {
+        // Links into the new node were shortened, and links over it now cover it.
+        for (int i = 1; i < getHead().getHeight(); i++) {
+            updateSummary(preds[i], i);
+            if (i < n.getHeight()) {
+                updateSummary(n, i);
+            }
+        }
+    }
+
+    @Override
+    void afterUnlink(Node<K, V>[] preds, Node<K, V> n) {
+        for (int i = 1; i < getHead().getHeight(); i++) {
+            updateSummary(preds[i], i);
+        }
+    }
+
+    // Updates the summaries of the links that cover a node whose value has changed.
+    private void afterValueChange(Node<K, V> n) {
+        Node<K, V>[] preds = findPredecessors(n.key);
+        for (int i = 1; i < getHead().getHeight(); i++) {
+            updateSummary(i < n.getHeight() ? n : preds[i], i);
+        }
+    }
+
+    // Finds the last node before a key at each level.
+    private Node<K, V>[] findPredecessors(K key) {
+        Node<K, V> cur = getHead();
+        if (updatePreds == null || updatePreds.length < cur.getHeight()) {
+            updatePreds = Node.newArray(cur.getHeight());
+        }
+
+        for (int i = cur.getHeight() - 1; i >= 0; i--) {
+            while (isNextKeyLessThan(cur, i, key)) {
+                cur = cur.getNext(i);
+            }
+
+            updatePreds[i] = cur;
+        }
+
+        return updatePreds;
+    }
+
+    // Recomputes the summary of a link from the summaries of the links beneath it, which must already be current.
+    private void updateSummary(Node<K, V> n, int level) {
+        Node<K, V> end = n.getNext(level);
+        A summary = getSummary(n, level - 1);
+        for (Node<K, V> cur = n.getNext(level - 1); cur != end; cur = cur.getNext(level - 1)) {
+            summary = combiner.apply(summary, getSummary(cur, level - 1));
+        }
+
+        getSummaries(n)[level - 1] = summary;
+    }
+
+    // Gets the summary of a link. A bottom-level link covers only its source, and the head has no value.
+    @SuppressWarnings("unchecked")
+    private A getSummary(Node<K, V> n, int level) {
+        if (level == 0) {
+            return n.isHead() ? identity : mapper.apply(n.value);
+        }
+
+        return (A) getSummaries(n)[level - 1];
+    }
+
+    // Every node of this list is a summary node, as created by newNode.
+    @SuppressWarnings("unchecked")
+    private Object[] getSummaries(Node<K, V> n) {
+        return ((SummaryNode) n).summaries;
+    }
+
+    // A node that also holds the summary of each of its links above the bottom level, and updates the summaries that
+    // cover it when its value is replaced.
+    private class SummaryNode extends Node<K, V> {
+        private Object[] summaries;
+
+        SummaryNode(K key, V value, int height) {
+            super(key, value, height);
+            if (height > 1) {
+                summaries = new Object[height - 1];
+            }
+        }
+
+        // Only the head grows. Its new levels are empty, and their summaries are computed when a node is linked or
+        // unlinked beneath them.
+        @Override
+        public void grow(int height) {
+            super.grow(height);
+            summaries = summaries == null ? new Object[height - 1] : Arrays.copyOf(summaries, height - 1);
+        }
+
+        @Override
+        public V setValue(V value) {
+            V prevValue = super.setValue(value);
+            afterValueChange(this);
+            return prevValue;
+        }
+    }
+}
@@ -0,0 +1,1718 @@
+package ca.crimsonglow.skiplist;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+import java.util.*;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiFunction;
+import java.util.function.Function;
+
+/**
+ * A lock-free skip list that may be shared between threads.
+ * <p>
+ * Entries live in a singly linked list of nodes at the bottom level, and sparser index levels above it are used to
+ * find the predecessor of a key. All links are updated with compare-and-set. A node is removed by first clearing its
+ * value (logical deletion), then appending a marker node after it so that no insertion can race with the unlink, and
+ * finally unlinking it from its predecessor. Threads that encounter a partially removed node help to finish removing
+ * it. Null keys and values are not allowed, since a null value marks a deleted node.
+ * <p>
+ * Iterators and views are weakly consistent: they never throw {@link ConcurrentModificationException} and reflect
+ * some, but not necessarily all, modifications made after their creation.
+ */
+public class ConcurrentSkipList<K extends Comparable<K>, V> extends AbstractMap<K, V>
+        implements ConcurrentNavigableMap<K, V> {
+    // The value held by the header node of the bottom level.
+    private static final Object BASE_HEADER = new Object();
+    // Relations used to search for keys near a given key.
+    private static final int EQ = 1;
+    private static final int LT = 2;
+    private static final int GT = 0;
+    private static final VarHandle HEAD;
+
+    static {
+        try {
+            HEAD = MethodHandles.lookup().findVarHandle(ConcurrentSkipList.class, "head", HeadIndex.class);
+        } catch (ReflectiveOperationException e) {
+            throw new ExceptionInInitializerError(e);
+        }
+    }
+
+    // The number of entries in the list.
+    private final LongAdder size = new LongAdder();
+    // The topmost head index of the list.
+    private volatile HeadIndex<K, V> head;
+    // Views of the list, created on first use.
+    private KeySet<K> keySet;
+    private Values values;
+    private EntrySet entrySet;
+    private SubMap descendingMap;
+
+    /**
+     * Creates a new, empty concurrent skip list.
+     */
+    public ConcurrentSkipList() {
+        head = new HeadIndex<>(new Node<>(null, BASE_HEADER, null), null, null, 1);
+    }
+
+    private boolean casHead(HeadIndex<K, V> expected, HeadIndex<K, V> value) {
+        return HEAD.compareAndSet(this, expected, value);
+    }
+
+    // Finds a bottom node with a key strictly less than the given key, unlinking index entries of deleted nodes along
+    // the way. The node may since have been deleted or have had nodes inserted after it.
+    private Node<K, V> findPredecessor(K key) {
+        if (key == null) {
+            throw new NullPointerException();
+        }
+
+        while (true) {
+            Index<K, V> q = head;
+            Index<K, V> r = q.right;
+            while (true) {
+                if (r != null) {
+                    Node<K, V> n = r.node;
+                    if (n.value == null) {
+                        if (!q.unlink(r)) {
+                            break;
+                        }
+
+                        r = q.right;
+                        continue;
+                    }
+
+                    if (key.compareTo(n.key) > 0) {
+                        q = r;
+                        r = r.right;
+                        continue;
+                    }
+                }
+
+                Index<K, V> d = q.down;
+                if (d == null) {
+                    return q.node;
+                }
+
+                q = d;
+                r = d.right;
+            }
+        }
+    }
+
+    // Finds the live node holding the given key, helping to remove deleted nodes on the way.
+    private Node<K, V> findNode(K key) {
+        outer:
+        while (true) {
+            Node<K, V> b = findPredecessor(key);
+            Node<K, V> n = b.next;
+            while (true) {
+                if (n == null) {
+                    break outer;
+                }
+
+                Node<K, V> f = n.next;
+                // Restart on an inconsistent read.
+                if (n != b.next) {
+                    break;
+                }
+
+                Object v = n.value;
+                if (v == null) {
+                    n.helpDelete(b, f);
+                    break;
+                }
+
+                if (b.value == null || v == n) {
+                    break;
+                }
+
+                int c = key.compareTo(n.key);
+                if (c == 0) {
+                    return n;
+                }
+
+                if (c < 0) {
+                    break outer;
+                }
+
+                b = n;
+                n = f;
+            }
+        }
+
+        return null;
+    }
+
+    // Gets the value for a key, or null if it is absent.
+    private V doGet(K key) {
+        while (true) {
+            Node<K, V> n = findNode(key);
+            if (n == null) {
+                return null;
+            }
+
+            V v = n.getValidValue();
+            if (v != null) {
+                return v;
+            }
+        }
+    }
+
+    // Inserts or replaces a mapping, returning the previous value or null if the key was absent.
+    private V doPut(K key, V value, boolean onlyIfAbsent) {
+        if (key == null || value == null) {
+            throw new NullPointerException();
+        }
+
+        Node<K, V> z;
+        outer:
+        while (true) {
+            Node<K, V> b = findPredecessor(key);
+            Node<K, V> n = b.next;
+            while (true) {
+                if (n != null) {
+                    Node<K, V> f = n.next;
+                    if (n != b.next) {
+                        break;
+                    }
+
+                    Object v = n.value;
+                    if (v == null) {
+                        n.helpDelete(b, f);
+                        break;
+                    }
+
+                    if (b.value == null || v == n) {
+                        break;
+                    }
+
+                    int c = key.compareTo(n.key);
+                    if (c > 0) {
+                        b = n;
+                        n = f;
+                        continue;
+                    }
+
+                    if (c == 0) {
+                        if (onlyIfAbsent || n.casValue(v, value)) {
+                            @SuppressWarnings("unchecked")
+                            V prevValue = (V) v;
+                            return prevValue;
+                        }
+
+                        // Lost a race to replace the value.
+                        break;
+                    }
+                }
+
+                z = new Node<>(key, value, n);
+                if (!b.casNext(n, z)) {
+                    break;
+                }
+
+                break outer;
+            }
+        }
+
+        size.increment();
+        addIndices(z);
+        return null;
+    }
+
+    // Builds a tower of a random height for a newly inserted node and links it into the index levels.
+    private void addIndices(Node<K, V> z) {
+        int level = getRandomLevel();
+        if (level == 0) {
+            return;
+        }
+
+        Index<K, V> idx = null;
+        HeadIndex<K, V> h = head;
+        int max = h.level;
+        if (level <= max) {
+            for (int i = 1; i <= level; i++) {
+                idx = new Index<>(z, idx, null);
+            }
+        } else {
+            // Grow the list by at most one level at a time.
+            level = max + 1;
+            @SuppressWarnings("unchecked")
+            Index<K, V>[] indices = (Index<K, V>[]) new Index<?, ?>[level + 1];
+            for (int i = 1; i <= level; i++) {
+                indices[i] = idx = new Index<>(z, idx, null);
+            }
+
+            while (true) {
+                h = head;
+                int oldLevel = h.level;
+                if (level <= oldLevel) {
+                    // Another thread already added the level.
+                    break;
+                }
+
+                HeadIndex<K, V> newHead = h;
+                Node<K, V> base = h.node;
+                for (int j = oldLevel + 1; j <= level; j++) {
+                    newHead = new HeadIndex<>(base, newHead, indices[j], j);
+                }
+
+                if (casHead(h, newHead)) {
+                    h = newHead;
+                    level = oldLevel;
+                    idx = indices[level];
+                    break;
+                }
+            }
+        }
+
+        // Splice the index nodes into each level from the top down, restarting from the head on interference.
+        K key = z.key;
+        int insertionLevel = level;
+        splice:
+        while (true) {
+            int j = h.level;
+            Index<K, V> q = h;
+            Index<K, V> r = q.right;
+            Index<K, V> t = idx;
+            while (true) {
+                if (q == null || t == null) {
+                    break splice;
+                }
+
+                if (r != null) {
+                    Node<K, V> n = r.node;
+                    // Comparing before checking for deletion avoids the need to recheck.
+                    int c = key.compareTo(n.key);
+                    if (n.value == null) {
+                        if (!q.unlink(r)) {
+                            break;
+                        }
+
+                        r = q.right;
+                        continue;
+                    }
+
+                    if (c > 0) {
+                        q = r;
+                        r = r.right;
+                        continue;
+                    }
+                }
+
+                if (j == insertionLevel) {
+                    if (!q.link(r, t)) {
+                        break;
+                    }
+
+                    // If the node was deleted meanwhile, clean up the index that was just linked.
+                    if (t.node.value == null) {
+                        findNode(key);
+                        break splice;
+                    }
+
+                    if (--insertionLevel == 0) {
+                        break splice;
+                    }
+                }
+
+                if (--j >= insertionLevel && j < level) {
+                    t = t.down;
+                }
+
+                q = q.down;
+                r = q.right;
+            }
+        }
+    }
+
+    // Removes the mapping for a key if it is present and, if value is not null, currently maps to that value.
+    private V doRemove(Object key, Object value) {
+        @SuppressWarnings("unchecked")
+        K k = (K) key;
+        if (k == null) {
+            throw new NullPointerException();
+        }
+
+        outer:
+        while (true) {
+            Node<K, V> b = findPredecessor(k);
+            Node<K, V> n = b.next;
+            while (true) {
+                if (n == null) {
+                    break outer;
+                }
+
+                Node<K, V> f = n.next;
+                if (n != b.next) {
+                    break;
+                }
+
+                Object v = n.value;
+                if (v == null) {
+                    n.helpDelete(b, f);
+                    break;
+                }
+
+                if (b.value == null || v == n) {
+                    break;
+                }
+
+                int c = k.compareTo(n.key);
+                if (c < 0) {
+                    break outer;
+                }
+
+                if (c > 0) {
+                    b = n;
+                    n = f;
+                    continue;
+                }
+
+                if (value != null && !value.equals(v)) {
+                    break outer;
+                }
+
+                if (!n.casValue(v, null)) {
+                    break;
+                }
+
+                size.decrement();
+                if (!n.appendMarker(f) || !b.casNext(n, f)) {
+                    // Let a search finish unlinking the node.
+                    findNode(k);
+                } else {
+                    // Clean up the index levels.
+                    findPredecessor(k);
+                    if (head.right == null) {
+                        tryReduceLevel();
+                    }
+                }
+
+                @SuppressWarnings("unchecked")
+                V prevValue = (V) v;
+                return prevValue;
+            }
+        }
+
+        return null;
+    }
+
+    // Removes the top level if the top three levels look empty. A level may rarely be removed while an insertion is
+    // linking into it, in which case the index is lost but the bottom level is unaffected.
+    private void tryReduceLevel() {
+        HeadIndex<K, V> h = head;
+        if (h.level <= 3) {
+            return;
+        }
+
+        HeadIndex<K, V> d = (HeadIndex<K, V>) h.down;
+        HeadIndex<K, V> e = d == null ? null : (HeadIndex<K, V>) d.down;
+        if (e != null && e.right == null && d.right == null && h.right == null && casHead(h, d) && h.right != null) {
+            // Back out if the level gained an entry in the meantime.
+            casHead(d, h);
+        }
+    }
+
+    private int getRandomLevel() {
+        long r = ThreadLocalRandom.current().nextLong();
+        // Three quarters of the nodes have no index entries.
+        if ((r & 0x3) != 0) {
+            return 0;
+        }
+
+        // Each remaining bit that is set adds a level, so level i is reached with probability 1/2^i.
+        return 1 + Long.numberOfTrailingZeros(~(r >>> 2));
+    }
+
+    // Gets the first live bottom node, or null if the list is empty.
+    private Node<K, V> findFirst() {
+        while (true) {
+            Node<K, V> b = head.node;
+            Node<K, V> n = b.next;
+            if (n == null) {
+                return null;
+            }
+
+            if (n.value != null) {
+                return n;
+            }
+
+            n.helpDelete(b, n.next);
+        }
+    }
+
+    // Gets the last live bottom node, or null if the list is empty.
+    private Node<K, V> findLast() {
+        Index<K, V> q = head;
+        while (true) {
+            Index<K, V> r = q.right;
+            Index<K, V> d;
+            if (r != null) {
+                if (r.node.value == null) {
+                    q.unlink(r);
+                    q = head;
+                } else {
+                    q = r;
+                }
+            } else if ((d = q.down) != null) {
+                q = d;
+            } else {
+                Node<K, V> b = q.node;
+                Node<K, V> n = b.next;
+                while (true) {
+                    if (n == null) {
+                        return b.isBaseHeader() ? null : b;
+                    }
+
+                    Node<K, V> f = n.next;
+                    if (n != b.next) {
+                        break;
+                    }
+
+                    Object v = n.value;
+                    if (v == null) {
+                        n.helpDelete(b, f);
+                        break;
+                    }
+
+                    if (b.value == null || v == n) {
+                        break;
+                    }
+
+                    b = n;
+                    n = f;
+                }
+
+                q = head;
+            }
+        }
+    }
+
+    // Finds the live node nearest to the given key for the given relation, or null if there is none.
+    private Node<K, V> findNear(K key, int rel) {
+        if (key == null) {
+            throw new NullPointerException();
+        }
+
+        while (true) {
+            Node<K, V> b = findPredecessor(key);
+            Node<K, V> n = b.next;
+            while (true) {
+                if (n == null) {
+                    return (rel & LT) == 0 || b.isBaseHeader() ? null : b;
+                }
+
+                Node<K, V> f = n.next;
+                if (n != b.next) {
+                    break;
+                }
+
+                Object v = n.value;
+                if (v == null) {
+                    n.helpDelete(b, f);
+                    break;
+                }
+
+                if (b.value == null || v == n) {
+                    break;
+                }
+
+                int c = key.compareTo(n.key);
+                if ((c == 0 && (rel & EQ) != 0) || (c < 0 && (rel & LT) == 0)) {
+                    return n;
+                }
+
+                if (c <= 0 && (rel & LT) != 0) {
+                    return b.isBaseHeader() ? null : b;
+                }
+
+                b = n;
+                n = f;
+            }
+        }
+    }
+
+    // Gets an immutable snapshot of the entry nearest to the given key for the given relation.
+    private Entry<K, V> getNear(K key, int rel) {
+        while (true) {
+            Node<K, V> n = findNear(key, rel);
+            if (n == null) {
+                return null;
+            }
+
+            Entry<K, V> e = n.createSnapshot();
+            if (e != null) {
+                return e;
+            }
+        }
+    }
+
+    @Override
+    public int size() {
+        long n = size.sum();
+        if (n < 0) {
+            return 0;
+        }
+
+        return n >= Integer.MAX_VALUE ? Integer.MAX_VALUE : (int) n;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return findFirst() == null;
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        return get(key) != null;
+    }
+
+    @Override
+    public boolean containsValue(Object value) {
+        if (value == null) {
+            throw new NullPointerException();
+        }
+
+        for (Node<K, V> n = findFirst(); n != null; n = n.next) {
+            V v = n.getValidValue();
+            if (v != null && value.equals(v)) {
+                return true;
+            }
+        }
+
+        return false;
+    }
+
+    @Override
+    public V get(Object key) {
+        @SuppressWarnings("unchecked")
+        K k = (K) key;
+        if (k == null) {
+            throw new NullPointerException();
+        }
+
+        return doGet(k);
+    }
+
+    @Override
+    public V put(K key, V value) {
+        return doPut(key, value, false);
+    }
+
+    @Override
+    public V putIfAbsent(K key, V value) {
+        return doPut(key, value, true);
+    }
+
+    @Override
+    public V remove(Object key) {
+        return doRemove(key, null);
+    }
+
+    @Override
+    public boolean remove(Object key, Object value) {
+        if (key == null) {
+            throw new NullPointerException();
+        }
+
+        return value != null && doRemove(key, value) != null;
+    }
+
+    @Override
+    public boolean replace(K key, V oldValue, V newValue) {
+        if (key == null || oldValue == null || newValue == null) {
+            throw new NullPointerException();
+        }
+
+        while (true) {
+            Node<K, V> n = findNode(key);
+            if (n == null) {
+                return false;
+            }
+
+            Object v = n.value;
+            if (v != null) {
+                if (!oldValue.equals(v)) {
+                    return false;
+                }
+
+                if (n.casValue(v, newValue)) {
+                    return true;
+                }
+            }
+        }
+    }
+
+    @Override
+    public V replace(K key, V value) {
+        if (key == null || value == null) {
+            throw new NullPointerException();
+        }
+
+        while (true) {
+            Node<K, V> n = findNode(key);
+            if (n == null) {
+                return null;
+            }
+
+            Object v = n.value;
+            if (v != null && n.casValue(v, value)) {
+                @SuppressWarnings("unchecked")
+                V prevValue = (V) v;
+                return prevValue;
+            }
+        }
+    }
+
+    @Override
+    public V computeIfAbsent(K key, Function<? super K, ? extends V> mappingFunction) {
+        if (key == null || mappingFunction == null) {
+            throw new NullPointerException();
+        }
+
+        V v = doGet(key);
+        if (v == null) {
+            V r = mappingFunction.apply(key);
+            if (r != null) {
+                V p = doPut(key, r, true);
+                v = p == null ? r : p;
+            }
+        }
+
+        return v;
+    }
+
+    @Override
+    public V computeIfPresent(K key, BiFunction<? super K, ? super V, ? extends V> remappingFunction) {
+        if (key == null || remappingFunction == null) {
+            throw new NullPointerException();
+        }
+
+        while (true) {
+            Node<K, V> n = findNode(key);
+            if (n == null) {
+                return null;
+            }
+
+            V v = n.getValidValue();
+            if (v == null) {
+                continue;
+            }
+
+            V r = remappingFunction.apply(key, v);
+            if (r != null) {
+                if (n.casValue(v, r)) {
+                    return r;
+                }
+            } else if (doRemove(key, v) != null) {
+                return null;
+            }
+        }
+    }
+
+    @Override
+    public V compute(K key, BiFunction<? super K, ? super V, ? extends V> remappingFunction) {
+        if (key == null || remappingFunction == null) {
+            throw new NullPointerException();
+        }
+
+        while (true) {
+            Node<K, V> n = findNode(key);
+            if (n == null) {
+                V r = remappingFunction.apply(key, null);
+                if (r == null) {
+                    return null;
+                }
+
+                if (doPut(key, r, true) == null) {
+                    return r;
+                }
+
+                continue;
+            }
+
+            V v = n.getValidValue();
+            if (v == null) {
+                continue;
+            }
+
+            V r = remappingFunction.apply(key, v);
+            if (r != null) {
+                if (n.casValue(v, r)) {
+                    return r;
+                }
+            } else if (doRemove(key, v) != null) {
+                return null;
+            }
+        }
+    }
+
+    @Override
+    public V merge(K key, V value, BiFunction<? super V, ? super V, ? extends V> remappingFunction) {
+        if (key == null || value == null || remappingFunction == null) {
+            throw new NullPointerException();
+        }
+
+        while (true) {
+            Node<K, V> n = findNode(key);
+            if (n == null) {
+                if (doPut(key, value, true) == null) {
+                    return value;
+                }
+
+                continue;
+            }
+
+            V v = n.getValidValue();
+            if (v == null) {
+                continue;
+            }
+
+            V r = remappingFunction.apply(v, value);
+            if (r != null) {
+                if (n.casValue(v, r)) {
+                    return r;
+                }
+            } else if (doRemove(key, v) != null) {
+                return null;
+            }
+        }
+    }
+
+    @Override
+    public void clear() {
+        for (Node<K, V> n = findFirst(); n != null; n = n.next) {
+            if (n.getValidValue() != null) {
+                doRemove(n.key, null);
+            }
+        }
+    }
+
+    @Override
+    public NavigableSet<K> keySet() {
+        return navigableKeySet();
+    }
+
+    @Override
+    public NavigableSet<K> navigableKeySet() {
+        if (keySet == null) {
+            keySet = new KeySet<>(this);
+        }
+
+        return keySet;
+    }
+
+    @Override
+    public NavigableSet<K> descendingKeySet() {
+        return descendingMap().navigableKeySet();
+    }
+
+    @Override
+    public Collection<V> values() {
+        if (values == null) {
+            values = new Values();
+        }
+
+        return values;
+    }
+
+    @Override
+    public Set<Entry<K, V>> entrySet() {
+        if (entrySet == null) {
+            entrySet = new EntrySet();
+        }
+
+        return entrySet;
+    }
+
+    @Override
+    public Comparator<? super K> comparator() {
+        return null;
+    }
+
+    @Override
+    public K firstKey() {
+        Node<K, V> n = findFirst();
+        if (n == null) {
+            throw new NoSuchElementException();
+        }
+
+        return n.key;
+    }
+
+    @Override
+    public K lastKey() {
+        Node<K, V> n = findLast();
+        if (n == null) {
+            throw new NoSuchElementException();
+        }
+
+        return n.key;
+    }
+
+    @Override
+    public Entry<K, V> firstEntry() {
+        while (true) {
+            Node<K, V> n = findFirst();
+            if (n == null) {
+                return null;
+            }
+
+            Entry<K, V> e = n.createSnapshot();
+            if (e != null) {
+                return e;
+            }
+        }
+    }
+
+    @Override
+    public Entry<K, V> lastEntry() {
+        while (true) {
+            Node<K, V> n = findLast();
+            if (n == null) {
+                return null;
+            }
+
+            Entry<K, V> e = n.createSnapshot();
+            if (e != null) {
+                return e;
+            }
+        }
+    }
+
+    @Override
+    public Entry<K, V> pollFirstEntry() {
+        while (true) {
+            Entry<K, V> e = firstEntry();
+            if (e == null || remove(e.getKey(), e.getValue())) {
+                return e;
+            }
+        }
+    }
+
+    @Override
+    public Entry<K, V> pollLastEntry() {
+        while (true) {
+            Entry<K, V> e = lastEntry();
+            if (e == null || remove(e.getKey(), e.getValue())) {
+                return e;
+            }
+        }
+    }
+
+    @Override
+    public Entry<K, V> lowerEntry(K key) {
+        return getNear(key, LT);
+    }
+
+    @Override
+    public K lowerKey(K key) {
+        Node<K, V> n = findNear(key, LT);
+        return n == null ? null : n.key;
+    }
+
+    @Override
+    public Entry<K, V> floorEntry(K key) {
+        return getNear(key, LT | EQ);
+    }
+
+    @Override
+    public K floorKey(K key) {
+        Node<K, V> n = findNear(key, LT | EQ);
+        return n == null ? null : n.key;
+    }
+
+    @Override
+    public Entry<K, V> ceilingEntry(K key) {
+        return getNear(key, GT | EQ);
+    }
+
+    @Override
+    public K ceilingKey(K key) {
+        Node<K, V> n = findNear(key, GT | EQ);
+        return n == null ? null : n.key;
+    }
+
+    @Override
+    public Entry<K, V> higherEntry(K key) {
+        return getNear(key, GT);
+    }
+
+    @Override
+    public K higherKey(K key) {
+        Node<K, V> n = findNear(key, GT);
+        return n == null ? null : n.key;
+    }
+
+    @Override
+    public ConcurrentNavigableMap<K, V> descendingMap() {
+        if (descendingMap == null) {
+            descendingMap = new SubMap(null, false, null, false, true);
+        }
+
+        return descendingMap;
+    }
+
+    @Override
+    public ConcurrentNavigableMap<K, V> subMap(K fromKey, boolean fromInclusive, K toKey, boolean toInclusive) {
+        return new SubMap(Objects.requireNonNull(fromKey), fromInclusive, Objects.requireNonNull(toKey), toInclusive, false);
+    }
+
+    @Override
+    public ConcurrentNavigableMap<K, V> headMap(K toKey, boolean inclusive) {
+        return new SubMap(null, false, Objects.requireNonNull(toKey), inclusive, false);
+    }
+
+    @Override
+    public ConcurrentNavigableMap<K, V> tailMap(K fromKey, boolean inclusive) {
+        return new SubMap(Objects.requireNonNull(fromKey), inclusive, null, false, false);
+    }
+
+    @Override
+    public ConcurrentNavigableMap<K, V> subMap(K fromKey, K toKey) {
+        return subMap(fromKey, true, toKey, false);
+    }
+
+    @Override
+    public ConcurrentNavigableMap<K, V> headMap(K toKey) {
+        return headMap(toKey, false);
+    }
+
+    @Override
+    public ConcurrentNavigableMap<K, V> tailMap(K fromKey) {
+        return tailMap(fromKey, true);
+    }
+
+    // A node in the bottom level. Marker nodes, which have no key and hold themselves as their value, are appended
+    // after nodes that are being removed.
+    private static final class Node<K, V> {
+        private static final VarHandle VALUE;
+        private static final VarHandle NEXT;
+
+        static {
+            try {
+                MethodHandles.Lookup l = MethodHandles.lookup();
+                VALUE = l.findVarHandle(Node.class, "value", Object.class);
+                NEXT = l.findVarHandle(Node.class, "next", Node.class);
+            } catch (ReflectiveOperationException e) {
+                throw new ExceptionInInitializerError(e);
+            }
+        }
+
+        final K key;
+        volatile Object value;
+        volatile Node<K, V> next;
+
+        Node(K key, Object value, Node<K, V> next) {
+            this.key = key;
+            this.value = value;
+            this.next = next;
+        }
+
+        // Creates a marker node.
+        Node(Node<K, V> next) {
+            this.key = null;
+            this.value = this;
+            this.next = next;
+        }
+
+        boolean casValue(Object expected, Object value) {
+            return VALUE.compareAndSet(this, expected, value);
+        }
+
+        boolean casNext(Node<K, V> expected, Node<K, V> next) {
+            return NEXT.compareAndSet(this, expected, next);
+        }
+
+        boolean isBaseHeader() {
+            return value == BASE_HEADER;
+        }
+
+        boolean appendMarker(Node<K, V> f) {
+            return casNext(f, new Node<>(f));
+        }
+
+        // Helps to remove this deleted node, given its predecessor b and successor f, by appending a marker or
+        // unlinking the node from b.
+        void helpDelete(Node<K, V> b, Node<K, V> f) {
+            if (f == next && this == b.next) {
+                if (f == null || f.value != f) {
+                    casNext(f, new Node<>(f));
+                } else {
+                    b.casNext(this, f.next);
+                }
+            }
+        }
+
+        // Gets the value if this node holds a live mapping, or null otherwise.
+        V getValidValue() {
+            Object v = value;
+            if (v == this || v == BASE_HEADER) {
+                return null;
+            }
+
+            @SuppressWarnings("unchecked")
+            V result = (V) v;
+            return result;
+        }
+
+        Entry<K, V> createSnapshot() {
+            V v = getValidValue();
+            return v == null ? null : new SimpleImmutableEntry<>(key, v);
+        }
+    }
+
+    // An entry in an index level, pointing down to the level beneath and at the bottom node it indexes.
+    private static class Index<K, V> {
+        private static final VarHandle RIGHT;
+
+        static {
+            try {
+                RIGHT = MethodHandles.lookup().findVarHandle(Index.class, "right", Index.class);
+            } catch (ReflectiveOperationException e) {
+                throw new ExceptionInInitializerError(e);
+            }
+        }
+
+        final Node<K, V> node;
+        final Index<K, V> down;
+        volatile Index<K, V> right;
+
+        Index(Node<K, V> node, Index<K, V> down, Index<K, V> right) {
+            this.node = node;
+            this.down = down;
+            this.right = right;
+        }
+
+        boolean casRight(Index<K, V> expected, Index<K, V> right) {
+            return RIGHT.compareAndSet(this, expected, right);
+        }
+
+        // Links a new successor, failing if this index's node has been deleted.
+        boolean link(Index<K, V> succ, Index<K, V> newSucc) {
+            newSucc.right = succ;
+            return node.value != null && casRight(succ, newSucc);
+        }
+
+        // Unlinks the successor, failing if this index's node has been deleted.
+        boolean unlink(Index<K, V> succ) {
+            return node.value != null && casRight(succ, succ.right);
+        }
+    }
+
+    // The leftmost index of a level.
+    private static final class HeadIndex<K, V> extends Index<K, V> {
+        final int level;
+
+        HeadIndex(Node<K, V> node, Index<K, V> down, Index<K, V> right, int level) {
+            super(node, down, right);
+            this.level = level;
+        }
+    }
+
+    // Iterates over live bottom nodes in ascending order, caching the value of the next node so that it is
+    // consistent with the key that is returned.
+    private abstract class NodeIterator<T> implements Iterator<T> {
+        Node<K, V> next;
+        V nextValue;
+        private Node<K, V> lastReturned;
+
+        NodeIterator() {
+            while ((next = findFirst()) != null) {
+                nextValue = next.getValidValue();
+                if (nextValue != null) {
+                    break;
+                }
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        // Moves past the current node, returning it.
+        Node<K, V> advance() {
+            if (next == null) {
+                throw new NoSuchElementException();
+            }
+
+            lastReturned = next;
+            while ((next = next.next) != null) {
+                nextValue = next.getValidValue();
+                if (nextValue != null) {
+                    break;
+                }
+            }
+
+            return lastReturned;
+        }
+
+        @Override
+        public void remove() {
+            if (lastReturned == null) {
+                throw new IllegalStateException();
+            }
+
+            ConcurrentSkipList.this.remove(lastReturned.key);
+            lastReturned = null;
+        }
+    }
+
+    private class EntryIterator extends NodeIterator<Entry<K, V>> {
+        @Override
+        public Entry<K, V> next() {
+            V v = nextValue;
+            return new SimpleImmutableEntry<>(advance().key, v);
+        }
+    }
+
+    private class ValueIterator extends NodeIterator<V> {
+        @Override
+        public V next() {
+            V v = nextValue;
+            advance();
+            return v;
+        }
+    }
+
+    // A weakly consistent view of the entries in the list.
+    private class EntrySet extends AbstractSet<Entry<K, V>> {
+        @Override
+        public Iterator<Entry<K, V>> iterator() {
+            return new EntryIterator();
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            if (!(o instanceof Entry)) {
+                return false;
+            }
+
+            Entry<?, ?> e = (Entry<?, ?>) o;
+            V v = get(e.getKey());
+            return v != null && v.equals(e.getValue());
+        }
+
+        @Override
+        public boolean remove(Object o) {
+            if (!(o instanceof Entry)) {
+                return false;
+            }
+
+            Entry<?, ?> e = (Entry<?, ?>) o;
+            return ConcurrentSkipList.this.remove(e.getKey(), e.getValue());
+        }
+
+        @Override
+        public int size() {
+            return ConcurrentSkipList.this.size();
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return ConcurrentSkipList.this.isEmpty();
+        }
+
+        @Override
+        public void clear() {
+            ConcurrentSkipList.this.clear();
+        }
+    }
+
+    // A weakly consistent view of the values in the list, in key order.
+    private class Values extends AbstractCollection<V> {
+        @Override
+        public Iterator<V> iterator() {
+            return new ValueIterator();
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            return containsValue(o);
+        }
+
+        @Override
+        public int size() {
+            return ConcurrentSkipList.this.size();
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return ConcurrentSkipList.this.isEmpty();
+        }
+
+        @Override
+        public void clear() {
+            ConcurrentSkipList.this.clear();
+        }
+    }
+
+    // A weakly consistent view of a range of keys in the list, optionally in descending order. Bounds are stored in
+    // ascending order regardless of the direction of the view, and a null bound means that the range is unbounded on
+    // that side.
+    private class SubMap extends AbstractMap<K, V> implements ConcurrentNavigableMap<K, V> {
+        private final K lo;
+        private final boolean loInclusive;
+        private final K hi;
+        private final boolean hiInclusive;
+        private final boolean descending;
+
+        SubMap(K lo, boolean loInclusive, K hi, boolean hiInclusive, boolean descending) {
+            if (lo != null && hi != null && lo.compareTo(hi) > 0) {
+                throw new IllegalArgumentException("fromKey > toKey");
+            }
+
+            this.lo = lo;
+            this.loInclusive = loInclusive;
+            this.hi = hi;
+            this.hiInclusive = hiInclusive;
+            this.descending = descending;
+        }
+
+        private boolean isTooLow(K key) {
+            if (lo == null) {
+                return false;
+            }
+
+            int c = key.compareTo(lo);
+            return c < 0 || (c == 0 && !loInclusive);
+        }
+
+        private boolean isTooHigh(K key) {
+            if (hi == null) {
+                return false;
+            }
+
+            int c = key.compareTo(hi);
+            return c > 0 || (c == 0 && !hiInclusive);
+        }
+
+        private boolean isInRange(K key) {
+            return !isTooLow(key) && !isTooHigh(key);
+        }
+
+        private boolean isInRange(K key, boolean inclusive) {
+            if (inclusive) {
+                return isInRange(key);
+            }
+
+            return (lo == null || key.compareTo(lo) >= 0) && (hi == null || key.compareTo(hi) <= 0);
+        }
+
+        @SuppressWarnings("unchecked")
+        private K checkKey(Object key) {
+            if (key == null) {
+                throw new NullPointerException();
+            }
+
+            return (K) key;
+        }
+
+        private void checkKeyInRange(K key) {
+            if (!isInRange(checkKey(key))) {
+                throw new IllegalArgumentException("key out of range");
+            }
+        }
+
+        private Node<K, V> getAbsLowest() {
+            Node<K, V> n = lo == null ? findFirst() : findNear(lo, loInclusive ? GT | EQ : GT);
+            return n == null || isTooHigh(n.key) ? null : n;
+        }
+
+        private Node<K, V> getAbsHighest() {
+            Node<K, V> n = hi == null ? findLast() : findNear(hi, hiInclusive ? LT | EQ : LT);
+            return n == null || isTooLow(n.key) ? null : n;
+        }
+
+        // Finds the node nearest to a key for an ascending relation, restricted to this view.
+        private Node<K, V> getAbsNear(K key, int rel) {
+            if ((rel & LT) == 0 && isTooLow(key)) {
+                return getAbsLowest();
+            }
+
+            if ((rel & LT) != 0 && isTooHigh(key)) {
+                return getAbsHighest();
+            }
+
+            Node<K, V> n = findNear(key, rel);
+            return n == null || !isInRange(n.key) ? null : n;
+        }
+
+        // Converts a relation in the order of this view to the ascending order of the list.
+        private int toAbsRelation(int rel) {
+            if (!descending) {
+                return rel;
+            }
+
+            return (rel & EQ) | ((rel & LT) == 0 ? LT : GT);
+        }
+
+        private Node<K, V> getNearInView(K key, int rel) {
+            return getAbsNear(checkKey(key), toAbsRelation(rel));
+        }
+
+        private Node<K, V> getFirstNodeInView() {
+            return descending ? getAbsHighest() : getAbsLowest();
+        }
+
+        private Node<K, V> getLastNodeInView() {
+            return descending ? getAbsLowest() : getAbsHighest();
+        }
+
+        private Entry<K, V> getEntry(Node<K, V> n) {
+            return n == null ? null : n.createSnapshot();
+        }
+
+        private SubMap narrow(K fromKey, boolean fromInclusive, K toKey, boolean toInclusive) {
+            if (fromKey == null) {
+                fromKey = lo;
+                fromInclusive = loInclusive;
+            } else if (!isInRange(fromKey, fromInclusive)) {
+                throw new IllegalArgumentException("fromKey out of range");
+            }
+
+            if (toKey == null) {
+                toKey = hi;
+                toInclusive = hiInclusive;
+            } else if (!isInRange(toKey, toInclusive)) {
+                throw new IllegalArgumentException("toKey out of range");
+            }
+
+            return new SubMap(fromKey, fromInclusive, toKey, toInclusive, descending);
+        }
+
+        @Override
+        public int size() {
+            long count = 0;
+            for (Iterator<Entry<K, V>> it = new SubMapIterator(); it.hasNext(); it.next()) {
+                count++;
+            }
+
+            return count >= Integer.MAX_VALUE ? Integer.MAX_VALUE : (int) count;
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return getFirstNodeInView() == null;
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return isInRange(checkKey(key)) && ConcurrentSkipList.this.containsKey(key);
+        }
+
+        @Override
+        public V get(Object key) {
+            return isInRange(checkKey(key)) ? ConcurrentSkipList.this.get(key) : null;
+        }
+
+        @Override
+        public V put(K key, V value) {
+            checkKeyInRange(key);
+            return ConcurrentSkipList.this.put(key, value);
+        }
+
+        @Override
+        public V putIfAbsent(K key, V value) {
+            checkKeyInRange(key);
+            return ConcurrentSkipList.this.putIfAbsent(key, value);
+        }
+
+        @Override
+        public V remove(Object key) {
+            return isInRange(checkKey(key)) ? ConcurrentSkipList.this.remove(key) : null;
+        }
+
+        @Override
+        public boolean remove(Object key, Object value) {
+            return isInRange(checkKey(key)) && ConcurrentSkipList.this.remove(key, value);
+        }
+
+        @Override
+        public boolean replace(K key, V oldValue, V newValue) {
+            checkKeyInRange(key);
+            return ConcurrentSkipList.this.replace(key, oldValue, newValue);
+        }
+
+        @Override
+        public V replace(K key, V value) {
+            checkKeyInRange(key);
+            return ConcurrentSkipList.this.replace(key, value);
+        }
+
+        @Override
+        public V computeIfAbsent(K key, Function<? super K, ? extends V> mappingFunction) {
+            checkKeyInRange(key);
+            return ConcurrentSkipList.this.computeIfAbsent(key, mappingFunction);
+        }
+
+        @Override
+        public V computeIfPresent(K key, BiFunction<? super K, ? super V, ? extends V> remappingFunction) {
+            checkKeyInRange(key);
+            return ConcurrentSkipList.this.computeIfPresent(key, remappingFunction);
+        }
+
+        @Override
+        public V compute(K key, BiFunction<? super K, ? super V, ? extends V> remappingFunction) {
+            checkKeyInRange(key);
+            return ConcurrentSkipList.this.compute(key, remappingFunction);
+        }
+
+        @Override
+        public V merge(K key, V value, BiFunction<? super V, ? super V, ? extends V> remappingFunction) {
+            checkKeyInRange(key);
+            return ConcurrentSkipList.this.merge(key, value, remappingFunction);
+        }
+
+        @Override
+        public Set<Entry<K, V>> entrySet() {
+            return new AbstractSet<>() {
+                @Override
+                public Iterator<Entry<K, V>> iterator() {
+                    return new SubMapIterator();
+                }
+
+                @Override
+                public int size() {
+                    return SubMap.this.size();
+                }
+
+                @Override
+                public boolean isEmpty() {
+                    return SubMap.this.isEmpty();
+                }
+            };
+        }
+
+        @Override
+        public Comparator<? super K> comparator() {
+            return descending ? Collections.reverseOrder() : null;
+        }
+
+        @Override
+        public K firstKey() {
+            Node<K, V> n = getFirstNodeInView();
+            if (n == null) {
+                throw new NoSuchElementException();
+            }
+
+            return n.key;
+        }
+
+        @Override
+        public K lastKey() {
+            Node<K, V> n = getLastNodeInView();
+            if (n == null) {
+                throw new NoSuchElementException();
+            }
+
+            return n.key;
+        }
+
+        @Override
+        public Entry<K, V> firstEntry() {
+            return getEntry(getFirstNodeInView());
+        }
+
+        @Override
+        public Entry<K, V> lastEntry() {
+            return getEntry(getLastNodeInView());
+        }
+
+        @Override
+        public Entry<K, V> pollFirstEntry() {
+            while (true) {
+                Entry<K, V> e = firstEntry();
+                if (e == null || ConcurrentSkipList.this.remove(e.getKey(), e.getValue())) {
+                    return e;
+                }
+            }
+        }
+
+        @Override
+        public Entry<K, V> pollLastEntry() {
+            while (true) {
+                Entry<K, V> e = lastEntry();
+                if (e == null || ConcurrentSkipList.this.remove(e.getKey(), e.getValue())) {
+                    return e;
+                }
+            }
+        }
+
+        @Override
+        public Entry<K, V> lowerEntry(K key) {
+            return getEntry(getNearInView(key, LT));
+        }
+
+        @Override
+        public K lowerKey(K key) {
+            Node<K, V> n = getNearInView(key, LT);
+            return n == null ? null : n.key;
+        }
+
+        @Override
+        public Entry<K, V> floorEntry(K key) {
+            return getEntry(getNearInView(key, LT | EQ));
+        }
+
+        @Override
+        public K floorKey(K key) {
+            Node<K, V> n = getNearInView(key, LT | EQ);
+            return n == null ? null : n.key;
+        }
+
+        @Override
+        public Entry<K, V> ceilingEntry(K key) {
+            return getEntry(getNearInView(key, GT | EQ));
+        }
+
+        @Override
+        public K ceilingKey(K key) {
+            Node<K, V> n = getNearInView(key, GT | EQ);
+            return n == null ? null : n.key;
+        }
+
+        @Override
+        public Entry<K, V> higherEntry(K key) {
+            return getEntry(getNearInView(key, GT));
+        }
+
+        @Override
+        public K higherKey(K key) {
+            Node<K, V> n = getNearInView(key, GT);
+            return n == null ? null : n.key;
+        }
+
+        @Override
+        public ConcurrentNavigableMap<K, V> descendingMap() {
+            return new SubMap(lo, loInclusive, hi, hiInclusive, !descending);
+        }
+
+        @Override
+        public NavigableSet<K> keySet() {
+            return navigableKeySet();
+        }
+
+        @Override
+        public NavigableSet<K> navigableKeySet() {
+            return new KeySet<>(this);
+        }
+
+        @Override
+        public NavigableSet<K> descendingKeySet() {
+            return descendingMap().navigableKeySet();
+        }
+
+        @Override
+        public ConcurrentNavigableMap<K, V> subMap(K fromKey, boolean fromInclusive, K toKey, boolean toInclusive) {
+            checkKey(fromKey);
+            checkKey(toKey);
+            if (descending) {
+                return narrow(toKey, toInclusive, fromKey, fromInclusive);
+            }
+
+            return narrow(fromKey, fromInclusive, toKey, toInclusive);
+        }
+
+        @Override
+        public ConcurrentNavigableMap<K, V> headMap(K toKey, boolean inclusive) {
+            checkKey(toKey);
+            if (descending) {
+                return narrow(toKey, inclusive, null, false);
+            }
+
+            return narrow(null, false, toKey, inclusive);
+        }
+
+        @Override
+        public ConcurrentNavigableMap<K, V> tailMap(K fromKey, boolean inclusive) {
+            checkKey(fromKey);
+            if (descending) {
+                return narrow(null, false, fromKey, inclusive);
+            }
+
+            return narrow(fromKey, inclusive, null, false);
+        }
+
+        @Override
+        public ConcurrentNavigableMap<K, V> subMap(K fromKey, K toKey) {
+            return subMap(fromKey, true, toKey, false);
+        }
+
+        @Override
+        public ConcurrentNavigableMap<K, V> headMap(K toKey) {
+            return headMap(toKey, false);
+        }
+
+        @Override
+        public ConcurrentNavigableMap<K, V> tailMap(K fromKey) {
+            return tailMap(fromKey, true);
+        }
+
+        // Iterates over the live entries of the view. Ascending views walk the bottom level directly, and descending
+        // views search for the predecessor of the last returned key.
+        private class SubMapIterator implements Iterator<Entry<K, V>> {
+            private Node<K, V> next;
+            private V nextValue;
+            private K lastReturned;
+
+            SubMapIterator() {
+                next = getFirstNodeInView();
+                skipDeleted();
+            }
+
+            // Moves forward until the next node holds a live mapping within the view.
+            private void skipDeleted() {
+                while (next != null) {
+                    // Marker nodes have no key.
+                    if (next.key == null) {
+                        next = next.next;
+                        continue;
+                    }
+
+                    if (!isInRange(next.key)) {
+                        next = null;
+                        return;
+                    }
+
+                    nextValue = next.getValidValue();
+                    if (nextValue != null) {
+                        return;
+                    }
+
+                    next = descending ? getAbsNear(next.key, LT) : next.next;
+                }
+            }
+
+            @Override
+            public boolean hasNext() {
+                return next != null;
+            }
+
+            @Override
+            public Entry<K, V> next() {
+                if (next == null) {
+                    throw new NoSuchElementException();
+                }
+
+                Entry<K, V> e = new SimpleImmutableEntry<>(next.key, nextValue);
+                lastReturned = next.key;
+                next = descending ? getAbsNear(next.key, LT) : next.next;
+                skipDeleted();
+                return e;
+            }
+
+            @Override
+            public void remove() {
+                if (lastReturned == null) {
+                    throw new IllegalStateException();
+                }
+
+                ConcurrentSkipList.this.remove(lastReturned);
+                lastReturned = null;
+            }
+        }
+    }
+}
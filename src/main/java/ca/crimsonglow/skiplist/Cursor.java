@@ -0,0 +1,95 @@
+package ca.crimsonglow.skiplist;
+
+import java.util.NoSuchElementException;
+
+/**
+ * A position in a sorted map that remembers the path taken to reach it, so that operations near the previous one
+ * start from that path instead of from the head.
+ * <p>
+ * A cursor is positioned before an entry, which is its current entry, or after the last entry, in which case it has
+ * no current entry. Seeking a key at distance d from the current position takes O(log d) expected time. A cursor is
+ * not invalidated by modifications made through other means, but its next operation then starts again from the head.
+ *
+ * @param <K> The type of keys.
+ * @param <V> The type of values.
+ */
+public interface Cursor<K, V> {
+    /**
+     * Moves to the first entry of the map.
+     *
+     * @return True if the map is not empty.
+     */
+    boolean first();
+
+    /**
+     * Moves to the entry with the least key greater than or equal to a key.
+     *
+     * @param key The key to seek.
+     * @return True if the current entry holds the key.
+     */
+    boolean seek(K key);
+
+    /**
+     * Moves to the entry following the current entry.
+     *
+     * @return True if there is a following entry.
+     */
+    boolean next();
+
+    /**
+     * Moves to the entry preceding the current position. If there is none, the cursor does not move.
+     *
+     * @return True if there is a preceding entry.
+     */
+    boolean prev();
+
+    /**
+     * Checks whether the cursor has a current entry.
+     *
+     * @return True if the cursor is not positioned after the last entry.
+     */
+    boolean hasEntry();
+
+    /**
+     * Gets the key of the current entry.
+     *
+     * @return The key of the current entry.
+     * @throws NoSuchElementException If the cursor has no current entry.
+     */
+    K getKey();
+
+    /**
+     * Gets the value of the current entry.
+     *
+     * @return The value of the current entry.
+     * @throws NoSuchElementException If the cursor has no current entry.
+     */
+    V getValue();
+
+    /**
+     * Replaces the value of the current entry.
+     *
+     * @param value The new value.
+     * @return The previous value.
+     * @throws NoSuchElementException If the cursor has no current entry.
+     */
+    V setValue(V value);
+
+    /**
+     * Inserts an entry at the current position, between the preceding entry and the current entry, and moves to it.
+     *
+     * @param key   The key to insert, which must be greater than the key of the preceding entry and less than the key
+     *              of the current entry.
+     * @param value The value to insert.
+     * @throws IllegalArgumentException If the key does not belong at the current position.
+     */
+    void insertHere(K key, V value);
+
+    /**
+     * Removes the current entry and moves to the entry that followed it.
+     *
+     * @return The value of the removed entry.
+     * @throws NoSuchElementException If the cursor has no current entry.
+     */
+    V removeHere();
+}
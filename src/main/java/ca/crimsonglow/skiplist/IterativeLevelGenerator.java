@@ -0,0 +1,47 @@
+package ca.crimsonglow.skiplist;
+
+import java.util.Random;
+
+/**
+ * Selects levels by drawing a random double once per level, continuing while it is less than the probability.
+ */
+class IterativeLevelGenerator implements LevelGenerator {
+    private final double probability;
+    private final int maxLevel;
+    // An instance of the random number generator.
+    private final Random random;
+
+    IterativeLevelGenerator(double probability, int maxLevel, Random random) {
+        if (!(probability >= 0 && probability <= 1)) {
+            throw new IllegalArgumentException("probability must be between 0 and 1");
+        }
+
+        if (maxLevel < 0 || maxLevel > MAX_LEVEL) {
+            throw new IllegalArgumentException("maxLevel must be between 0 and " + MAX_LEVEL);
+        }
+
+        this.probability = probability;
+        this.maxLevel = maxLevel;
+        this.random = random;
+    }
+
+    @Override
+    public int nextLevel() {
+        int level = 0;
+        while (level < maxLevel && random.nextDouble() < probability) {
+            level++;
+        }
+
+        return level;
+    }
+
+    @Override
+    public double getProbability() {
+        return probability;
+    }
+
+    @Override
+    public int getMaxLevel() {
+        return maxLevel;
+    }
+}
@@ -0,0 +1,169 @@
+package ca.crimsonglow.skiplist;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * A live navigable set of the keys in a navigable map.
+ */
+class KeySet<E> extends AbstractSet<E> implements NavigableSet<E> {
+    private final NavigableMap<E, ?> map;
+
+    KeySet(NavigableMap<E, ?> map) {
+        this.map = map;
+    }
+
+    @Override
+    public Iterator<E> iterator() {
+        Iterator<? extends Map.Entry<E, ?>> it = map.entrySet().iterator();
+        return new Iterator<>() {
+            @Override
+            public boolean hasNext() {
+                return it.hasNext();
+            }
+
+            @Override
+            public E next() {
+                return it.next().getKey();
+            }
+
+            @Override
+            public void remove() {
+                it.remove();
+            }
+        };
+    }
+
+    @Override
+    public Spliterator<E> spliterator() {
+        // A skip list splits its keys along its express levels. Other maps' keys are split by their iterators, and are
+        // still reported in sorted order.
+        if (map instanceof SkipList) {
+            return ((SkipList<E, ?>) map).keySpliterator();
+        }
+
+        return NavigableSet.super.spliterator();
+    }
+
+    @Override
+    public Iterator<E> descendingIterator() {
+        return descendingSet().iterator();
+    }
+
+    @Override
+    public int size() {
+        return map.size();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return map.isEmpty();
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return map.containsKey(o);
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        // Concurrent maps do not allow null values, so a single atomic remove reports whether the key was present.
+        if (map instanceof ConcurrentMap) {
+            return map.remove(o) != null;
+        }
+
+        if (!map.containsKey(o)) {
+            return false;
+        }
+
+        map.remove(o);
+        return true;
+    }
+
+    @Override
+    public void clear() {
+        map.clear();
+    }
+
+    @Override
+    public Comparator<? super E> comparator() {
+        return map.comparator();
+    }
+
+    @Override
+    public E first() {
+        return map.firstKey();
+    }
+
+    @Override
+    public E last() {
+        return map.lastKey();
+    }
+
+    @Override
+    public E lower(E e) {
+        return map.lowerKey(e);
+    }
+
+    @Override
+    public E floor(E e) {
+        return map.floorKey(e);
+    }
+
+    @Override
+    public E ceiling(E e) {
+        return map.ceilingKey(e);
+    }
+
+    @Override
+    public E higher(E e) {
+        return map.higherKey(e);
+    }
+
+    @Override
+    public E pollFirst() {
+        Map.Entry<E, ?> e = map.pollFirstEntry();
+        return e == null ? null : e.getKey();
+    }
+
+    @Override
+    public E pollLast() {
+        Map.Entry<E, ?> e = map.pollLastEntry();
+        return e == null ? null : e.getKey();
+    }
+
+    @Override
+    public NavigableSet<E> descendingSet() {
+        return map.descendingMap().navigableKeySet();
+    }
+
+    @Override
+    public NavigableSet<E> subSet(E fromElement, boolean fromInclusive, E toElement, boolean toInclusive) {
+        return map.subMap(fromElement, fromInclusive, toElement, toInclusive).navigableKeySet();
+    }
+
+    @Override
+    public NavigableSet<E> headSet(E toElement, boolean inclusive) {
+        return map.headMap(toElement, inclusive).navigableKeySet();
+    }
+
+    @Override
+    public NavigableSet<E> tailSet(E fromElement, boolean inclusive) {
+        return map.tailMap(fromElement, inclusive).navigableKeySet();
+    }
+
+    @Override
+    public SortedSet<E> subSet(E fromElement, E toElement) {
+        return subSet(fromElement, true, toElement, false);
+    }
+
+    @Override
+    public SortedSet<E> headSet(E toElement) {
+        return headSet(toElement, false);
+    }
+
+    @Override
+    public SortedSet<E> tailSet(E fromElement) {
+        return tailSet(fromElement, true);
+    }
+}
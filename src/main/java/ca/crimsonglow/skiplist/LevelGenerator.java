@@ -0,0 +1,131 @@
+package ca.crimsonglow.skiplist;
+
+import java.util.Random;
+import java.util.SplittableRandom;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Selects the level of each node inserted into a skip list. A node at level i is linked into levels 0 through i, and
+ * each level is reached with the iteration probability of reaching the level beneath it, up to a maximum level.
+ */
+public interface LevelGenerator {
+    /**
+     * The greatest maximum level supported by any generator.
+     */
+    int MAX_LEVEL = 32;
+
+    /**
+     * The iteration probability of every skip list created with default parameters. It is a power of one half, so that
+     * levels are selected by counting the trailing zero bits of a single random value.
+     */
+    double DEFAULT_PROBABILITY = 0.25;
+
+    /**
+     * Selects the level of a new node.
+     *
+     * @return A level between 0 and the maximum level, inclusive.
+     */
+    int nextLevel();
+
+    /**
+     * Gets the probability with which each level is reached from the level beneath it.
+     *
+     * @return The iteration probability.
+     */
+    double getProbability();
+
+    /**
+     * Gets the greatest level that may be selected.
+     *
+     * @return The maximum level.
+     */
+    int getMaxLevel();
+
+    /**
+     * Creates a generator that draws a single 64-bit value from a {@link SplittableRandom} per level selected. When the
+     * probability is a power of one half, the level is found by counting trailing zero bits. Otherwise, it is found by
+     * inverting the geometric distribution. The generator must not be shared between threads.
+     *
+     * @param probability The iteration probability.
+     * @param maxLevel    The maximum level.
+     * @return A new generator.
+     */
+    static LevelGenerator splittable(double probability, int maxLevel) {
+        return new RandomLevelGenerator(probability, maxLevel, new SplittableRandom()::nextLong);
+    }
+
+    /**
+     * Creates a generator like {@link #splittable(double, int)} that selects the same sequence of levels for the same
+     * seed, for reproducible tests and benchmarks.
+     *
+     * @param probability The iteration probability.
+     * @param maxLevel    The maximum level.
+     * @param seed        The seed of the random number generator.
+     * @return A new generator.
+     */
+    static LevelGenerator seeded(double probability, int maxLevel, long seed) {
+        return new RandomLevelGenerator(probability, maxLevel, new SplittableRandom(seed)::nextLong);
+    }
+
+    /**
+     * Creates a generator like {@link #splittable(double, int)} that draws from {@link ThreadLocalRandom}, so that it
+     * may be shared between threads without contention.
+     *
+     * @param probability The iteration probability.
+     * @param maxLevel    The maximum level.
+     * @return A new generator.
+     */
+    static LevelGenerator threadLocal(double probability, int maxLevel) {
+        return new RandomLevelGenerator(probability, maxLevel, () -> ThreadLocalRandom.current().nextLong());
+    }
+
+    /**
+     * Creates a generator that draws from a {@link Random} once per level, continuing while the value drawn is less
+     * than the probability. This is how levels were selected before generators could be plugged in, and is kept for
+     * comparison.
+     *
+     * @param probability The iteration probability.
+     * @param maxLevel    The maximum level.
+     * @return A new generator.
+     */
+    static LevelGenerator iterative(double probability, int maxLevel) {
+        return new IterativeLevelGenerator(probability, maxLevel, new Random());
+    }
+
+    /**
+     * Creates a generator like {@link #splittable(double, int)} whose probability shifts with the workload of the
+     * {@link SkipList} that uses it. The list reports its reads and writes and samples the length of its search paths,
+     * and the generator periodically moves to the probability between 1 / 16 and 1 / 2 with the least expected cost
+     * per operation, which is lower for write-heavy workloads. Only new towers are affected, unless the list is asked to
+     * rebuild its existing towers with {@link SkipList#rebuildTowers(int)}. The generator must not be shared between
+     * lists or threads, and it keeps its initial probability when used by any other kind of list.
+     *
+     * @param initialProbability The iteration probability to use until the workload has been observed.
+     * @param maxLevel           The maximum level.
+     * @return A new generator.
+     */
+    static LevelGenerator adaptive(double initialProbability, int maxLevel) {
+        return new AdaptiveLevelGenerator(initialProbability, maxLevel, new SplittableRandom());
+    }
+
+    /**
+     * Gets the maximum level at which a list of the expected size can be searched efficiently, which is the logarithm
+     * of the size in the base of the inverse of the probability.
+     *
+     * @param expectedSize The expected number of entries.
+     * @param probability  The iteration probability.
+     * @return The maximum level, which is at most {@link #MAX_LEVEL}.
+     */
+    static int maxLevelFor(long expectedSize, double probability) {
+        if (expectedSize <= 1 || probability <= 0) {
+            return 0;
+        }
+
+        if (probability >= 1) {
+            return MAX_LEVEL;
+        }
+
+        double levels = Math.ceil(Math.log(expectedSize) / -Math.log(probability));
+        return (int) Math.min(MAX_LEVEL, levels);
+    }
+}
@@ -0,0 +1,263 @@
+package ca.crimsonglow.skiplist;
+
+import java.util.Arrays;
+
+/**
+ * A skip list that maps long keys to long values without boxing. Keys are stored in primitive fields and compared with
+ * plain relational operators.
+ * <p>
+ * Methods that return a value return {@link #NO_ENTRY_VALUE} when there is no mapping for the key; use
+ * {@link #containsKey(long)} or {@link #getOrDefault(long, long)} to distinguish an absent key from a zero value.
+ */
+public class LongLongSkipList {
+    /**
+     * The value returned by {@link #get(long)}, {@link #put(long, long)} and {@link #remove(long)} when there is no
+     * mapping for the key.
+     */
+    public static final long NO_ENTRY_VALUE = 0;
+    // Selects the level of each new node.
+    private final LevelGenerator levelGenerator;
+    // The head of the list. Its height is the height of the tallest node that has been inserted.
+    private Node head;
+    // The predecessors of a key at each level, reused between insertions to avoid allocating them on every put.
+    private Node[] preds;
+    // The size of the list.
+    private int size;
+
+    /**
+     * Creates a new skip list with default parameters.
+     */
+    public LongLongSkipList() {
+        this(LevelGenerator.DEFAULT_PROBABILITY);
+    }
+
+    /**
+     * Creates a new skip list with the specified iteration probability.
+     *
+     * @param iterationProbability The probability with which to continue iterating during level selection.
+     */
+    public LongLongSkipList(double iterationProbability) {
+        levelGenerator = LevelGenerator.splittable(iterationProbability, LevelGenerator.maxLevelFor(Integer.MAX_VALUE, iterationProbability));
+        clear();
+    }
+
+    /**
+     * Gets the number of mappings in the list.
+     *
+     * @return The number of mappings.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Checks whether the list contains no mappings.
+     *
+     * @return True if the list is empty.
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Checks whether the list contains a mapping for a key.
+     *
+     * @param key The key to look up.
+     * @return True if the key is mapped.
+     */
+    public boolean containsKey(long key) {
+        return getNode(key) != null;
+    }
+
+    /**
+     * Gets the value mapped to a key.
+     *
+     * @param key The key to look up.
+     * @return The mapped value, or {@link #NO_ENTRY_VALUE} if the key is not mapped.
+     */
+    public long get(long key) {
+        return getOrDefault(key, NO_ENTRY_VALUE);
+    }
+
+    /**
+     * Gets the value mapped to a key, or a default value if the key is not mapped.
+     *
+     * @param key          The key to look up.
+     * @param defaultValue The value to return if the key is not mapped.
+     * @return The mapped value, or the default value.
+     */
+    public long getOrDefault(long key, long defaultValue) {
+        Node n = getNode(key);
+        return n == null ? defaultValue : n.value;
+    }
+
+    /**
+     * Maps a key to a value, replacing any existing mapping.
+     *
+     * @param key   The key to map.
+     * @param value The value to map the key to.
+     * @return The previously mapped value, or {@link #NO_ENTRY_VALUE} if the key was not mapped.
+     */
+    public long put(long key, long value) {
+        int level = getRandomLevel();
+        if (level >= head.getHeight()) {
+            head.grow(level + 1);
+            preds = Arrays.copyOf(preds, level + 1);
+        }
+
+        // Record the predecessor of the key at each level. Nothing is linked until the bottom level confirms that the
+        // key is absent.
+        Node cur = head;
+        for (int i = head.getHeight() - 1; i >= 0; i--) {
+            while (cur.isNextKeyLessThan(i, key)) {
+                cur = cur.getNext(i);
+            }
+
+            // If a node with the key already exists in the list, update its value.
+            if (cur.isNextKeyEqualTo(i, key)) {
+                Node n = cur.getNext(i);
+                long prevValue = n.value;
+                n.value = value;
+                return prevValue;
+            }
+
+            preds[i] = cur;
+        }
+
+        // Link a single node into each level at or beneath the selected level.
+        Node n = new Node(key, value, level + 1);
+        for (int i = 0; i <= level; i++) {
+            n.setNext(i, preds[i].getNext(i));
+            preds[i].setNext(i, n);
+        }
+
+        size++;
+        return NO_ENTRY_VALUE;
+    }
+
+    /**
+     * Removes the mapping for a key.
+     *
+     * @param key The key to unmap.
+     * @return The previously mapped value, or {@link #NO_ENTRY_VALUE} if the key was not mapped.
+     */
+    public long remove(long key) {
+        Node cur = head;
+        Node found = null;
+
+        for (int i = head.getHeight() - 1; i >= 0; i--) {
+            while (cur.isNextKeyLessThan(i, key)) {
+                cur = cur.getNext(i);
+            }
+
+            if (cur.isNextKeyEqualTo(i, key)) {
+                found = cur.getNext(i);
+                cur.setNext(i, found.getNext(i));
+            }
+        }
+
+        if (found == null) {
+            return NO_ENTRY_VALUE;
+        }
+
+        size--;
+        return found.value;
+    }
+
+    /**
+     * Removes all mappings from the list.
+     */
+    public void clear() {
+        head = new Node(0, NO_ENTRY_VALUE, 1);
+        preds = new Node[1];
+        size = 0;
+    }
+
+    /**
+     * Passes each mapping in the list to a consumer, in ascending key order.
+     *
+     * @param consumer The consumer of the mappings.
+     */
+    public void forEach(EntryConsumer consumer) {
+        for (Node n = head.next; n != null; n = n.next) {
+            consumer.accept(n.key, n.value);
+        }
+    }
+
+    // Gets the node holding a key, or null if the key is not mapped.
+    private Node getNode(long key) {
+        Node cur = head;
+        for (int i = head.getHeight() - 1; i >= 0; i--) {
+            while (cur.isNextKeyLessThan(i, key)) {
+                cur = cur.getNext(i);
+            }
+
+            if (cur.isNextKeyEqualTo(i, key)) {
+                return cur.getNext(i);
+            }
+        }
+
+        return null;
+    }
+
+    // Selects a random level, growing the head by at most one level per insertion.
+    private int getRandomLevel() {
+        return Math.min(levelGenerator.nextLevel(), head.getHeight());
+    }
+
+    /**
+     * Accepts the mappings of an {@link LongLongSkipList}.
+     */
+    @FunctionalInterface
+    public interface EntryConsumer {
+        void accept(long key, long value);
+    }
+
+    // Each key is held by a single node. The link at the bottom level is stored inline and the links at the express
+    // levels above it are stored in an array, so the majority of nodes, which are never promoted, are a single object.
+    private static class Node {
+        public final long key;
+        public long value;
+        public Node next;
+        public Node[] up;
+
+        public Node(long key, long value, int height) {
+            this.key = key;
+            this.value = value;
+            if (height > 1) {
+                grow(height);
+            }
+        }
+
+        public int getHeight() {
+            return up == null ? 1 : up.length + 1;
+        }
+
+        public Node getNext(int level) {
+            return level == 0 ? next : up[level - 1];
+        }
+
+        public void setNext(int level, Node n) {
+            if (level == 0) {
+                next = n;
+            } else {
+                up[level - 1] = n;
+            }
+        }
+
+        // Raises the height of the node, leaving the new levels unlinked.
+        public void grow(int height) {
+            up = up == null ? new Node[height - 1] : Arrays.copyOf(up, height - 1);
+        }
+
+        public boolean isNextKeyLessThan(int level, long key) {
+            Node n = getNext(level);
+            return (n != null && n.key < key);
+        }
+
+        public boolean isNextKeyEqualTo(int level, long key) {
+            Node n = getNext(level);
+            return (n != null && n.key == key);
+        }
+    }
+}
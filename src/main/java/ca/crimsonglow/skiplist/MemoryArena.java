@@ -0,0 +1,168 @@
+package ca.crimsonglow.skiplist;
+
+import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * A bump allocator over segments of native memory obtained with {@link ByteBuffer#allocateDirect(int)}.
+ * <p>
+ * Addresses encode the index of a segment in their upper 32 bits and an offset within the segment in their lower 32
+ * bits. Allocations never straddle segments and are aligned to 8 bytes. Memory is never freed individually: it is
+ * reclaimed all at once by {@link #reset()}, which keeps the segments for reuse, or by {@link #release()}, which drops
+ * them so that their native memory can be returned.
+ */
+class MemoryArena {
+    // The size of each allocation is rounded up to a multiple of this alignment.
+    private static final int ALIGNMENT = 8;
+    // The size of each segment in bytes.
+    private final int segmentSize;
+    // The segments that have been allocated so far.
+    private final List<ByteBuffer> segments = new ArrayList<>();
+    // The index of the segment currently being allocated from.
+    private int segmentIndex;
+    // The offset of the next allocation in the current segment.
+    private int offset;
+
+    /**
+     * Creates a new arena.
+     *
+     * @param segmentSize The size of each segment of native memory in bytes.
+     */
+    MemoryArena(int segmentSize) {
+        if (segmentSize <= 0 || segmentSize % ALIGNMENT != 0) {
+            throw new IllegalArgumentException("segmentSize must be a positive multiple of " + ALIGNMENT);
+        }
+
+        this.segmentSize = segmentSize;
+        release();
+    }
+
+    /**
+     * Allocates a block of memory.
+     *
+     * @param size The size of the block in bytes.
+     * @return The address of the block.
+     */
+    long allocate(int size) {
+        int alignedSize = (size + ALIGNMENT - 1) & -ALIGNMENT;
+        if (alignedSize <= 0 || alignedSize > segmentSize) {
+            throw new IllegalArgumentException("Allocation of " + size + " bytes does not fit in a segment of " + segmentSize + " bytes");
+        }
+
+        if (offset + alignedSize > segmentSize) {
+            segmentIndex++;
+            offset = 0;
+            if (segmentIndex == segments.size()) {
+                segments.add(ByteBuffer.allocateDirect(segmentSize));
+            }
+        }
+
+        long address = ((long) segmentIndex << 32) | offset;
+        offset += alignedSize;
+        return address;
+    }
+
+    /**
+     * Discards all allocations, keeping the segments for reuse.
+     */
+    void reset() {
+        segmentIndex = 0;
+        offset = 0;
+    }
+
+    /**
+     * Discards all allocations and all but the first segment.
+     */
+    void release() {
+        segments.clear();
+        segments.add(ByteBuffer.allocateDirect(segmentSize));
+        reset();
+    }
+
+    /**
+     * Gets the number of bytes reserved from the operating system.
+     *
+     * @return The total size of all segments.
+     */
+    long getReservedBytes() {
+        return (long) segments.size() * segmentSize;
+    }
+
+    /**
+     * Gets the number of bytes allocated since the arena was last reset, including alignment padding and space left
+     * unused at the end of full segments.
+     *
+     * @return The number of bytes allocated.
+     */
+    long getAllocatedBytes() {
+        return (long) segmentIndex * segmentSize + offset;
+    }
+
+    ByteBuffer getSegment(long address) {
+        return segments.get((int) (address >>> 32));
+    }
+
+    static int getOffset(long address) {
+        return (int) address;
+    }
+
+    int getInt(long address) {
+        return getSegment(address).getInt(getOffset(address));
+    }
+
+    void putInt(long address, int value) {
+        getSegment(address).putInt(getOffset(address), value);
+    }
+
+    long getLong(long address) {
+        return getSegment(address).getLong(getOffset(address));
+    }
+
+    void putLong(long address, long value) {
+        getSegment(address).putLong(getOffset(address), value);
+    }
+
+    // Copies bytes from the heap into the arena.
+    void put(long address, byte[] src) {
+        view(address, src.length).put(src);
+    }
+
+    // Copies bytes from the arena onto the heap.
+    byte[] get(long address, int length) {
+        byte[] dst = new byte[length];
+        view(address, length).get(dst);
+        return dst;
+    }
+
+    // Gets a view of bytes in the arena, for bulk transfers that do not disturb the position of the shared segment.
+    private ByteBuffer view(long address, int length) {
+        int base = getOffset(address);
+        ByteBuffer view = getSegment(address).duplicate();
+        view.limit(base + length).position(base);
+        return view;
+    }
+
+    /**
+     * Compares bytes in the arena with bytes on the heap lexicographically, treating bytes as unsigned, without
+     * copying either. The bytes are compared in bulk, with {@link ByteBuffer#mismatch(ByteBuffer)}.
+     *
+     * @param address The address of the bytes in the arena.
+     * @param length  The number of bytes in the arena.
+     * @param other   The bytes on the heap.
+     * @return A negative number, zero or a positive number if the bytes in the arena are less than, equal to or
+     * greater than the bytes on the heap.
+     */
+    int compare(long address, int length, byte[] other) {
+        int i = view(address, length).mismatch(ByteBuffer.wrap(other));
+        if (i < 0) {
+            return 0;
+        }
+
+        if (i < length && i < other.length) {
+            return Byte.compareUnsigned(getSegment(address).get(getOffset(address) + i), other[i]);
+        }
+
+        return Integer.compare(length, other.length);
+    }
+}
@@ -0,0 +1,314 @@
+package ca.crimsonglow.skiplist;
+
+import java.util.Objects;
+import java.util.function.BiConsumer;
+
+/**
+ * A skip list that maps byte array keys to byte array values, storing its nodes, keys and values in native memory
+ * outside of the Java heap so that they add nothing to garbage collection work.
+ * <p>
+ * Keys are ordered lexicographically with bytes treated as unsigned, and are compared in place without being copied
+ * onto the heap. Values are length-prefixed, so keys and values may have any length that fits in a segment of the
+ * arena. Memory is allocated from a {@link MemoryArena} and is not reused when mappings are removed or values are
+ * replaced with values of a different length; it is reclaimed in bulk by {@link #clear()}.
+ * <p>
+ * Each node is laid out as an int height, an int key length, the long address of its value, one long forward link per
+ * level and then the key bytes. Each value is laid out as an int length followed by the value bytes.
+ */
+public class OffHeapSkipList {
+    /**
+     * The default size of each segment of native memory.
+     */
+    public static final int DEFAULT_SEGMENT_SIZE = 1 << 22;
+    // The height of the head, which bounds the height of every node.
+    private static final int MAX_HEIGHT = 32;
+    // The address of the head is the first address in the arena, so it doubles as the null link.
+    private static final long NULL = 0;
+    // Offsets of the fields of a node.
+    private static final int HEIGHT_OFFSET = 0;
+    private static final int KEY_LENGTH_OFFSET = 4;
+    private static final int VALUE_OFFSET = 8;
+    private static final int NEXT_OFFSET = 16;
+    // The offset of the bytes of a value from the address of the value.
+    private static final int VALUE_BYTES_OFFSET = 4;
+    // The arena holding the nodes, keys and values.
+    private final MemoryArena arena;
+    // Selects the level of each new node.
+    private final LevelGenerator levelGenerator;
+    // The predecessors of a key at each level, reused between insertions.
+    private final long[] preds = new long[MAX_HEIGHT];
+    // The address of the head of the list.
+    private long head;
+    // The number of levels in use.
+    private int height;
+    // The size of the list.
+    private int size;
+
+    /**
+     * Creates a new off-heap skip list with default parameters.
+     */
+    public OffHeapSkipList() {
+        this(LevelGenerator.DEFAULT_PROBABILITY, DEFAULT_SEGMENT_SIZE);
+    }
+
+    /**
+     * Creates a new off-heap skip list with the specified parameters.
+     *
+     * @param iterationProbability The probability with which to continue iterating during level selection.
+     * @param segmentSize          The size of each segment of native memory, which bounds the size of each entry.
+     */
+    public OffHeapSkipList(double iterationProbability, int segmentSize) {
+        arena = new MemoryArena(segmentSize);
+        levelGenerator = LevelGenerator.splittable(iterationProbability,
+                Math.min(MAX_HEIGHT - 1, LevelGenerator.maxLevelFor(Integer.MAX_VALUE, iterationProbability)));
+        initialize();
+    }
+
+    /**
+     * Gets the number of mappings in the list.
+     *
+     * @return The number of mappings.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Checks whether the list contains no mappings.
+     *
+     * @return True if the list is empty.
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Checks whether the list contains a mapping for a key.
+     *
+     * @param key The key to look up.
+     * @return True if the key is mapped.
+     */
+    public boolean containsKey(byte[] key) {
+        return findNode(Objects.requireNonNull(key)) != NULL;
+    }
+
+    /**
+     * Gets a copy of the value mapped to a key.
+     *
+     * @param key The key to look up.
+     * @return A copy of the mapped value, or null if the key is not mapped.
+     */
+    public byte[] get(byte[] key) {
+        long node = findNode(Objects.requireNonNull(key));
+        if (node == NULL) {
+            return null;
+        }
+
+        long value = arena.getLong(node + VALUE_OFFSET);
+        return arena.get(value + VALUE_BYTES_OFFSET, arena.getInt(value));
+    }
+
+    /**
+     * Maps a key to a value, replacing any existing mapping. Both are copied into native memory.
+     *
+     * @param key   The key to map.
+     * @param value The value to map the key to.
+     * @return True if the key was not previously mapped.
+     */
+    public boolean put(byte[] key, byte[] value) {
+        Objects.requireNonNull(key);
+        Objects.requireNonNull(value);
+
+        long cur = head;
+        for (int i = height - 1; i >= 0; i--) {
+            long next = getNext(cur, i);
+            int c = -1;
+            while (next != NULL && (c = compareKey(next, key)) < 0) {
+                cur = next;
+                next = getNext(cur, i);
+            }
+
+            // If a node with the key already exists in the list, update its value.
+            if (next != NULL && c == 0) {
+                setValue(next, value);
+                return false;
+            }
+
+            preds[i] = cur;
+        }
+
+        int level = getRandomLevel();
+        for (; height <= level; height++) {
+            preds[height] = head;
+        }
+
+        long node = allocateNode(key, level + 1);
+        arena.putLong(node + VALUE_OFFSET, allocateValue(value));
+        for (int i = 0; i <= level; i++) {
+            setNext(node, i, getNext(preds[i], i));
+            setNext(preds[i], i, node);
+        }
+
+        size++;
+        return true;
+    }
+
+    /**
+     * Removes the mapping for a key. The memory it occupied is not reclaimed until the list is cleared.
+     *
+     * @param key The key to unmap.
+     * @return True if the key was mapped.
+     */
+    public boolean remove(byte[] key) {
+        Objects.requireNonNull(key);
+
+        long cur = head;
+        long found = NULL;
+        for (int i = height - 1; i >= 0; i--) {
+            long next = getNext(cur, i);
+            int c = -1;
+            while (next != NULL && (c = compareKey(next, key)) < 0) {
+                cur = next;
+                next = getNext(cur, i);
+            }
+
+            if (next != NULL && c == 0) {
+                found = next;
+                setNext(cur, i, getNext(next, i));
+            }
+        }
+
+        if (found == NULL) {
+            return false;
+        }
+
+        size--;
+        return true;
+    }
+
+    /**
+     * Removes all mappings from the list, reclaiming all of the memory they occupied at once. The segments of native
+     * memory are kept for reuse.
+     */
+    public void clear() {
+        arena.reset();
+        initialize();
+    }
+
+    /**
+     * Removes all mappings from the list and releases all but one segment of native memory.
+     */
+    public void release() {
+        arena.release();
+        initialize();
+    }
+
+    /**
+     * Passes a copy of each mapping in the list to a consumer, in ascending key order.
+     *
+     * @param consumer The consumer of the mappings.
+     */
+    public void forEach(BiConsumer<byte[], byte[]> consumer) {
+        for (long n = getNext(head, 0); n != NULL; n = getNext(n, 0)) {
+            long value = arena.getLong(n + VALUE_OFFSET);
+            consumer.accept(arena.get(getKeyAddress(n), arena.getInt(n + KEY_LENGTH_OFFSET)),
+                    arena.get(value + VALUE_BYTES_OFFSET, arena.getInt(value)));
+        }
+    }
+
+    /**
+     * Gets the number of bytes of native memory reserved by the list.
+     *
+     * @return The number of bytes reserved.
+     */
+    public long getReservedBytes() {
+        return arena.getReservedBytes();
+    }
+
+    /**
+     * Gets the number of bytes of native memory allocated since the list was last cleared, including memory that held
+     * removed mappings and replaced values.
+     *
+     * @return The number of bytes allocated.
+     */
+    public long getAllocatedBytes() {
+        return arena.getAllocatedBytes();
+    }
+
+    private void initialize() {
+        head = arena.allocate(NEXT_OFFSET + MAX_HEIGHT * Long.BYTES);
+        arena.putInt(head + HEIGHT_OFFSET, MAX_HEIGHT);
+        arena.putInt(head + KEY_LENGTH_OFFSET, 0);
+        for (int i = 0; i < MAX_HEIGHT; i++) {
+            setNext(head, i, NULL);
+        }
+
+        height = 1;
+        size = 0;
+    }
+
+    // Gets the address of the node holding a key, or NULL if the key is not mapped.
+    private long findNode(byte[] key) {
+        long cur = head;
+        for (int i = height - 1; i >= 0; i--) {
+            long next = getNext(cur, i);
+            int c = -1;
+            while (next != NULL && (c = compareKey(next, key)) < 0) {
+                cur = next;
+                next = getNext(cur, i);
+            }
+
+            if (next != NULL && c == 0) {
+                return next;
+            }
+        }
+
+        return NULL;
+    }
+
+    private long allocateNode(byte[] key, int nodeHeight) {
+        long node = arena.allocate(NEXT_OFFSET + nodeHeight * Long.BYTES + key.length);
+        arena.putInt(node + HEIGHT_OFFSET, nodeHeight);
+        arena.putInt(node + KEY_LENGTH_OFFSET, key.length);
+        arena.put(getKeyAddress(node), key);
+        return node;
+    }
+
+    private long allocateValue(byte[] value) {
+        long address = arena.allocate(VALUE_BYTES_OFFSET + value.length);
+        arena.putInt(address, value.length);
+        arena.put(address + VALUE_BYTES_OFFSET, value);
+        return address;
+    }
+
+    // Overwrites the value of a node in place if the length is unchanged, and otherwise allocates a new value.
+    private void setValue(long node, byte[] value) {
+        long address = arena.getLong(node + VALUE_OFFSET);
+        if (arena.getInt(address) == value.length) {
+            arena.put(address + VALUE_BYTES_OFFSET, value);
+        } else {
+            arena.putLong(node + VALUE_OFFSET, allocateValue(value));
+        }
+    }
+
+    private long getNext(long node, int level) {
+        return arena.getLong(node + NEXT_OFFSET + (long) level * Long.BYTES);
+    }
+
+    private void setNext(long node, int level, long next) {
+        arena.putLong(node + NEXT_OFFSET + (long) level * Long.BYTES, next);
+    }
+
+    private long getKeyAddress(long node) {
+        return node + NEXT_OFFSET + (long) arena.getInt(node + HEIGHT_OFFSET) * Long.BYTES;
+    }
+
+    private int compareKey(long node, byte[] key) {
+        return arena.compare(getKeyAddress(node), arena.getInt(node + KEY_LENGTH_OFFSET), key);
+    }
+
+    // Selects a random level, growing the list by at most one level per insertion.
+    private int getRandomLevel() {
+        return Math.min(levelGenerator.nextLevel(), height);
+    }
+}
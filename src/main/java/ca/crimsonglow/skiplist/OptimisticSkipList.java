@@ -0,0 +1,348 @@
+package ca.crimsonglow.skiplist;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.locks.StampedLock;
+import java.util.function.Supplier;
+
+/**
+ * A thread-safe {@link SkipList} whose readers write no shared memory, for workloads dominated by lookups.
+ * <p>
+ * Writers hold the write lock of a {@link StampedLock}. Readers take an optimistic stamp, search the list without
+ * locking and then validate the stamp. Since a node's links only ever point to nodes with greater keys, a search that
+ * races with a writer still terminates, though it may return a wrong result or fail with an exception; either way, the
+ * stamp no longer validates and the read is retried, after {@link #OPTIMISTIC_ATTEMPTS} failures under the read lock.
+ * Without concurrent writes, a lookup therefore only reads the lock's state, and lookups scale with the number of
+ * cores rather than contending on a shared lock as they do in {@link Collections#synchronizedMap(Map)}.
+ * <p>
+ * Iterators copy up to {@link #ITERATOR_CHUNK_SIZE} entries at a time under the read lock. They are weakly consistent:
+ * they never throw {@link ConcurrentModificationException}, and reflect some, but not necessarily all, modifications
+ * made after their creation. Null keys and values are not allowed.
+ *
+ * @param <K> The type of keys.
+ * @param <V> The type of values.
+ */
+public class OptimisticSkipList<K, V> extends AbstractMap<K, V> implements ConcurrentMap<K, V> {
+    /**
+     * The number of optimistic attempts a read makes before taking the read lock.
+     */
+    public static final int OPTIMISTIC_ATTEMPTS = 2;
+    /**
+     * The number of entries copied by an iterator at a time.
+     */
+    public static final int ITERATOR_CHUNK_SIZE = 256;
+    private final StampedLock lock = new StampedLock();
+    private final SkipList<K, V> list;
+    private EntrySet entrySet;
+
+    /**
+     * Creates a new optimistic skip list whose keys are ordered by their natural ordering.
+     */
+    public OptimisticSkipList() {
+        this(null);
+    }
+
+    /**
+     * Creates a new optimistic skip list.
+     *
+     * @param comparator The comparator used to order keys, or null to use their natural ordering.
+     */
+    public OptimisticSkipList(Comparator<? super K> comparator) {
+        // The default level generator is not adaptive, so lookups do not count themselves in the list.
+        list = new SkipList<>(comparator);
+    }
+
+    @Override
+    public int size() {
+        return read(list::size);
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return read(list::isEmpty);
+    }
+
+    @Override
+    public boolean containsKey(Object key) {
+        Objects.requireNonNull(key);
+        return read(() -> list.containsKey(key));
+    }
+
+    @Override
+    public V get(Object key) {
+        Objects.requireNonNull(key);
+        return read(() -> list.get(key));
+    }
+
+    /**
+     * Gets the mapping with the least key.
+     *
+     * @return The mapping, or null if the list is empty.
+     */
+    public Entry<K, V> firstEntry() {
+        return read(list::firstEntry);
+    }
+
+    /**
+     * Gets the mapping with the greatest key.
+     *
+     * @return The mapping, or null if the list is empty.
+     */
+    public Entry<K, V> lastEntry() {
+        return read(list::lastEntry);
+    }
+
+    /**
+     * Gets the mapping with the least key greater than or equal to a key.
+     *
+     * @param key The key.
+     * @return The mapping, or null if there is none.
+     */
+    public Entry<K, V> ceilingEntry(K key) {
+        Objects.requireNonNull(key);
+        return read(() -> list.ceilingEntry(key));
+    }
+
+    /**
+     * Gets the mapping with the least key strictly greater than a key.
+     *
+     * @param key The key.
+     * @return The mapping, or null if there is none.
+     */
+    public Entry<K, V> higherEntry(K key) {
+        Objects.requireNonNull(key);
+        return read(() -> list.higherEntry(key));
+    }
+
+    /**
+     * Gets the mapping with the greatest key less than or equal to a key.
+     *
+     * @param key The key.
+     * @return The mapping, or null if there is none.
+     */
+    public Entry<K, V> floorEntry(K key) {
+        Objects.requireNonNull(key);
+        return read(() -> list.floorEntry(key));
+    }
+
+    /**
+     * Gets the mapping with the greatest key strictly less than a key.
+     *
+     * @param key The key.
+     * @return The mapping, or null if there is none.
+     */
+    public Entry<K, V> lowerEntry(K key) {
+        Objects.requireNonNull(key);
+        return read(() -> list.lowerEntry(key));
+    }
+
+    @Override
+    public V put(K key, V value) {
+        Objects.requireNonNull(value);
+        long stamp = lock.writeLock();
+        try {
+            return list.put(key, value);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public V remove(Object key) {
+        Objects.requireNonNull(key);
+        long stamp = lock.writeLock();
+        try {
+            return list.remove(key);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public V putIfAbsent(K key, V value) {
+        Objects.requireNonNull(value);
+        long stamp = lock.writeLock();
+        try {
+            V v = list.get(key);
+            return v != null ? v : list.put(key, value);
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public boolean remove(Object key, Object value) {
+        Objects.requireNonNull(key);
+        if (value == null) {
+            return false;
+        }
+
+        long stamp = lock.writeLock();
+        try {
+            if (!value.equals(list.get(key))) {
+                return false;
+            }
+
+            list.remove(key);
+            return true;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public boolean replace(K key, V oldValue, V newValue) {
+        Objects.requireNonNull(oldValue);
+        Objects.requireNonNull(newValue);
+        long stamp = lock.writeLock();
+        try {
+            if (!oldValue.equals(list.get(key))) {
+                return false;
+            }
+
+            list.put(key, newValue);
+            return true;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public V replace(K key, V value) {
+        Objects.requireNonNull(value);
+        long stamp = lock.writeLock();
+        try {
+            return list.containsKey(key) ? list.put(key, value) : null;
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public void clear() {
+        long stamp = lock.writeLock();
+        try {
+            list.clear();
+        } finally {
+            lock.unlockWrite(stamp);
+        }
+    }
+
+    @Override
+    public Set<Entry<K, V>> entrySet() {
+        return entrySet != null ? entrySet : (entrySet = new EntrySet());
+    }
+
+    /**
+     * Gets the comparator used to order keys.
+     *
+     * @return The comparator, or null if keys are ordered by their natural ordering.
+     */
+    public Comparator<? super K> comparator() {
+        return list.comparator();
+    }
+
+    // Reads the list optimistically, falling back to the read lock if writers keep invalidating the stamp.
+    private <R> R read(Supplier<R> reader) {
+        for (int attempt = 0; attempt < OPTIMISTIC_ATTEMPTS; ++attempt) {
+            long stamp = lock.tryOptimisticRead();
+            if (stamp == 0) {
+                continue;
+            }
+
+            try {
+                R result = reader.get();
+                if (lock.validate(stamp)) {
+                    return result;
+                }
+            } catch (RuntimeException e) {
+                // The list was modified during the read, so its state was inconsistent. A genuine failure, such as a
+                // key of the wrong type, is thrown again by the locked read.
+                if (lock.validate(stamp)) {
+                    throw e;
+                }
+            }
+        }
+
+        long stamp = lock.readLock();
+        try {
+            return reader.get();
+        } finally {
+            lock.unlockRead(stamp);
+        }
+    }
+
+    private class EntrySet extends AbstractSet<Entry<K, V>> {
+        @Override
+        public Iterator<Entry<K, V>> iterator() {
+            return new ChunkIterator();
+        }
+
+        @Override
+        public int size() {
+            return OptimisticSkipList.this.size();
+        }
+
+        @Override
+        public void clear() {
+            OptimisticSkipList.this.clear();
+        }
+    }
+
+    // Copies entries a chunk at a time, resuming after the last key copied.
+    private class ChunkIterator implements Iterator<Entry<K, V>> {
+        private final List<Entry<K, V>> chunk = new ArrayList<>(ITERATOR_CHUNK_SIZE);
+        private boolean exhausted;
+        private int next;
+        private Entry<K, V> last;
+
+        @Override
+        public boolean hasNext() {
+            if (next == chunk.size() && !exhausted) {
+                fill();
+            }
+
+            return next < chunk.size();
+        }
+
+        @Override
+        public Entry<K, V> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+
+            return last = chunk.get(next++);
+        }
+
+        @Override
+        public void remove() {
+            if (last == null) {
+                throw new IllegalStateException();
+            }
+
+            OptimisticSkipList.this.remove(last.getKey());
+            last = null;
+        }
+
+        private void fill() {
+            K position = chunk.isEmpty() ? null : chunk.get(chunk.size() - 1).getKey();
+            chunk.clear();
+            next = 0;
+            long stamp = lock.readLock();
+            try {
+                NavigableMap<K, V> view = position == null ? list : list.tailMap(position, false);
+                for (Entry<K, V> e : view.entrySet()) {
+                    if (chunk.size() == ITERATOR_CHUNK_SIZE) {
+                        return;
+                    }
+
+                    chunk.add(new SimpleImmutableEntry<>(e));
+                }
+            } finally {
+                lock.unlockRead(stamp);
+            }
+
+            exhausted = true;
+        }
+    }
+}
@@ -0,0 +1,62 @@
+package ca.crimsonglow.skiplist;
+
+import java.util.function.LongSupplier;
+
+/**
+ * Selects levels from a single random 64-bit value each. For a probability of 1 / 2^k, each level consumes k bits,
+ * and the level is the number of trailing zero bits divided by k. For any other probability, the value is converted
+ * to a uniform double u in (0, 1], and the level is the floor of log(u) / log(p), which is reached with probability
+ * p^level.
+ */
+class RandomLevelGenerator implements LevelGenerator {
+    // The number of bits consumed per level, or 0 if the probability is not a power of one half.
+    private final int bitsPerLevel;
+    // The natural logarithm of the probability.
+    private final double logProbability;
+    private final double probability;
+    private final int maxLevel;
+    // The source of random bits.
+    private final LongSupplier bits;
+
+    RandomLevelGenerator(double probability, int maxLevel, LongSupplier bits) {
+        if (!(probability >= 0 && probability <= 1)) {
+            throw new IllegalArgumentException("probability must be between 0 and 1");
+        }
+
+        if (maxLevel < 0 || maxLevel > MAX_LEVEL) {
+            throw new IllegalArgumentException("maxLevel must be between 0 and " + MAX_LEVEL);
+        }
+
+        int k = Math.getExponent(probability);
+        bitsPerLevel = probability > 0 && probability < 1 && probability == Math.scalb(1.0, k) ? -k : 0;
+        logProbability = Math.log(probability);
+        this.probability = probability;
+        this.maxLevel = maxLevel;
+        this.bits = bits;
+    }
+
+    @Override
+    public int nextLevel() {
+        if (probability == 1) {
+            return maxLevel;
+        }
+
+        long r = bits.getAsLong();
+        if (bitsPerLevel > 0) {
+            return Math.min(maxLevel, Long.numberOfTrailingZeros(r) / bitsPerLevel);
+        }
+
+        double u = 1.0 - (r >>> 11) * 0x1.0p-53;
+        return (int) Math.min(maxLevel, Math.log(u) / logProbability);
+    }
+
+    @Override
+    public double getProbability() {
+        return probability;
+    }
+
+    @Override
+    public int getMaxLevel() {
+        return maxLevel;
+    }
+}
@@ -0,0 +1,512 @@
+package ca.crimsonglow.skiplist;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Function;
+
+/**
+ * A map that partitions its keys into ranges, each held by its own {@link SkipList} behind its own lock, so that
+ * writers to different ranges never contend.
+ * <p>
+ * The shards are kept in an array ordered by key range, which is replaced whenever the shards are rebalanced. An
+ * operation finds its shard with a binary search of the array, locks it and, if the shard was retired by a rebalance
+ * in the meantime, searches again. Every {@link #REBALANCE_INTERVAL} writes, a shard compares its size with the ideal
+ * size of the total divided by the target number of shards: a shard more than twice the ideal is split at its median
+ * key, and a shard less than half of it is merged with a neighbour, if together they do not exceed the ideal. Starting
+ * from a single shard, the map therefore splits along the keys actually inserted.
+ * <p>
+ * Iterators present a global ordered view by concatenating the shards, copying up to {@link #ITERATOR_CHUNK_SIZE}
+ * entries at a time under the lock of their shard. They are weakly consistent: they never throw
+ * {@link ConcurrentModificationException}, and reflect some, but not necessarily all, modifications made after their
+ * creation. Null keys and values are not allowed.
+ *
+ * @param <K> The type of keys.
+ * @param <V> The type of values.
+ */
+public class ShardedSkipList<K, V> extends AbstractMap<K, V> implements ConcurrentMap<K, V> {
+    /**
+     * The default target number of shards.
+     */
+    public static final int DEFAULT_TARGET_SHARDS = 16;
+    /**
+     * The number of writes to a shard between checks of its size.
+     */
+    public static final int REBALANCE_INTERVAL = 256;
+    /**
+     * The number of entries copied from a shard by an iterator at a time.
+     */
+    public static final int ITERATOR_CHUNK_SIZE = 256;
+    // The least ideal shard size, below which the map is not split further.
+    private static final int MIN_SHARD_SIZE = 1024;
+    private final Comparator<? super K> comparator;
+    private final int targetShards;
+    // Serializes rebalances, which lock the shards they replace after acquiring it.
+    private final ReentrantLock rebalanceLock = new ReentrantLock();
+    // The shards in ascending order of key range. The array is replaced, never modified.
+    private volatile Shard<K, V>[] shards;
+    private EntrySet entrySet;
+
+    /**
+     * Creates a new sharded skip list whose keys are ordered by their natural ordering, with the default target
+     * number of shards.
+     */
+    public ShardedSkipList() {
+        this(null, DEFAULT_TARGET_SHARDS);
+    }
+
+    /**
+     * Creates a new sharded skip list.
+     *
+     * @param comparator   The comparator used to order keys, or null to use their natural ordering.
+     * @param targetShards The number of shards that the keys are divided among once there are enough of them.
+     */
+    public ShardedSkipList(Comparator<? super K> comparator, int targetShards) {
+        if (targetShards < 1) {
+            throw new IllegalArgumentException();
+        }
+
+        this.comparator = comparator;
+        this.targetShards = targetShards;
+        clear();
+    }
+
+    @Override
+    public int size() {
+        long size = 0;
+        for (Shard<K, V> s : shards) {
+            size += s.size;
+        }
+
+        return (int) Math.min(size, Integer.MAX_VALUE);
+    }
+
+    @Override
+    public boolean isEmpty() {
+        for (Shard<K, V> s : shards) {
+            if (s.size > 0) {
+                return false;
+            }
+        }
+
+        return true;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public boolean containsKey(Object key) {
+        return withShard((K) key, false, list -> list.containsKey(key));
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V get(Object key) {
+        return withShard((K) key, false, list -> list.get(key));
+    }
+
+    @Override
+    public V put(K key, V value) {
+        Objects.requireNonNull(value);
+        return withShard(key, true, list -> list.put(key, value));
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public V remove(Object key) {
+        return withShard((K) key, true, list -> list.remove(key));
+    }
+
+    @Override
+    public V putIfAbsent(K key, V value) {
+        Objects.requireNonNull(value);
+        return withShard(key, true, list -> {
+            V v = list.get(key);
+            return v != null ? v : list.put(key, value);
+        });
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public boolean remove(Object key, Object value) {
+        return value != null && withShard((K) key, true, list -> {
+            if (!value.equals(list.get(key))) {
+                return false;
+            }
+
+            list.remove(key);
+            return true;
+        });
+    }
+
+    @Override
+    public boolean replace(K key, V oldValue, V newValue) {
+        Objects.requireNonNull(oldValue);
+        Objects.requireNonNull(newValue);
+        return withShard(key, true, list -> {
+            if (!oldValue.equals(list.get(key))) {
+                return false;
+            }
+
+            list.put(key, newValue);
+            return true;
+        });
+    }
+
+    @Override
+    public V replace(K key, V value) {
+        Objects.requireNonNull(value);
+        return withShard(key, true, list -> list.containsKey(key) ? list.put(key, value) : null);
+    }
+
+    @Override
+    public void clear() {
+        rebalanceLock.lock();
+        try {
+            Shard<K, V>[] old = shards;
+            if (old != null) {
+                lockAll(old, 0, old.length);
+            }
+
+            try {
+                shards = newShardArray(List.of(new Shard<>(null, null, new SkipList<>(comparator))));
+                if (old != null) {
+                    for (Shard<K, V> s : old) {
+                        s.retired = true;
+                    }
+                }
+            } finally {
+                if (old != null) {
+                    unlockAll(old, 0, old.length);
+                }
+            }
+        } finally {
+            rebalanceLock.unlock();
+        }
+    }
+
+    @Override
+    public Set<Entry<K, V>> entrySet() {
+        return entrySet != null ? entrySet : (entrySet = new EntrySet());
+    }
+
+    /**
+     * Gets a weakly consistent iterator over the mappings whose keys are within a range, in ascending order of key.
+     *
+     * @param fromKey The least key, inclusive, or null to start at the first key.
+     * @param toKey   The greatest key, exclusive, or null to end at the last key.
+     * @return The iterator.
+     */
+    public Iterator<Entry<K, V>> iterator(K fromKey, K toKey) {
+        return new ShardIterator(fromKey, toKey);
+    }
+
+    /**
+     * Gets the comparator used to order keys.
+     *
+     * @return The comparator, or null if keys are ordered by their natural ordering.
+     */
+    public Comparator<? super K> comparator() {
+        return comparator;
+    }
+
+    /**
+     * Gets the current number of shards.
+     *
+     * @return The number of shards.
+     */
+    public int getShardCount() {
+        return shards.length;
+    }
+
+    // Runs an operation on the list of the shard holding a key, and checks whether the shard needs rebalancing after
+    // every few writes.
+    private <R> R withShard(K key, boolean write, Function<SkipList<K, V>, R> operation) {
+        Objects.requireNonNull(key);
+        while (true) {
+            Shard<K, V> s = route(key);
+            R result;
+            boolean check;
+            s.lock.lock();
+            try {
+                if (s.retired) {
+                    continue;
+                }
+
+                result = operation.apply(s.list);
+                if (!write) {
+                    return result;
+                }
+
+                s.size = s.list.size();
+                check = ++s.writes % REBALANCE_INTERVAL == 0;
+            } finally {
+                s.lock.unlock();
+            }
+
+            if (check) {
+                rebalance(s);
+            }
+
+            return result;
+        }
+    }
+
+    // Finds the shard whose range contains a key.
+    private Shard<K, V> route(K key) {
+        Shard<K, V>[] shards = this.shards;
+        int low = 1;
+        int high = shards.length - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (compare(shards[mid].lowerBound, key) <= 0) {
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+
+        return shards[high];
+    }
+
+    // Splits or merges a shard if its size has strayed too far from the ideal. Writers do not wait for a rebalance
+    // already in progress.
+    private void rebalance(Shard<K, V> s) {
+        if (!rebalanceLock.tryLock()) {
+            return;
+        }
+
+        try {
+            Shard<K, V>[] shards = this.shards;
+            int i = Arrays.asList(shards).indexOf(s);
+            if (i < 0) {
+                return;
+            }
+
+            long total = 0;
+            for (Shard<K, V> shard : shards) {
+                total += shard.size;
+            }
+
+            long ideal = Math.max(MIN_SHARD_SIZE, total / targetShards);
+            if (s.size > 2 * ideal) {
+                split(shards, i);
+            } else if (s.size < ideal / 2 && shards.length > 1) {
+                int left = i == 0 || (i + 1 < shards.length && shards[i + 1].size < shards[i - 1].size) ? i : i - 1;
+                if (shards[left].size + shards[left + 1].size <= ideal) {
+                    merge(shards, left);
+                }
+            }
+        } finally {
+            rebalanceLock.unlock();
+        }
+    }
+
+    // Replaces a shard with two holding its lower and upper halves.
+    private void split(Shard<K, V>[] shards, int i) {
+        Shard<K, V> s = shards[i];
+        s.lock.lock();
+        try {
+            int half = s.list.size() / 2;
+            if (half == 0) {
+                return;
+            }
+
+            Iterator<Entry<K, V>> it = s.list.entrySet().iterator();
+            SkipList<K, V> lower = new SkipList<>(comparator);
+            for (int j = 0; j < half; ++j) {
+                Entry<K, V> e = it.next();
+                lower.append(e.getKey(), e.getValue());
+            }
+
+            SkipList<K, V> upper = new SkipList<>(comparator);
+            while (it.hasNext()) {
+                Entry<K, V> e = it.next();
+                upper.append(e.getKey(), e.getValue());
+            }
+
+            K median = upper.firstKey();
+            replace(shards, i, 1, List.of(new Shard<>(s.lowerBound, median, lower), new Shard<>(median, s.upperBound, upper)));
+        } finally {
+            s.lock.unlock();
+        }
+    }
+
+    // Replaces two adjacent shards with one holding both of their ranges.
+    private void merge(Shard<K, V>[] shards, int left) {
+        lockAll(shards, left, left + 2);
+        try {
+            SkipList<K, V> merged = new SkipList<>(comparator);
+            for (int j = left; j < left + 2; ++j) {
+                for (Entry<K, V> e : shards[j].list.entrySet()) {
+                    merged.append(e.getKey(), e.getValue());
+                }
+            }
+
+            replace(shards, left, 2, List.of(new Shard<>(shards[left].lowerBound, shards[left + 1].upperBound, merged)));
+        } finally {
+            unlockAll(shards, left, left + 2);
+        }
+    }
+
+    // Publishes a new shard array in which a run of locked shards is replaced, and retires them.
+    private void replace(Shard<K, V>[] shards, int from, int count, List<Shard<K, V>> replacements) {
+        List<Shard<K, V>> updated = new ArrayList<>(Arrays.asList(shards));
+        List<Shard<K, V>> replaced = updated.subList(from, from + count);
+        for (Shard<K, V> s : replaced) {
+            s.retired = true;
+        }
+
+        replaced.clear();
+        updated.addAll(from, replacements);
+        this.shards = newShardArray(updated);
+    }
+
+    @SuppressWarnings("unchecked")
+    private Shard<K, V>[] newShardArray(List<Shard<K, V>> shards) {
+        return (Shard<K, V>[]) shards.toArray(new Shard<?, ?>[0]);
+    }
+
+    private static <K, V> void lockAll(Shard<K, V>[] shards, int from, int to) {
+        for (int i = from; i < to; ++i) {
+            shards[i].lock.lock();
+        }
+    }
+
+    private static <K, V> void unlockAll(Shard<K, V>[] shards, int from, int to) {
+        for (int i = to - 1; i >= from; --i) {
+            shards[i].lock.unlock();
+        }
+    }
+
+    // Compares keys, where a null lower bound precedes every key.
+    @SuppressWarnings("unchecked")
+    private int compare(K a, K b) {
+        if (a == null) {
+            return -1;
+        }
+
+        return comparator != null ? comparator.compare(a, b) : ((Comparable<? super K>) a).compareTo(b);
+    }
+
+    // A range of keys [lowerBound, upperBound) and the list holding them. A null bound is unbounded.
+    private static final class Shard<K, V> {
+        private final K lowerBound;
+        private final K upperBound;
+        private final SkipList<K, V> list;
+        private final ReentrantLock lock = new ReentrantLock();
+        // Set once the shard has been replaced by a rebalance, after which it must not be used.
+        private boolean retired;
+        // The size of the list, readable without the lock.
+        private volatile int size;
+        // The number of writes, used to check the size periodically.
+        private int writes;
+
+        Shard(K lowerBound, K upperBound, SkipList<K, V> list) {
+            this.lowerBound = lowerBound;
+            this.upperBound = upperBound;
+            this.list = list;
+            this.size = list.size();
+        }
+    }
+
+    private class EntrySet extends AbstractSet<Entry<K, V>> {
+        @Override
+        public Iterator<Entry<K, V>> iterator() {
+            return new ShardIterator(null, null);
+        }
+
+        @Override
+        public int size() {
+            return ShardedSkipList.this.size();
+        }
+
+        @Override
+        public void clear() {
+            ShardedSkipList.this.clear();
+        }
+    }
+
+    // Copies entries from one shard at a time, resuming after the last key copied.
+    private class ShardIterator implements Iterator<Entry<K, V>> {
+        private final K toKey;
+        private final List<Entry<K, V>> chunk = new ArrayList<>(ITERATOR_CHUNK_SIZE);
+        // Where the next chunk starts, or null for the first key.
+        private K position;
+        private boolean inclusive;
+        private boolean exhausted;
+        private int next;
+        private Entry<K, V> last;
+
+        ShardIterator(K fromKey, K toKey) {
+            this.toKey = toKey;
+            position = fromKey;
+            inclusive = true;
+        }
+
+        @Override
+        public boolean hasNext() {
+            while (next == chunk.size() && !exhausted) {
+                fill();
+            }
+
+            return next < chunk.size();
+        }
+
+        @Override
+        public Entry<K, V> next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+
+            return last = chunk.get(next++);
+        }
+
+        @Override
+        public void remove() {
+            if (last == null) {
+                throw new IllegalStateException();
+            }
+
+            ShardedSkipList.this.remove(last.getKey());
+            last = null;
+        }
+
+        private void fill() {
+            chunk.clear();
+            next = 0;
+            Shard<K, V> s;
+            while (true) {
+                s = position == null ? shards[0] : route(position);
+                s.lock.lock();
+                try {
+                    if (s.retired) {
+                        continue;
+                    }
+
+                    NavigableMap<K, V> view = position == null ? s.list : s.list.tailMap(position, inclusive);
+                    for (Entry<K, V> e : view.entrySet()) {
+                        if (chunk.size() == ITERATOR_CHUNK_SIZE || (toKey != null && compare(e.getKey(), toKey) >= 0)) {
+                            break;
+                        }
+
+                        chunk.add(new SimpleImmutableEntry<>(e));
+                    }
+                } finally {
+                    s.lock.unlock();
+                }
+
+                break;
+            }
+
+            if (chunk.size() == ITERATOR_CHUNK_SIZE) {
+                position = chunk.get(chunk.size() - 1).getKey();
+                inclusive = false;
+            } else if (s.upperBound == null || (toKey != null && compare(s.upperBound, toKey) >= 0)) {
+                exhausted = true;
+            } else {
+                position = s.upperBound;
+                inclusive = true;
+            }
+        }
+    }
+}
@@ -1,27 +1,57 @@
 package ca.crimsonglow.skiplist;
 
 import java.util.*;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 
 /**
  * Skip lists are maps that use probabilistic balancing for insertion and deletion algorithms.
+ * <p>
+ * Entries whose keys are greater than every key in the list are linked directly after the last node at each level
+ * without searching, so inserting keys in ascending order takes constant expected time per key. Lists can be built
+ * from already sorted input in a single pass with {@link #fromSorted(Iterator)}, and {@link #putAll(Map)} does so
+ * when an empty list is given a {@link SortedMap} in natural order.
+ * <p>
+ * An indexed list also records the number of bottom-level nodes spanned by each link above the bottom level, which
+ * lets it find entries by position and keys by rank in O(log n) expected time.
  */
-public class SkipList<K extends Comparable<K>, V> implements Map<K, V> {
-    // The default probability to use when selecting a random level.
-    private static final double DEFAULT_ITERATION_PROBABILITY = 0.2;
-    // An instance of the random number generator.
-    private final Random random;
-    // The probability with which to continue iterating while selecting a level.
-    private final double iterationProbability;
-    // The head of the list.
+public class SkipList<K, V> implements NavigableMap<K, V> {
+    // Selects the level of each new node.
+    private final LevelGenerator levelGenerator;
+    // The comparator that orders the keys, or null if they are in natural order.
+    private final Comparator<? super K> comparator;
+    // The level generator if it adapts to the workload, or null if it does not need to be told about operations.
+    private final AdaptiveLevelGenerator adaptiveLevelGenerator;
+    // Whether links record the number of nodes they span.
+    private final boolean indexed;
+    // The head of the list. Its height is the height of the tallest node that has been inserted.
     private Node<K, V> head;
+    // The predecessors of a key at each level, reused between insertions to avoid allocating them on every put.
+    private Node<K, V>[] preds;
+    // The ranks of the predecessors at each level, where the head has rank 0, reused like the predecessors.
+    private int[] ranks;
+    // The last node at each level, or the head if a level is empty, used to append without searching.
+    private Node<K, V>[] tails;
     // The size of the list.
     private int size;
+    // The number of structural modifications made to the list, used to make iterators fail fast.
+    private int modCount;
+    // The key of the last node whose tower was rebuilt, or null if the next rebuild starts at the first node.
+    private K lastRebuiltKey;
+    // The search counts of operations while stats are enabled, or null if they are disabled, so that operations only
+    // pay for a single check.
+    private StatsRecorder stats;
+    // Views of the list, created on first use.
+    private EntrySet entrySet;
+    private KeySet<K> keySet;
+    private Values values;
 
     /**
      * Creates a new skip list with default parameters.
      */
     public SkipList() {
-        this(DEFAULT_ITERATION_PROBABILITY);
+        this(LevelGenerator.DEFAULT_PROBABILITY);
     }
 
     /**
@@ -30,11 +60,106 @@ public class SkipList<K extends Comparable<K>, V> implements Map<K, V> {
      * @param iterationProbability The probability with which to continue iterating during level selection.
      */
     public SkipList(double iterationProbability) {
-        random = new Random();
-        this.iterationProbability = iterationProbability;
+        this(iterationProbability, false);
+    }
+
+    /**
+     * Creates a new skip list with the specified iteration probability, optionally supporting access by position.
+     * Levels are capped at the height that suits a list of {@link Integer#MAX_VALUE} entries.
+     *
+     * @param iterationProbability The probability with which to continue iterating during level selection.
+     * @param indexed              Whether to support {@link #getByIndex(int)}, {@link #indexOf(Object)},
+     *                             {@link #rank(Object)} and {@link #subMapByIndex(int, int)}.
+     */
+    public SkipList(double iterationProbability, boolean indexed) {
+        this(LevelGenerator.splittable(iterationProbability, LevelGenerator.maxLevelFor(Integer.MAX_VALUE, iterationProbability)), indexed);
+    }
+
+    /**
+     * Creates a new skip list that selects levels with the specified generator.
+     *
+     * @param levelGenerator The generator of levels for new nodes.
+     */
+    public SkipList(LevelGenerator levelGenerator) {
+        this(levelGenerator, false);
+    }
+
+    /**
+     * Creates a new skip list that selects levels with the specified generator, optionally supporting access by
+     * position.
+     *
+     * @param levelGenerator The generator of levels for new nodes.
+     * @param indexed        Whether to support {@link #getByIndex(int)}, {@link #indexOf(Object)},
+     *                       {@link #rank(Object)} and {@link #subMapByIndex(int, int)}.
+     */
+    public SkipList(LevelGenerator levelGenerator, boolean indexed) {
+        this(null, levelGenerator, indexed);
+    }
+
+    /**
+     * Creates a new skip list with default parameters whose keys are ordered by the specified comparator.
+     *
+     * @param comparator The comparator that orders the keys, or null to use their natural ordering.
+     */
+    public SkipList(Comparator<? super K> comparator) {
+        this(comparator, LevelGenerator.splittable(LevelGenerator.DEFAULT_PROBABILITY,
+                LevelGenerator.maxLevelFor(Integer.MAX_VALUE, LevelGenerator.DEFAULT_PROBABILITY)), false);
+    }
+
+    /**
+     * Creates a new skip list whose keys are ordered by the specified comparator, that selects levels with the
+     * specified generator, optionally supporting access by position.
+     *
+     * @param comparator     The comparator that orders the keys, or null to use their natural ordering.
+     * @param levelGenerator The generator of levels for new nodes.
+     * @param indexed        Whether to support {@link #getByIndex(int)}, {@link #indexOf(Object)},
+     *                       {@link #rank(Object)} and {@link #subMapByIndex(int, int)}.
+     */
+    public SkipList(Comparator<? super K> comparator, LevelGenerator levelGenerator, boolean indexed) {
+        this.comparator = comparator;
+        this.levelGenerator = Objects.requireNonNull(levelGenerator);
+        this.adaptiveLevelGenerator = levelGenerator instanceof AdaptiveLevelGenerator ? (AdaptiveLevelGenerator) levelGenerator : null;
+        this.indexed = indexed;
         clear();
     }
 
+    /**
+     * Creates a new skip list from entries in strictly ascending key order, in a single pass and without comparing
+     * keys other than to check the order.
+     *
+     * @param entries An iterator over the entries, in strictly ascending key order.
+     * @param <K>     The type of keys.
+     * @param <V>     The type of values.
+     * @return A new skip list holding the entries.
+     * @throws IllegalArgumentException If the keys are not in strictly ascending order.
+     */
+    public static <K extends Comparable<K>, V> SkipList<K, V> fromSorted(Iterator<? extends Entry<? extends K, ? extends V>> entries) {
+        return fromSorted(entries, LevelGenerator.DEFAULT_PROBABILITY, false);
+    }
+
+    /**
+     * Creates a new skip list from entries in strictly ascending key order, in a single pass and without comparing
+     * keys other than to check the order.
+     * <p>
+     * If balanced, tower heights are assigned deterministically so that every level holds every (1 / p)th node of the
+     * level beneath it, where p is the iteration probability. Otherwise, heights are selected at random as they are by
+     * {@link #put(Object, Object)}.
+     *
+     * @param entries              An iterator over the entries, in strictly ascending key order.
+     * @param iterationProbability The probability with which to continue iterating during level selection.
+     * @param balanced             Whether to assign tower heights deterministically.
+     * @param <K>                  The type of keys.
+     * @param <V>                  The type of values.
+     * @return A new skip list holding the entries.
+     * @throws IllegalArgumentException If the keys are not in strictly ascending order.
+     */
+    public static <K extends Comparable<K>, V> SkipList<K, V> fromSorted(Iterator<? extends Entry<? extends K, ? extends V>> entries,
+                                                                        double iterationProbability, boolean balanced) {
+        SkipList<K, V> list = new SkipList<>(iterationProbability);
+        list.appendSorted(entries, balanced);
+        return list;
+    }
+
     @Override
     public int size() {
         return size;
@@ -47,12 +172,12 @@ public class SkipList<K extends Comparable<K>, V> implements Map<K, V> {
 
     @Override
     public boolean containsKey(Object key) {
-        return get(key) != null;
+        return getNode(key) != null;
     }
 
     @Override
     public boolean containsValue(Object value) {
-        Node<K, V> cur = getLowestHead().next;
+        Node<K, V> cur = head.next;
         while (cur != null) {
             boolean match = Objects.equals(value, cur.value);
             if (match) {
@@ -67,213 +192,2356 @@ public class SkipList<K extends Comparable<K>, V> implements Map<K, V> {
 
     @Override
     public V get(Object key) {
-        @SuppressWarnings("unchecked")
-        K k = (K) key;
-        if (k == null) {
-            throw new NullPointerException();
-        }
-
-        Node<K, V> cur = head;
-        while (cur != null) {
-            while (cur.isNextKeyLessThan(k)) {
-                cur = cur.next;
-            }
-
-            if (cur.isNextKeyEqualTo(k)) {
-                return cur.next.value;
-            }
-
-            cur = cur.down;
-        }
-
-        return null;
+        Node<K, V> n = stats == null ? getNode(key) : trace(SkipListOperationEvent.GET, key, () -> getNode(key));
+        return n == null ? null : n.value;
     }
 
     @Override
     public V put(K key, V value) {
+        return stats == null ? doPut(key, value) : trace(SkipListOperationEvent.PUT, key, () -> doPut(key, value));
+    }
+
+    private V doPut(K key, V value) {
         if (key == null) {
             throw new NullPointerException();
         }
 
-        long level = getRandomLevel();
-        if (level > head.level) {
-            head = new Node<>(null, null, level, null, head);
+        if (adaptiveLevelGenerator != null && adaptiveLevelGenerator.recordWrite()) {
+            sampleSearchPath(key);
         }
 
-        Node<K, V> cur = head;
-        Node<K, V> prevLevelEntry = null;
+        int level = getRandomLevel();
+        if (level >= head.getHeight()) {
+            grow(level + 1);
+        }
 
-        while (cur != null) {
-            while (cur.isNextKeyLessThan(key)) {
-                cur = cur.next;
+        // Keys beyond the end of the list are appended without searching. Otherwise, the last node is known to be
+        // greater than the key, so the search need not compare it again.
+        Node<K, V> last = tails[0];
+        Node<K, V> bound = null;
+        if (!last.isHead()) {
+            int c = compare(last.key, key);
+            if (c < 0) {
+                linkLast(key, value, level);
+                return null;
             }
 
-            // If a node with the key already exists in the list, update the
-            if (cur.isNextKeyEqualTo(key)) {
-                V prevValue = cur.next.value;
-                cur.next.value = value;
-                return prevValue;
+            if (c == 0) {
+                return last.setValue(value);
             }
 
-            // Move down if we are not at or beneath the selected level.
-            if (level < cur.level) {
-                cur = cur.down;
-                continue;
+            bound = last;
+        }
+
+        // Record the predecessor of the key at each level. Nothing is linked until the bottom level confirms that the
+        // key is absent. Each node is compared with the key at most once, as in getNode.
+        Node<K, V> cur = head;
+        int rank = 0;
+        for (int i = head.getHeight() - 1; i >= 0; i--) {
+            Node<K, V> next = cur.getNext(i);
+            int c = 1;
+            while (next != null && next != bound && (c = compare(next.key, key)) < 0) {
+                if (indexed) {
+                    rank += cur.getSpan(i);
+                }
+
+                cur = next;
+                next = cur.getNext(i);
             }
 
-            // Insert a new node in the list.
-            Node<K, V> n = new Node<>(key, value, cur.level, cur.next, null);
-            if (prevLevelEntry != null) {
-                prevLevelEntry.down = n;
+            // If a node with the key already exists in the list, update its value.
+            if (c == 0) {
+                return next.setValue(value);
             }
 
-            prevLevelEntry = n;
-            cur.next = n;
-            cur = cur.down;
+            preds[i] = cur;
+            ranks[i] = rank;
+            bound = next;
         }
 
-        size++;
+        linkNode(preds, ranks, newNode(key, value, level + 1));
         return null;
     }
 
+    /**
+     * Maps a key that is greater than every key in the list to a value, linking it after the last node at each level
+     * without searching.
+     *
+     * @param key   The key to map, which must be greater than every key in the list.
+     * @param value The value to map the key to.
+     * @throws IllegalArgumentException If the key is not greater than every key in the list.
+     */
+    public void append(K key, V value) {
+        if (key == null) {
+            throw new NullPointerException();
+        }
+
+        Node<K, V> last = tails[0];
+        if (!last.isHead() && compare(last.key, key) >= 0) {
+            throw new IllegalArgumentException("key is not greater than the last key");
+        }
+
+        linkLast(key, value);
+    }
+
     @Override
     public V remove(Object key) {
+        return stats == null ? doRemove(key) : trace(SkipListOperationEvent.REMOVE, key, () -> doRemove(key));
+    }
+
+    private V doRemove(Object key) {
         @SuppressWarnings("unchecked")
         K k = (K) key;
         if (k == null) {
             throw new NullPointerException();
         }
 
-        Node<K, V> cur = head;
-        boolean found = false;
-        V value = null;
+        if (adaptiveLevelGenerator != null && adaptiveLevelGenerator.recordWrite()) {
+            sampleSearchPath(k);
+        }
 
-        while (cur != null) {
-            while (cur.isNextKeyLessThan(k)) {
-                cur = cur.next;
+        // Once the node holding the key is found, it bounds the search at every level beneath, so it is not compared
+        // again.
+        Node<K, V> cur = head;
+        Node<K, V> bound = null;
+        Node<K, V> found = null;
+        for (int i = head.getHeight() - 1; i >= 0; i--) {
+            Node<K, V> next = cur.getNext(i);
+            int c = 1;
+            while (next != bound && (c = compare(next.key, k)) < 0) {
+                cur = next;
+                next = cur.getNext(i);
             }
 
-            if (cur.isNextKeyEqualTo(k)) {
-                found = true;
-                value = cur.next.value;
-                cur.next = cur.next.next;
+            if (c == 0) {
+                found = next;
             }
 
-            cur = cur.down;
+            preds[i] = cur;
+            bound = next;
         }
 
-        if (found) {
-            size--;
+        if (found == null) {
+            return null;
         }
 
-        return value;
+        unlinkNode(preds, found);
+        return found.value;
     }
 
     @Override
     public void putAll(Map<? extends K, ? extends V> m) {
+        // A sorted map in the same order can be appended to an empty list in a single pass.
+        if (isEmpty() && m instanceof SortedMap && Objects.equals(((SortedMap<? extends K, ? extends V>) m).comparator(), comparator)) {
+            appendSorted(m.entrySet().iterator(), false);
+            return;
+        }
+
         for (Entry<? extends K, ? extends V> entry : m.entrySet()) {
             put(entry.getKey(), entry.getValue());
         }
     }
 
+    /**
+     * Starts or stops recording the searches made by gets, puts and removes, for {@link #getStats()}. Enabling stats
+     * resets the counts. While stats are enabled, each operation searches for its key twice, once to count the search,
+     * and operations that take longer than the threshold of {@code ca.crimsonglow.skiplist.Operation} are reported to
+     * JDK Flight Recorder. While they are disabled, operations are not measured at all.
+     *
+     * @param enabled Whether to record operations.
+     */
+    public void setStatsEnabled(boolean enabled) {
+        stats = enabled ? new StatsRecorder() : null;
+    }
+
+    /**
+     * Checks whether the searches made by operations are recorded.
+     *
+     * @return Whether stats are enabled.
+     */
+    public boolean isStatsEnabled() {
+        return stats != null;
+    }
+
+    /**
+     * Takes a snapshot of the shape of the list and of the searches recorded since stats were last enabled, walking
+     * the bottom level to count the nodes of each height.
+     *
+     * @return The stats.
+     */
+    public SkipListStats getStats() {
+        int headHeight = head.getHeight();
+        long[] towerHistogram = new long[headHeight];
+        for (Node<K, V> n = head.next; n != null; n = n.next) {
+            towerHistogram[Math.min(n.getHeight(), headHeight) - 1]++;
+        }
+
+        StatsRecorder recorder = stats == null ? new StatsRecorder() : stats;
+        return new SkipListStats(size, headHeight, levelGenerator.getProbability(), towerHistogram, indexed,
+                recorder.operations, recorder.comparisons, recorder.hops, recorder.maxHops);
+    }
+
+    /**
+     * Gets a management interface for the stats of the list, which may be registered with an MBean server.
+     *
+     * @return The management interface.
+     */
+    public SkipListStatsMXBean getStatsMXBean() {
+        return new SkipListStatsMXBean() {
+            @Override
+            public SkipListStats getStats() {
+                return SkipList.this.getStats();
+            }
+
+            @Override
+            public boolean isStatsEnabled() {
+                return SkipList.this.isStatsEnabled();
+            }
+
+            @Override
+            public void setStatsEnabled(boolean enabled) {
+                SkipList.this.setStatsEnabled(enabled);
+            }
+        };
+    }
+
+    /**
+     * Creates a new list holding the mappings of this list and another, in a single pass over the bottom level of each.
+     * Keys mapped by both lists are mapped to their value in the other list, as they would be by
+     * {@link #putAll(Map)}.
+     *
+     * @param other A list in the same order as this one.
+     * @return A new list holding the union of the mappings.
+     * @throws IllegalArgumentException If the lists are not in the same order.
+     */
+    public SkipList<K, V> union(SkipList<K, V> other) {
+        return combine(other, true, true, (a, b) -> b);
+    }
+
+    /**
+     * Creates a new list holding the mappings of this list whose keys are mapped by another, in a single pass over the
+     * bottom level of each.
+     *
+     * @param other A list in the same order as this one.
+     * @return A new list holding the intersection of the mappings.
+     * @throws IllegalArgumentException If the lists are not in the same order.
+     */
+    public SkipList<K, V> intersect(SkipList<K, V> other) {
+        return combine(other, false, false, (a, b) -> a);
+    }
+
+    /**
+     * Creates a new list holding the mappings of this list whose keys are not mapped by another, in a single pass over
+     * the bottom level of each.
+     *
+     * @param other A list in the same order as this one.
+     * @return A new list holding the difference of the mappings.
+     * @throws IllegalArgumentException If the lists are not in the same order.
+     */
+    public SkipList<K, V> difference(SkipList<K, V> other) {
+        return combine(other, true, false, null);
+    }
+
+    /**
+     * Creates a new list holding the mappings of this list and another, in a single pass over the bottom level of each.
+     * Keys mapped by both lists are mapped to the value computed from their two values.
+     *
+     * @param other    A list in the same order as this one.
+     * @param resolver The function that computes the value of a key mapped by both lists from its value in this list
+     *                 and its value in the other.
+     * @return A new list holding the merged mappings.
+     * @throws IllegalArgumentException If the lists are not in the same order.
+     */
+    public SkipList<K, V> merge(SkipList<K, V> other, BiFunction<? super V, ? super V, ? extends V> resolver) {
+        return combine(other, true, true, Objects.requireNonNull(resolver));
+    }
+
+    /**
+     * Moves every mapping of another list into this one, leaving the other list empty. Keys mapped by both lists are
+     * mapped to their value in the other list.
+     * <p>
+     * If every key of one list is less than every key of the other, and neither list is of a subclass, the nodes of
+     * the other list are linked after or before those of this one at each level, in time proportional to the height of
+     * the lists. Otherwise, the lists are merged in a single pass, or for subclasses, the mappings are put one at a
+     * time.
+     *
+     * @param other A list in the same order as this one, and indexed if this one is.
+     * @throws IllegalArgumentException If the lists are not in the same order.
+     */
+    public void splice(SkipList<K, V> other) {
+        checkSameOrder(other);
+        if (other == this || other.isEmpty()) {
+            return;
+        }
+
+        if (getClass() != SkipList.class || other.getClass() != SkipList.class || indexed != other.indexed) {
+            for (Node<K, V> n = other.getFirstNode(); n != null; n = n.next) {
+                put(n.key, n.value);
+            }
+        } else if (isEmpty() || compare(tails[0].key, other.getFirstNode().key) < 0) {
+            concat(other);
+        } else if (compare(other.tails[0].key, getFirstNode().key) < 0) {
+            other.concat(this);
+            adopt(other);
+        } else {
+            adopt(union(other));
+        }
+
+        other.clear();
+    }
+
     @Override
     public void clear() {
-        head = new Node<>(null, null, 0, null, null);
+        head = newNode(null, null, 1);
+        preds = Node.newArray(1);
+        ranks = new int[1];
+        tails = Node.newArray(1);
+        tails[0] = head;
+        lastRebuiltKey = null;
         size = 0;
+        modCount++;
     }
 
     @Override
     public Set<K> keySet() {
-        Set<K> result = new HashSet<>(size);
-        Node<K, V> cur = getLowestHead().next;
-        while (cur != null) {
-            result.add(cur.key);
-            cur = cur.next;
-        }
-
-        return result;
+        return navigableKeySet();
     }
 
     @Override
     public Collection<V> values() {
-        Collection<V> result = new HashSet<>(size);
-        Node<K, V> cur = getLowestHead().next;
-        while (cur != null) {
-            result.add(cur.value);
-            cur = cur.next;
+        if (values == null) {
+            values = new Values();
         }
 
-        return result;
+        return values;
     }
 
     @Override
     public Set<Entry<K, V>> entrySet() {
-        Set<Entry<K, V>> result = new HashSet<>(size);
-        Node<K, V> cur = getLowestHead().next;
-        while (cur != null) {
-            result.add(new AbstractMap.SimpleEntry<>(cur.key, cur.value));
-            cur = cur.next;
+        if (entrySet == null) {
+            entrySet = new EntrySet();
         }
 
-        return result;
+        return entrySet;
     }
 
-    private long getRandomLevel() {
-        long level = 0;
-        while (level <= size && random.nextDouble() < iterationProbability) {
-            level++;
-        }
+    /**
+     * Creates a cursor positioned at the first entry of the list. Searches made through the cursor start from the
+     * path to its current position rather than from the head.
+     *
+     * @return A new cursor.
+     */
+    public Cursor<K, V> cursor() {
+        return new NodeCursor();
+    }
 
-        return level;
+    /**
+     * Checks whether the list supports access by position.
+     *
+     * @return True if the list is indexed.
+     */
+    public boolean isIndexed() {
+        return indexed;
     }
 
-    // Gets the head node at the lowest level in the list.
-    private Node<K, V> getLowestHead() {
+    /**
+     * Gets the entry at a position in key order.
+     *
+     * @param index The zero-based position of the entry.
+     * @return An immutable snapshot of the entry.
+     * @throws IndexOutOfBoundsException     If the index is negative or not less than the size of the list.
+     * @throws UnsupportedOperationException If the list is not indexed.
+     */
+    public Entry<K, V> getByIndex(int index) {
+        checkIndexed();
+        return exportEntry(getNodeByIndex(Objects.checkIndex(index, size)));
+    }
+
+    /**
+     * Gets the position of a key in key order.
+     *
+     * @param key The key to look up.
+     * @return The zero-based position of the key, or -1 if the key is not mapped.
+     * @throws UnsupportedOperationException If the list is not indexed.
+     */
+    public int indexOf(K key) {
+        checkIndexed();
+        if (key == null) {
+            throw new NullPointerException();
+        }
+
         Node<K, V> cur = head;
-        while (cur.down != null) {
-            cur = cur.down;
+        Node<K, V> bound = null;
+        int rank = 0;
+        for (int i = head.getHeight() - 1; i >= 0; i--) {
+            Node<K, V> next = cur.getNext(i);
+            int c = 1;
+            while (next != bound && (c = compare(next.key, key)) < 0) {
+                rank += cur.getSpan(i);
+                cur = next;
+                next = cur.getNext(i);
+            }
+
+            if (c == 0) {
+                return rank + cur.getSpan(i) - 1;
+            }
+
+            bound = next;
         }
 
-        return cur;
+        return -1;
     }
 
-    @Override
-    public boolean equals(Object o) {
-        if (o == null) {
-            return false;
+    /**
+     * Gets the number of keys in the list that are strictly less than a key, whether or not the key is mapped.
+     *
+     * @param key The key to rank.
+     * @return The number of lesser keys.
+     * @throws UnsupportedOperationException If the list is not indexed.
+     */
+    public int rank(K key) {
+        checkIndexed();
+        if (key == null) {
+            throw new NullPointerException();
         }
 
-        if (!(o instanceof SkipList)) {
-            return false;
+        return getRank(key);
+    }
+
+    /**
+     * Gets a live view of the entries between two positions. The bounds of the view are the keys at those positions
+     * when the view is created, so later modifications may change which positions the view covers.
+     *
+     * @param fromIndex The position of the first entry in the view, inclusive.
+     * @param toIndex   The position of the last entry in the view, exclusive.
+     * @return A view of the entries between the positions.
+     * @throws IndexOutOfBoundsException     If the positions are out of range or in the wrong order.
+     * @throws UnsupportedOperationException If the list is not indexed.
+     */
+    public NavigableMap<K, V> subMapByIndex(int fromIndex, int toIndex) {
+        checkIndexed();
+        Objects.checkFromToIndex(fromIndex, toIndex, size);
+        if (fromIndex == size) {
+            return size == 0 ? Collections.emptyNavigableMap() : tailMap(lastKey(), false);
         }
 
-        SkipList<?, ?> other = (SkipList<?, ?>) o;
-        return entrySet().equals(other.entrySet());
-    }    // Selects a random level by incrementing a counter a random number of times.
+        K fromKey = getNodeByIndex(fromIndex).key;
+        if (toIndex == size) {
+            return tailMap(fromKey, true);
+        }
 
-    private static class Node<K extends Comparable<K>, V> {
-        public K key;
-        public V value;
-        public long level;
-        public Node<K, V> next;
-        public Node<K, V> down;
+        return subMap(fromKey, true, toIndex == fromIndex ? fromKey : getNodeByIndex(toIndex).key, false);
+    }
 
-        public Node(K key, V value, long level, Node<K, V> next, Node<K, V> down) {
-            this.key = key;
-            this.value = value;
-            this.level = level;
-            this.next = next;
-            this.down = down;
+    /**
+     * Reselects the levels of up to the specified number of nodes with the level generator, continuing from the node
+     * after the last one rebuilt by the previous call and wrapping around to the first node at the end of the list.
+     * <p>
+     * Towers keep the levels selected when they were inserted, so after an adaptive generator changes its probability,
+     * the list only converges to it as entries are replaced. Calling this method during quiet periods converges it
+     * incrementally instead, in O(log n) expected time per node whose level changes. A node whose level changes is
+     * replaced by a new node, so this is a structural modification.
+     *
+     * @param maxNodes The greatest number of nodes to visit.
+     * @return The number of nodes whose level changed.
+     */
+    public int rebuildTowers(int maxNodes) {
+        if (maxNodes < 0) {
+            throw new IllegalArgumentException("maxNodes must not be negative");
         }
 
-        public boolean isNextKeyLessThan(K key) {
-            return (next != null && next.key.compareTo(key) < 0);
-        }
+        int rebuilt = 0;
+        Node<K, V> n = lastRebuiltKey == null ? getFirstNode() : getHigherNode(lastRebuiltKey);
+        for (int visited = 0; visited < Math.min(maxNodes, size); visited++) {
+            if (n == null) {
+                n = getFirstNode();
+            }
+
+            Node<K, V> next = n.next;
+            int level = getRandomLevel();
+            if (level + 1 != n.getHeight()) {
+                relinkNode(n, level);
+                rebuilt++;
+            }
 
-        public boolean isNextKeyEqualTo(K key) {
-            return (next != null && next.key.equals(key));
+            lastRebuiltKey = n.key;
+            n = next;
         }
+
+        return rebuilt;
+    }
+
+    @Override
+    public Comparator<? super K> comparator() {
+        return comparator;
+    }
+
+    @Override
+    public K firstKey() {
+        return getKeyOrThrow(getFirstNode());
+    }
+
+    @Override
+    public K lastKey() {
+        return getKeyOrThrow(getLastNode());
+    }
+
+    @Override
+    public Entry<K, V> firstEntry() {
+        return exportEntry(getFirstNode());
+    }
+
+    @Override
+    public Entry<K, V> lastEntry() {
+        return exportEntry(getLastNode());
+    }
+
+    @Override
+    public Entry<K, V> pollFirstEntry() {
+        return pollNode(getFirstNode());
     }
 
+    @Override
+    public Entry<K, V> pollLastEntry() {
+        return pollNode(getLastNode());
+    }
+
+    @Override
+    public Entry<K, V> lowerEntry(K key) {
+        return exportEntry(getLowerNode(key));
+    }
+
+    @Override
+    public K lowerKey(K key) {
+        return getKeyOrNull(getLowerNode(key));
+    }
+
+    @Override
+    public Entry<K, V> floorEntry(K key) {
+        return exportEntry(getFloorNode(key));
+    }
+
+    @Override
+    public K floorKey(K key) {
+        return getKeyOrNull(getFloorNode(key));
+    }
+
+    @Override
+    public Entry<K, V> ceilingEntry(K key) {
+        return exportEntry(getCeilingNode(key));
+    }
+
+    @Override
+    public K ceilingKey(K key) {
+        return getKeyOrNull(getCeilingNode(key));
+    }
+
+    @Override
+    public Entry<K, V> higherEntry(K key) {
+        return exportEntry(getHigherNode(key));
+    }
+
+    @Override
+    public K higherKey(K key) {
+        return getKeyOrNull(getHigherNode(key));
+    }
+
+    @Override
+    public NavigableMap<K, V> descendingMap() {
+        return new SubMap(null, false, null, false, true);
+    }
+
+    @Override
+    public NavigableSet<K> navigableKeySet() {
+        if (keySet == null) {
+            keySet = new KeySet<>(this);
+        }
 
+        return keySet;
+    }
+
+    @Override
+    public NavigableSet<K> descendingKeySet() {
+        return descendingMap().navigableKeySet();
+    }
+
+    @Override
+    public NavigableMap<K, V> subMap(K fromKey, boolean fromInclusive, K toKey, boolean toInclusive) {
+        return new SubMap(Objects.requireNonNull(fromKey), fromInclusive, Objects.requireNonNull(toKey), toInclusive, false);
+    }
+
+    @Override
+    public NavigableMap<K, V> headMap(K toKey, boolean inclusive) {
+        return new SubMap(null, false, Objects.requireNonNull(toKey), inclusive, false);
+    }
+
+    @Override
+    public NavigableMap<K, V> tailMap(K fromKey, boolean inclusive) {
+        return new SubMap(Objects.requireNonNull(fromKey), inclusive, null, false, false);
+    }
+
+    @Override
+    public SortedMap<K, V> subMap(K fromKey, K toKey) {
+        return subMap(fromKey, true, toKey, false);
+    }
+
+    @Override
+    public SortedMap<K, V> headMap(K toKey) {
+        return headMap(toKey, false);
+    }
+
+    @Override
+    public SortedMap<K, V> tailMap(K fromKey) {
+        return tailMap(fromKey, true);
+    }
+
+    // Selects a random level. The head grows by at most one level per insertion, so that a single unlucky selection
+    // cannot make a small list tall.
+    private int getRandomLevel() {
+        return Math.min(levelGenerator.nextLevel(), head.getHeight());
+    }
+
+    // Counts the comparisons and hops of the search for a key, then performs an operation on the key, timing it as a
+    // flight recorder event. The search is counted the way getNode makes it, which puts and removes also follow.
+    private <R> R trace(String operation, Object key, Supplier<R> action) {
+        @SuppressWarnings("unchecked")
+        K k = (K) key;
+        if (k == null) {
+            throw new NullPointerException();
+        }
+
+        int comparisons = 0;
+        int hops = 0;
+        Node<K, V> cur = head;
+        Node<K, V> bound = null;
+        for (int i = head.getHeight() - 1; i >= 0; i--) {
+            Node<K, V> next = cur.getNext(i);
+            int c = 1;
+            while (next != bound) {
+                comparisons++;
+                if ((c = compare(next.key, k)) >= 0) {
+                    break;
+                }
+
+                cur = next;
+                next = cur.getNext(i);
+                hops++;
+            }
+
+            if (c == 0) {
+                break;
+            }
+
+            bound = next;
+        }
+
+        StatsRecorder recorder = stats;
+        SkipListOperationEvent event = new SkipListOperationEvent();
+        event.begin();
+        R result = action.get();
+        event.end();
+        recorder.record(comparisons, hops);
+        if (event.shouldCommit()) {
+            event.operation = operation;
+            event.comparisons = comparisons;
+            event.hops = hops;
+            event.size = size;
+            event.headHeight = head.getHeight();
+            event.commit();
+        }
+
+        return result;
+    }
+
+    // Measures the search path for a key and reports it to the adaptive level generator.
+    private void sampleSearchPath(K key) {
+        int length = 0;
+        Node<K, V> cur = head;
+        for (int i = head.getHeight() - 1; i >= 0; i--) {
+            while (isNextKeyLessThan(cur, i, key)) {
+                cur = cur.getNext(i);
+                length++;
+            }
+
+            length++;
+        }
+
+        adaptiveLevelGenerator.recordSearchPathLength(length, size);
+    }
+
+    // Selects the level of the node at a one-based position so that every level holds every (1 / p)th node of the
+    // level beneath it.
+    private int getBalancedLevel(int position) {
+        double probability = levelGenerator.getProbability();
+        int period = (int) Math.max(2, Math.min(Integer.MAX_VALUE, Math.round(1 / probability)));
+        int level = 0;
+        while (level < levelGenerator.getMaxLevel() && position % period == 0) {
+            position /= period;
+            level++;
+        }
+
+        return level;
+    }
+
+    private void checkIndexed() {
+        if (!indexed) {
+            throw new UnsupportedOperationException("list is not indexed");
+        }
+    }
+
+    // Gets the node at a zero-based position that is known to be in range, by following links while they do not
+    // overshoot its one-based rank.
+    private Node<K, V> getNodeByIndex(int index) {
+        int target = index + 1;
+        Node<K, V> cur = head;
+        int rank = 0;
+        for (int i = head.getHeight() - 1; i >= 0; i--) {
+            while (cur.getNext(i) != null && rank + cur.getSpan(i) <= target) {
+                rank += cur.getSpan(i);
+                cur = cur.getNext(i);
+            }
+
+            if (rank == target) {
+                return cur;
+            }
+        }
+
+        return cur;
+    }
+
+    // Gets the number of keys strictly less than a key in an indexed list.
+    private int getRank(K key) {
+        Node<K, V> cur = head;
+        int rank = 0;
+        for (int i = head.getHeight() - 1; i >= 0; i--) {
+            while (isNextKeyLessThan(cur, i, key)) {
+                rank += cur.getSpan(i);
+                cur = cur.getNext(i);
+            }
+        }
+
+        return rank;
+    }
+
+    // Raises the height of the head, leaving the new levels empty.
+    private void grow(int height) {
+        int oldHeight = head.getHeight();
+        head.grow(height);
+        preds = Arrays.copyOf(preds, height);
+        ranks = Arrays.copyOf(ranks, height);
+        tails = Arrays.copyOf(tails, height);
+        Arrays.fill(tails, oldHeight, height, head);
+        if (indexed) {
+            // An empty level of the head spans every node and the end of the list.
+            head.spans = head.spans == null ? new int[height - 1] : Arrays.copyOf(head.spans, height - 1);
+            Arrays.fill(head.spans, oldHeight - 1, height - 1, size + 1);
+        }
+    }
+
+    // Creates a node that is not yet linked into the list. Subclasses may create nodes that carry extra state.
+    Node<K, V> newNode(K key, V value, int height) {
+        Node<K, V> n = new Node<>(key, value, height);
+        if (indexed && height > 1) {
+            n.spans = new int[height - 1];
+        }
+
+        return n;
+    }
+
+    // Links a new node after the given predecessors at each level at or beneath its own height. The ranks of the
+    // predecessors are only used by indexed lists. A link to the end of the list spans the nodes after its source and
+    // the end itself, so that spans beneath a new node can be split the same way whether or not it is the last node.
+    private void linkNode(Node<K, V>[] preds, int[] ranks, Node<K, V> n) {
+        int height = n.getHeight();
+        for (int i = 0; i < height; i++) {
+            n.setNext(i, preds[i].getNext(i));
+            preds[i].setNext(i, n);
+            if (n.getNext(i) == null) {
+                tails[i] = n;
+            }
+        }
+
+        if (indexed) {
+            for (int i = 1; i < head.getHeight(); i++) {
+                if (i < height) {
+                    int distance = ranks[0] - ranks[i];
+                    n.setSpan(i, preds[i].getSpan(i) - distance);
+                    preds[i].setSpan(i, distance + 1);
+                } else {
+                    preds[i].setSpan(i, preds[i].getSpan(i) + 1);
+                }
+            }
+        }
+
+        size++;
+        modCount++;
+        afterLink(preds, n);
+    }
+
+    // Unlinks a node from the given predecessors at each level.
+    private void unlinkNode(Node<K, V>[] preds, Node<K, V> n) {
+        beforeUnlink(n);
+        int height = n.getHeight();
+        for (int i = 0; i < height; i++) {
+            preds[i].setNext(i, n.getNext(i));
+            if (tails[i] == n) {
+                tails[i] = preds[i];
+            }
+        }
+
+        if (indexed) {
+            for (int i = 1; i < head.getHeight(); i++) {
+                preds[i].setSpan(i, preds[i].getSpan(i) + (i < height ? n.getSpan(i) : 0) - 1);
+            }
+        }
+
+        size--;
+        modCount++;
+        afterUnlink(preds, n);
+    }
+
+    // Replaces a node with one of a different level holding the same mapping.
+    private void relinkNode(Node<K, V> n, int level) {
+        if (level >= head.getHeight()) {
+            grow(level + 1);
+        }
+
+        Node<K, V> cur = head;
+        int rank = 0;
+        for (int i = head.getHeight() - 1; i >= 0; i--) {
+            while (isNextKeyLessThan(cur, i, n.key)) {
+                if (indexed) {
+                    rank += cur.getSpan(i);
+                }
+
+                cur = cur.getNext(i);
+            }
+
+            preds[i] = cur;
+            ranks[i] = rank;
+        }
+
+        unlinkNode(preds, n);
+        linkNode(preds, ranks, newNode(n.key, n.value, level + 1));
+    }
+
+    // Links a node holding a key greater than every key in the list after the last node at each level at or beneath
+    // a randomly selected level.
+    private void linkLast(K key, V value) {
+        int level = getRandomLevel();
+        if (level >= head.getHeight()) {
+            grow(level + 1);
+        }
+
+        linkLast(key, value, level);
+    }
+
+    // Links a node holding a key greater than every key in the list after the last node at each level at or beneath
+    // the given level.
+    private void linkLast(K key, V value, int level) {
+        // The previous tails are the predecessors of the new node at every level.
+        Node<K, V> n = newNode(key, value, level + 1);
+        System.arraycopy(tails, 0, preds, 0, head.getHeight());
+        for (int i = 0; i <= level; i++) {
+            preds[i].setNext(i, n);
+            tails[i] = n;
+        }
+
+        // Links from the previous tails already span exactly up to the new node. Links that pass over it now span one
+        // more node.
+        if (indexed) {
+            for (int i = 1; i < head.getHeight(); i++) {
+                if (i <= level) {
+                    n.setSpan(i, 1);
+                } else {
+                    preds[i].setSpan(i, preds[i].getSpan(i) + 1);
+                }
+            }
+        }
+
+        size++;
+        modCount++;
+        afterLink(preds, n);
+    }
+
+    // Links the nodes of another list, whose keys are all greater than every key in this list, after the last node at
+    // each level. A link to the end of a list spans the end itself, so a link from the last node of this list spans
+    // one node fewer than it did, plus whatever the head of the other list spanned at its level.
+    private void concat(SkipList<K, V> other) {
+        if (other.head.getHeight() > head.getHeight()) {
+            grow(other.head.getHeight());
+        }
+
+        for (int i = 0; i < head.getHeight(); i++) {
+            if (i >= other.head.getHeight()) {
+                if (indexed) {
+                    tails[i].setSpan(i, tails[i].getSpan(i) + other.size);
+                }
+
+                continue;
+            }
+
+            if (indexed && i > 0) {
+                tails[i].setSpan(i, tails[i].getSpan(i) - 1 + other.head.getSpan(i));
+            }
+
+            Node<K, V> first = other.head.getNext(i);
+            if (first != null) {
+                tails[i].setNext(i, first);
+                tails[i] = other.tails[i];
+            }
+        }
+
+        size += other.size;
+        modCount++;
+    }
+
+    // Takes over the nodes of another list. The other list must be cleared before it is used again.
+    private void adopt(SkipList<K, V> other) {
+        head = other.head;
+        preds = other.preds;
+        ranks = other.ranks;
+        tails = other.tails;
+        size = other.size;
+        lastRebuiltKey = null;
+        modCount++;
+    }
+
+    // Builds a new list by merging the bottom levels of this list and another. Keys mapped only by this list are kept
+    // if keepThis is set, and those mapped only by the other list if keepOther is set. Keys mapped by both are mapped
+    // to the value the resolver computes, or dropped if there is no resolver. Keys arrive in ascending order, so each is
+    // linked after the last node of the new list without searching.
+    private SkipList<K, V> combine(SkipList<K, V> other, boolean keepThis, boolean keepOther,
+                                   BiFunction<? super V, ? super V, ? extends V> resolver) {
+        checkSameOrder(other);
+        SkipList<K, V> result = new SkipList<>(comparator,
+                LevelGenerator.splittable(levelGenerator.getProbability(), levelGenerator.getMaxLevel()), indexed);
+        Node<K, V> a = getFirstNode();
+        Node<K, V> b = other.getFirstNode();
+        while (a != null && b != null) {
+            int c = compare(a.key, b.key);
+            if (c < 0) {
+                if (keepThis) {
+                    result.linkLast(a.key, a.value);
+                }
+
+                a = a.next;
+            } else if (c > 0) {
+                if (keepOther) {
+                    result.linkLast(b.key, b.value);
+                }
+
+                b = b.next;
+            } else {
+                if (resolver != null) {
+                    result.linkLast(a.key, resolver.apply(a.value, b.value));
+                }
+
+                a = a.next;
+                b = b.next;
+            }
+        }
+
+        for (; keepThis && a != null; a = a.next) {
+            result.linkLast(a.key, a.value);
+        }
+
+        for (; keepOther && b != null; b = b.next) {
+            result.linkLast(b.key, b.value);
+        }
+
+        return result;
+    }
+
+    private void checkSameOrder(SkipList<K, V> other) {
+        if (!Objects.equals(comparator, other.comparator)) {
+            throw new IllegalArgumentException("lists are not in the same order");
+        }
+    }
+
+    // Called after a node has been linked after the given predecessors, which hold the last node before it at every
+    // level of the head.
+    void afterLink(Node<K, V>[] preds, Node<K, V> n) {
+    }
+
+    // Called before a node is unlinked, while it can still be reached from the head.
+    void beforeUnlink(Node<K, V> n) {
+    }
+
+    // Called after a node has been unlinked from the given predecessors, which hold the last node before it at every
+    // level of the head.
+    void afterUnlink(Node<K, V>[] preds, Node<K, V> n) {
+    }
+
+    // Compares two keys with the comparator of the list, or by their natural ordering if it has none.
+    @SuppressWarnings("unchecked")
+    final int compare(Object a, Object b) {
+        return comparator == null ? ((Comparable<Object>) a).compareTo(b) : comparator.compare((K) a, (K) b);
+    }
+
+    // Checks whether the successor of a node at a level holds a key less than the given key.
+    boolean isNextKeyLessThan(Node<K, V> n, int level, K key) {
+        Node<K, V> next = n.getNext(level);
+        return next != null && compare(next.key, key) < 0;
+    }
+
+    Node<K, V> getHead() {
+        return head;
+    }
+
+    // Creates a spliterator over the keys of the list, for its key set views.
+    Spliterator<K> keySpliterator() {
+        return new KeySpliterator();
+    }
+
+    // Appends entries in strictly ascending key order, each of which must be greater than every key in the list.
+    private void appendSorted(Iterator<? extends Entry<? extends K, ? extends V>> entries, boolean balanced) {
+        while (entries.hasNext()) {
+            Entry<? extends K, ? extends V> entry = entries.next();
+            K key = entry.getKey();
+            if (key == null) {
+                throw new NullPointerException();
+            }
+
+            Node<K, V> last = tails[0];
+            if (!last.isHead() && compare(last.key, key) >= 0) {
+                throw new IllegalArgumentException("keys are not in strictly ascending order");
+            }
+
+            if (!balanced) {
+                linkLast(key, entry.getValue());
+                continue;
+            }
+
+            int level = getBalancedLevel(size + 1);
+            if (level >= head.getHeight()) {
+                grow(level + 1);
+            }
+
+            linkLast(key, entry.getValue(), level);
+        }
+    }
+
+    // Gets the node holding a key, or null if the key is not mapped.
+    private Node<K, V> getNode(Object key) {
+        @SuppressWarnings("unchecked")
+        K k = (K) key;
+        if (k == null) {
+            throw new NullPointerException();
+        }
+
+        if (adaptiveLevelGenerator != null && adaptiveLevelGenerator.recordRead()) {
+            sampleSearchPath(k);
+        }
+
+        // The node at which the search descends from a level is greater than the key, so where it is reached again on
+        // the level beneath, the search descends again without comparing it.
+        Node<K, V> cur = head;
+        Node<K, V> bound = null;
+        for (int i = head.getHeight() - 1; i >= 0; i--) {
+            Node<K, V> next = cur.getNext(i);
+            int c = 1;
+            while (next != bound && (c = compare(next.key, k)) < 0) {
+                cur = next;
+                next = cur.getNext(i);
+            }
+
+            if (c == 0) {
+                return next;
+            }
+
+            bound = next;
+        }
+
+        return null;
+    }
+
+    // Finds the node with the greatest key strictly less than the given key, or the head if there is none. This is
+    // the same top-down descent used by get, except that it always continues to the bottom level.
+    private Node<K, V> findPredecessor(K key) {
+        if (key == null) {
+            throw new NullPointerException();
+        }
+
+        Node<K, V> cur = head;
+        for (int i = head.getHeight() - 1; i >= 0; i--) {
+            while (isNextKeyLessThan(cur, i, key)) {
+                cur = cur.getNext(i);
+            }
+        }
+
+        return cur;
+    }
+
+    // Gets the first node in the list, or null if the list is empty.
+    Node<K, V> getFirstNode() {
+        return head.next;
+    }
+
+    // Gets the last node in the list, or null if the list is empty.
+    private Node<K, V> getLastNode() {
+        Node<K, V> last = tails[0];
+        return last.isHead() ? null : last;
+    }
+
+    // Gets the node with the greatest key strictly less than the given key.
+    private Node<K, V> getLowerNode(K key) {
+        Node<K, V> pred = findPredecessor(key);
+        return pred.isHead() ? null : pred;
+    }
+
+    // Gets the node with the greatest key less than or equal to the given key.
+    private Node<K, V> getFloorNode(K key) {
+        Node<K, V> pred = findPredecessor(key);
+        if (pred.next != null && compare(pred.next.key, key) == 0) {
+            return pred.next;
+        }
+
+        return pred.isHead() ? null : pred;
+    }
+
+    // Gets the node with the least key greater than or equal to the given key.
+    Node<K, V> getCeilingNode(K key) {
+        return findPredecessor(key).next;
+    }
+
+    // Gets the node with the least key strictly greater than the given key.
+    Node<K, V> getHigherNode(K key) {
+        Node<K, V> n = findPredecessor(key).next;
+        if (n != null && compare(n.key, key) == 0) {
+            n = n.next;
+        }
+
+        return n;
+    }
+
+    // Removes the given node from the list and returns an immutable snapshot of its mapping.
+    private Entry<K, V> pollNode(Node<K, V> n) {
+        if (n == null) {
+            return null;
+        }
+
+        Entry<K, V> entry = exportEntry(n);
+        remove(n.key);
+        return entry;
+    }
+
+    // Creates an immutable snapshot of the mapping held by a node, as required for entries returned by navigation
+    // methods.
+    private static <K, V> Entry<K, V> exportEntry(Node<K, V> n) {
+        return n == null ? null : new AbstractMap.SimpleImmutableEntry<>(n.key, n.value);
+    }
+
+    private static <K, V> K getKeyOrNull(Node<K, V> n) {
+        return n == null ? null : n.key;
+    }
+
+    private static <K, V> K getKeyOrThrow(Node<K, V> n) {
+        if (n == null) {
+            throw new NoSuchElementException();
+        }
+
+        return n.key;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (o == this) {
+            return true;
+        }
+
+        if (!(o instanceof Map)) {
+            return false;
+        }
+
+        Map<?, ?> m = (Map<?, ?>) o;
+        if (m.size() != size) {
+            return false;
+        }
+
+        // Lists in the same order hold equal keys at the same positions, so they are compared in a single pass.
+        if (o instanceof SkipList && Objects.equals(((SkipList<?, ?>) o).comparator, comparator)) {
+            Node<?, ?> b = ((SkipList<?, ?>) o).getFirstNode();
+            for (Node<K, V> a = getFirstNode(); a != null; a = a.next, b = b.next) {
+                if (compare(a.key, b.key) != 0 || !Objects.equals(a.value, b.value)) {
+                    return false;
+                }
+            }
+
+            return true;
+        }
+
+        try {
+            for (Node<K, V> n = getFirstNode(); n != null; n = n.next) {
+                Object value = m.get(n.key);
+                if (!Objects.equals(n.value, value) || (value == null && !m.containsKey(n.key))) {
+                    return false;
+                }
+            }
+        } catch (ClassCastException | NullPointerException e) {
+            return false;
+        }
+
+        return true;
+    }
+
+    @Override
+    public int hashCode() {
+        int h = 0;
+        for (Node<K, V> n = getFirstNode(); n != null; n = n.next) {
+            h += n.hashCode();
+        }
+
+        return h;
+    }
+
+    // Each key is held by a single node, which is exposed directly as an entry of the list's views so that iterating
+    // allocates nothing per entry. The link at the bottom level is stored inline and the links at the express levels
+    // above it are stored in an array, so the majority of nodes, which are never promoted, are a single object.
+    static class Node<K, V> implements Entry<K, V> {
+        public final K key;
+        public V value;
+        public Node<K, V> next;
+        public Node<K, V>[] up;
+        // The number of bottom-level nodes spanned by each link in up, in indexed lists only.
+        public int[] spans;
+
+        public Node(K key, V value, int height) {
+            this.key = key;
+            this.value = value;
+            if (height > 1) {
+                grow(height);
+            }
+        }
+
+        // Creates an array of nodes, as Java cannot create an array of a generic type directly.
+        @SuppressWarnings("unchecked")
+        static <K, V> Node<K, V>[] newArray(int length) {
+            return (Node<K, V>[]) new Node<?, ?>[length];
+        }
+
+        public int getHeight() {
+            return up == null ? 1 : up.length + 1;
+        }
+
+        public Node<K, V> getNext(int level) {
+            return level == 0 ? next : up[level - 1];
+        }
+
+        public void setNext(int level, Node<K, V> n) {
+            if (level == 0) {
+                next = n;
+            } else {
+                up[level - 1] = n;
+            }
+        }
+
+        // Links at the bottom level always span a single node.
+        public int getSpan(int level) {
+            return level == 0 ? 1 : spans[level - 1];
+        }
+
+        public void setSpan(int level, int span) {
+            spans[level - 1] = span;
+        }
+
+        // Raises the height of the node, leaving the new levels unlinked.
+        public void grow(int height) {
+            up = up == null ? Node.newArray(height - 1) : Arrays.copyOf(up, height - 1);
+        }
+
+        // Heads are the only nodes without a key.
+        public boolean isHead() {
+            return key == null;
+        }
+
+        @Override
+        public K getKey() {
+            return key;
+        }
+
+        @Override
+        public V getValue() {
+            return value;
+        }
+
+        @Override
+        public V setValue(V value) {
+            V prevValue = this.value;
+            this.value = value;
+            return prevValue;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (!(o instanceof Entry)) {
+                return false;
+            }
+
+            Entry<?, ?> e = (Entry<?, ?>) o;
+            return Objects.equals(key, e.getKey()) && Objects.equals(value, e.getValue());
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hashCode(key) ^ Objects.hashCode(value);
+        }
+
+        @Override
+        public String toString() {
+            return key + "=" + value;
+        }
+    }
+
+    // Iterates over the bottom level of the list. Iterators fail fast if the list is structurally modified other than
+    // through the iterator itself.
+    private abstract class NodeIterator<T> implements Iterator<T> {
+        private Node<K, V> next = getFirstNode();
+        private Node<K, V> lastReturned;
+        private int expectedModCount = modCount;
+
+        @Override
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        protected Node<K, V> nextNode() {
+            if (next == null) {
+                throw new NoSuchElementException();
+            }
+
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+
+            lastReturned = next;
+            next = next.next;
+            return lastReturned;
+        }
+
+        @Override
+        public void remove() {
+            if (lastReturned == null) {
+                throw new IllegalStateException();
+            }
+
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+
+            SkipList.this.remove(lastReturned.key);
+            lastReturned = null;
+            expectedModCount = modCount;
+        }
+    }
+
+    private class EntryIterator extends NodeIterator<Entry<K, V>> {
+        @Override
+        public Entry<K, V> next() {
+            return nextNode();
+        }
+    }
+
+    private class ValueIterator extends NodeIterator<V> {
+        @Override
+        public V next() {
+            return nextNode().value;
+        }
+    }
+
+    // Traverses the bottom level from a node up to, but not including, a fence node, or to the end of the list if the
+    // fence is null. The range is split at the middle node of the highest level that has a few nodes between the base
+    // of the range and the fence. The base is the head or a node at least as tall as that level, and so is the fence,
+    // so the level can be followed from one to the other without comparing keys, and both halves keep that property.
+    // The express levels are already spaced to divide the range evenly. A range that has been partly traversed is not
+    // split. Like iterators, spliterators fail fast if the list is structurally modified after they are created.
+    private abstract class NodeSpliterator<T> implements Spliterator<T> {
+        // The least number of nodes a level must have in the range for the range to be split at it, above the lowest
+        // express level.
+        private static final int MIN_SPLIT_NODES = 3;
+        private final Node<K, V> fence;
+        private final int expectedModCount;
+        private Node<K, V> base;
+        private Node<K, V> current;
+        private int level;
+        private long estimate;
+        // Whether the estimate is the exact number of remaining elements, which is only known until the first split.
+        private boolean sized;
+
+        NodeSpliterator() {
+            this(head, head.next, null, head.getHeight() - 1, size, modCount);
+            sized = true;
+        }
+
+        NodeSpliterator(Node<K, V> base, Node<K, V> current, Node<K, V> fence, int level, long estimate,
+                        int expectedModCount) {
+            this.base = base;
+            this.current = current;
+            this.fence = fence;
+            this.level = level;
+            this.estimate = estimate;
+            this.expectedModCount = expectedModCount;
+        }
+
+        // Gets the element held by a node.
+        abstract T export(Node<K, V> n);
+
+        // Creates a spliterator of the same kind over a range.
+        abstract NodeSpliterator<T> newSpliterator(Node<K, V> base, Node<K, V> current, Node<K, V> fence, int level,
+                                                   long estimate, int expectedModCount);
+
+        abstract int getCharacteristics();
+
+        @Override
+        public Spliterator<T> trySplit() {
+            if (current == fence || current != (base.isHead() ? base.next : base)) {
+                return null;
+            }
+
+            for (; level > 0; level--) {
+                int count = 0;
+                for (Node<K, V> n = base.getNext(level); n != fence; n = n.getNext(level)) {
+                    count++;
+                }
+
+                // A level with few nodes may divide the range unevenly, so a lower one is used unless this is the last.
+                if (count == 0 || (count < MIN_SPLIT_NODES && level > 1)) {
+                    continue;
+                }
+
+                // The nodes of the level divide the range into count + 1 lanes of similar length. This spliterator
+                // keeps the lanes after the middle node, and the prefix takes the rest.
+                int middle = (count + 1) / 2;
+                Node<K, V> split = base.getNext(level);
+                for (int i = 1; i < middle; i++) {
+                    split = split.getNext(level);
+                }
+
+                long prefixEstimate = estimate * middle / (count + 1);
+                Spliterator<T> prefix = newSpliterator(base, current, split, level, prefixEstimate, expectedModCount);
+                base = split;
+                current = split;
+                estimate -= prefixEstimate;
+                sized = false;
+                return prefix;
+            }
+
+            return null;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super T> action) {
+            Objects.requireNonNull(action);
+            Node<K, V> n = current;
+            if (n == fence) {
+                return false;
+            }
+
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+
+            current = n.next;
+            if (estimate > 0) {
+                estimate--;
+            }
+
+            action.accept(export(n));
+            return true;
+        }
+
+        @Override
+        public void forEachRemaining(Consumer<? super T> action) {
+            Objects.requireNonNull(action);
+            Node<K, V> fence = this.fence;
+            Node<K, V> n = current;
+            current = fence;
+            estimate = 0;
+            // The fence may have been unlinked, in which case the walk ends at the end of the list and the modification
+            // is reported below.
+            for (; n != fence && n != null; n = n.next) {
+                action.accept(export(n));
+            }
+
+            if (modCount != expectedModCount) {
+                throw new ConcurrentModificationException();
+            }
+        }
+
+        @Override
+        public long estimateSize() {
+            return estimate;
+        }
+
+        @Override
+        public int characteristics() {
+            return sized ? getCharacteristics() | Spliterator.SIZED : getCharacteristics();
+        }
+    }
+
+    private class EntrySpliterator extends NodeSpliterator<Entry<K, V>> {
+        EntrySpliterator() {
+        }
+
+        EntrySpliterator(Node<K, V> base, Node<K, V> current, Node<K, V> fence, int level, long estimate,
+                         int expectedModCount) {
+            super(base, current, fence, level, estimate, expectedModCount);
+        }
+
+        @Override
+        Entry<K, V> export(Node<K, V> n) {
+            return n;
+        }
+
+        @Override
+        NodeSpliterator<Entry<K, V>> newSpliterator(Node<K, V> base, Node<K, V> current, Node<K, V> fence, int level,
+                                                    long estimate, int expectedModCount) {
+            return new EntrySpliterator(base, current, fence, level, estimate, expectedModCount);
+        }
+
+        @Override
+        int getCharacteristics() {
+            return Spliterator.ORDERED | Spliterator.SORTED | Spliterator.DISTINCT | Spliterator.NONNULL;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public Comparator<? super Entry<K, V>> getComparator() {
+            return comparator == null ? (Comparator<? super Entry<K, V>>) (Comparator<?>) Entry.comparingByKey()
+                    : Entry.comparingByKey(comparator);
+        }
+    }
+
+    private class KeySpliterator extends NodeSpliterator<K> {
+        KeySpliterator() {
+        }
+
+        KeySpliterator(Node<K, V> base, Node<K, V> current, Node<K, V> fence, int level, long estimate,
+                       int expectedModCount) {
+            super(base, current, fence, level, estimate, expectedModCount);
+        }
+
+        @Override
+        K export(Node<K, V> n) {
+            return n.key;
+        }
+
+        @Override
+        NodeSpliterator<K> newSpliterator(Node<K, V> base, Node<K, V> current, Node<K, V> fence, int level,
+                                          long estimate, int expectedModCount) {
+            return new KeySpliterator(base, current, fence, level, estimate, expectedModCount);
+        }
+
+        @Override
+        int getCharacteristics() {
+            return Spliterator.ORDERED | Spliterator.SORTED | Spliterator.DISTINCT | Spliterator.NONNULL;
+        }
+
+        @Override
+        public Comparator<? super K> getComparator() {
+            return comparator;
+        }
+    }
+
+    // Values may repeat or be null, so they are only ordered.
+    private class ValueSpliterator extends NodeSpliterator<V> {
+        ValueSpliterator() {
+        }
+
+        ValueSpliterator(Node<K, V> base, Node<K, V> current, Node<K, V> fence, int level, long estimate,
+                         int expectedModCount) {
+            super(base, current, fence, level, estimate, expectedModCount);
+        }
+
+        @Override
+        V export(Node<K, V> n) {
+            return n.value;
+        }
+
+        @Override
+        NodeSpliterator<V> newSpliterator(Node<K, V> base, Node<K, V> current, Node<K, V> fence, int level,
+                                          long estimate, int expectedModCount) {
+            return new ValueSpliterator(base, current, fence, level, estimate, expectedModCount);
+        }
+
+        @Override
+        int getCharacteristics() {
+            return Spliterator.ORDERED;
+        }
+    }
+
+    // Remembers the predecessor of its position at each level. A search climbs from the bottom of that path only until
+    // it reaches a level whose predecessor and successor bracket the key, and descends from there, so the number of
+    // levels visited grows with the logarithm of the distance moved. If the list is modified other than through the
+    // cursor, the path is reset to the head.
+    private class NodeCursor implements Cursor<K, V> {
+        private Node<K, V>[] path;
+        // The rank of each node in the path, used by indexed lists.
+        private int[] pathRanks;
+        private int expectedModCount;
+
+        NodeCursor() {
+            reset();
+        }
+
+        @Override
+        public boolean first() {
+            reset();
+            return hasEntry();
+        }
+
+        @Override
+        public boolean seek(K key) {
+            if (key == null) {
+                throw new NullPointerException();
+            }
+
+            locate(key);
+            Node<K, V> n = path[0].next;
+            return n != null && compare(n.key, key) == 0;
+        }
+
+        @Override
+        public boolean next() {
+            checkForComodification();
+            Node<K, V> n = path[0].next;
+            if (n == null) {
+                return false;
+            }
+
+            int rank = pathRanks[0] + 1;
+            for (int i = 0; i < n.getHeight(); i++) {
+                path[i] = n;
+                pathRanks[i] = rank;
+            }
+
+            return n.next != null;
+        }
+
+        @Override
+        public boolean prev() {
+            checkForComodification();
+            Node<K, V> pred = path[0];
+            if (pred.isHead()) {
+                return false;
+            }
+
+            locate(pred.key);
+            return true;
+        }
+
+        @Override
+        public boolean hasEntry() {
+            checkForComodification();
+            return path[0].next != null;
+        }
+
+        @Override
+        public K getKey() {
+            return getCurrentNode().key;
+        }
+
+        @Override
+        public V getValue() {
+            return getCurrentNode().value;
+        }
+
+        @Override
+        public V setValue(V value) {
+            return getCurrentNode().setValue(value);
+        }
+
+        @Override
+        public void insertHere(K key, V value) {
+            if (key == null) {
+                throw new NullPointerException();
+            }
+
+            checkForComodification();
+            Node<K, V> pred = path[0];
+            Node<K, V> succ = pred.next;
+            if ((!pred.isHead() && compare(pred.key, key) >= 0) || (succ != null && compare(succ.key, key) <= 0)) {
+                throw new IllegalArgumentException("key does not belong at the cursor");
+            }
+
+            int level = getRandomLevel();
+            if (level >= head.getHeight()) {
+                grow(level + 1);
+            }
+
+            extendPath();
+            linkNode(path, pathRanks, newNode(key, value, level + 1));
+            expectedModCount = modCount;
+        }
+
+        @Override
+        public V removeHere() {
+            Node<K, V> n = getCurrentNode();
+            extendPath();
+            unlinkNode(path, n);
+            expectedModCount = modCount;
+            return n.value;
+        }
+
+        private void reset() {
+            path = Node.newArray(head.getHeight());
+            Arrays.fill(path, head);
+            pathRanks = new int[head.getHeight()];
+            expectedModCount = modCount;
+        }
+
+        // Extends the path to the height of the head, which may have grown without a structural modification. Any
+        // levels added since the path was last reset are empty, so the head precedes every position on them.
+        private void extendPath() {
+            int oldHeight = path.length;
+            if (oldHeight < head.getHeight()) {
+                path = Arrays.copyOf(path, head.getHeight());
+                pathRanks = Arrays.copyOf(pathRanks, head.getHeight());
+                Arrays.fill(path, oldHeight, path.length, head);
+            }
+        }
+
+        private void checkForComodification() {
+            if (modCount != expectedModCount) {
+                reset();
+            }
+        }
+
+        private Node<K, V> getCurrentNode() {
+            checkForComodification();
+            Node<K, V> n = path[0].next;
+            if (n == null) {
+                throw new NoSuchElementException();
+            }
+
+            return n;
+        }
+
+        // Moves the path to the predecessors of a key.
+        private void locate(K key) {
+            checkForComodification();
+            int top = path.length - 1;
+            int level = 0;
+            while (level < top && !isBracketed(level, key)) {
+                level++;
+            }
+
+            // Even the top of the path may lie beyond the key, in which case the search starts from the head.
+            Node<K, V> cur = path[level];
+            int rank = pathRanks[level];
+            if (!cur.isHead() && compare(cur.key, key) >= 0) {
+                cur = head;
+                rank = 0;
+            }
+
+            for (int i = level; i >= 0; i--) {
+                while (isNextKeyLessThan(cur, i, key)) {
+                    if (indexed) {
+                        rank += cur.getSpan(i);
+                    }
+
+                    cur = cur.getNext(i);
+                }
+
+                path[i] = cur;
+                pathRanks[i] = rank;
+            }
+        }
+
+        // Checks whether the predecessor at a level is less than a key and its successor is not, in which case the
+        // key's path at that level and above is unchanged.
+        private boolean isBracketed(int level, K key) {
+            Node<K, V> pred = path[level];
+            if (!pred.isHead() && compare(pred.key, key) >= 0) {
+                return false;
+            }
+
+            Node<K, V> succ = pred.getNext(level);
+            return succ == null || compare(succ.key, key) >= 0;
+        }
+    }
+
+    // Gets the node that holds the mapping of an entry, or null if the list does not contain the entry.
+    private Node<K, V> getNodeForEntry(Object o) {
+        if (!(o instanceof Entry)) {
+            return null;
+        }
+
+        Entry<?, ?> e = (Entry<?, ?>) o;
+        if (e.getKey() == null) {
+            return null;
+        }
+
+        @SuppressWarnings("unchecked")
+        K key = (K) e.getKey();
+        Node<K, V> n = getCeilingNode(key);
+        if (n == null || compare(n.key, key) != 0 || !Objects.equals(n.value, e.getValue())) {
+            return null;
+        }
+
+        return n;
+    }
+
+    // A live view of the entries in the list.
+    private class EntrySet extends AbstractSet<Entry<K, V>> {
+        @Override
+        public Iterator<Entry<K, V>> iterator() {
+            return new EntryIterator();
+        }
+
+        @Override
+        public Spliterator<Entry<K, V>> spliterator() {
+            return new EntrySpliterator();
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return size == 0;
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            return getNodeForEntry(o) != null;
+        }
+
+        @Override
+        public boolean remove(Object o) {
+            Node<K, V> n = getNodeForEntry(o);
+            if (n == null) {
+                return false;
+            }
+
+            SkipList.this.remove(n.key);
+            return true;
+        }
+
+        @Override
+        public void clear() {
+            SkipList.this.clear();
+        }
+    }
+
+    // A live view of the values in the list, in key order.
+    private class Values extends AbstractCollection<V> {
+        @Override
+        public Iterator<V> iterator() {
+            return new ValueIterator();
+        }
+
+        @Override
+        public Spliterator<V> spliterator() {
+            return new ValueSpliterator();
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return size == 0;
+        }
+
+        @Override
+        public boolean contains(Object o) {
+            return containsValue(o);
+        }
+
+        @Override
+        public void clear() {
+            SkipList.this.clear();
+        }
+    }
+
+    // A live view of a range of keys in the list, optionally in descending order. Bounds are stored in ascending
+    // order regardless of the direction of the view, and a null bound means that the range is unbounded on that side.
+    private class SubMap extends AbstractMap<K, V> implements NavigableMap<K, V> {
+        private final K lo;
+        private final boolean loInclusive;
+        private final K hi;
+        private final boolean hiInclusive;
+        private final boolean descending;
+
+        SubMap(K lo, boolean loInclusive, K hi, boolean hiInclusive, boolean descending) {
+            if (lo != null && hi != null && compare(lo, hi) > 0) {
+                throw new IllegalArgumentException("fromKey > toKey");
+            }
+
+            this.lo = lo;
+            this.loInclusive = loInclusive;
+            this.hi = hi;
+            this.hiInclusive = hiInclusive;
+            this.descending = descending;
+        }
+
+        private boolean isTooLow(K key) {
+            if (lo == null) {
+                return false;
+            }
+
+            int c = compare(key, lo);
+            return c < 0 || (c == 0 && !loInclusive);
+        }
+
+        private boolean isTooHigh(K key) {
+            if (hi == null) {
+                return false;
+            }
+
+            int c = compare(key, hi);
+            return c > 0 || (c == 0 && !hiInclusive);
+        }
+
+        private boolean isInRange(K key) {
+            return !isTooLow(key) && !isTooHigh(key);
+        }
+
+        // Checks whether a key may be used as a bound of a narrower view. Exclusive bounds may sit on the boundary of
+        // this view even if the boundary itself is excluded.
+        private boolean isInRange(K key, boolean inclusive) {
+            if (inclusive) {
+                return isInRange(key);
+            }
+
+            return (lo == null || compare(key, lo) >= 0) && (hi == null || compare(key, hi) <= 0);
+        }
+
+        @SuppressWarnings("unchecked")
+        private K checkKey(Object key) {
+            if (key == null) {
+                throw new NullPointerException();
+            }
+
+            return (K) key;
+        }
+
+        private Node<K, V> getAbsLowest() {
+            Node<K, V> n = lo == null ? getFirstNode() : (loInclusive ? getCeilingNode(lo) : getHigherNode(lo));
+            return n == null || isTooHigh(n.key) ? null : n;
+        }
+
+        private Node<K, V> getAbsHighest() {
+            Node<K, V> n = hi == null ? getLastNode() : (hiInclusive ? getFloorNode(hi) : getLowerNode(hi));
+            return n == null || isTooLow(n.key) ? null : n;
+        }
+
+        private Node<K, V> getAbsCeiling(K key) {
+            if (isTooLow(key)) {
+                return getAbsLowest();
+            }
+
+            Node<K, V> n = getCeilingNode(key);
+            return n == null || isTooHigh(n.key) ? null : n;
+        }
+
+        private Node<K, V> getAbsHigher(K key) {
+            if (isTooLow(key)) {
+                return getAbsLowest();
+            }
+
+            Node<K, V> n = getHigherNode(key);
+            return n == null || isTooHigh(n.key) ? null : n;
+        }
+
+        private Node<K, V> getAbsFloor(K key) {
+            if (isTooHigh(key)) {
+                return getAbsHighest();
+            }
+
+            Node<K, V> n = getFloorNode(key);
+            return n == null || isTooLow(n.key) ? null : n;
+        }
+
+        private Node<K, V> getAbsLower(K key) {
+            if (isTooHigh(key)) {
+                return getAbsHighest();
+            }
+
+            Node<K, V> n = getLowerNode(key);
+            return n == null || isTooLow(n.key) ? null : n;
+        }
+
+        private Node<K, V> getFirstNodeInView() {
+            return descending ? getAbsHighest() : getAbsLowest();
+        }
+
+        private Node<K, V> getLastNodeInView() {
+            return descending ? getAbsLowest() : getAbsHighest();
+        }
+
+        // Gets the node that follows the given node in this view. Ascending views walk the bottom level directly.
+        private Node<K, V> getSuccessor(Node<K, V> n) {
+            if (descending) {
+                return getAbsLower(n.key);
+            }
+
+            Node<K, V> next = n.next;
+            return next == null || isTooHigh(next.key) ? null : next;
+        }
+
+        // Creates a narrower view from bounds in ascending order. A null bound keeps the current bound.
+        private SubMap narrow(K fromKey, boolean fromInclusive, K toKey, boolean toInclusive) {
+            if (fromKey == null) {
+                fromKey = lo;
+                fromInclusive = loInclusive;
+            } else if (!isInRange(fromKey, fromInclusive)) {
+                throw new IllegalArgumentException("fromKey out of range");
+            }
+
+            if (toKey == null) {
+                toKey = hi;
+                toInclusive = hiInclusive;
+            } else if (!isInRange(toKey, toInclusive)) {
+                throw new IllegalArgumentException("toKey out of range");
+            }
+
+            return new SubMap(fromKey, fromInclusive, toKey, toInclusive, descending);
+        }
+
+        @Override
+        public int size() {
+            // Indexed lists count the entries in the view from the ranks of its bounds.
+            if (indexed) {
+                Node<K, V> lowest = getAbsLowest();
+                Node<K, V> highest = getAbsHighest();
+                return lowest == null || highest == null ? 0 : getRank(highest.key) - getRank(lowest.key) + 1;
+            }
+
+            int count = 0;
+            for (Node<K, V> n = getFirstNodeInView(); n != null; n = getSuccessor(n)) {
+                count++;
+            }
+
+            return count;
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return getFirstNodeInView() == null;
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return isInRange(checkKey(key)) && SkipList.this.containsKey(key);
+        }
+
+        @Override
+        public V get(Object key) {
+            return isInRange(checkKey(key)) ? SkipList.this.get(key) : null;
+        }
+
+        @Override
+        public V put(K key, V value) {
+            if (!isInRange(checkKey(key))) {
+                throw new IllegalArgumentException("key out of range");
+            }
+
+            return SkipList.this.put(key, value);
+        }
+
+        @Override
+        public V remove(Object key) {
+            return isInRange(checkKey(key)) ? SkipList.this.remove(key) : null;
+        }
+
+        @Override
+        public Set<Entry<K, V>> entrySet() {
+            return new AbstractSet<>() {
+                @Override
+                public Iterator<Entry<K, V>> iterator() {
+                    return new SubMapIterator();
+                }
+
+                @Override
+                public Spliterator<Entry<K, V>> spliterator() {
+                    if (descending) {
+                        return Spliterators.spliteratorUnknownSize(iterator(),
+                                Spliterator.ORDERED | Spliterator.DISTINCT | Spliterator.NONNULL);
+                    }
+
+                    Node<K, V> first = getAbsLowest();
+                    return new EntrySpliterator(first, first, getFence(), 0, size, modCount);
+                }
+
+                @Override
+                public int size() {
+                    return SubMap.this.size();
+                }
+
+                @Override
+                public boolean isEmpty() {
+                    return SubMap.this.isEmpty();
+                }
+            };
+        }
+
+        @Override
+        public Collection<V> values() {
+            return new AbstractCollection<>() {
+                @Override
+                public Iterator<V> iterator() {
+                    Iterator<Entry<K, V>> it = new SubMapIterator();
+                    return new Iterator<>() {
+                        @Override
+                        public boolean hasNext() {
+                            return it.hasNext();
+                        }
+
+                        @Override
+                        public V next() {
+                            return it.next().getValue();
+                        }
+
+                        @Override
+                        public void remove() {
+                            it.remove();
+                        }
+                    };
+                }
+
+                @Override
+                public Spliterator<V> spliterator() {
+                    if (descending) {
+                        return Spliterators.spliteratorUnknownSize(iterator(), Spliterator.ORDERED);
+                    }
+
+                    Node<K, V> first = getAbsLowest();
+                    return new ValueSpliterator(first, first, getFence(), 0, size, modCount);
+                }
+
+                @Override
+                public int size() {
+                    return SubMap.this.size();
+                }
+
+                @Override
+                public boolean isEmpty() {
+                    return SubMap.this.isEmpty();
+                }
+            };
+        }
+
+        @Override
+        public Comparator<? super K> comparator() {
+            return descending ? Collections.reverseOrder(comparator) : comparator;
+        }
+
+        @Override
+        public K firstKey() {
+            return getKeyOrThrow(getFirstNodeInView());
+        }
+
+        @Override
+        public K lastKey() {
+            return getKeyOrThrow(getLastNodeInView());
+        }
+
+        @Override
+        public Entry<K, V> firstEntry() {
+            return exportEntry(getFirstNodeInView());
+        }
+
+        @Override
+        public Entry<K, V> lastEntry() {
+            return exportEntry(getLastNodeInView());
+        }
+
+        @Override
+        public Entry<K, V> pollFirstEntry() {
+            return pollNode(getFirstNodeInView());
+        }
+
+        @Override
+        public Entry<K, V> pollLastEntry() {
+            return pollNode(getLastNodeInView());
+        }
+
+        @Override
+        public Entry<K, V> lowerEntry(K key) {
+            return exportEntry(getLowerNodeInView(key));
+        }
+
+        @Override
+        public K lowerKey(K key) {
+            return getKeyOrNull(getLowerNodeInView(key));
+        }
+
+        @Override
+        public Entry<K, V> floorEntry(K key) {
+            return exportEntry(getFloorNodeInView(key));
+        }
+
+        @Override
+        public K floorKey(K key) {
+            return getKeyOrNull(getFloorNodeInView(key));
+        }
+
+        @Override
+        public Entry<K, V> ceilingEntry(K key) {
+            return exportEntry(getCeilingNodeInView(key));
+        }
+
+        @Override
+        public K ceilingKey(K key) {
+            return getKeyOrNull(getCeilingNodeInView(key));
+        }
+
+        @Override
+        public Entry<K, V> higherEntry(K key) {
+            return exportEntry(getHigherNodeInView(key));
+        }
+
+        @Override
+        public K higherKey(K key) {
+            return getKeyOrNull(getHigherNodeInView(key));
+        }
+
+        private Node<K, V> getLowerNodeInView(K key) {
+            return descending ? getAbsHigher(checkKey(key)) : getAbsLower(checkKey(key));
+        }
+
+        private Node<K, V> getFloorNodeInView(K key) {
+            return descending ? getAbsCeiling(checkKey(key)) : getAbsFloor(checkKey(key));
+        }
+
+        private Node<K, V> getCeilingNodeInView(K key) {
+            return descending ? getAbsFloor(checkKey(key)) : getAbsCeiling(checkKey(key));
+        }
+
+        private Node<K, V> getHigherNodeInView(K key) {
+            return descending ? getAbsLower(checkKey(key)) : getAbsHigher(checkKey(key));
+        }
+
+        @Override
+        public NavigableMap<K, V> descendingMap() {
+            return new SubMap(lo, loInclusive, hi, hiInclusive, !descending);
+        }
+
+        @Override
+        public Set<K> keySet() {
+            return navigableKeySet();
+        }
+
+        @Override
+        public NavigableSet<K> navigableKeySet() {
+            return new KeySet<>(this) {
+                @Override
+                public Spliterator<K> spliterator() {
+                    if (descending) {
+                        return super.spliterator();
+                    }
+
+                    Node<K, V> first = getAbsLowest();
+                    return new KeySpliterator(first, first, getFence(), 0, size, modCount);
+                }
+            };
+        }
+
+        @Override
+        public NavigableSet<K> descendingKeySet() {
+            return descendingMap().navigableKeySet();
+        }
+
+        // Gets the node after the last node of the range, which bounds the spliterators of ascending views, or null if
+        // the range extends to the end of the list. The spliterators start at the first node of the range and are not
+        // split, as the nodes that bound them may be of any height. Their estimate is the size of the whole list.
+        private Node<K, V> getFence() {
+            Node<K, V> last = getAbsHighest();
+            return last == null ? null : last.next;
+        }
+
+        @Override
+        public NavigableMap<K, V> subMap(K fromKey, boolean fromInclusive, K toKey, boolean toInclusive) {
+            checkKey(fromKey);
+            checkKey(toKey);
+            if (descending) {
+                return narrow(toKey, toInclusive, fromKey, fromInclusive);
+            }
+
+            return narrow(fromKey, fromInclusive, toKey, toInclusive);
+        }
+
+        @Override
+        public NavigableMap<K, V> headMap(K toKey, boolean inclusive) {
+            checkKey(toKey);
+            if (descending) {
+                return narrow(toKey, inclusive, null, false);
+            }
+
+            return narrow(null, false, toKey, inclusive);
+        }
+
+        @Override
+        public NavigableMap<K, V> tailMap(K fromKey, boolean inclusive) {
+            checkKey(fromKey);
+            if (descending) {
+                return narrow(null, false, fromKey, inclusive);
+            }
+
+            return narrow(fromKey, inclusive, null, false);
+        }
+
+        @Override
+        public SortedMap<K, V> subMap(K fromKey, K toKey) {
+            return subMap(fromKey, true, toKey, false);
+        }
+
+        @Override
+        public SortedMap<K, V> headMap(K toKey) {
+            return headMap(toKey, false);
+        }
+
+        @Override
+        public SortedMap<K, V> tailMap(K fromKey) {
+            return tailMap(fromKey, true);
+        }
+
+        // Iterates over the entries of the view, seeking to the first entry once and then following successors.
+        private class SubMapIterator implements Iterator<Entry<K, V>> {
+            private Node<K, V> next = getFirstNodeInView();
+            private Node<K, V> lastReturned;
+            private int expectedModCount = modCount;
+
+            @Override
+            public boolean hasNext() {
+                return next != null;
+            }
+
+            @Override
+            public Entry<K, V> next() {
+                if (next == null) {
+                    throw new NoSuchElementException();
+                }
+
+                if (modCount != expectedModCount) {
+                    throw new ConcurrentModificationException();
+                }
+
+                lastReturned = next;
+                next = getSuccessor(next);
+                return lastReturned;
+            }
+
+            @Override
+            public void remove() {
+                if (lastReturned == null) {
+                    throw new IllegalStateException();
+                }
+
+                if (modCount != expectedModCount) {
+                    throw new ConcurrentModificationException();
+                }
+
+                SkipList.this.remove(lastReturned.key);
+                lastReturned = null;
+                expectedModCount = modCount;
+            }
+        }
+    }
 }
@@ -0,0 +1,29 @@
+package ca.crimsonglow.skiplist;
+
+import jdk.jfr.*;
+
+/**
+ * A get, put or remove on a {@link SkipList} with stats enabled that took longer than the threshold of the event,
+ * which can be changed in the settings of a recording.
+ */
+@Name("ca.crimsonglow.skiplist.Operation")
+@Label("Skip List Operation")
+@Category("Skip List")
+@Description("A slow get, put or remove on a skip list with stats enabled")
+@Threshold("1 ms")
+class SkipListOperationEvent extends Event {
+    static final String GET = "get";
+    static final String PUT = "put";
+    static final String REMOVE = "remove";
+
+    @Label("Operation")
+    String operation;
+    @Label("Comparisons")
+    int comparisons;
+    @Label("Hops")
+    int hops;
+    @Label("Size")
+    int size;
+    @Label("Head Height")
+    int headHeight;
+}
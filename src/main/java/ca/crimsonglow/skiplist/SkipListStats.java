@@ -0,0 +1,167 @@
+package ca.crimsonglow.skiplist;
+
+import java.util.Arrays;
+
+/**
+ * A snapshot of the shape of a {@link SkipList} and of the searches made by its operations while stats were enabled.
+ * <p>
+ * The shape is measured by walking the bottom level when the snapshot is taken. The search counts cover the gets, puts
+ * and removes made since stats were last enabled: each is the number of keys compared and links followed by the search
+ * that locates the key of the operation, from the top of the head to the bottom level.
+ */
+public final class SkipListStats {
+    // The estimated sizes of objects, assuming compressed references and 8-byte alignment.
+    private static final int NODE_SIZE = 32;
+    private static final int ARRAY_HEADER_SIZE = 16;
+    private static final int REFERENCE_SIZE = 4;
+    private static final int INT_SIZE = 4;
+    private static final int ALIGNMENT = 8;
+    private final int size;
+    private final int headHeight;
+    private final double probability;
+    private final long[] towerHistogram;
+    private final long estimatedFootprint;
+    private final long operationCount;
+    private final long comparisonCount;
+    private final long hopCount;
+    private final int maxHops;
+
+    SkipListStats(int size, int headHeight, double probability, long[] towerHistogram, boolean indexed,
+                  long operationCount, long comparisonCount, long hopCount, int maxHops) {
+        this.size = size;
+        this.headHeight = headHeight;
+        this.probability = probability;
+        this.towerHistogram = towerHistogram;
+        this.operationCount = operationCount;
+        this.comparisonCount = comparisonCount;
+        this.hopCount = hopCount;
+        this.maxHops = maxHops;
+
+        // The head is a node as tall as the list, and every other node is followed by its links above the bottom level
+        // and, in indexed lists, their spans.
+        long footprint = estimateNodeSize(headHeight, indexed);
+        for (int i = 0; i < towerHistogram.length; i++) {
+            footprint += towerHistogram[i] * estimateNodeSize(i + 1, indexed);
+        }
+
+        this.estimatedFootprint = footprint;
+    }
+
+    private static long estimateNodeSize(int height, boolean indexed) {
+        if (height == 1) {
+            return NODE_SIZE;
+        }
+
+        long size = NODE_SIZE + align(ARRAY_HEADER_SIZE + (long) REFERENCE_SIZE * (height - 1));
+        return indexed ? size + align(ARRAY_HEADER_SIZE + (long) INT_SIZE * (height - 1)) : size;
+    }
+
+    private static long align(long size) {
+        return (size + ALIGNMENT - 1) / ALIGNMENT * ALIGNMENT;
+    }
+
+    /**
+     * Gets the number of entries in the list.
+     *
+     * @return The size of the list.
+     */
+    public int getSize() {
+        return size;
+    }
+
+    /**
+     * Gets the height of the head, which is the height of the tallest node that has been inserted.
+     *
+     * @return The height of the head.
+     */
+    public int getHeadHeight() {
+        return headHeight;
+    }
+
+    /**
+     * Gets the ratio of the height of the head to log<sub>1/p</sub>(n), the height expected of a list of its size,
+     * where p is the iteration probability of its level generator. A ratio well above one means that searches start
+     * from levels too sparse to help them.
+     *
+     * @return The ratio, or NaN if the list has fewer than two entries or the probability is 0 or 1.
+     */
+    public double getHeadHeightRatio() {
+        if (size < 2 || probability <= 0 || probability >= 1) {
+            return Double.NaN;
+        }
+
+        return headHeight / (Math.log(size) / Math.log(1 / probability));
+    }
+
+    /**
+     * Gets the number of nodes of each height, excluding the head.
+     *
+     * @return An array whose element i holds the number of nodes of height i + 1.
+     */
+    public long[] getTowerHistogram() {
+        return towerHistogram.clone();
+    }
+
+    /**
+     * Gets the estimated number of bytes used by the nodes of the list, including the head but excluding keys and
+     * values, assuming compressed references.
+     *
+     * @return The estimated footprint in bytes.
+     */
+    public long getEstimatedFootprint() {
+        return estimatedFootprint;
+    }
+
+    /**
+     * Gets the estimated number of bytes used by the nodes of the list per entry.
+     *
+     * @return The estimated footprint per entry in bytes, or NaN if the list is empty.
+     */
+    public double getBytesPerEntry() {
+        return size == 0 ? Double.NaN : (double) estimatedFootprint / size;
+    }
+
+    /**
+     * Gets the number of operations recorded.
+     *
+     * @return The number of gets, puts and removes made while stats were enabled.
+     */
+    public long getOperationCount() {
+        return operationCount;
+    }
+
+    /**
+     * Gets the mean number of keys compared by the search of a recorded operation.
+     *
+     * @return The mean number of comparisons, or NaN if no operations were recorded.
+     */
+    public double getMeanComparisons() {
+        return operationCount == 0 ? Double.NaN : (double) comparisonCount / operationCount;
+    }
+
+    /**
+     * Gets the mean number of links followed by the search of a recorded operation.
+     *
+     * @return The mean number of hops, or NaN if no operations were recorded.
+     */
+    public double getMeanHops() {
+        return operationCount == 0 ? Double.NaN : (double) hopCount / operationCount;
+    }
+
+    /**
+     * Gets the greatest number of links followed by the search of a recorded operation.
+     *
+     * @return The maximum number of hops.
+     */
+    public int getMaxHops() {
+        return maxHops;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("size=%d headHeight=%d headHeightRatio=%.2f bytesPerEntry=%.1f operations=%d "
+                        + "meanComparisons=%.2f meanHops=%.2f maxHops=%d towers=%s", size, headHeight,
+                getHeadHeightRatio(), getBytesPerEntry(), operationCount, getMeanComparisons(), getMeanHops(), maxHops,
+                Arrays.toString(towerHistogram));
+    }
+}
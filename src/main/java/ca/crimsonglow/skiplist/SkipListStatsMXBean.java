@@ -0,0 +1,28 @@
+package ca.crimsonglow.skiplist;
+
+/**
+ * The management interface of the stats of a {@link SkipList}, as returned by {@link SkipList#getStatsMXBean()}. The
+ * list is not thread-safe, so attributes read while it is being modified are approximate.
+ */
+public interface SkipListStatsMXBean {
+    /**
+     * Takes a snapshot of the stats of the list.
+     *
+     * @return The stats.
+     */
+    SkipListStats getStats();
+
+    /**
+     * Checks whether operations on the list are recorded.
+     *
+     * @return Whether stats are enabled.
+     */
+    boolean isStatsEnabled();
+
+    /**
+     * Starts or stops recording operations on the list.
+     *
+     * @param enabled Whether to record operations.
+     */
+    void setStatsEnabled(boolean enabled);
+}
@@ -0,0 +1,16 @@
+package ca.crimsonglow.skiplist;
+
+// Accumulates the search counts of the operations on a skip list while its stats are enabled.
+class StatsRecorder {
+    long operations;
+    long comparisons;
+    long hops;
+    int maxHops;
+
+    void record(int comparisons, int hops) {
+        operations++;
+        this.comparisons += comparisons;
+        this.hops += hops;
+        maxHops = Math.max(maxHops, hops);
+    }
+}
@@ -0,0 +1,889 @@
+package ca.crimsonglow.skiplist;
+
+import java.lang.invoke.VarHandle;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.*;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * A skip list that takes snapshots: immutable, sorted views of the list as it was at a point in time, which are taken
+ * in O(1) time and may be read by other threads while the list continues to be modified.
+ * <p>
+ * Each node records the version of the list at which it was inserted, and each snapshot sees the nodes inserted at or
+ * before its version. While snapshots are open, replacing a value keeps the replaced value in a history on the node,
+ * and removing a node keeps it in a graveyard of removed nodes, so that a snapshot can find the value each key had at
+ * its version. History and removed nodes that no open snapshot can see are discarded once the snapshots that could see
+ * them have been garbage collected. Without open snapshots, modifications only differ from those of a
+ * {@link SkipList} in publishing links with release semantics, which costs nothing on most processors.
+ * <p>
+ * The list itself is not thread-safe, and must be modified and snapshotted by one thread at a time. A snapshot may be
+ * read by any number of threads concurrently with modifications, once it has been safely published to them, such as
+ * through an executor or a concurrent queue. Snapshots do not support modification.
+ *
+ * @param <K> The type of keys.
+ * @param <V> The type of values.
+ */
+public class VersionedSkipList<K, V> extends SkipList<K, V> {
+    // Open snapshots, by version. Each is held weakly so that it is discarded when it is no longer referenced.
+    private final NavigableMap<Long, SnapshotReference> snapshots = new TreeMap<>();
+    // Receives the references to snapshots that have been garbage collected.
+    private final ReferenceQueue<SnapshotState> collectedSnapshots = new ReferenceQueue<>();
+    // The removed nodes that an open snapshot may see, by key. The graveyard is read by snapshots in other threads.
+    private final ConcurrentSkipListMap<K, Tomb> graveyard;
+    // The replaced values and removed nodes, in the order of the versions at which they were replaced or removed, which
+    // is the order in which they become invisible.
+    private final ArrayDeque<Superseded> superseded = new ArrayDeque<>();
+    private int nodesWithHistoryCount;
+    // The version of modifications made since the last snapshot was taken. It is greater than the version of every
+    // snapshot.
+    private long version;
+
+    /**
+     * Creates a new versioned skip list with default parameters.
+     */
+    public VersionedSkipList() {
+        this(null);
+    }
+
+    /**
+     * Creates a new versioned skip list whose keys are ordered by the specified comparator.
+     *
+     * @param comparator The comparator that orders the keys, or null to use their natural ordering.
+     */
+    public VersionedSkipList(Comparator<? super K> comparator) {
+        super(comparator);
+        graveyard = new ConcurrentSkipListMap<>(comparator);
+    }
+
+    /**
+     * Creates a new versioned skip list whose keys are ordered by the specified comparator and that selects levels
+     * with the specified generator.
+     *
+     * @param comparator     The comparator that orders the keys, or null to use their natural ordering.
+     * @param levelGenerator The generator of levels for new nodes.
+     */
+    public VersionedSkipList(Comparator<? super K> comparator, LevelGenerator levelGenerator) {
+        super(comparator, levelGenerator, false);
+        graveyard = new ConcurrentSkipListMap<>(comparator);
+    }
+
+    /**
+     * Takes a snapshot of the list. The snapshot is not affected by later modifications of the list.
+     *
+     * @return An immutable view of the mappings in the list.
+     */
+    public NavigableMap<K, V> snapshot() {
+        expungeCollectedSnapshots();
+        SnapshotState state = new SnapshotState(version, getHead(), size());
+        snapshots.put(version, new SnapshotReference(state));
+        version++;
+        return new Snapshot(state, null, false, null, false, false);
+    }
+
+    @Override
+    Node<K, V> newNode(K key, V value, int height) {
+        return new VersionedNode(key, value, height);
+    }
+
+    // A node that an open snapshot may see is moved to the graveyard before it is unlinked, so that readers never miss
+    // it.
+    @Override
+    void beforeUnlink(Node<K, V> n) {
+        VersionedNode v = (VersionedNode) n;
+        if (isVisibleToOpenSnapshot(v)) {
+            Tomb tomb = new Tomb(v, version, graveyard.get(n.key));
+            graveyard.put(n.key, tomb);
+            superseded.addLast(tomb);
+        }
+    }
+
+    // Checks whether an open snapshot may see a node, discarding any snapshots that have been collected first.
+    private boolean isVisibleToOpenSnapshot(VersionedNode n) {
+        expungeCollectedSnapshots();
+        return !snapshots.isEmpty() && snapshots.lastKey() >= n.insertedVersion;
+    }
+
+    private void expungeCollectedSnapshots() {
+        if (snapshots.isEmpty()) {
+            return;
+        }
+
+        boolean collected = false;
+        for (Reference<? extends SnapshotState> r; (r = collectedSnapshots.poll()) != null; ) {
+            // Only snapshot references are registered with the queue.
+            @SuppressWarnings("unchecked")
+            SnapshotReference reference = (SnapshotReference) r;
+            snapshots.remove(reference.version);
+            collected = true;
+        }
+
+        if (collected) {
+            discardInvisibleVersions();
+        }
+    }
+
+    // Discards the replaced values and removed nodes that no open snapshot can see. These are the ones that were
+    // replaced or removed at or before the version of the oldest open snapshot, or all of them if none is open, and
+    // they are at the front of the queue.
+    private void discardInvisibleVersions() {
+        long oldest = snapshots.isEmpty() ? Long.MAX_VALUE : snapshots.firstKey();
+        while (!superseded.isEmpty() && superseded.peekFirst().getVersion() <= oldest) {
+            superseded.pollFirst().discard();
+        }
+    }
+
+    // Gets the value a node held at a version. The history and value are read again until they are read together
+    // without an intervening replacement.
+    private V getValueAt(VersionedNode n, long version) {
+        while (true) {
+            Revision history = n.history;
+            V value = n.value;
+            VarHandle.acquireFence();
+            if (history == n.history) {
+                for (Revision r = history; r != null && r.replacedVersion > version; r = r.older) {
+                    value = r.value;
+                }
+
+                return value;
+            }
+        }
+    }
+
+    Map<K, ?> getGraveyard() {
+        return graveyard;
+    }
+
+    int getNodesWithHistoryCount() {
+        return nodesWithHistoryCount;
+    }
+
+    // A replaced value or a removed node, which is kept in a chain from the most recent while an open snapshot may see
+    // it. Once it and every older entry in its chain are invisible, it is discarded by cutting the link to it from the
+    // next more recent entry. Readers may follow the link while it is cut, but never past an entry they can see, so
+    // the link is written in place.
+    private abstract static class Superseded {
+        // Gets the version at which the value was replaced or the node was removed.
+        abstract long getVersion();
+
+        abstract void discard();
+    }
+
+    // A value that was replaced, and the version at which it was replaced. Revisions are ordered from the most recently
+    // replaced.
+    private final class Revision extends Superseded {
+        private final VersionedNode node;
+        private final V value;
+        private final long replacedVersion;
+        private Revision older;
+        private Revision newer;
+
+        Revision(VersionedNode node, V value, long replacedVersion, Revision older) {
+            this.node = node;
+            this.value = value;
+            this.replacedVersion = replacedVersion;
+            this.older = older;
+            if (older != null) {
+                older.newer = this;
+            }
+        }
+
+        @Override
+        long getVersion() {
+            return replacedVersion;
+        }
+
+        @Override
+        void discard() {
+            if (newer != null) {
+                newer.older = null;
+            } else {
+                node.history = null;
+                nodesWithHistoryCount--;
+            }
+        }
+    }
+
+    // A removed node, and the version at which it was removed. A key may be removed several times while snapshots are
+    // open, so tombs are ordered from the most recently removed.
+    private final class Tomb extends Superseded {
+        private final VersionedNode node;
+        private final long removedVersion;
+        private Tomb older;
+        private Tomb newer;
+
+        Tomb(VersionedNode node, long removedVersion, Tomb older) {
+            this.node = node;
+            this.removedVersion = removedVersion;
+            this.older = older;
+            if (older != null) {
+                older.newer = this;
+            }
+        }
+
+        @Override
+        long getVersion() {
+            return removedVersion;
+        }
+
+        @Override
+        void discard() {
+            if (newer != null) {
+                newer.older = null;
+            } else {
+                graveyard.remove(node.key, this);
+            }
+        }
+    }
+
+    // The state shared by a snapshot and its views. The list keeps the head it had when the snapshot was taken, even if
+    // it is cleared afterwards.
+    private final class SnapshotState {
+        private final long version;
+        private final Node<K, V> head;
+        private final int size;
+
+        SnapshotState(long version, Node<K, V> head, int size) {
+            this.version = version;
+            this.head = head;
+            this.size = size;
+        }
+    }
+
+    private final class SnapshotReference extends WeakReference<SnapshotState> {
+        private final long version;
+
+        SnapshotReference(SnapshotState state) {
+            super(state, collectedSnapshots);
+            this.version = state.version;
+        }
+    }
+
+    // A node that records the version at which it was inserted and the values it held that open snapshots may see.
+    // Links are written with release semantics and read with acquire semantics, so that a snapshot read by another
+    // thread sees every node it reaches fully initialized.
+    private class VersionedNode extends Node<K, V> {
+        private final long insertedVersion;
+        private volatile Revision history;
+
+        VersionedNode(K key, V value, int height) {
+            super(key, value, height);
+            insertedVersion = version;
+        }
+
+        @Override
+        public Node<K, V> getNext(int level) {
+            Node<K, V> n;
+            if (level == 0) {
+                n = next;
+            } else {
+                Node<K, V>[] links = up;
+                VarHandle.acquireFence();
+                n = links[level - 1];
+            }
+
+            VarHandle.acquireFence();
+            return n;
+        }
+
+        @Override
+        public void setNext(int level, Node<K, V> n) {
+            VarHandle.releaseFence();
+            super.setNext(level, n);
+        }
+
+        @Override
+        public void grow(int height) {
+            Node<K, V>[] links = up == null ? Node.newArray(height - 1) : Arrays.copyOf(up, height - 1);
+            VarHandle.releaseFence();
+            up = links;
+        }
+
+        // The replaced value is kept if an open snapshot may see it, which is only possible if it was set before the
+        // latest snapshot was taken.
+        @Override
+        public V setValue(V value) {
+            if (isVisibleToOpenSnapshot(this)) {
+                Revision h = history;
+                if (h == null || h.replacedVersion != version) {
+                    if (h == null) {
+                        nodesWithHistoryCount++;
+                    }
+
+                    Revision r = new Revision(this, this.value, version, h);
+                    history = r;
+                    superseded.addLast(r);
+                }
+            }
+
+            VarHandle.releaseFence();
+            return super.setValue(value);
+        }
+    }
+
+    // An immutable view of a snapshot, or of a range of it, in ascending or descending order. Each key is found in the
+    // list or in the graveyard, skipping nodes inserted after the snapshot was taken and nodes removed before.
+    private class Snapshot extends AbstractMap<K, V> implements NavigableMap<K, V> {
+        private final SnapshotState state;
+        private final K lo;
+        private final boolean loInclusive;
+        private final K hi;
+        private final boolean hiInclusive;
+        private final boolean descending;
+
+        Snapshot(SnapshotState state, K lo, boolean loInclusive, K hi, boolean hiInclusive, boolean descending) {
+            if (lo != null && hi != null && compare(lo, hi) > 0) {
+                throw new IllegalArgumentException("fromKey > toKey");
+            }
+
+            this.state = state;
+            this.lo = lo;
+            this.loInclusive = loInclusive;
+            this.hi = hi;
+            this.hiInclusive = hiInclusive;
+            this.descending = descending;
+        }
+
+        private boolean isVisible(VersionedNode n) {
+            return n.insertedVersion <= state.version;
+        }
+
+        // Gets the node in a chain of removed nodes that the snapshot sees, if any. At most one can be seen, since a
+        // key has a single mapping at any version.
+        private VersionedNode getVisible(Tomb tomb) {
+            for (Tomb t = tomb; t != null && t.removedVersion > state.version; t = t.older) {
+                if (isVisible(t.node)) {
+                    return t.node;
+                }
+            }
+
+            return null;
+        }
+
+        // Checks whether a key precedes another, or is equal to it if inclusive.
+        private boolean precedes(K key, K other, boolean inclusive) {
+            int c = compare(key, other);
+            return c < 0 || (inclusive && c == 0);
+        }
+
+        // Gets the first visible node in the list after a key, or after the head if the key is null. Nodes unlinked
+        // while they are being read still lead forward, and any visible node unlinked ahead of them is in the
+        // graveyard.
+        private VersionedNode getLinkedAfter(K key, boolean inclusive) {
+            Node<K, V> cur = state.head;
+            if (key != null) {
+                for (int i = cur.getHeight() - 1; i >= 0; i--) {
+                    Node<K, V> next;
+                    while ((next = cur.getNext(i)) != null && precedes(next.key, key, !inclusive)) {
+                        cur = next;
+                    }
+                }
+            }
+
+            return getLinkedFrom(cur.getNext(0));
+        }
+
+        // Gets the first visible node in the list at or after a node.
+        private VersionedNode getLinkedFrom(Node<K, V> n) {
+            while (n != null && !isVisible((VersionedNode) n)) {
+                n = n.getNext(0);
+            }
+
+            return (VersionedNode) n;
+        }
+
+        // Gets the last visible node in the list before a key, or the last visible node if the key is null. Each
+        // invisible node found restarts the search from the head, below it.
+        private VersionedNode getLinkedBefore(K key, boolean inclusive) {
+            while (true) {
+                Node<K, V> cur = state.head;
+                for (int i = cur.getHeight() - 1; i >= 0; i--) {
+                    Node<K, V> next;
+                    while ((next = cur.getNext(i)) != null && (key == null || precedes(next.key, key, inclusive))) {
+                        cur = next;
+                    }
+                }
+
+                if (cur.isHead() || isVisible((VersionedNode) cur)) {
+                    return cur.isHead() ? null : (VersionedNode) cur;
+                }
+
+                key = cur.key;
+                inclusive = false;
+            }
+        }
+
+        private VersionedNode getRemovedAfter(K key, boolean inclusive) {
+            Entry<K, Tomb> e = key == null ? graveyard.firstEntry() : (inclusive ? graveyard.ceilingEntry(key) : graveyard.higherEntry(key));
+            for (; e != null; e = graveyard.higherEntry(e.getKey())) {
+                VersionedNode n = getVisible(e.getValue());
+                if (n != null) {
+                    return n;
+                }
+            }
+
+            return null;
+        }
+
+        private VersionedNode getRemovedBefore(K key, boolean inclusive) {
+            Entry<K, Tomb> e = key == null ? graveyard.lastEntry() : (inclusive ? graveyard.floorEntry(key) : graveyard.lowerEntry(key));
+            for (; e != null; e = graveyard.lowerEntry(e.getKey())) {
+                VersionedNode n = getVisible(e.getValue());
+                if (n != null) {
+                    return n;
+                }
+            }
+
+            return null;
+        }
+
+        // Gets the first node after a key in either the list or the graveyard. If both hold the key, they hold the same
+        // mapping.
+        private VersionedNode getAfter(K key, boolean inclusive) {
+            VersionedNode linked = getLinkedAfter(key, inclusive);
+            VersionedNode removed = getRemovedAfter(key, inclusive);
+            if (linked == null || removed == null) {
+                return linked == null ? removed : linked;
+            }
+
+            return compare(linked.key, removed.key) <= 0 ? linked : removed;
+        }
+
+        private VersionedNode getBefore(K key, boolean inclusive) {
+            VersionedNode linked = getLinkedBefore(key, inclusive);
+            VersionedNode removed = getRemovedBefore(key, inclusive);
+            if (linked == null || removed == null) {
+                return linked == null ? removed : linked;
+            }
+
+            return compare(linked.key, removed.key) >= 0 ? linked : removed;
+        }
+
+        private boolean isTooLow(K key) {
+            if (lo == null) {
+                return false;
+            }
+
+            int c = compare(key, lo);
+            return c < 0 || (c == 0 && !loInclusive);
+        }
+
+        private boolean isTooHigh(K key) {
+            if (hi == null) {
+                return false;
+            }
+
+            int c = compare(key, hi);
+            return c > 0 || (c == 0 && !hiInclusive);
+        }
+
+        private boolean isInRange(K key) {
+            return !isTooLow(key) && !isTooHigh(key);
+        }
+
+        // Checks whether a key may be used as a bound of a narrower view. Exclusive bounds may sit on the boundary of
+        // this view even if the boundary itself is excluded.
+        private boolean isInRange(K key, boolean inclusive) {
+            if (inclusive) {
+                return isInRange(key);
+            }
+
+            return (lo == null || compare(key, lo) >= 0) && (hi == null || compare(key, hi) <= 0);
+        }
+
+        @SuppressWarnings("unchecked")
+        private K checkKey(Object key) {
+            if (key == null) {
+                throw new NullPointerException();
+            }
+
+            return (K) key;
+        }
+
+        private VersionedNode getAbsLowest() {
+            VersionedNode n = lo == null ? getAfter(null, true) : getAfter(lo, loInclusive);
+            return n == null || isTooHigh(n.key) ? null : n;
+        }
+
+        private VersionedNode getAbsHighest() {
+            VersionedNode n = hi == null ? getBefore(null, true) : getBefore(hi, hiInclusive);
+            return n == null || isTooLow(n.key) ? null : n;
+        }
+
+        private VersionedNode getAbsCeiling(K key) {
+            if (isTooLow(key)) {
+                return getAbsLowest();
+            }
+
+            VersionedNode n = getAfter(key, true);
+            return n == null || isTooHigh(n.key) ? null : n;
+        }
+
+        private VersionedNode getAbsHigher(K key) {
+            if (isTooLow(key)) {
+                return getAbsLowest();
+            }
+
+            VersionedNode n = getAfter(key, false);
+            return n == null || isTooHigh(n.key) ? null : n;
+        }
+
+        private VersionedNode getAbsFloor(K key) {
+            if (isTooHigh(key)) {
+                return getAbsHighest();
+            }
+
+            VersionedNode n = getBefore(key, true);
+            return n == null || isTooLow(n.key) ? null : n;
+        }
+
+        private VersionedNode getAbsLower(K key) {
+            if (isTooHigh(key)) {
+                return getAbsHighest();
+            }
+
+            VersionedNode n = getBefore(key, false);
+            return n == null || isTooLow(n.key) ? null : n;
+        }
+
+        private VersionedNode getFirstNodeInView() {
+            return descending ? getAbsHighest() : getAbsLowest();
+        }
+
+        private VersionedNode getLastNodeInView() {
+            return descending ? getAbsLowest() : getAbsHighest();
+        }
+
+        private VersionedNode getNode(Object key) {
+            K k = checkKey(key);
+            if (!isInRange(k)) {
+                return null;
+            }
+
+            VersionedNode n = getAfter(k, true);
+            return n != null && compare(n.key, k) == 0 ? n : null;
+        }
+
+        private Entry<K, V> exportEntry(VersionedNode n) {
+            return n == null ? null : new SimpleImmutableEntry<>(n.key, getValueAt(n, state.version));
+        }
+
+        private K getKeyOrNull(VersionedNode n) {
+            return n == null ? null : n.key;
+        }
+
+        private K getKeyOrThrow(VersionedNode n) {
+            if (n == null) {
+                throw new NoSuchElementException();
+            }
+
+            return n.key;
+        }
+
+        // Creates a narrower view from bounds in ascending order. A null bound keeps the current bound.
+        private Snapshot narrow(K fromKey, boolean fromInclusive, K toKey, boolean toInclusive) {
+            if (fromKey == null) {
+                fromKey = lo;
+                fromInclusive = loInclusive;
+            } else if (!isInRange(fromKey, fromInclusive)) {
+                throw new IllegalArgumentException("fromKey out of range");
+            }
+
+            if (toKey == null) {
+                toKey = hi;
+                toInclusive = hiInclusive;
+            } else if (!isInRange(toKey, toInclusive)) {
+                throw new IllegalArgumentException("toKey out of range");
+            }
+
+            return new Snapshot(state, fromKey, fromInclusive, toKey, toInclusive, descending);
+        }
+
+        @Override
+        public int size() {
+            // The size of the whole snapshot is recorded when it is taken.
+            if (lo == null && hi == null) {
+                return state.size;
+            }
+
+            int count = 0;
+            for (Iterator<Entry<K, V>> it = new SnapshotIterator(); it.hasNext(); it.next()) {
+                count++;
+            }
+
+            return count;
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return getFirstNodeInView() == null;
+        }
+
+        @Override
+        public boolean containsKey(Object key) {
+            return getNode(key) != null;
+        }
+
+        @Override
+        public V get(Object key) {
+            VersionedNode n = getNode(key);
+            return n == null ? null : getValueAt(n, state.version);
+        }
+
+        @Override
+        public V put(K key, V value) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public V remove(Object key) {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public void clear() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Set<Entry<K, V>> entrySet() {
+            return new AbstractSet<>() {
+                @Override
+                public Iterator<Entry<K, V>> iterator() {
+                    return new SnapshotIterator();
+                }
+
+                @Override
+                public int size() {
+                    return Snapshot.this.size();
+                }
+
+                @Override
+                public boolean isEmpty() {
+                    return Snapshot.this.isEmpty();
+                }
+            };
+        }
+
+        @Override
+        public Comparator<? super K> comparator() {
+            return descending ? Collections.reverseOrder(VersionedSkipList.this.comparator()) : VersionedSkipList.this.comparator();
+        }
+
+        @Override
+        public K firstKey() {
+            return getKeyOrThrow(getFirstNodeInView());
+        }
+
+        @Override
+        public K lastKey() {
+            return getKeyOrThrow(getLastNodeInView());
+        }
+
+        @Override
+        public Entry<K, V> firstEntry() {
+            return exportEntry(getFirstNodeInView());
+        }
+
+        @Override
+        public Entry<K, V> lastEntry() {
+            return exportEntry(getLastNodeInView());
+        }
+
+        @Override
+        public Entry<K, V> pollFirstEntry() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Entry<K, V> pollLastEntry() {
+            throw new UnsupportedOperationException();
+        }
+
+        @Override
+        public Entry<K, V> lowerEntry(K key) {
+            return exportEntry(getLowerNodeInView(key));
+        }
+
+        @Override
+        public K lowerKey(K key) {
+            return getKeyOrNull(getLowerNodeInView(key));
+        }
+
+        @Override
+        public Entry<K, V> floorEntry(K key) {
+            return exportEntry(getFloorNodeInView(key));
+        }
+
+        @Override
+        public K floorKey(K key) {
+            return getKeyOrNull(getFloorNodeInView(key));
+        }
+
+        @Override
+        public Entry<K, V> ceilingEntry(K key) {
+            return exportEntry(getCeilingNodeInView(key));
+        }
+
+        @Override
+        public K ceilingKey(K key) {
+            return getKeyOrNull(getCeilingNodeInView(key));
+        }
+
+        @Override
+        public Entry<K, V> higherEntry(K key) {
+            return exportEntry(getHigherNodeInView(key));
+        }
+
+        @Override
+        public K higherKey(K key) {
+            return getKeyOrNull(getHigherNodeInView(key));
+        }
+
+        private VersionedNode getLowerNodeInView(K key) {
+            return descending ? getAbsHigher(checkKey(key)) : getAbsLower(checkKey(key));
+        }
+
+        private VersionedNode getFloorNodeInView(K key) {
+            return descending ? getAbsCeiling(checkKey(key)) : getAbsFloor(checkKey(key));
+        }
+
+        private VersionedNode getCeilingNodeInView(K key) {
+            return descending ? getAbsFloor(checkKey(key)) : getAbsCeiling(checkKey(key));
+        }
+
+        private VersionedNode getHigherNodeInView(K key) {
+            return descending ? getAbsLower(checkKey(key)) : getAbsHigher(checkKey(key));
+        }
+
+        @Override
+        public NavigableMap<K, V> descendingMap() {
+            return new Snapshot(state, lo, loInclusive, hi, hiInclusive, !descending);
+        }
+
+        @Override
+        public Set<K> keySet() {
+            return navigableKeySet();
+        }
+
+        @Override
+        public NavigableSet<K> navigableKeySet() {
+            return new KeySet<>(this);
+        }
+
+        @Override
+        public NavigableSet<K> descendingKeySet() {
+            return descendingMap().navigableKeySet();
+        }
+
+        @Override
+        public NavigableMap<K, V> subMap(K fromKey, boolean fromInclusive, K toKey, boolean toInclusive) {
+            checkKey(fromKey);
+            checkKey(toKey);
+            if (descending) {
+                return narrow(toKey, toInclusive, fromKey, fromInclusive);
+            }
+
+            return narrow(fromKey, fromInclusive, toKey, toInclusive);
+        }
+
+        @Override
+        public NavigableMap<K, V> headMap(K toKey, boolean inclusive) {
+            checkKey(toKey);
+            if (descending) {
+                return narrow(toKey, inclusive, null, false);
+            }
+
+            return narrow(null, false, toKey, inclusive);
+        }
+
+        @Override
+        public NavigableMap<K, V> tailMap(K fromKey, boolean inclusive) {
+            checkKey(fromKey);
+            if (descending) {
+                return narrow(null, false, fromKey, inclusive);
+            }
+
+            return narrow(fromKey, inclusive, null, false);
+        }
+
+        @Override
+        public SortedMap<K, V> subMap(K fromKey, K toKey) {
+            return subMap(fromKey, true, toKey, false);
+        }
+
+        @Override
+        public SortedMap<K, V> headMap(K toKey) {
+            return headMap(toKey, false);
+        }
+
+        @Override
+        public SortedMap<K, V> tailMap(K fromKey) {
+            return tailMap(fromKey, true);
+        }
+
+        // Iterates over the entries of the view. Ascending views merge a walk of the bottom level of the list with
+        // lookups in the graveyard. Descending views search for the predecessor of each entry.
+        private class SnapshotIterator implements Iterator<Entry<K, V>> {
+            private VersionedNode nextLinked;
+            private VersionedNode next;
+
+            SnapshotIterator() {
+                if (descending) {
+                    next = getAbsHighest();
+                } else {
+                    nextLinked = lo == null ? getLinkedAfter(null, true) : getLinkedAfter(lo, loInclusive);
+                    advance(null);
+                }
+            }
+
+            // Moves to the lesser of the next linked and removed nodes after a key, or from the start of the view if the
+            // key is null. The list is read before the graveyard, so that a node unlinked after being passed over in
+            // the list is found in the graveyard instead.
+            private void advance(K key) {
+                if (key != null && nextLinked != null && compare(nextLinked.key, key) <= 0) {
+                    nextLinked = getLinkedFrom(nextLinked.getNext(0));
+                }
+
+                VersionedNode nextRemoved;
+                if (key != null) {
+                    nextRemoved = getRemovedAfter(key, false);
+                } else {
+                    nextRemoved = lo == null ? getRemovedAfter(null, true) : getRemovedAfter(lo, loInclusive);
+                }
+
+                if (nextLinked == null || nextRemoved == null) {
+                    next = nextLinked == null ? nextRemoved : nextLinked;
+                } else {
+                    next = compare(nextLinked.key, nextRemoved.key) <= 0 ? nextLinked : nextRemoved;
+                }
+
+                if (next != null && isTooHigh(next.key)) {
+                    next = null;
+                }
+            }
+
+            @Override
+            public boolean hasNext() {
+                return next != null;
+            }
+
+            @Override
+            public Entry<K, V> next() {
+                if (next == null) {
+                    throw new NoSuchElementException();
+                }
+
+                VersionedNode n = next;
+                if (descending) {
+                    next = getAbsLower(n.key);
+                } else {
+                    advance(n.key);
+                }
+
+                return exportEntry(n);
+            }
+        }
+    }
+}
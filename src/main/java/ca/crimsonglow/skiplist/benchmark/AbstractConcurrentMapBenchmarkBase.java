@@ -0,0 +1,95 @@
+package ca.crimsonglow.skiplist.benchmark;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Map;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the throughput of a map shared by all benchmark threads. Keys are drawn from twice the map size so that
+ * roughly half of the lookups in a freshly initialized map hit.
+ */
+@State(Scope.Benchmark)
+public abstract class AbstractConcurrentMapBenchmarkBase {
+    private static final String DEFAULT_MAP_SIZE = "10000";
+    @Param({DEFAULT_MAP_SIZE})
+    protected int mapSize;
+    protected Map<Integer, Integer> map = null;
+
+    @Setup(Level.Iteration)
+    public void initializeMap() {
+        map = newMap();
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        while (map.size() < mapSize) {
+            map.put(random.nextInt(getKeyRange()), 1);
+        }
+    }
+
+    protected abstract Map<Integer, Integer> newMap();
+
+    private int getKeyRange() {
+        return 2 * Math.max(mapSize, 1);
+    }
+
+    private int nextKey() {
+        return ThreadLocalRandom.current().nextInt(getKeyRange());
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public Integer measurePut() {
+        return map.put(nextKey(), 1);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public Integer measureGet() {
+        return map.get(nextKey());
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public Integer measureRemove() {
+        return map.remove(nextKey());
+    }
+
+    // A mix of 80% gets, 10% puts and 10% removes.
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public Integer measureMixed() {
+        int key = nextKey();
+        int op = ThreadLocalRandom.current().nextInt(10);
+        if (op == 0) {
+            return map.put(key, 1);
+        }
+
+        if (op == 1) {
+            return map.remove(key);
+        }
+
+        return map.get(key);
+    }
+
+    // A mix of 98% gets, 1% puts and 1% removes.
+    @Benchmark
+    @BenchmarkMode(Mode.Throughput)
+    @OutputTimeUnit(TimeUnit.MICROSECONDS)
+    public Integer measureReadHeavy() {
+        int key = nextKey();
+        int op = ThreadLocalRandom.current().nextInt(100);
+        if (op == 0) {
+            return map.put(key, 1);
+        }
+
+        if (op == 1) {
+            return map.remove(key);
+        }
+
+        return map.get(key);
+    }
+}
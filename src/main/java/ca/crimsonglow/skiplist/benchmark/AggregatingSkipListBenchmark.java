@@ -0,0 +1,60 @@
+package ca.crimsonglow.skiplist.benchmark;
+
+import ca.crimsonglow.skiplist.AggregatingSkipList;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares summing the values in a range of keys with {@link AggregatingSkipList#aggregate(Comparable, Comparable)}
+ * against scanning the same range of the bottom level.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+public class AggregatingSkipListBenchmark {
+    private static final String DEFAULT_RANGE_FRACTION = "0.1";
+    private final Random random = new Random();
+    @Param({"100000", "1000000", "10000000"})
+    private int mapSize;
+    // The fraction of the keys covered by each range.
+    @Param({DEFAULT_RANGE_FRACTION})
+    private double rangeFraction;
+    private AggregatingSkipList<Integer, Long, Long> list = null;
+    private int rangeSize = 0;
+    private Integer fromKey = 0;
+    private Integer toKey = 0;
+
+    @Setup(Level.Trial)
+    public void initializeMap() {
+        list = new AggregatingSkipList<>(v -> v, 0L, Long::sum);
+        for (int i = 0; i < mapSize; ++i) {
+            list.append(i, (long) random.nextInt(1000));
+        }
+
+        rangeSize = (int) (mapSize * rangeFraction);
+    }
+
+    @Setup(Level.Invocation)
+    public void selectRange() {
+        fromKey = random.nextInt(mapSize - rangeSize + 1);
+        toKey = fromKey + rangeSize;
+    }
+
+    @Benchmark
+    public long measureAggregate() {
+        return list.aggregate(fromKey, toKey);
+    }
+
+    @Benchmark
+    public long measureScan() {
+        long sum = 0;
+        for (long value : list.subMap(fromKey, toKey).values()) {
+            sum += value;
+        }
+
+        return sum;
+    }
+}
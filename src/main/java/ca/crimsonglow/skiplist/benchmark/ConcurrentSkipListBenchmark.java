@@ -0,0 +1,15 @@
+package ca.crimsonglow.skiplist.benchmark;
+
+import ca.crimsonglow.skiplist.ConcurrentSkipList;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Map;
+
+@State(Scope.Thread)
+public class ConcurrentSkipListBenchmark extends AbstractMapBenchmarkBase {
+    @Override
+    public Map<Integer, Integer> newMap() {
+        return new ConcurrentSkipList<>();
+    }
+}
@@ -0,0 +1,15 @@
+package ca.crimsonglow.skiplist.benchmark;
+
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+@State(Scope.Benchmark)
+public class ConcurrentSkipListMapScalingBenchmark extends AbstractConcurrentMapBenchmarkBase {
+    @Override
+    public Map<Integer, Integer> newMap() {
+        return new ConcurrentSkipListMap<>();
+    }
+}
@@ -0,0 +1,58 @@
+package ca.crimsonglow.skiplist.benchmark;
+
+import ca.crimsonglow.skiplist.store.Codec;
+import ca.crimsonglow.skiplist.store.DurableSkipList;
+import ca.crimsonglow.skiplist.store.SyncMode;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the throughput of writes to a {@link DurableSkipList} whose log is in a temporary directory, in each
+ * {@link SyncMode}, from one thread and from several threads whose records are committed in groups. The difference
+ * between the modes is the cost of forcing each write to storage, and depends heavily on the disk.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class DurableSkipListBenchmark {
+    private static final String DEFAULT_VALUE_SIZE = "100";
+    // The range of keys written.
+    private static final int KEY_RANGE = 1 << 20;
+    @Param({DEFAULT_VALUE_SIZE})
+    private int valueSize;
+    @Param({"ALWAYS", "PERIODIC", "NONE"})
+    private SyncMode syncMode;
+    private Path directory = null;
+    private DurableSkipList<Long, byte[]> list = null;
+    private byte[] value = null;
+
+    @Setup(Level.Trial)
+    public void openList() throws IOException {
+        directory = Files.createTempDirectory("durable-skip-list-benchmark");
+        list = new DurableSkipList<>(directory.resolve("log"), null, Codec.longs(), Codec.bytes(), syncMode,
+                DurableSkipList.DEFAULT_SYNC_INTERVAL_MS);
+        value = new byte[valueSize];
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteList() throws IOException {
+        list.close();
+        TemporaryDirectories.delete(directory);
+    }
+
+    @Benchmark
+    public byte[] measurePut() throws IOException {
+        return list.put((long) ThreadLocalRandom.current().nextInt(KEY_RANGE), value);
+    }
+
+    @Benchmark
+    @Threads(8)
+    public byte[] measureConcurrentPut() throws IOException {
+        return list.put((long) ThreadLocalRandom.current().nextInt(KEY_RANGE), value);
+    }
+}
@@ -0,0 +1,18 @@
+package ca.crimsonglow.skiplist.benchmark;
+
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Hashtable;
+import java.util.Map;
+
+/**
+ * Measures a {@link Hashtable}, whose every operation takes the same monitor.
+ */
+@State(Scope.Benchmark)
+public class HashtableScalingBenchmark extends AbstractConcurrentMapBenchmarkBase {
+    @Override
+    public Map<Integer, Integer> newMap() {
+        return new Hashtable<>();
+    }
+}
@@ -0,0 +1,76 @@
+package ca.crimsonglow.skiplist.benchmark;
+
+import ca.crimsonglow.skiplist.SkipList;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares positional access in an indexed {@link SkipList} with walking the bottom level of a list that is not
+ * indexed.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class IndexedSkipListBenchmark {
+    private static final String DEFAULT_MAP_SIZE = "10000";
+    private static final String DEFAULT_ITERATION_PROBABILITY = "0.25";
+    private final Random random = new Random();
+    @Param({DEFAULT_MAP_SIZE})
+    private int mapSize;
+    @Param({DEFAULT_ITERATION_PROBABILITY})
+    private double iterationProbability;
+    private SkipList<Integer, Integer> indexedList = null;
+    private SkipList<Integer, Integer> list = null;
+    private int nextIndex = 0;
+    private Integer nextKey = 0;
+
+    @Setup(Level.Trial)
+    public void initializeMap() {
+        indexedList = new SkipList<>(iterationProbability, true);
+        list = new SkipList<>(iterationProbability);
+        while (list.size() < mapSize) {
+            int key = random.nextInt();
+            indexedList.put(key, 1);
+            list.put(key, 1);
+        }
+    }
+
+    @Setup(Level.Invocation)
+    public void selectPosition() {
+        nextIndex = mapSize == 0 ? 0 : random.nextInt(mapSize);
+        nextKey = random.nextInt();
+    }
+
+    @Benchmark
+    public Map.Entry<Integer, Integer> measureGetByIndex() {
+        return mapSize == 0 ? null : indexedList.getByIndex(nextIndex);
+    }
+
+    @Benchmark
+    public Map.Entry<Integer, Integer> measureGetByIndexLinearWalk() {
+        if (mapSize == 0) {
+            return null;
+        }
+
+        Iterator<Map.Entry<Integer, Integer>> it = list.entrySet().iterator();
+        for (int i = 0; i < nextIndex; ++i) {
+            it.next();
+        }
+
+        return it.next();
+    }
+
+    @Benchmark
+    public int measureRank() {
+        return indexedList.rank(nextKey);
+    }
+
+    @Benchmark
+    public int measureRankLinearWalk() {
+        return list.headMap(nextKey).size();
+    }
+}
@@ -0,0 +1,67 @@
+package ca.crimsonglow.skiplist.benchmark;
+
+import ca.crimsonglow.skiplist.IntIntSkipList;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures {@link IntIntSkipList} with the same workload as {@link AbstractMapBenchmarkBase}, without boxing keys or
+ * values.
+ */
+@State(Scope.Thread)
+public class IntIntSkipListBenchmark {
+    private static final String DEFAULT_MAP_SIZE = "10000";
+    private static final String DEFAULT_ITERATION_PROBABILITY = "0.25";
+    private final Random random = new Random();
+    @Param({DEFAULT_MAP_SIZE})
+    private int mapSize;
+    @Param({DEFAULT_ITERATION_PROBABILITY})
+    private double iterationProbability;
+    private IntIntSkipList map = null;
+    private int nextKey = 0;
+
+    @Setup(Level.Iteration)
+    public void initializeMap() {
+        map = new IntIntSkipList(iterationProbability);
+        resetMap();
+    }
+
+    @TearDown(Level.Invocation)
+    public void resetMap() {
+        while (map.size() < mapSize) {
+            map.put(random.nextInt(), 1);
+        }
+
+        while (map.size() > mapSize) {
+            map.remove(random.nextInt());
+        }
+    }
+
+    @Setup(Level.Invocation)
+    public void selectKey() {
+        nextKey = random.nextInt();
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public void measurePut() {
+        map.put(nextKey, 1);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public void measureGet() {
+        map.get(nextKey);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public void measureRemove() {
+        map.remove(nextKey);
+    }
+}
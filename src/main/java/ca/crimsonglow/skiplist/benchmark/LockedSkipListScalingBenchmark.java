@@ -0,0 +1,19 @@
+package ca.crimsonglow.skiplist.benchmark;
+
+import ca.crimsonglow.skiplist.SkipList;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Measures a {@link SkipList} behind a single lock, the baseline for sharding.
+ */
+@State(Scope.Benchmark)
+public class LockedSkipListScalingBenchmark extends AbstractConcurrentMapBenchmarkBase {
+    @Override
+    public Map<Integer, Integer> newMap() {
+        return Collections.synchronizedNavigableMap(new SkipList<>());
+    }
+}
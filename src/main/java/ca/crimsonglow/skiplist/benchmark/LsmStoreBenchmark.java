@@ -0,0 +1,79 @@
+package ca.crimsonglow.skiplist.benchmark;
+
+import ca.crimsonglow.skiplist.store.LsmStore;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures an {@link LsmStore} end to end in a temporary directory: the throughput of writes of random keys, which
+ * includes freezing memtables and waiting for the background thread whenever it falls behind, and of lookups of keys
+ * that were loaded before the measurement and so are mostly read from tables. Smaller memtables write more, smaller
+ * tables and compact more often.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class LsmStoreBenchmark {
+    private static final String DEFAULT_MAP_SIZE = "1000000";
+    private static final String DEFAULT_VALUE_SIZE = "100";
+    // The size of each key.
+    private static final int KEY_SIZE = 16;
+    // The number of lookup keys generated up front and cycled through.
+    private static final int LOOKUPS = 1 << 16;
+    private final Random random = new Random(0);
+    @Param({DEFAULT_MAP_SIZE})
+    private int mapSize;
+    @Param({DEFAULT_VALUE_SIZE})
+    private int valueSize;
+    @Param({"1048576", "4194304", "16777216"})
+    private long memtableSize;
+    private Path directory = null;
+    private LsmStore store = null;
+    private byte[] value = null;
+    private byte[][] lookups = null;
+    private int nextLookup = 0;
+
+    @Setup(Level.Trial)
+    public void initializeStore() throws IOException {
+        directory = Files.createTempDirectory("lsm-store-benchmark");
+        store = new LsmStore(directory, memtableSize, LsmStore.DEFAULT_BLOCK_SIZE, LsmStore.DEFAULT_COMPACTION_THRESHOLD);
+        value = new byte[valueSize];
+        lookups = new byte[LOOKUPS][];
+        for (int i = 0; i < mapSize; ++i) {
+            byte[] key = newKey(random.nextInt(mapSize));
+            store.put(key, value);
+            if (i < LOOKUPS) {
+                lookups[i] = key;
+            }
+        }
+
+        store.flush();
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteStore() throws IOException {
+        store.close();
+        TemporaryDirectories.delete(directory);
+    }
+
+    @Benchmark
+    public void measurePut() throws IOException {
+        store.put(newKey(random.nextInt()), value);
+    }
+
+    @Benchmark
+    public byte[] measureGet() throws IOException {
+        nextLookup = (nextLookup + 1) & (LOOKUPS - 1);
+        return store.get(lookups[nextLookup]);
+    }
+
+    private static byte[] newKey(int i) {
+        return ByteBuffer.allocate(KEY_SIZE).putInt(i).putInt(Integer.reverse(i)).array();
+    }
+}
@@ -0,0 +1,87 @@
+package ca.crimsonglow.skiplist.benchmark;
+
+import ca.crimsonglow.skiplist.OffHeapSkipList;
+import ca.crimsonglow.skiplist.SkipList;
+import org.openjdk.jmh.annotations.*;
+
+import java.nio.ByteBuffer;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares {@link OffHeapSkipList} with a {@link SkipList} holding the same byte array keys and values on the heap.
+ * Lookups measure the cost of comparing keys in native memory, and full collections measure how much work each list
+ * adds to the garbage collector. Run with the GC profiler to also report collection counts and times.
+ */
+@State(Scope.Thread)
+public class OffHeapSkipListBenchmark {
+    private static final String DEFAULT_MAP_SIZE = "1000000";
+    private static final String DEFAULT_KEY_SIZE = "16";
+    private static final String DEFAULT_VALUE_SIZE = "100";
+    private final Random random = new Random();
+    @Param({"offHeap", "onHeap"})
+    private String implementation;
+    @Param({DEFAULT_MAP_SIZE})
+    private int mapSize;
+    @Param({DEFAULT_KEY_SIZE})
+    private int keySize;
+    @Param({DEFAULT_VALUE_SIZE})
+    private int valueSize;
+    private OffHeapSkipList offHeapList = null;
+    private SkipList<ByteBuffer, byte[]> onHeapList = null;
+    // Keys are generated up front so that lookups allocate nothing besides the value they return.
+    private byte[][] keys = null;
+    private int nextKey = 0;
+
+    @Setup(Level.Trial)
+    public void initializeMap() {
+        keys = new byte[mapSize][];
+        for (int i = 0; i < mapSize; ++i) {
+            keys[i] = new byte[keySize];
+            random.nextBytes(keys[i]);
+        }
+
+        byte[] value = new byte[valueSize];
+        if (implementation.equals("offHeap")) {
+            offHeapList = new OffHeapSkipList();
+            for (byte[] key : keys) {
+                offHeapList.put(key, value);
+            }
+        } else {
+            onHeapList = new SkipList<>();
+            for (byte[] key : keys) {
+                onHeapList.put(ByteBuffer.wrap(key), value.clone());
+            }
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void releaseMap() {
+        if (offHeapList != null) {
+            offHeapList.release();
+        }
+
+        offHeapList = null;
+        onHeapList = null;
+    }
+
+    @Setup(Level.Invocation)
+    public void selectKey() {
+        nextKey = random.nextInt(mapSize);
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.NANOSECONDS)
+    public byte[] measureGet() {
+        byte[] key = keys[nextKey];
+        return offHeapList != null ? offHeapList.get(key) : onHeapList.get(ByteBuffer.wrap(key));
+    }
+
+    @Benchmark
+    @BenchmarkMode(Mode.AverageTime)
+    @OutputTimeUnit(TimeUnit.MILLISECONDS)
+    public void measureFullGc() {
+        System.gc();
+    }
+}
@@ -0,0 +1,15 @@
+package ca.crimsonglow.skiplist.benchmark;
+
+import ca.crimsonglow.skiplist.OptimisticSkipList;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Map;
+
+@State(Scope.Benchmark)
+public class OptimisticSkipListScalingBenchmark extends AbstractConcurrentMapBenchmarkBase {
+    @Override
+    public Map<Integer, Integer> newMap() {
+        return new OptimisticSkipList<>();
+    }
+}
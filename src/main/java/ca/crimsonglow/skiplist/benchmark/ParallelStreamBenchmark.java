@@ -0,0 +1,59 @@
+package ca.crimsonglow.skiplist.benchmark;
+
+import ca.crimsonglow.skiplist.SkipList;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures summing the keys of a map with a sequential and a parallel stream over its entry set, comparing a
+ * {@link SkipList}, whose spliterators split along its express levels, with a {@link TreeMap} and a
+ * {@link ConcurrentSkipListMap}.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Fork(value = 1, jvmArgsAppend = "-Xmx8g")
+public class ParallelStreamBenchmark {
+    private static final String DEFAULT_MAP_SIZE = "10000000";
+    @Param({DEFAULT_MAP_SIZE})
+    private int mapSize;
+    @Param({"skipList", "treeMap", "concurrentSkipListMap"})
+    private String mapType;
+    private NavigableMap<Long, Long> map = null;
+
+    @Setup(Level.Trial)
+    public void initializeMap() {
+        switch (mapType) {
+            case "skipList":
+                map = new SkipList<>();
+                break;
+            case "treeMap":
+                map = new TreeMap<>();
+                break;
+            case "concurrentSkipListMap":
+                map = new ConcurrentSkipListMap<>();
+                break;
+            default:
+                throw new IllegalArgumentException(mapType);
+        }
+
+        for (long i = 0; i < mapSize; ++i) {
+            map.put(i, i);
+        }
+    }
+
+    @Benchmark
+    public long measureSequentialSum() {
+        return map.entrySet().stream().mapToLong(Map.Entry::getKey).sum();
+    }
+
+    @Benchmark
+    public long measureParallelSum() {
+        return map.entrySet().parallelStream().mapToLong(Map.Entry::getKey).sum();
+    }
+}
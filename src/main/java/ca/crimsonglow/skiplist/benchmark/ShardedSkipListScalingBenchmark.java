@@ -0,0 +1,19 @@
+package ca.crimsonglow.skiplist.benchmark;
+
+import ca.crimsonglow.skiplist.ShardedSkipList;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.Map;
+
+@State(Scope.Benchmark)
+public class ShardedSkipListScalingBenchmark extends AbstractConcurrentMapBenchmarkBase {
+    @Param({"16"})
+    private int targetShards;
+
+    @Override
+    public Map<Integer, Integer> newMap() {
+        return new ShardedSkipList<>(null, targetShards);
+    }
+}
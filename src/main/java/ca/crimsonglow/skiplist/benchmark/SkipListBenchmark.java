@@ -1,5 +1,6 @@
 package ca.crimsonglow.skiplist.benchmark;
 
+import ca.crimsonglow.skiplist.LevelGenerator;
 import ca.crimsonglow.skiplist.SkipList;
 import org.openjdk.jmh.annotations.Param;
 import org.openjdk.jmh.annotations.Scope;
@@ -9,12 +10,43 @@ import java.util.Map;
 
 @State(Scope.Thread)
 public class SkipListBenchmark extends AbstractMapBenchmarkBase {
-    private static final String DEFAULT_ITERATION_PROBABILITY = "0.2";
+    private static final String DEFAULT_ITERATION_PROBABILITY = "0.25";
+    private static final String DEFAULT_LEVEL_GENERATOR = "splittable";
+    // A fixed seed, so that every run of the seeded generator builds the same towers.
+    private static final long SEED = 0;
     @Param({DEFAULT_ITERATION_PROBABILITY})
     private double iterationProbability;
+    // One of splittable, threadLocal, seeded, iterative or adaptive, as created by the factory methods of LevelGenerator.
+    @Param({DEFAULT_LEVEL_GENERATOR})
+    private String levelGenerator;
 
     @Override
     public Map<Integer, Integer> newMap() {
-        return new SkipList<>(iterationProbability);
+        return new SkipList<>(newLevelGenerator(levelGenerator, iterationProbability));
+    }
+
+    /**
+     * Creates a level generator as selected by the parameters of this benchmark.
+     *
+     * @param levelGenerator       One of splittable, threadLocal, seeded, iterative or adaptive.
+     * @param iterationProbability The iteration probability.
+     * @return A new generator.
+     */
+    public static LevelGenerator newLevelGenerator(String levelGenerator, double iterationProbability) {
+        int maxLevel = LevelGenerator.maxLevelFor(Integer.MAX_VALUE, iterationProbability);
+        switch (levelGenerator) {
+            case "splittable":
+                return LevelGenerator.splittable(iterationProbability, maxLevel);
+            case "threadLocal":
+                return LevelGenerator.threadLocal(iterationProbability, maxLevel);
+            case "seeded":
+                return LevelGenerator.seeded(iterationProbability, maxLevel, SEED);
+            case "iterative":
+                return LevelGenerator.iterative(iterationProbability, maxLevel);
+            case "adaptive":
+                return LevelGenerator.adaptive(iterationProbability, maxLevel);
+            default:
+                throw new IllegalArgumentException("Unknown level generator: " + levelGenerator);
+        }
     }
 }
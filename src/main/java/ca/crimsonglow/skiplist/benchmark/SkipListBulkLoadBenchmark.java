@@ -0,0 +1,75 @@
+package ca.crimsonglow.skiplist.benchmark;
+
+import ca.crimsonglow.skiplist.LevelGenerator;
+import ca.crimsonglow.skiplist.SkipList;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures building a {@link SkipList} from sorted input in a single pass, compared with inserting the same keys in
+ * random order and with copying a {@link TreeMap}, which also builds from sorted input in linear time.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class SkipListBulkLoadBenchmark {
+    private static final String DEFAULT_MAP_SIZE = "1000000";
+    @Param({DEFAULT_MAP_SIZE})
+    private int mapSize;
+    private SortedMap<Integer, Integer> sorted = null;
+    private Integer[] keys = null;
+    private Integer[] shuffledKeys = null;
+
+    @Setup(Level.Trial)
+    public void initializeInput() {
+        sorted = new TreeMap<>();
+        keys = new Integer[mapSize];
+        for (int i = 0; i < mapSize; ++i) {
+            keys[i] = i;
+            sorted.put(keys[i], keys[i]);
+        }
+
+        List<Integer> shuffled = new ArrayList<>(Arrays.asList(keys));
+        Collections.shuffle(shuffled, new Random(0));
+        shuffledKeys = shuffled.toArray(new Integer[0]);
+    }
+
+    @Benchmark
+    public Map<Integer, Integer> measurePutAllSorted() {
+        Map<Integer, Integer> map = new SkipList<>();
+        map.putAll(sorted);
+        return map;
+    }
+
+    @Benchmark
+    public Map<Integer, Integer> measureFromSortedBalanced() {
+        return SkipList.fromSorted(sorted.entrySet().iterator(), LevelGenerator.DEFAULT_PROBABILITY, true);
+    }
+
+    @Benchmark
+    public Map<Integer, Integer> measureAppend() {
+        SkipList<Integer, Integer> map = new SkipList<>();
+        for (Integer key : keys) {
+            map.append(key, key);
+        }
+
+        return map;
+    }
+
+    @Benchmark
+    public Map<Integer, Integer> measurePutShuffled() {
+        Map<Integer, Integer> map = new SkipList<>();
+        for (Integer key : shuffledKeys) {
+            map.put(key, key);
+        }
+
+        return map;
+    }
+
+    @Benchmark
+    public Map<Integer, Integer> measureTreeMapCopy() {
+        return new TreeMap<>(sorted);
+    }
+}
@@ -0,0 +1,130 @@
+package ca.crimsonglow.skiplist.benchmark;
+
+import ca.crimsonglow.skiplist.SkipList;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Comparator;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures lookups and replacements of keys that are expensive to compare, where the number of comparisons per
+ * operation dominates its latency. String keys share a long common prefix, so each comparison scans it. Composite keys
+ * are ordered by a comparator over a string and two numeric fields, most of whose values are shared. A
+ * {@link SkipList} is compared with a {@link TreeMap} and a {@link ConcurrentSkipListMap} using the same ordering.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class SkipListComparatorBenchmark {
+    private static final String DEFAULT_MAP_SIZE = "100000";
+    private static final String DEFAULT_PREFIX_LENGTH = "256";
+    // The number of lookup keys generated up front and cycled through.
+    private static final int LOOKUPS = 1 << 16;
+    // Orders composite keys by tenant, then by time, then by sequence.
+    private static final Comparator<CompositeKey> COMPOSITE_ORDER = Comparator.comparing((CompositeKey k) -> k.tenant)
+            .thenComparingLong(k -> k.time)
+            .thenComparingInt(k -> k.sequence);
+    private final Random random = new Random(0);
+    @Param({DEFAULT_MAP_SIZE})
+    private int mapSize;
+    @Param({DEFAULT_PREFIX_LENGTH})
+    private int prefixLength;
+    // Either string or composite.
+    @Param({"string", "composite"})
+    private String keyType;
+    private Map<Object, Integer> skipList = null;
+    private Map<Object, Integer> treeMap = null;
+    private Map<Object, Integer> concurrentSkipListMap = null;
+    // Keys that are present in the maps, in random order.
+    private Object[] lookups = null;
+    private int nextLookup = 0;
+
+    @Setup(Level.Trial)
+    @SuppressWarnings("unchecked")
+    public void initializeMaps() {
+        Comparator<Object> comparator = keyType.equals("composite")
+                ? (a, b) -> COMPOSITE_ORDER.compare((CompositeKey) a, (CompositeKey) b)
+                : (a, b) -> ((Comparable<Object>) a).compareTo(b);
+        skipList = new SkipList<>(comparator);
+        treeMap = new TreeMap<>(comparator);
+        concurrentSkipListMap = new ConcurrentSkipListMap<>(comparator);
+
+        String prefix = "k".repeat(prefixLength);
+        Object[] keys = new Object[mapSize];
+        for (int i = 0; i < mapSize; ++i) {
+            keys[i] = keyType.equals("composite")
+                    ? new CompositeKey(prefix + (i % 4), i / 64, i % 64)
+                    : String.format("%s%010d", prefix, i);
+        }
+
+        for (int i = mapSize - 1; i > 0; --i) {
+            int j = random.nextInt(i + 1);
+            Object key = keys[i];
+            keys[i] = keys[j];
+            keys[j] = key;
+        }
+
+        for (Object key : keys) {
+            skipList.put(key, 0);
+            treeMap.put(key, 0);
+            concurrentSkipListMap.put(key, 0);
+        }
+
+        lookups = new Object[LOOKUPS];
+        for (int i = 0; i < LOOKUPS; ++i) {
+            lookups[i] = keys[random.nextInt(mapSize)];
+        }
+    }
+
+    @Benchmark
+    public Integer measureGetSkipList() {
+        return skipList.get(nextKey());
+    }
+
+    @Benchmark
+    public Integer measureGetTreeMap() {
+        return treeMap.get(nextKey());
+    }
+
+    @Benchmark
+    public Integer measureGetConcurrentSkipListMap() {
+        return concurrentSkipListMap.get(nextKey());
+    }
+
+    @Benchmark
+    public Integer measurePutSkipList() {
+        return skipList.put(nextKey(), 1);
+    }
+
+    @Benchmark
+    public Integer measurePutTreeMap() {
+        return treeMap.put(nextKey(), 1);
+    }
+
+    @Benchmark
+    public Integer measurePutConcurrentSkipListMap() {
+        return concurrentSkipListMap.put(nextKey(), 1);
+    }
+
+    private Object nextKey() {
+        nextLookup = (nextLookup + 1) & (LOOKUPS - 1);
+        return lookups[nextLookup];
+    }
+
+    // A key made of several fields, as used for time series. Its tenants share a long common prefix.
+    private static final class CompositeKey {
+        private final String tenant;
+        private final long time;
+        private final int sequence;
+
+        CompositeKey(String tenant, long time, int sequence) {
+            this.tenant = tenant;
+            this.time = time;
+            this.sequence = sequence;
+        }
+    }
+}
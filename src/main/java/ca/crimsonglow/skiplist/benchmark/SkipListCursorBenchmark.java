@@ -0,0 +1,191 @@
+package ca.crimsonglow.skiplist.benchmark;
+
+import ca.crimsonglow.skiplist.Cursor;
+import ca.crimsonglow.skiplist.SkipList;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures access patterns with locality: sorted batches of keys from a narrow range, and walks in which each key is
+ * near the previous one. A {@link Cursor} on a {@link SkipList} is compared with lookups from the head of a
+ * {@link SkipList}, a {@link TreeMap} and a {@link ConcurrentSkipListMap}. Each invocation processes one batch.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class SkipListCursorBenchmark {
+    private static final String DEFAULT_MAP_SIZE = "1000000";
+    private static final String DEFAULT_BATCH_SIZE = "1000";
+    private static final String DEFAULT_MAX_DISTANCE = "16";
+    // The number of batches generated up front and cycled through.
+    private static final int BATCHES = 64;
+    private final Random random = new Random(0);
+    @Param({DEFAULT_MAP_SIZE})
+    private int mapSize;
+    @Param({DEFAULT_BATCH_SIZE})
+    private int batchSize;
+    @Param({DEFAULT_MAX_DISTANCE})
+    private int maxDistance;
+    private SkipList<Integer, Integer> skipList = null;
+    private Cursor<Integer, Integer> cursor = null;
+    private NavigableMap<Integer, Integer> treeMap = null;
+    private NavigableMap<Integer, Integer> concurrentSkipListMap = null;
+    // Sorted batches of keys from a window of the key space.
+    private Integer[][] sortedBatches = null;
+    // Random walks in which each key is within the maximum distance of the previous one.
+    private Integer[][] walks = null;
+    private int nextBatch = 0;
+
+    @Setup(Level.Trial)
+    public void initializeMaps() {
+        // Even keys are present and odd keys are absent, so that about half of all lookups miss.
+        skipList = new SkipList<>();
+        treeMap = new TreeMap<>();
+        concurrentSkipListMap = new ConcurrentSkipListMap<>();
+        for (int i = 0; i < mapSize; ++i) {
+            Integer key = 2 * i;
+            skipList.append(key, key);
+            treeMap.put(key, key);
+            concurrentSkipListMap.put(key, key);
+        }
+
+        cursor = skipList.cursor();
+        sortedBatches = new Integer[BATCHES][];
+        walks = new Integer[BATCHES][];
+        int keySpace = 2 * mapSize;
+        for (int b = 0; b < BATCHES; ++b) {
+            int start = random.nextInt(keySpace);
+            sortedBatches[b] = new Integer[batchSize];
+            walks[b] = new Integer[batchSize];
+            int walk = start;
+            for (int i = 0; i < batchSize; ++i) {
+                sortedBatches[b][i] = start + random.nextInt(batchSize * maxDistance);
+                walk = Math.floorMod(walk + random.nextInt(2 * maxDistance + 1) - maxDistance, keySpace);
+                walks[b][i] = walk;
+            }
+
+            Arrays.sort(sortedBatches[b]);
+        }
+    }
+
+    @Setup(Level.Invocation)
+    public void selectBatch() {
+        nextBatch = (nextBatch + 1) % BATCHES;
+    }
+
+    @Benchmark
+    public int measureSortedBatchCursor() {
+        return seekAll(sortedBatches[nextBatch]);
+    }
+
+    @Benchmark
+    public int measureSortedBatchSkipList() {
+        return getAll(skipList, sortedBatches[nextBatch]);
+    }
+
+    @Benchmark
+    public int measureSortedBatchTreeMap() {
+        return getAll(treeMap, sortedBatches[nextBatch]);
+    }
+
+    @Benchmark
+    public int measureSortedBatchConcurrentSkipListMap() {
+        return getAll(concurrentSkipListMap, sortedBatches[nextBatch]);
+    }
+
+    @Benchmark
+    public int measureNearNeighborCursor() {
+        return seekAll(walks[nextBatch]);
+    }
+
+    @Benchmark
+    public int measureNearNeighborSkipList() {
+        return getAll(skipList, walks[nextBatch]);
+    }
+
+    @Benchmark
+    public int measureNearNeighborTreeMap() {
+        return getAll(treeMap, walks[nextBatch]);
+    }
+
+    @Benchmark
+    public int measureNearNeighborConcurrentSkipListMap() {
+        return getAll(concurrentSkipListMap, walks[nextBatch]);
+    }
+
+    // Inserts each absent key of a sorted batch and then removes it again, leaving the map unchanged.
+    @Benchmark
+    public int measureSortedBatchInsertRemoveCursor() {
+        int inserted = 0;
+        for (Integer key : sortedBatches[nextBatch]) {
+            if (!cursor.seek(key)) {
+                cursor.insertHere(key, key);
+                inserted++;
+            }
+        }
+
+        for (Integer key : sortedBatches[nextBatch]) {
+            if ((key & 1) == 1 && cursor.seek(key)) {
+                cursor.removeHere();
+            }
+        }
+
+        return inserted;
+    }
+
+    @Benchmark
+    public int measureSortedBatchInsertRemoveTreeMap() {
+        return insertRemoveAll(treeMap, sortedBatches[nextBatch]);
+    }
+
+    @Benchmark
+    public int measureSortedBatchInsertRemoveConcurrentSkipListMap() {
+        return insertRemoveAll(concurrentSkipListMap, sortedBatches[nextBatch]);
+    }
+
+    private int seekAll(Integer[] keys) {
+        int found = 0;
+        for (Integer key : keys) {
+            if (cursor.seek(key)) {
+                found++;
+            }
+        }
+
+        return found;
+    }
+
+    private static int getAll(Map<Integer, Integer> map, Integer[] keys) {
+        int found = 0;
+        for (Integer key : keys) {
+            if (map.get(key) != null) {
+                found++;
+            }
+        }
+
+        return found;
+    }
+
+    private static int insertRemoveAll(Map<Integer, Integer> map, Integer[] keys) {
+        int inserted = 0;
+        for (Integer key : keys) {
+            if (map.putIfAbsent(key, key) == null) {
+                inserted++;
+            }
+        }
+
+        for (Integer key : keys) {
+            if ((key & 1) == 1) {
+                map.remove(key);
+            }
+        }
+
+        return inserted;
+    }
+}
@@ -0,0 +1,61 @@
+package ca.crimsonglow.skiplist.benchmark;
+
+import ca.crimsonglow.skiplist.IntIntSkipList;
+import ca.crimsonglow.skiplist.SkipList;
+import ca.crimsonglow.skiplist.benchmark.memory.RetainedSize;
+import org.openjdk.jol.info.GraphLayout;
+
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Supplier;
+
+/**
+ * Reports the retained heap size of maps per entry, as measured by walking the object graph with JOL. The boxed keys
+ * and the shared value are excluded, so the figures are the overhead of the map structure alone.
+ */
+public class SkipListFootprintReport {
+    private static final int MAP_SIZE = 100000;
+    private static final double[] ITERATION_PROBABILITIES = {0.1, 0.2, 0.25, 0.5};
+
+    public static void main(String[] args) {
+        Integer[] keys = new Integer[MAP_SIZE];
+        Random random = new Random(0);
+        for (int i = 0; i < MAP_SIZE; i++) {
+            keys[i] = random.nextInt();
+        }
+
+        System.out.printf("%-32s %16s %16s%n", "Map", "Bytes/entry", "Objects/entry");
+        for (double p : ITERATION_PROBABILITIES) {
+            report("SkipList(" + p + ")", () -> new SkipList<>(p), keys);
+        }
+
+        report("TreeMap", TreeMap::new, keys);
+        report("ConcurrentSkipListMap", ConcurrentSkipListMap::new, keys);
+
+        IntIntSkipList primitive = new IntIntSkipList();
+        for (Integer key : keys) {
+            primitive.put(key, 1);
+        }
+
+        GraphLayout layout = GraphLayout.parseInstance(primitive);
+        print("IntIntSkipList", (double) layout.totalSize() / primitive.size(),
+                (double) layout.totalCount() / primitive.size());
+    }
+
+    private static void report(String name, Supplier<Map<Integer, Integer>> factory, Integer[] keys) {
+        Map<Integer, Integer> map = factory.get();
+        Integer value = 1;
+        for (Integer key : keys) {
+            map.put(key, value);
+        }
+
+        RetainedSize retainedSize = RetainedSize.of(map);
+        print(name, retainedSize.getBytesPerEntry(), retainedSize.getObjectsPerEntry());
+    }
+
+    private static void print(String name, double bytesPerEntry, double objectsPerEntry) {
+        System.out.printf("%-32s %16.1f %16.2f%n", name, bytesPerEntry, objectsPerEntry);
+    }
+}
@@ -0,0 +1,63 @@
+package ca.crimsonglow.skiplist.benchmark;
+
+import ca.crimsonglow.skiplist.SkipList;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures combining two {@link SkipList}s of interleaved keys in a single merge pass, compared with copying one and
+ * putting the entries of the other into the copy, and comparing two equal lists.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class SkipListSetOperationsBenchmark {
+    private static final String DEFAULT_MAP_SIZE = "1000000";
+    @Param({DEFAULT_MAP_SIZE})
+    private int mapSize;
+    private SkipList<Integer, Integer> even = null;
+    private SkipList<Integer, Integer> multiplesOfThree = null;
+    private SkipList<Integer, Integer> evenCopy = null;
+
+    @Setup(Level.Trial)
+    public void initializeLists() {
+        even = new SkipList<>();
+        multiplesOfThree = new SkipList<>();
+        evenCopy = new SkipList<>();
+        for (int i = 0; i < mapSize; ++i) {
+            even.append(2 * i, i);
+            multiplesOfThree.append(3 * i, i);
+            evenCopy.append(2 * i, i);
+        }
+    }
+
+    @Benchmark
+    public Map<Integer, Integer> measurePutAll() {
+        Map<Integer, Integer> map = new SkipList<>();
+        map.putAll(even);
+        map.putAll(multiplesOfThree);
+        return map;
+    }
+
+    @Benchmark
+    public Map<Integer, Integer> measureUnion() {
+        return even.union(multiplesOfThree);
+    }
+
+    @Benchmark
+    public Map<Integer, Integer> measureIntersect() {
+        return even.intersect(multiplesOfThree);
+    }
+
+    @Benchmark
+    public Map<Integer, Integer> measureMerge() {
+        return even.merge(multiplesOfThree, Integer::sum);
+    }
+
+    @Benchmark
+    public boolean measureEquals() {
+        return even.equals(evenCopy);
+    }
+}
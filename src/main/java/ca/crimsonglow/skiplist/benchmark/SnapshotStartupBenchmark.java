@@ -0,0 +1,84 @@
+package ca.crimsonglow.skiplist.benchmark;
+
+import ca.crimsonglow.skiplist.SkipList;
+import ca.crimsonglow.skiplist.store.Codec;
+import ca.crimsonglow.skiplist.store.SnapshotReader;
+import ca.crimsonglow.skiplist.store.SnapshotWriter;
+import org.openjdk.jmh.annotations.*;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the time to restore a {@link SkipList} from disk at startup: by Java deserialization of a copy of its entry
+ * set followed by insertion of each entry, by loading a binary snapshot written by {@link SnapshotWriter} in one
+ * sequential pass, and by opening the snapshot to serve lookups from the mapped file without building a list at all.
+ * Run with {@code -p mapSize=50000000} and a large heap to measure the target size.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class SnapshotStartupBenchmark {
+    private static final String DEFAULT_MAP_SIZE = "1000000";
+    @Param({DEFAULT_MAP_SIZE})
+    private int mapSize;
+    private Path directory = null;
+    private Path snapshot = null;
+    private Path serialized = null;
+
+    @Setup(Level.Trial)
+    public void writeFiles() throws IOException {
+        directory = Files.createTempDirectory("snapshot-startup-benchmark");
+        snapshot = directory.resolve("snapshot");
+        serialized = directory.resolve("serialized");
+
+        // Keys are spaced like identifiers allocated in order with gaps, so consecutive keys share leading bytes.
+        SkipList<Long, Long> list = new SkipList<>();
+        for (long i = 0; i < mapSize; ++i) {
+            list.append(1_000_000_000L + 3 * i, i);
+        }
+
+        SnapshotWriter.write(snapshot, list, Codec.longs(), Codec.longs());
+        ArrayList<Map.Entry<Long, Long>> entries = new ArrayList<>(mapSize);
+        for (Map.Entry<Long, Long> e : list.entrySet()) {
+            entries.add(new AbstractMap.SimpleImmutableEntry<>(e));
+        }
+
+        try (ObjectOutputStream out = new ObjectOutputStream(new BufferedOutputStream(Files.newOutputStream(serialized)))) {
+            out.writeObject(entries);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void deleteFiles() throws IOException {
+        TemporaryDirectories.delete(directory);
+    }
+
+    @Benchmark
+    @SuppressWarnings("unchecked")
+    public SkipList<Long, Long> measureJavaSerialization() throws IOException, ClassNotFoundException {
+        try (ObjectInputStream in = new ObjectInputStream(new BufferedInputStream(Files.newInputStream(serialized)))) {
+            SkipList<Long, Long> list = new SkipList<>();
+            for (Map.Entry<Long, Long> e : (ArrayList<Map.Entry<Long, Long>>) in.readObject()) {
+                list.put(e.getKey(), e.getValue());
+            }
+
+            return list;
+        }
+    }
+
+    @Benchmark
+    public SkipList<Long, Long> measureSnapshotLoad() throws IOException {
+        return new SnapshotReader<>(snapshot, null, Codec.longs(), Codec.longs()).load();
+    }
+
+    @Benchmark
+    public Long measureSnapshotOpen() throws IOException {
+        return new SnapshotReader<>(snapshot, null, Codec.longs(), Codec.longs()).get(1_000_000_000L + 3L * (mapSize / 2));
+    }
+}
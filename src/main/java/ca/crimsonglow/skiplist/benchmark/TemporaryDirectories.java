@@ -0,0 +1,30 @@
+package ca.crimsonglow.skiplist.benchmark;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.stream.Stream;
+
+/**
+ * Cleans up the temporary directories that benchmarks of on-disk structures keep their files in.
+ */
+final class TemporaryDirectories {
+    private TemporaryDirectories() {
+    }
+
+    /**
+     * Deletes a directory and everything in it. Paths are deleted deepest first, so each directory is empty by the
+     * time it is deleted.
+     *
+     * @param directory The directory.
+     * @throws IOException If a path could not be deleted.
+     */
+    static void delete(Path directory) throws IOException {
+        try (Stream<Path> paths = Files.walk(directory)) {
+            for (Path path : (Iterable<Path>) paths.sorted(Comparator.reverseOrder())::iterator) {
+                Files.delete(path);
+            }
+        }
+    }
+}
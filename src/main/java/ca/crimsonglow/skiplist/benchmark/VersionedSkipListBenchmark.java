@@ -0,0 +1,80 @@
+package ca.crimsonglow.skiplist.benchmark;
+
+import ca.crimsonglow.skiplist.SkipList;
+import ca.crimsonglow.skiplist.VersionedSkipList;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the throughput of a writer that replaces, removes and reinserts keys in a {@link VersionedSkipList}, with
+ * no snapshot open, with a single snapshot held open for the whole iteration, and with a snapshot taken every
+ * {@link #SNAPSHOT_INTERVAL} writes and dropped at the next, as a periodic reporting job would. A plain
+ * {@link SkipList} is measured for reference. {@link VersionedSkipListReaderBenchmark} measures the writer while
+ * another thread reads the snapshots.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class VersionedSkipListBenchmark {
+    private static final String DEFAULT_MAP_SIZE = "100000";
+    // The number of writes between snapshots in the rolling mode.
+    private static final int SNAPSHOT_INTERVAL = 10000;
+    // The number of keys generated up front and cycled through.
+    private static final int KEYS = 1 << 16;
+    @Param({DEFAULT_MAP_SIZE})
+    private int mapSize;
+    // One of skipList, none, open or rolling.
+    @Param({"skipList", "none", "open", "rolling"})
+    private String snapshots;
+    private Map<Integer, Integer> map = null;
+    private VersionedSkipList<Integer, Integer> versioned = null;
+    private NavigableMap<Integer, Integer> snapshot = null;
+    private int[] keys = null;
+    private int nextKey = 0;
+    private int writes = 0;
+
+    @Setup(Level.Iteration)
+    public void initializeMap() {
+        versioned = snapshots.equals("skipList") ? null : new VersionedSkipList<>();
+        map = versioned == null ? new SkipList<>() : versioned;
+        Random random = new Random(0);
+        for (int i = 0; i < mapSize; ++i) {
+            map.put(random.nextInt(2 * mapSize), i);
+        }
+
+        keys = new int[KEYS];
+        for (int i = 0; i < KEYS; ++i) {
+            keys[i] = random.nextInt(2 * mapSize);
+        }
+
+        snapshot = snapshots.equals("open") || snapshots.equals("rolling") ? versioned.snapshot() : null;
+        writes = 0;
+    }
+
+    @TearDown(Level.Iteration)
+    public void dropSnapshot() {
+        snapshot = null;
+    }
+
+    // Replaces the value of a key, or removes it and inserts it again, in equal measure.
+    @Benchmark
+    public Integer measureWrite() {
+        int key = keys[nextKey];
+        nextKey = (nextKey + 1) & (KEYS - 1);
+        if (snapshots.equals("rolling") && ++writes % SNAPSHOT_INTERVAL == 0) {
+            snapshot = versioned.snapshot();
+        }
+
+        if ((key & 1) == 0) {
+            return map.put(key, key);
+        }
+
+        Integer value = map.remove(key);
+        map.put(key, key);
+        return value;
+    }
+}
@@ -0,0 +1,75 @@
+package ca.crimsonglow.skiplist.benchmark;
+
+import ca.crimsonglow.skiplist.VersionedSkipList;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.NavigableMap;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures a writer that removes and reinserts keys in a {@link VersionedSkipList} and publishes a snapshot every
+ * {@link #SNAPSHOT_INTERVAL} writes, while a reader in another thread repeatedly sums the values of the latest
+ * snapshot.
+ */
+@State(Scope.Group)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class VersionedSkipListReaderBenchmark {
+    private static final String DEFAULT_MAP_SIZE = "100000";
+    // The number of writes between snapshots.
+    private static final int SNAPSHOT_INTERVAL = 10000;
+    // The number of keys generated up front and cycled through.
+    private static final int KEYS = 1 << 16;
+    @Param({DEFAULT_MAP_SIZE})
+    private int mapSize;
+    private VersionedSkipList<Integer, Integer> list = null;
+    // The latest snapshot, published to the reader.
+    private volatile NavigableMap<Integer, Integer> snapshot = null;
+    private int[] keys = null;
+    private int nextKey = 0;
+    private int writes = 0;
+
+    @Setup(Level.Trial)
+    public void initializeList() {
+        list = new VersionedSkipList<>();
+        Random random = new Random(0);
+        for (int i = 0; i < mapSize; ++i) {
+            list.put(random.nextInt(2 * mapSize), i);
+        }
+
+        keys = new int[KEYS];
+        for (int i = 0; i < KEYS; ++i) {
+            keys[i] = random.nextInt(2 * mapSize);
+        }
+
+        snapshot = list.snapshot();
+    }
+
+    @Benchmark
+    @Group("readWhileWriting")
+    @GroupThreads(1)
+    public Integer measureWrite() {
+        int key = keys[nextKey];
+        nextKey = (nextKey + 1) & (KEYS - 1);
+        if (++writes % SNAPSHOT_INTERVAL == 0) {
+            snapshot = list.snapshot();
+        }
+
+        Integer value = list.remove(key);
+        list.put(key, key);
+        return value;
+    }
+
+    @Benchmark
+    @Group("readWhileWriting")
+    @GroupThreads(1)
+    public long measureSnapshotScan() {
+        long sum = 0;
+        for (Integer value : snapshot.values()) {
+            sum += value;
+        }
+
+        return sum;
+    }
+}
@@ -0,0 +1,89 @@
+package ca.crimsonglow.skiplist.benchmark.memory;
+
+import ca.crimsonglow.skiplist.ConcurrentSkipList;
+import ca.crimsonglow.skiplist.SkipList;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the time and allocation of map operations, to be run with JMH's GC profiler ({@code -prof gc}), whose
+ * gc.alloc.rate.norm result is the number of bytes allocated by each operation. The profiler counts everything the
+ * benchmark thread allocates during an iteration, fixtures included, so keys are boxed before the first iteration and
+ * no fixture runs between invocations. The same benchmarks are run by
+ * {@link ca.crimsonglow.skiplist.benchmark.runner.LatencyBenchmarkRunner} to sample the distribution of latencies.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public abstract class AbstractMemoryBenchmarkBase {
+    protected static final Integer VALUE = 1;
+    private static final String DEFAULT_MAP_SIZE = "10000";
+    private static final String DEFAULT_ITERATION_PROBABILITY = "0.25";
+    @Param({"SkipList", "ConcurrentSkipList", "ConcurrentSkipListMap", "TreeMap", "HashMap", "LinkedHashMap"})
+    protected String mapType;
+    // The iteration probability of SkipList, which the other maps ignore.
+    @Param({DEFAULT_ITERATION_PROBABILITY})
+    protected double iterationProbability;
+    @Param({DEFAULT_MAP_SIZE})
+    protected int mapSize;
+    protected Map<Integer, Integer> map = null;
+
+    /**
+     * Creates a new, empty map.
+     *
+     * @param mapType              The simple name of the class of the map.
+     * @param iterationProbability The iteration probability of a SkipList.
+     * @return The map.
+     */
+    public static Map<Integer, Integer> newMap(String mapType, double iterationProbability) {
+        switch (mapType) {
+            case "SkipList":
+                return new SkipList<>(iterationProbability);
+            case "ConcurrentSkipList":
+                return new ConcurrentSkipList<>();
+            case "ConcurrentSkipListMap":
+                return new ConcurrentSkipListMap<>();
+            case "TreeMap":
+                return new TreeMap<>();
+            case "HashMap":
+                return new HashMap<>();
+            case "LinkedHashMap":
+                return new LinkedHashMap<>();
+            default:
+                throw new IllegalArgumentException("Unknown map type: " + mapType);
+        }
+    }
+
+    /**
+     * Generates distinct random keys, the same keys for every call.
+     *
+     * @param count The number of keys.
+     * @return The keys.
+     */
+    public static Integer[] generateKeys(int count) {
+        return new SplittableRandom(0).ints().distinct().limit(count).boxed().toArray(Integer[]::new);
+    }
+
+    /**
+     * Creates a map loaded with the keys that the benchmarks load.
+     *
+     * @param mapType              The simple name of the class of the map.
+     * @param iterationProbability The iteration probability of a SkipList.
+     * @param mapSize              The number of entries.
+     * @return The map.
+     */
+    public static Map<Integer, Integer> newLoadedMap(String mapType, double iterationProbability, int mapSize) {
+        Map<Integer, Integer> map = newMap(mapType, iterationProbability);
+        load(map, generateKeys(mapSize), mapSize);
+        return map;
+    }
+
+    protected static void load(Map<Integer, Integer> map, Integer[] keys, int count) {
+        for (int i = 0; i < count; ++i) {
+            map.put(keys[i], VALUE);
+        }
+    }
+}
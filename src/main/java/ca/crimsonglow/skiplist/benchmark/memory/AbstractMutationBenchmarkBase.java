@@ -0,0 +1,48 @@
+package ca.crimsonglow.skiplist.benchmark.memory;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.BenchmarkParams;
+import org.openjdk.jmh.infra.IterationParams;
+
+/**
+ * Measures the operations that change the size of the map, each iteration of which is a single invocation that applies
+ * a batch of keys to the map. The keys of every batch are generated, and the map is loaded, before the first iteration,
+ * so that no fixture runs while the GC profiler counts. The profiler divides the allocation of a batch by its size, as
+ * the runners divide its time, which JMH reports per batch in this mode. What JMH itself allocates in each iteration, a
+ * few hundred bytes, adds under half a byte to each operation. The map does not return to its original size between
+ * batches: it holds between mapSize and mapSize plus the keys of all batches.
+ * <p>
+ * The number of batches and their size are read from the benchmark parameters, so that overriding the iterations or
+ * the operations per invocation, as {@link ca.crimsonglow.skiplist.benchmark.runner.LatencyBenchmarkRunner} does to
+ * time each operation on its own, also changes the keys generated.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.SingleShotTime)
+@Warmup(iterations = 10)
+@Measurement(iterations = 10)
+public abstract class AbstractMutationBenchmarkBase extends AbstractMemoryBenchmarkBase {
+    protected static final int BATCH_SIZE = 1000;
+    // The first mapSize keys are loaded into the map, and the rest are applied in batches.
+    protected Integer[] keys = null;
+    protected int batchSize = 0;
+    protected int nextKey = 0;
+
+    private static int getBatchCount(IterationParams params) {
+        return params.getCount() * params.getBatchSize();
+    }
+
+    @Setup(Level.Trial)
+    public void generateKeys(BenchmarkParams params) {
+        batchSize = params.getOpsPerInvocation();
+        keys = generateKeys(mapSize
+                + (getBatchCount(params.getWarmup()) + getBatchCount(params.getMeasurement())) * batchSize);
+        nextKey = mapSize;
+        map = newMap(mapType, iterationProbability);
+        loadMap();
+    }
+
+    /**
+     * Loads the map before the first batch.
+     */
+    protected abstract void loadMap();
+}
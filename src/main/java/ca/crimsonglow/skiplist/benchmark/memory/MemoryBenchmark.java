@@ -0,0 +1,51 @@
+package ca.crimsonglow.skiplist.benchmark.memory;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Measures the operations that leave the map unchanged, which need no fixture between invocations. The map is loaded
+ * before each iteration, whose millions of operations amortize the allocation of loading to a fraction of a byte.
+ */
+@State(Scope.Thread)
+public class MemoryBenchmark extends AbstractMemoryBenchmarkBase {
+    private Integer[] keys = null;
+    private int nextKey = 0;
+
+    @Setup(Level.Trial)
+    public void generateKeys() {
+        keys = generateKeys(mapSize);
+    }
+
+    @Setup(Level.Iteration)
+    public void loadMap() {
+        map = newMap(mapType, iterationProbability);
+        load(map, keys, mapSize);
+    }
+
+    @Benchmark
+    public Integer measureGet() {
+        if (nextKey == keys.length) {
+            nextKey = 0;
+        }
+
+        return map.get(keys[nextKey++]);
+    }
+
+    @Benchmark
+    public long measureIteration() {
+        long sum = 0;
+        for (Map.Entry<Integer, Integer> entry : map.entrySet()) {
+            sum += entry.getValue();
+        }
+
+        return sum;
+    }
+
+    @Benchmark
+    public Set<Map.Entry<Integer, Integer>> measureEntrySet() {
+        return map.entrySet();
+    }
+}
@@ -0,0 +1,25 @@
+package ca.crimsonglow.skiplist.benchmark.memory;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Measures putting keys that are absent from the map, which grows from mapSize by a batch in each iteration.
+ */
+@State(Scope.Thread)
+public class PutMemoryBenchmark extends AbstractMutationBenchmarkBase {
+    @Override
+    protected void loadMap() {
+        load(map, keys, mapSize);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public void measurePut() {
+        for (int i = 0; i < batchSize; ++i) {
+            map.put(keys[nextKey++], VALUE);
+        }
+    }
+}
@@ -0,0 +1,30 @@
+package ca.crimsonglow.skiplist.benchmark.memory;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Measures removing keys that are present in the map, which shrinks to mapSize by a batch in each iteration.
+ */
+@State(Scope.Thread)
+public class RemoveMemoryBenchmark extends AbstractMutationBenchmarkBase {
+    @Override
+    protected void loadMap() {
+        load(map, keys, keys.length);
+        // Loading compiles put, but remove would still be compiled during the first batches, which are few.
+        for (int i = 0; i < mapSize; ++i) {
+            map.remove(keys[i]);
+            map.put(keys[i], VALUE);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH_SIZE)
+    public void measureRemove() {
+        for (int i = 0; i < batchSize; ++i) {
+            map.remove(keys[nextKey++]);
+        }
+    }
+}
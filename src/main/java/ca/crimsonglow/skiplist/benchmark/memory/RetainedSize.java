@@ -0,0 +1,60 @@
+package ca.crimsonglow.skiplist.benchmark.memory;
+
+import org.openjdk.jol.info.GraphLayout;
+
+import java.util.Map;
+
+/**
+ * The heap retained by a map per entry, as measured by walking its object graph with JOL. The keys and values are
+ * excluded, so the figures are the overhead of the map structure alone.
+ */
+public final class RetainedSize {
+    static {
+        // Lambdas, such as the level generators of SkipList, are hidden classes, whose field offsets Unsafe refuses to
+        // report, so JOL has to find them by probing instead.
+        if (System.getProperty("jol.magicFieldOffset") == null) {
+            System.setProperty("jol.magicFieldOffset", "true");
+        }
+    }
+
+    private final int size;
+    private final long totalBytes;
+    private final long totalObjects;
+
+    private RetainedSize(int size, long totalBytes, long totalObjects) {
+        this.size = size;
+        this.totalBytes = totalBytes;
+        this.totalObjects = totalObjects;
+    }
+
+    /**
+     * Measures the heap retained by a map.
+     *
+     * @param map A map, which must not be empty.
+     * @return The retained size.
+     */
+    public static RetainedSize of(Map<?, ?> map) {
+        GraphLayout layout = GraphLayout.parseInstance(map)
+                .subtract(GraphLayout.parseInstance(map.keySet().toArray()))
+                .subtract(GraphLayout.parseInstance(map.values().toArray()));
+        return new RetainedSize(map.size(), layout.totalSize(), layout.totalCount());
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public double getBytesPerEntry() {
+        return (double) totalBytes / size;
+    }
+
+    public double getObjectsPerEntry() {
+        return (double) totalObjects / size;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("size=%d, bytes/entry=%.1f, objects/entry=%.2f", size, getBytesPerEntry(),
+                getObjectsPerEntry());
+    }
+}
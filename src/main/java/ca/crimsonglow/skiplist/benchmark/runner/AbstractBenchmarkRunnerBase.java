@@ -7,27 +7,42 @@ import org.openjdk.jmh.runner.RunnerException;
 
 import java.io.BufferedWriter;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 public abstract class AbstractBenchmarkRunnerBase {
     private CSVPrinter printer;
+    // The records written so far, which are all rewritten to the JSON report whenever records are appended.
+    private final List<Object[]> records = new ArrayList<>();
 
     protected abstract void run() throws RunnerException, IOException;
 
     protected void createReport() throws IOException {
         BufferedWriter writer = Files.newBufferedWriter(Paths.get(getResultsCsvFilename()));
         printer = new CSVPrinter(writer, CSVFormat.DEFAULT.withHeader(getResultsCsvHeader()));
+        records.clear();
     }
 
     protected abstract String getResultsCsvFilename();
 
     protected abstract String[] getResultsCsvHeader();
 
+    /**
+     * Returns the name of a file to which the records are also written as a JSON array of objects, whose fields are
+     * named by the CSV header.
+     *
+     * @return The filename, or null if no JSON report is written.
+     */
+    protected String getResultsJsonFilename() {
+        return null;
+    }
+
     protected void appendResults(Collection<RunResult> results) throws IOException {
         // Aggregate results by benchmark.
         Map<String, Collection<RunResult>> resultsByBenchmark = new HashMap<>();
@@ -43,10 +58,81 @@ public abstract class AbstractBenchmarkRunnerBase {
         // Write results to CSV.
         for (Map.Entry<String, Collection<RunResult>> entry : resultsByBenchmark.entrySet()) {
             for (RunResult result : entry.getValue()) {
-                printer.printRecord(getRecord(entry, result));
+                print(getRecord(entry, result));
             }
         }
+
+        flush();
+    }
+
+    /**
+     * Writes a record that does not come from a JMH result, such as a measurement taken outside of JMH.
+     *
+     * @param record The values of the columns of the CSV header.
+     * @throws IOException If the record cannot be written.
+     */
+    protected void appendRecord(Object... record) throws IOException {
+        print(record);
+        flush();
     }
 
     protected abstract Object[] getRecord(Map.Entry<String, Collection<RunResult>> entry, RunResult result);
+
+    private void print(Object[] record) throws IOException {
+        printer.printRecord(record);
+        records.add(record);
+    }
+
+    private void flush() throws IOException {
+        printer.flush();
+        String jsonFilename = getResultsJsonFilename();
+        if (jsonFilename == null) {
+            return;
+        }
+
+        String[] header = getResultsCsvHeader();
+        StringBuilder json = new StringBuilder("[");
+        for (int i = 0; i < records.size(); ++i) {
+            json.append(i == 0 ? "\n  {" : ",\n  {");
+            Object[] record = records.get(i);
+            for (int j = 0; j < header.length; ++j) {
+                json.append(j == 0 ? "" : ", ");
+                appendJsonValue(json, header[j]);
+                json.append(": ");
+                appendJsonValue(json, j < record.length ? record[j] : null);
+            }
+
+            json.append('}');
+        }
+
+        json.append("\n]\n");
+        Files.write(Paths.get(jsonFilename), json.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    // Writes numbers as JSON numbers, except NaN and the infinities, which JSON cannot represent, and everything else
+    // as strings.
+    private static void appendJsonValue(StringBuilder json, Object value) {
+        if (value == null || (value instanceof Double && !Double.isFinite((Double) value))) {
+            json.append("null");
+            return;
+        }
+
+        if (value instanceof Number || value instanceof Boolean) {
+            json.append(value);
+            return;
+        }
+
+        json.append('"');
+        for (char c : value.toString().toCharArray()) {
+            if (c == '"' || c == '\\') {
+                json.append('\\').append(c);
+            } else if (c < 0x20) {
+                json.append(String.format("\\u%04x", (int) c));
+            } else {
+                json.append(c);
+            }
+        }
+
+        json.append('"');
+    }
 }
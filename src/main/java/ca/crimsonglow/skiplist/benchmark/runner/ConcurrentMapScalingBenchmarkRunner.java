@@ -0,0 +1,72 @@
+package ca.crimsonglow.skiplist.benchmark.runner;
+
+import ca.crimsonglow.skiplist.benchmark.ConcurrentSkipListMapScalingBenchmark;
+import ca.crimsonglow.skiplist.benchmark.ConcurrentSkipListScalingBenchmark;
+import ca.crimsonglow.skiplist.benchmark.HashtableScalingBenchmark;
+import ca.crimsonglow.skiplist.benchmark.LockedSkipListScalingBenchmark;
+import ca.crimsonglow.skiplist.benchmark.OptimisticSkipListScalingBenchmark;
+import ca.crimsonglow.skiplist.benchmark.ShardedSkipListScalingBenchmark;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Map;
+
+public class ConcurrentMapScalingBenchmarkRunner extends AbstractBenchmarkRunnerBase {
+    private static final String RESULTS_CSV_FILENAME = "benchmarks-concurrentScaling.csv";
+    private static final String[] RESULTS_CSV_HEADER = {"Benchmark", "Threads", "Throughput (ops/us)"};
+    // The number of threads to scale to, even on machines with fewer cores.
+    private static final int MAX_THREADS = 64;
+
+    public static void main(String[] args) throws RunnerException, IOException {
+        new ConcurrentMapScalingBenchmarkRunner().run();
+    }
+
+    @Override
+    protected void run() throws RunnerException, IOException {
+        createReport();
+        int maxThreads = Math.max(MAX_THREADS, Runtime.getRuntime().availableProcessors());
+        for (int threads = 1; threads <= maxThreads; threads = nextThreadCount(threads, maxThreads)) {
+            Options opts = new OptionsBuilder()
+                    .forks(1)
+                    .threads(threads)
+                    .include(ConcurrentSkipListScalingBenchmark.class.getCanonicalName())
+                    .include(ConcurrentSkipListMapScalingBenchmark.class.getCanonicalName())
+                    .include(ShardedSkipListScalingBenchmark.class.getCanonicalName())
+                    .include(LockedSkipListScalingBenchmark.class.getCanonicalName())
+                    .include(OptimisticSkipListScalingBenchmark.class.getCanonicalName())
+                    .include(HashtableScalingBenchmark.class.getCanonicalName())
+                    .build();
+
+            appendResults(new Runner(opts).run());
+        }
+    }
+
+    // Doubles the thread count, finishing with exactly the maximum.
+    private static int nextThreadCount(int threads, int maxThreads) {
+        if (threads == maxThreads) {
+            return maxThreads + 1;
+        }
+
+        return Math.min(threads * 2, maxThreads);
+    }
+
+    @Override
+    protected String getResultsCsvFilename() {
+        return RESULTS_CSV_FILENAME;
+    }
+
+    @Override
+    protected String[] getResultsCsvHeader() {
+        return RESULTS_CSV_HEADER;
+    }
+
+    @Override
+    protected Object[] getRecord(Map.Entry<String, Collection<RunResult>> entry, RunResult result) {
+        return new Object[]{entry.getKey(), result.getParams().getThreads(), result.getPrimaryResult().getScore()};
+    }
+}
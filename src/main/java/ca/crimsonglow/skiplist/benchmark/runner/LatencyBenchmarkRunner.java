@@ -0,0 +1,223 @@
+package ca.crimsonglow.skiplist.benchmark.runner;
+
+import ca.crimsonglow.skiplist.benchmark.memory.AbstractMemoryBenchmarkBase;
+import org.apache.commons.csv.CSVFormat;
+import org.apache.commons.csv.CSVParser;
+import org.apache.commons.csv.CSVRecord;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.results.BenchmarkResult;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.openjdk.jmh.util.ListStatistics;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+
+/**
+ * Reports the latency distribution of put, get and remove, measured by JMH in several forks. Get is sampled, while put
+ * and remove, which change the map, are each timed as a single shot of one operation, so that no fixture runs between
+ * the timestamps, at the cost of caches that are colder than in a tight loop. Each percentile is computed in each fork,
+ * and is reported as the mean across forks with the error of a confidence interval, as JMH reports scores. A put that
+ * builds a tall tower, or grows the head, lands in the upper percentiles.
+ * <p>
+ * Given {@code compare baseline.csv candidate.csv}, compares two reports instead, and exits with status 1 if any
+ * percentile of the candidate is significantly slower, that is, if its confidence interval lies entirely above that of
+ * the baseline. Results of fewer than three forks have no error, and are never flagged.
+ */
+public class LatencyBenchmarkRunner extends AbstractBenchmarkRunnerBase {
+    private static final String COMPARE_COMMAND = "compare";
+    private static final String MAP_TYPE_PARAM_NAME = "mapType";
+    private static final String ITERATION_PROBABILITY_PARAM_NAME = "iterationProbability";
+    private static final String SKIP_LIST_MAP_TYPE = "SkipList";
+    private static final String[] OTHER_MAP_TYPES = {"ConcurrentSkipListMap", "TreeMap"};
+    private static final String[] ITERATION_PROBABILITIES = {"0.25", "0.5"};
+    private static final String BENCHMARK_PACKAGE_PATTERN =
+            Pattern.quote(AbstractMemoryBenchmarkBase.class.getPackage().getName());
+    private static final String GET_BENCHMARK_PATTERN = BENCHMARK_PACKAGE_PATTERN + "\\.MemoryBenchmark\\.measureGet$";
+    private static final String MUTATION_BENCHMARK_PATTERN = BENCHMARK_PACKAGE_PATTERN
+            + "\\.(Put|Remove)MemoryBenchmark\\.measure(Put|Remove)$";
+    private static final int FORKS = 5;
+    // The single shots of put and remove, each of one operation, which grow or shrink the map by that many keys.
+    private static final int WARMUP_OPERATIONS = 1000;
+    private static final int MEASURED_OPERATIONS = 10000;
+    // The confidence level of the errors, which is the level JMH reports errors at.
+    private static final double CONFIDENCE = 0.999;
+    private static final double[] PERCENTILES = {50, 99, 99.9, 100};
+    private static final String[] PERCENTILE_NAMES = {"p50", "p99", "p99.9", "max"};
+    private static final String BENCHMARK_COLUMN = "Benchmark";
+    private static final String MAP_COLUMN = "Map";
+    private static final String ITERATION_PROBABILITY_COLUMN = "Iteration Probability";
+    private static final String RESULTS_CSV_FILENAME = "benchmarks-latency.csv";
+    private static final String RESULTS_JSON_FILENAME = "benchmarks-latency.json";
+    private static final String[] RESULTS_CSV_HEADER = getHeader();
+
+    public static void main(String[] args) throws RunnerException, IOException {
+        if (args.length > 0 && args[0].equals(COMPARE_COMMAND)) {
+            if (args.length != 3) {
+                System.err.println("Usage: " + COMPARE_COMMAND + " <baseline.csv> <candidate.csv>");
+                System.exit(2);
+            }
+
+            System.exit(compare(Paths.get(args[1]), Paths.get(args[2])) ? 1 : 0);
+        }
+
+        new LatencyBenchmarkRunner().run();
+    }
+
+    private static String[] getHeader() {
+        List<String> header = new ArrayList<>(Arrays.asList(BENCHMARK_COLUMN, MAP_COLUMN, ITERATION_PROBABILITY_COLUMN,
+                "Forks", "Samples"));
+        for (String name : PERCENTILE_NAMES) {
+            header.add(getValueColumn(name));
+            header.add(getErrorColumn(name));
+        }
+
+        return header.toArray(new String[0]);
+    }
+
+    private static String getValueColumn(String percentileName) {
+        return percentileName + " (ns)";
+    }
+
+    private static String getErrorColumn(String percentileName) {
+        return percentileName + " Error (ns)";
+    }
+
+    @Override
+    protected void run() throws RunnerException, IOException {
+        Options skipListOpts = new OptionsBuilder()
+                .forks(FORKS)
+                .timeUnit(TimeUnit.NANOSECONDS)
+                .param(MAP_TYPE_PARAM_NAME, SKIP_LIST_MAP_TYPE)
+                .param(ITERATION_PROBABILITY_PARAM_NAME, ITERATION_PROBABILITIES)
+                .build();
+        Options otherOpts = new OptionsBuilder()
+                .forks(FORKS)
+                .timeUnit(TimeUnit.NANOSECONDS)
+                .param(MAP_TYPE_PARAM_NAME, OTHER_MAP_TYPES)
+                .build();
+
+        createReport();
+        for (Options opts : Arrays.asList(skipListOpts, otherOpts)) {
+            appendResults(new Runner(new OptionsBuilder()
+                    .parent(opts)
+                    .include(GET_BENCHMARK_PATTERN)
+                    .mode(Mode.SampleTime)
+                    .build()).run());
+            appendResults(new Runner(new OptionsBuilder()
+                    .parent(opts)
+                    .include(MUTATION_BENCHMARK_PATTERN)
+                    .mode(Mode.SingleShotTime)
+                    .operationsPerInvocation(1)
+                    .warmupIterations(WARMUP_OPERATIONS)
+                    .measurementIterations(MEASURED_OPERATIONS)
+                    .build()).run());
+        }
+    }
+
+    /**
+     * Compares the percentiles of two reports, printing every percentile that differs significantly.
+     *
+     * @param baseline  The report to compare against.
+     * @param candidate The report compared.
+     * @return Whether any percentile of the candidate is significantly slower.
+     * @throws IOException If a report cannot be read.
+     */
+    private static boolean compare(Path baseline, Path candidate) throws IOException {
+        Map<String, CSVRecord> baselineRecords = readReport(baseline);
+        boolean slower = false;
+        for (Map.Entry<String, CSVRecord> entry : readReport(candidate).entrySet()) {
+            CSVRecord before = baselineRecords.get(entry.getKey());
+            if (before == null) {
+                System.out.printf("%s: not in the baseline%n", entry.getKey());
+                continue;
+            }
+
+            for (String name : PERCENTILE_NAMES) {
+                double beforeValue = Double.parseDouble(before.get(getValueColumn(name)));
+                double beforeError = Double.parseDouble(before.get(getErrorColumn(name)));
+                double afterValue = Double.parseDouble(entry.getValue().get(getValueColumn(name)));
+                double afterError = Double.parseDouble(entry.getValue().get(getErrorColumn(name)));
+                // A NaN error compares false, so a result without one is never flagged.
+                String verdict;
+                if (afterValue - afterError > beforeValue + beforeError) {
+                    verdict = "SLOWER";
+                    slower = true;
+                } else if (afterValue + afterError < beforeValue - beforeError) {
+                    verdict = "faster";
+                } else {
+                    continue;
+                }
+
+                System.out.printf("%s %s: %.1f +/- %.1f ns -> %.1f +/- %.1f ns (%+.1f%%) %s%n", entry.getKey(), name,
+                        beforeValue, beforeError, afterValue, afterError, 100 * (afterValue / beforeValue - 1), verdict);
+            }
+        }
+
+        return slower;
+    }
+
+    private static Map<String, CSVRecord> readReport(Path path) throws IOException {
+        Map<String, CSVRecord> records = new LinkedHashMap<>();
+        try (Reader reader = Files.newBufferedReader(path);
+             CSVParser parser = CSVFormat.DEFAULT.withFirstRecordAsHeader().parse(reader)) {
+            for (CSVRecord record : parser) {
+                records.put(getKey(record.get(BENCHMARK_COLUMN), record.get(MAP_COLUMN),
+                        record.get(ITERATION_PROBABILITY_COLUMN)), record);
+            }
+        }
+
+        return records;
+    }
+
+    private static String getKey(String benchmark, String mapType, String p) {
+        return benchmark + " " + mapType + (p.isEmpty() ? "" : "(" + p + ")");
+    }
+
+    @Override
+    protected String getResultsCsvFilename() {
+        return RESULTS_CSV_FILENAME;
+    }
+
+    @Override
+    protected String[] getResultsCsvHeader() {
+        return RESULTS_CSV_HEADER;
+    }
+
+    @Override
+    protected String getResultsJsonFilename() {
+        return RESULTS_JSON_FILENAME;
+    }
+
+    @Override
+    protected Object[] getRecord(Map.Entry<String, Collection<RunResult>> entry, RunResult result) {
+        String mapType = result.getParams().getParam(MAP_TYPE_PARAM_NAME);
+        Collection<BenchmarkResult> forks = result.getBenchmarkResults();
+        List<Object> record = new ArrayList<>(Arrays.asList(entry.getKey(), mapType,
+                SKIP_LIST_MAP_TYPE.equals(mapType) ? result.getParams().getParam(ITERATION_PROBABILITY_PARAM_NAME) : null,
+                forks.size(), result.getPrimaryResult().getSampleCount()));
+        for (double percentile : PERCENTILES) {
+            double[] values = new double[forks.size()];
+            int i = 0;
+            for (BenchmarkResult fork : forks) {
+                values[i++] = fork.getPrimaryResult().getStatistics().getPercentile(percentile);
+            }
+
+            ListStatistics statistics = new ListStatistics(values);
+            record.add(statistics.getMean());
+            // NaN for fewer than three forks, as JMH reports no error for them either.
+            record.add(statistics.getMeanErrorAt(CONFIDENCE));
+        }
+
+        return record.toArray();
+    }
+}
@@ -23,7 +23,11 @@ public class MapBenchmarkRunner extends AbstractBenchmarkRunnerBase {
     public void run() throws RunnerException, IOException {
         Options opts = new OptionsBuilder()
                 .forks(1)
-                .include(SkipListBenchmark.class.getSimpleName())
+                .include(SkipListBenchmark.class.getCanonicalName())
+                .include(ConcurrentSkipListBenchmark.class.getCanonicalName())
+                .include(IntIntSkipListBenchmark.class.getCanonicalName())
+                .include(LongLongSkipListBenchmark.class.getCanonicalName())
+                .include(LongObjectSkipListBenchmark.class.getCanonicalName())
                 .include(ConcurrentHashMapBenchmark.class.getSimpleName())
                 .include(ConcurrentSkipListMapBenchmark.class.getSimpleName())
                 .include(HashMapBenchmark.class.getSimpleName())
@@ -1,6 +1,7 @@
 package ca.crimsonglow.skiplist.benchmark.runner;
 
 import ca.crimsonglow.skiplist.benchmark.HashMapBenchmark;
+import ca.crimsonglow.skiplist.benchmark.IndexedSkipListBenchmark;
 import ca.crimsonglow.skiplist.benchmark.SkipListBenchmark;
 import ca.crimsonglow.skiplist.benchmark.TreeMapBenchmark;
 import org.openjdk.jmh.results.RunResult;
@@ -32,6 +33,7 @@ public class MapSizeBenchmarkRunner extends AbstractBenchmarkRunnerBase {
             Options opts = new OptionsBuilder()
                     .forks(1)
                     .include(HashMapBenchmark.class.getCanonicalName())
+                    .include(IndexedSkipListBenchmark.class.getCanonicalName())
                     .include(SkipListBenchmark.class.getCanonicalName())
                     .include(TreeMapBenchmark.class.getCanonicalName())
                     .param(MAP_SIZE_PARAM_NAME, new String[]{Integer.toString(i)})
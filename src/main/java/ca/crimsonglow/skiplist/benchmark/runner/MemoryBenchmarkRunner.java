@@ -0,0 +1,140 @@
+package ca.crimsonglow.skiplist.benchmark.runner;
+
+import ca.crimsonglow.skiplist.benchmark.memory.AbstractMemoryBenchmarkBase;
+import ca.crimsonglow.skiplist.benchmark.memory.RetainedSize;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Reports the time-space tradeoff of the iteration probability of SkipList, against the maps it is compared with. The
+ * retained bytes per entry are measured with JOL at several sizes, and the time and bytes allocated per operation are
+ * measured by the benchmarks of the memory package with JMH's GC profiler.
+ */
+public class MemoryBenchmarkRunner extends AbstractBenchmarkRunnerBase {
+    private static final String MAP_TYPE_PARAM_NAME = "mapType";
+    private static final String ITERATION_PROBABILITY_PARAM_NAME = "iterationProbability";
+    private static final String MAP_SIZE_PARAM_NAME = "mapSize";
+    private static final String SKIP_LIST_MAP_TYPE = "SkipList";
+    private static final String[] OTHER_MAP_TYPES = {"ConcurrentSkipList", "ConcurrentSkipListMap", "TreeMap",
+            "HashMap", "LinkedHashMap"};
+    private static final String[] ITERATION_PROBABILITIES = {"0.1", "0.2", "0.25", "0.368", "0.5"};
+    // The sizes whose retained heap is measured. The benchmark runs at its default size only.
+    private static final int[] MAP_SIZES = {1000, 10000, 100000, 1000000};
+    private static final String BENCHMARK_PACKAGE_NAME = AbstractMemoryBenchmarkBase.class.getPackage().getName() + ".";
+    private static final String RETAINED_SIZE_BENCHMARK = "retainedSize";
+    private static final String ALLOCATION_RESULT_NAME = "gc.alloc.rate.norm";
+    private static final String RESULTS_CSV_FILENAME = "benchmarks-memory.csv";
+    private static final String[] RESULTS_CSV_HEADER = {"Benchmark", "Map", "Iteration Probability", "Map Size",
+            "Time (ns)", "Allocated Bytes/op", "Retained Bytes/Entry", "Retained Objects/Entry"};
+    private final Map<String, RetainedSize> retainedSizes = new HashMap<>();
+
+    public static void main(String[] args) throws RunnerException, IOException {
+        new MemoryBenchmarkRunner().run();
+    }
+
+    @Override
+    protected void run() throws RunnerException, IOException {
+        createReport();
+        for (int mapSize : MAP_SIZES) {
+            for (String p : ITERATION_PROBABILITIES) {
+                appendRetainedSize(SKIP_LIST_MAP_TYPE, p, mapSize);
+            }
+
+            for (String mapType : OTHER_MAP_TYPES) {
+                appendRetainedSize(mapType, null, mapSize);
+            }
+        }
+
+        Options skipListOpts = new OptionsBuilder()
+                .forks(1)
+                .include(BENCHMARK_PACKAGE_NAME)
+                .param(MAP_TYPE_PARAM_NAME, SKIP_LIST_MAP_TYPE)
+                .param(ITERATION_PROBABILITY_PARAM_NAME, ITERATION_PROBABILITIES)
+                .addProfiler(GCProfiler.class)
+                .build();
+        Options otherOpts = new OptionsBuilder()
+                .forks(1)
+                .include(BENCHMARK_PACKAGE_NAME)
+                .param(MAP_TYPE_PARAM_NAME, OTHER_MAP_TYPES)
+                .addProfiler(GCProfiler.class)
+                .build();
+
+        appendResults(new Runner(skipListOpts).run());
+        appendResults(new Runner(otherOpts).run());
+    }
+
+    private void appendRetainedSize(String mapType, String p, int mapSize) throws IOException {
+        double iterationProbability = p == null ? 0 : Double.parseDouble(p);
+        RetainedSize retainedSize = RetainedSize.of(
+                AbstractMemoryBenchmarkBase.newLoadedMap(mapType, iterationProbability, mapSize));
+        retainedSizes.put(getKey(mapType, p, Integer.toString(mapSize)), retainedSize);
+        System.out.printf("%s(%s): %s%n", mapType, p == null ? "" : p, retainedSize);
+        appendRecord(RETAINED_SIZE_BENCHMARK, mapType, p, mapSize, null, null, retainedSize.getBytesPerEntry(),
+                retainedSize.getObjectsPerEntry());
+    }
+
+    // The iteration probability is only part of the key of a SkipList, as the other maps ignore it.
+    private static String getKey(String mapType, String p, String mapSize) {
+        return mapType + "/" + (SKIP_LIST_MAP_TYPE.equals(mapType) ? p : null) + "/" + mapSize;
+    }
+
+    private static String getKey(RunResult result) {
+        return getKey(result.getParams().getParam(MAP_TYPE_PARAM_NAME),
+                result.getParams().getParam(ITERATION_PROBABILITY_PARAM_NAME),
+                result.getParams().getParam(MAP_SIZE_PARAM_NAME));
+    }
+
+    private static double getTime(RunResult result) {
+        // JMH divides the allocation of a single shot by the operations per invocation, but not its time.
+        double time = result.getPrimaryResult().getScore();
+        if (result.getParams().getMode() == Mode.SingleShotTime) {
+            time /= result.getParams().getOpsPerInvocation();
+        }
+
+        return time;
+    }
+
+    private static double getAllocation(RunResult result) {
+        for (String name : result.getSecondaryResults().keySet()) {
+            // The name of the result is prefixed with a separator that differs between versions of JMH.
+            if (name.endsWith(ALLOCATION_RESULT_NAME)) {
+                Result<?> allocation = result.getSecondaryResults().get(name);
+                return allocation.getScore();
+            }
+        }
+
+        return Double.NaN;
+    }
+
+    @Override
+    protected String getResultsCsvFilename() {
+        return RESULTS_CSV_FILENAME;
+    }
+
+    @Override
+    protected String[] getResultsCsvHeader() {
+        return RESULTS_CSV_HEADER;
+    }
+
+    @Override
+    protected Object[] getRecord(Map.Entry<String, Collection<RunResult>> entry, RunResult result) {
+        String mapType = result.getParams().getParam(MAP_TYPE_PARAM_NAME);
+        RetainedSize retainedSize = retainedSizes.get(getKey(result));
+        return new Object[]{entry.getKey(), mapType,
+                SKIP_LIST_MAP_TYPE.equals(mapType) ? result.getParams().getParam(ITERATION_PROBABILITY_PARAM_NAME) : null,
+                result.getParams().getParam(MAP_SIZE_PARAM_NAME), getTime(result), getAllocation(result),
+                retainedSize == null ? null : retainedSize.getBytesPerEntry(),
+                retainedSize == null ? null : retainedSize.getObjectsPerEntry()};
+    }
+}
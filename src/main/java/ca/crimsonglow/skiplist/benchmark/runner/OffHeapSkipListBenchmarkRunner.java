@@ -0,0 +1,69 @@
+package ca.crimsonglow.skiplist.benchmark.runner;
+
+import ca.crimsonglow.skiplist.benchmark.OffHeapSkipListBenchmark;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.Result;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Map;
+
+public class OffHeapSkipListBenchmarkRunner extends AbstractBenchmarkRunnerBase {
+    private static final String RESULTS_CSV_FILENAME = "benchmarks-offHeap.csv";
+    private static final String[] RESULTS_CSV_HEADER = {"Benchmark", "Implementation", "Map Size", "Score", "Unit", "GC Count", "GC Time (ms)"};
+    private static final String IMPLEMENTATION_PARAM_NAME = "implementation";
+    private static final String MAP_SIZE_PARAM_NAME = "mapSize";
+    private static final String[] MAP_SIZES = {"100000", "1000000", "4000000"};
+    private static final String GC_COUNT_RESULT_NAME = "\u00b7gc.count";
+    private static final String GC_TIME_RESULT_NAME = "\u00b7gc.time";
+
+    public static void main(String[] args) throws RunnerException, IOException {
+        new OffHeapSkipListBenchmarkRunner().run();
+    }
+
+    @Override
+    protected void run() throws RunnerException, IOException {
+        createReport();
+        Options opts = new OptionsBuilder()
+                .forks(1)
+                .jvmArgsAppend("-XX:MaxDirectMemorySize=4g")
+                .include(OffHeapSkipListBenchmark.class.getCanonicalName())
+                .param(MAP_SIZE_PARAM_NAME, MAP_SIZES)
+                .addProfiler(GCProfiler.class)
+                .build();
+
+        appendResults(new Runner(opts).run());
+    }
+
+    @Override
+    protected String getResultsCsvFilename() {
+        return RESULTS_CSV_FILENAME;
+    }
+
+    @Override
+    protected String[] getResultsCsvHeader() {
+        return RESULTS_CSV_HEADER;
+    }
+
+    @Override
+    protected Object[] getRecord(Map.Entry<String, Collection<RunResult>> entry, RunResult result) {
+        return new Object[]{
+                entry.getKey(),
+                result.getParams().getParam(IMPLEMENTATION_PARAM_NAME),
+                result.getParams().getParam(MAP_SIZE_PARAM_NAME),
+                result.getPrimaryResult().getScore(),
+                result.getPrimaryResult().getScoreUnit(),
+                getScore(result, GC_COUNT_RESULT_NAME),
+                getScore(result, GC_TIME_RESULT_NAME)};
+    }
+
+    private static Object getScore(RunResult result, String name) {
+        Result<?> secondary = result.getSecondaryResults().get(name);
+        return secondary == null ? null : secondary.getScore();
+    }
+}
@@ -1,5 +1,7 @@
 package ca.crimsonglow.skiplist.benchmark.runner;
 
+import ca.crimsonglow.skiplist.SkipList;
+import ca.crimsonglow.skiplist.SkipListStats;
 import ca.crimsonglow.skiplist.benchmark.SkipListBenchmark;
 import org.openjdk.jmh.results.RunResult;
 import org.openjdk.jmh.runner.Runner;
@@ -9,15 +11,26 @@ import org.openjdk.jmh.runner.options.OptionsBuilder;
 
 import java.io.IOException;
 import java.util.Collection;
+import java.util.HashMap;
 import java.util.Map;
+import java.util.Random;
 
 public class SkipListIterationProbabilityBenchmarkRunner extends AbstractBenchmarkRunnerBase {
     private static final String ITERATION_PROBABILITY_PARAM_NAME = "iterationProbability";
+    private static final String LEVEL_GENERATOR_PARAM_NAME = "levelGenerator";
+    private static final String[] LEVEL_GENERATORS = {"splittable", "threadLocal", "seeded", "iterative", "adaptive"};
     private static final double ITERATION_PROBABILITY_MIN = 0;
     private static final double ITERATION_PROBABILITY_MAX = 1;
     private static final double ITERATION_PROBABILITY_STEP = 0.01;
     private static final String RESULTS_CSV_FILENAME = "benchmarks-iterationProbability.csv";
-    private static final String[] RESULTS_CSV_HEADER = {"Benchmark", "Iteration Probability", "Time (ns)"};
+    private static final String[] RESULTS_CSV_HEADER = {"Benchmark", "Iteration Probability", "Level Generator", "Time (ns)",
+            "Head Height", "Head Height Ratio", "Bytes/Entry", "Mean Comparisons", "Mean Hops"};
+    // The size of the lists whose shape is reported, matching the default size of the benchmark.
+    private static final int STATS_MAP_SIZE = 10000;
+    // The number of lookups whose searches are counted.
+    private static final int STATS_LOOKUPS = 10000;
+    // The stats of a list built at each iteration probability by each level generator.
+    private final Map<String, SkipListStats> stats = new HashMap<>();
 
     public static void main(String[] args) throws RunnerException, IOException {
         new SkipListIterationProbabilityBenchmarkRunner().run();
@@ -29,14 +42,42 @@ public class SkipListIterationProbabilityBenchmarkRunner extends AbstractBenchma
         for (double p = ITERATION_PROBABILITY_MIN; p <= ITERATION_PROBABILITY_MAX; p += ITERATION_PROBABILITY_STEP) {
             Options opts = new OptionsBuilder()
                     .forks(1)
-                    .include(SkipListBenchmark.class.getSimpleName())
+                    .include(SkipListBenchmark.class.getCanonicalName())
                     .param(ITERATION_PROBABILITY_PARAM_NAME, new String[]{Double.toString(p)})
+                    .param(LEVEL_GENERATOR_PARAM_NAME, LEVEL_GENERATORS)
                     .build();
 
-            appendResults(new Runner(opts).run());
+            Collection<RunResult> results = new Runner(opts).run();
+            for (String levelGenerator : LEVEL_GENERATORS) {
+                SkipListStats s = measureStats(levelGenerator, p);
+                stats.put(getStatsKey(levelGenerator, Double.toString(p)), s);
+                System.out.printf("%s(%s): %s%n", levelGenerator, p, s);
+            }
+
+            appendResults(results);
         }
     }
 
+    // Builds a list as the benchmark does and counts the searches of random lookups in it, outside of any measurement.
+    private static SkipListStats measureStats(String levelGenerator, double p) {
+        Random random = new Random(0);
+        SkipList<Integer, Integer> list = new SkipList<>(SkipListBenchmark.newLevelGenerator(levelGenerator, p));
+        while (list.size() < STATS_MAP_SIZE) {
+            list.put(random.nextInt(), 1);
+        }
+
+        list.setStatsEnabled(true);
+        for (int i = 0; i < STATS_LOOKUPS; ++i) {
+            list.get(random.nextInt());
+        }
+
+        return list.getStats();
+    }
+
+    private static String getStatsKey(String levelGenerator, String p) {
+        return levelGenerator + "/" + p;
+    }
+
     @Override
     protected String getResultsCsvFilename() {
         return RESULTS_CSV_FILENAME;
@@ -49,6 +90,10 @@ public class SkipListIterationProbabilityBenchmarkRunner extends AbstractBenchma
 
     @Override
     protected Object[] getRecord(Map.Entry<String, Collection<RunResult>> entry, RunResult result) {
-        return new Object[]{entry.getKey(), result.getParams().getParam(ITERATION_PROBABILITY_PARAM_NAME), result.getPrimaryResult().getScore()};
+        String p = result.getParams().getParam(ITERATION_PROBABILITY_PARAM_NAME);
+        String levelGenerator = result.getParams().getParam(LEVEL_GENERATOR_PARAM_NAME);
+        SkipListStats s = stats.get(getStatsKey(levelGenerator, p));
+        return new Object[]{entry.getKey(), p, levelGenerator, result.getPrimaryResult().getScore(), s.getHeadHeight(),
+                s.getHeadHeightRatio(), s.getBytesPerEntry(), s.getMeanComparisons(), s.getMeanHops()};
     }
 }
@@ -0,0 +1,56 @@
+package ca.crimsonglow.skiplist.benchmark.runner;
+
+import ca.crimsonglow.skiplist.benchmark.workload.ReadWriteGroupBenchmark;
+import ca.crimsonglow.skiplist.benchmark.workload.WorkloadBenchmark;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+import java.util.Collection;
+import java.util.Map;
+
+public class WorkloadBenchmarkRunner extends AbstractBenchmarkRunnerBase {
+    private static final String MAP_TYPE_PARAM_NAME = "mapType";
+    private static final String WORKLOAD_PARAM_NAME = "workload";
+    private static final String DISTRIBUTION_PARAM_NAME = "distribution";
+    private static final String RESULTS_CSV_FILENAME = "benchmarks-workloads.csv";
+    private static final String[] RESULTS_CSV_HEADER = {"Benchmark", "Map", "Workload", "Distribution", "Threads",
+            "Throughput (ops/us)"};
+
+    public static void main(String[] args) throws RunnerException, IOException {
+        new WorkloadBenchmarkRunner().run();
+    }
+
+    @Override
+    protected void run() throws RunnerException, IOException {
+        Options opts = new OptionsBuilder()
+                .forks(1)
+                .include(WorkloadBenchmark.class.getCanonicalName())
+                .include(ReadWriteGroupBenchmark.class.getCanonicalName())
+                .build();
+
+        createReport();
+        appendResults(new Runner(opts).run());
+    }
+
+    @Override
+    protected String getResultsCsvFilename() {
+        return RESULTS_CSV_FILENAME;
+    }
+
+    @Override
+    protected String[] getResultsCsvHeader() {
+        return RESULTS_CSV_HEADER;
+    }
+
+    // The read/write group has no workload parameter, and its score is the combined throughput of both groups.
+    @Override
+    protected Object[] getRecord(Map.Entry<String, Collection<RunResult>> entry, RunResult result) {
+        return new Object[]{entry.getKey(), result.getParams().getParam(MAP_TYPE_PARAM_NAME),
+                result.getParams().getParam(WORKLOAD_PARAM_NAME), result.getParams().getParam(DISTRIBUTION_PARAM_NAME),
+                result.getParams().getThreads(), result.getPrimaryResult().getScore()};
+    }
+}
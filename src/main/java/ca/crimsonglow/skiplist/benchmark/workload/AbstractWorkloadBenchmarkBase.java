@@ -0,0 +1,58 @@
+package ca.crimsonglow.skiplist.benchmark.workload;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.BenchmarkParams;
+
+import java.util.SplittableRandom;
+
+/**
+ * Loads a map shared by all benchmark threads with keys 0 through mapSize - 1, in random order, before each iteration.
+ * Threads draw their keys from arrays generated before the first iteration, so that no random numbers are generated
+ * while operations are measured.
+ */
+@State(Scope.Benchmark)
+public abstract class AbstractWorkloadBenchmarkBase {
+    /**
+     * The number of operations generated for each thread, which are cycled through. It must be a power of two.
+     */
+    public static final int OPERATIONS_PER_THREAD = 1 << 20;
+    private static final String DEFAULT_MAP_SIZE = "100000";
+    @Param({"SkipList", "ConcurrentSkipList", "IntIntSkipList", "LongLongSkipList", "LongObjectSkipList",
+            "ConcurrentHashMap", "ConcurrentSkipListMap", "HashMap", "Hashtable", "LinkedHashMap", "TreeMap"})
+    protected String mapType;
+    @Param({DEFAULT_MAP_SIZE})
+    protected int mapSize;
+    @Param({"ZIPFIAN", "HOTSPOT", "SEQUENTIAL", "UNIFORM"})
+    protected KeyDistribution distribution;
+    protected MapAdapter map = null;
+    private int[] loadOrder = null;
+
+    @Setup(Level.Trial)
+    public void shuffleKeys() {
+        loadOrder = new int[mapSize];
+        SplittableRandom random = new SplittableRandom(0);
+        for (int i = 0; i < mapSize; i++) {
+            int j = random.nextInt(i + 1);
+            loadOrder[i] = loadOrder[j];
+            loadOrder[j] = i;
+        }
+    }
+
+    @Setup(Level.Iteration)
+    public void loadMap(BenchmarkParams params) {
+        map = MapAdapter.create(mapType, params.getThreads() > 1);
+        for (int key : loadOrder) {
+            map.put(key, key);
+        }
+    }
+
+    /**
+     * Generates the keys accessed by a thread.
+     *
+     * @param threadIndex The index of the thread, which seeds the keys.
+     * @return The keys.
+     */
+    protected int[] generateKeys(int threadIndex) {
+        return distribution.generateKeys(OPERATIONS_PER_THREAD, mapSize, threadIndex);
+    }
+}
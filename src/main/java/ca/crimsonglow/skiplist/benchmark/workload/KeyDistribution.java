@@ -0,0 +1,133 @@
+package ca.crimsonglow.skiplist.benchmark.workload;
+
+import java.util.SplittableRandom;
+
+/**
+ * Distributions of the keys accessed by a workload, as in the Yahoo! Cloud Serving Benchmark. Each generates ranks
+ * between 0 and the number of keys, where lower ranks are more popular, and maps them to keys.
+ */
+public enum KeyDistribution {
+    /**
+     * Every key is equally likely.
+     */
+    UNIFORM,
+    /**
+     * Keys follow a Zipfian distribution with a constant of {@link #ZIPFIAN_CONSTANT}, so a few keys take most
+     * accesses. Ranks are scrambled into keys, so the popular keys are spread over the key space rather than clustered
+     * at its start.
+     */
+    ZIPFIAN,
+    /**
+     * A hot set of {@link #HOT_SET_FRACTION} of the keys, at the start of the key space, takes
+     * {@link #HOT_ACCESS_FRACTION} of accesses, and the remaining accesses are spread uniformly over the other keys.
+     */
+    HOTSPOT,
+    /**
+     * Keys are accessed in ascending order, wrapping around at the end of the key space.
+     */
+    SEQUENTIAL;
+
+    /**
+     * The constant of the Zipfian distribution, as used by YCSB.
+     */
+    public static final double ZIPFIAN_CONSTANT = 0.99;
+    /**
+     * The fraction of keys in the hot set of the hotspot distribution.
+     */
+    public static final double HOT_SET_FRACTION = 0.2;
+    /**
+     * The fraction of accesses that go to the hot set of the hotspot distribution.
+     */
+    public static final double HOT_ACCESS_FRACTION = 0.8;
+
+    /**
+     * Generates ranks, where rank 0 is the most popular.
+     *
+     * @param count    The number of ranks to generate.
+     * @param keyCount The number of keys, which bounds the ranks.
+     * @param seed     The seed of the random number generator.
+     * @return The ranks.
+     */
+    public int[] generateRanks(int count, int keyCount, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        int[] ranks = new int[count];
+        switch (this) {
+            case UNIFORM:
+                for (int i = 0; i < count; i++) {
+                    ranks[i] = random.nextInt(keyCount);
+                }
+
+                break;
+            case ZIPFIAN:
+                generateZipfian(ranks, keyCount, random);
+                break;
+            case HOTSPOT:
+                int hotSetSize = Math.max(1, (int) (keyCount * HOT_SET_FRACTION));
+                for (int i = 0; i < count; i++) {
+                    boolean hot = hotSetSize == keyCount || random.nextDouble() < HOT_ACCESS_FRACTION;
+                    ranks[i] = hot ? random.nextInt(hotSetSize) : hotSetSize + random.nextInt(keyCount - hotSetSize);
+                }
+
+                break;
+            case SEQUENTIAL:
+                int start = random.nextInt(keyCount);
+                for (int i = 0; i < count; i++) {
+                    ranks[i] = (int) ((start + (long) i) % keyCount);
+                }
+
+                break;
+            default:
+                throw new AssertionError(this);
+        }
+
+        return ranks;
+    }
+
+    /**
+     * Generates keys.
+     *
+     * @param count    The number of keys to generate.
+     * @param keyCount The number of keys, which are between 0 and this number.
+     * @param seed     The seed of the random number generator.
+     * @return The keys.
+     */
+    public int[] generateKeys(int count, int keyCount, long seed) {
+        int[] keys = generateRanks(count, keyCount, seed);
+        if (this == ZIPFIAN) {
+            for (int i = 0; i < count; i++) {
+                keys[i] = (int) Long.remainderUnsigned(keys[i] * 0x9E3779B97F4A7C15L, keyCount);
+            }
+        }
+
+        return keys;
+    }
+
+    // Generates Zipfian ranks with the method of Gray et al., "Quickly Generating Billion-Record Synthetic Databases".
+    private static void generateZipfian(int[] ranks, int keyCount, SplittableRandom random) {
+        double theta = ZIPFIAN_CONSTANT;
+        double zetaN = zeta(keyCount, theta);
+        double alpha = 1 / (1 - theta);
+        double eta = (1 - Math.pow(2.0 / keyCount, 1 - theta)) / (1 - zeta(2, theta) / zetaN);
+        double secondThreshold = 1 + Math.pow(0.5, theta);
+        for (int i = 0; i < ranks.length; i++) {
+            double u = random.nextDouble();
+            double uz = u * zetaN;
+            if (uz < 1) {
+                ranks[i] = 0;
+            } else if (uz < secondThreshold) {
+                ranks[i] = Math.min(1, keyCount - 1);
+            } else {
+                ranks[i] = (int) Math.min(keyCount - 1, (long) (keyCount * Math.pow(eta * u - eta + 1, alpha)));
+            }
+        }
+    }
+
+    private static double zeta(int n, double theta) {
+        double sum = 0;
+        for (int i = 1; i <= n; i++) {
+            sum += 1 / Math.pow(i, theta);
+        }
+
+        return sum;
+    }
+}
@@ -0,0 +1,278 @@
+package ca.crimsonglow.skiplist.benchmark.workload;
+
+import ca.crimsonglow.skiplist.ConcurrentSkipList;
+import ca.crimsonglow.skiplist.IntIntSkipList;
+import ca.crimsonglow.skiplist.LongLongSkipList;
+import ca.crimsonglow.skiplist.LongObjectSkipList;
+import ca.crimsonglow.skiplist.SkipList;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * The operations of a workload on the maps compared by {@link ca.crimsonglow.skiplist.benchmark.runner.MapBenchmarkRunner},
+ * with int keys and values. Maps that are not ordered by key scan by looking up consecutive keys instead, as a hash
+ * table serving the workload would have to.
+ */
+interface MapAdapter {
+    int get(int key);
+
+    void put(int key, int value);
+
+    void remove(int key);
+
+    // Sums the values of up to a number of entries from a key in ascending order.
+    long scan(int fromKey, int count);
+
+    /**
+     * Creates an adapter of a new, empty map.
+     *
+     * @param mapType The simple name of the class of the map.
+     * @param shared  Whether the adapter is used by several threads, in which case maps that are not thread-safe are
+     *                guarded by a single lock.
+     * @return The adapter.
+     */
+    static MapAdapter create(String mapType, boolean shared) {
+        MapAdapter adapter;
+        boolean threadSafe = true;
+        switch (mapType) {
+            case "SkipList":
+                adapter = new NavigableMapAdapter(new SkipList<>());
+                threadSafe = false;
+                break;
+            case "ConcurrentSkipList":
+                adapter = new NavigableMapAdapter(new ConcurrentSkipList<>());
+                break;
+            case "ConcurrentSkipListMap":
+                adapter = new NavigableMapAdapter(new ConcurrentSkipListMap<>());
+                break;
+            case "TreeMap":
+                adapter = new NavigableMapAdapter(new TreeMap<>());
+                threadSafe = false;
+                break;
+            case "ConcurrentHashMap":
+                adapter = new HashMapAdapter(new ConcurrentHashMap<>());
+                break;
+            case "Hashtable":
+                adapter = new HashMapAdapter(new Hashtable<>());
+                break;
+            case "HashMap":
+                adapter = new HashMapAdapter(new HashMap<>());
+                threadSafe = false;
+                break;
+            case "LinkedHashMap":
+                adapter = new HashMapAdapter(new LinkedHashMap<>());
+                threadSafe = false;
+                break;
+            case "IntIntSkipList":
+                adapter = new IntIntSkipListAdapter(new IntIntSkipList());
+                threadSafe = false;
+                break;
+            case "LongLongSkipList":
+                adapter = new LongLongSkipListAdapter(new LongLongSkipList());
+                threadSafe = false;
+                break;
+            case "LongObjectSkipList":
+                adapter = new LongObjectSkipListAdapter(new LongObjectSkipList<>());
+                threadSafe = false;
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown map type: " + mapType);
+        }
+
+        return shared && !threadSafe ? new LockedAdapter(adapter) : adapter;
+    }
+
+    // Looks up consecutive keys in place of a scan.
+    static long scanByLookup(MapAdapter adapter, int fromKey, int count) {
+        long sum = 0;
+        for (int i = 0; i < count; i++) {
+            sum += adapter.get(fromKey + i);
+        }
+
+        return sum;
+    }
+
+    class NavigableMapAdapter implements MapAdapter {
+        private final NavigableMap<Integer, Integer> map;
+
+        NavigableMapAdapter(NavigableMap<Integer, Integer> map) {
+            this.map = map;
+        }
+
+        @Override
+        public int get(int key) {
+            Integer value = map.get(key);
+            return value == null ? 0 : value;
+        }
+
+        @Override
+        public void put(int key, int value) {
+            map.put(key, value);
+        }
+
+        @Override
+        public void remove(int key) {
+            map.remove(key);
+        }
+
+        @Override
+        public long scan(int fromKey, int count) {
+            long sum = 0;
+            int visited = 0;
+            for (Integer value : map.tailMap(fromKey, true).values()) {
+                if (visited++ == count) {
+                    break;
+                }
+
+                sum += value;
+            }
+
+            return sum;
+        }
+    }
+
+    class HashMapAdapter implements MapAdapter {
+        private final Map<Integer, Integer> map;
+
+        HashMapAdapter(Map<Integer, Integer> map) {
+            this.map = map;
+        }
+
+        @Override
+        public int get(int key) {
+            Integer value = map.get(key);
+            return value == null ? 0 : value;
+        }
+
+        @Override
+        public void put(int key, int value) {
+            map.put(key, value);
+        }
+
+        @Override
+        public void remove(int key) {
+            map.remove(key);
+        }
+
+        @Override
+        public long scan(int fromKey, int count) {
+            return scanByLookup(this, fromKey, count);
+        }
+    }
+
+    class IntIntSkipListAdapter implements MapAdapter {
+        private final IntIntSkipList list;
+
+        IntIntSkipListAdapter(IntIntSkipList list) {
+            this.list = list;
+        }
+
+        @Override
+        public int get(int key) {
+            return list.get(key);
+        }
+
+        @Override
+        public void put(int key, int value) {
+            list.put(key, value);
+        }
+
+        @Override
+        public void remove(int key) {
+            list.remove(key);
+        }
+
+        @Override
+        public long scan(int fromKey, int count) {
+            return scanByLookup(this, fromKey, count);
+        }
+    }
+
+    class LongLongSkipListAdapter implements MapAdapter {
+        private final LongLongSkipList list;
+
+        LongLongSkipListAdapter(LongLongSkipList list) {
+            this.list = list;
+        }
+
+        @Override
+        public int get(int key) {
+            return (int) list.get(key);
+        }
+
+        @Override
+        public void put(int key, int value) {
+            list.put(key, value);
+        }
+
+        @Override
+        public void remove(int key) {
+            list.remove(key);
+        }
+
+        @Override
+        public long scan(int fromKey, int count) {
+            return scanByLookup(this, fromKey, count);
+        }
+    }
+
+    class LongObjectSkipListAdapter implements MapAdapter {
+        private final LongObjectSkipList<Integer> list;
+
+        LongObjectSkipListAdapter(LongObjectSkipList<Integer> list) {
+            this.list = list;
+        }
+
+        @Override
+        public int get(int key) {
+            Integer value = list.get(key);
+            return value == null ? 0 : value;
+        }
+
+        @Override
+        public void put(int key, int value) {
+            list.put(key, value);
+        }
+
+        @Override
+        public void remove(int key) {
+            list.remove(key);
+        }
+
+        @Override
+        public long scan(int fromKey, int count) {
+            return scanByLookup(this, fromKey, count);
+        }
+    }
+
+    // Guards a map that is not thread-safe with a single lock, as Collections.synchronizedMap would.
+    class LockedAdapter implements MapAdapter {
+        private final MapAdapter adapter;
+
+        LockedAdapter(MapAdapter adapter) {
+            this.adapter = adapter;
+        }
+
+        @Override
+        public synchronized int get(int key) {
+            return adapter.get(key);
+        }
+
+        @Override
+        public synchronized void put(int key, int value) {
+            adapter.put(key, value);
+        }
+
+        @Override
+        public synchronized void remove(int key) {
+            adapter.remove(key);
+        }
+
+        @Override
+        public synchronized long scan(int fromKey, int count) {
+            return adapter.scan(fromKey, count);
+        }
+    }
+}
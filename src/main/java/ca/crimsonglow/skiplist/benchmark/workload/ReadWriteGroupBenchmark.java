@@ -0,0 +1,47 @@
+package ca.crimsonglow.skiplist.benchmark.workload;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.ThreadParams;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures readers looking up keys in a map shared with a writer that inserts and removes keys, with the throughput of
+ * each reported separately. Each write removes a key and then maps it again to its initial value, so the map is
+ * missing at most one key at a time and its size stays at mapSize whatever the key distribution.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ReadWriteGroupBenchmark extends AbstractWorkloadBenchmarkBase {
+    @Benchmark
+    @Group("readWrite")
+    @GroupThreads(3)
+    public int measureRead(ThreadKeys keys) {
+        return map.get(keys.nextKey());
+    }
+
+    @Benchmark
+    @Group("readWrite")
+    @GroupThreads(1)
+    public void measureWrite(ThreadKeys keys) {
+        int key = keys.nextKey();
+        map.remove(key);
+        map.put(key, key);
+    }
+
+    @State(Scope.Thread)
+    public static class ThreadKeys {
+        private int[] keys = null;
+        private int next = 0;
+
+        @Setup(Level.Trial)
+        public void generate(ReadWriteGroupBenchmark benchmark, ThreadParams threadParams) {
+            keys = benchmark.generateKeys(threadParams.getThreadIndex());
+        }
+
+        int nextKey() {
+            return keys[next++ & (OPERATIONS_PER_THREAD - 1)];
+        }
+    }
+}
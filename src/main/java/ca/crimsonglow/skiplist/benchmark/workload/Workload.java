@@ -0,0 +1,100 @@
+package ca.crimsonglow.skiplist.benchmark.workload;
+
+import java.util.SplittableRandom;
+
+/**
+ * Mixes of operations modelled on the core workloads of the Yahoo! Cloud Serving Benchmark.
+ */
+public enum Workload {
+    /**
+     * 95% reads and 5% updates of existing keys, like YCSB workload B.
+     */
+    READ_HEAVY(0.95, 0, 0.05),
+    /**
+     * 50% reads and 50% updates of existing keys, like YCSB workload A.
+     */
+    UPDATE_HEAVY(0.5, 0, 0.5),
+    /**
+     * 95% short ascending scans and 5% updates of existing keys, like YCSB workload E.
+     */
+    SCAN_HEAVY(0, 0.95, 0.05),
+    /**
+     * 95% reads and 5% inserts of new keys greater than every other, like YCSB workload D. Reads are of keys at an
+     * offset, drawn from the key distribution, below the latest key inserted, so the most popular keys are the newest.
+     */
+    INSERT_LATEST(0.95, 0, 0);
+
+    /**
+     * Gets the value of a key.
+     */
+    public static final byte READ = 0;
+    /**
+     * Visits the entries from a key in ascending order.
+     */
+    public static final byte SCAN = 1;
+    /**
+     * Maps an existing key to a new value.
+     */
+    public static final byte UPDATE = 2;
+    /**
+     * Maps a new key greater than every other.
+     */
+    public static final byte INSERT = 3;
+    /**
+     * The greatest number of entries visited by a scan, as in YCSB.
+     */
+    public static final int MAX_SCAN_LENGTH = 100;
+    private final double readFraction;
+    private final double scanFraction;
+    private final double updateFraction;
+
+    // The remaining operations are inserts.
+    Workload(double readFraction, double scanFraction, double updateFraction) {
+        this.readFraction = readFraction;
+        this.scanFraction = scanFraction;
+        this.updateFraction = updateFraction;
+    }
+
+    /**
+     * Generates a sequence of operations in the proportions of the workload.
+     *
+     * @param count The number of operations.
+     * @param seed  The seed of the random number generator.
+     * @return The operations.
+     */
+    public byte[] generateOperations(int count, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        byte[] operations = new byte[count];
+        for (int i = 0; i < count; i++) {
+            double u = random.nextDouble();
+            if (u < readFraction) {
+                operations[i] = READ;
+            } else if (u < readFraction + scanFraction) {
+                operations[i] = SCAN;
+            } else if (u < readFraction + scanFraction + updateFraction) {
+                operations[i] = UPDATE;
+            } else {
+                operations[i] = INSERT;
+            }
+        }
+
+        return operations;
+    }
+
+    /**
+     * Generates the lengths of scans, uniformly distributed between 1 and {@link #MAX_SCAN_LENGTH}.
+     *
+     * @param count The number of lengths.
+     * @param seed  The seed of the random number generator.
+     * @return The lengths.
+     */
+    public static int[] generateScanLengths(int count, long seed) {
+        SplittableRandom random = new SplittableRandom(seed);
+        int[] lengths = new int[count];
+        for (int i = 0; i < count; i++) {
+            lengths[i] = 1 + random.nextInt(MAX_SCAN_LENGTH);
+        }
+
+        return lengths;
+    }
+}
@@ -0,0 +1,66 @@
+package ca.crimsonglow.skiplist.benchmark.workload;
+
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.ThreadParams;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Measures the throughput of YCSB-style mixes of operations on a map shared by several threads. Run with
+ * {@code -t 1} to measure a single thread, in which case maps that are not thread-safe are used without a lock.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class WorkloadBenchmark extends AbstractWorkloadBenchmarkBase {
+    @Param({"READ_HEAVY", "UPDATE_HEAVY", "SCAN_HEAVY", "INSERT_LATEST"})
+    private Workload workload;
+    // The next key to insert, which is greater than every key in the map.
+    private final AtomicInteger nextInsertKey = new AtomicInteger();
+
+    @Setup(Level.Iteration)
+    public void resetInsertKey() {
+        nextInsertKey.set(mapSize);
+    }
+
+    @Benchmark
+    @Threads(4)
+    public long measureWorkload(ThreadOperations operations) {
+        int i = operations.next++ & (OPERATIONS_PER_THREAD - 1);
+        int key = operations.keys[i];
+        switch (operations.operations[i]) {
+            case Workload.READ:
+                // Inserting workloads read keys at an offset below the latest one.
+                return map.get(workload == Workload.INSERT_LATEST ? Math.max(0, nextInsertKey.get() - 1 - key) : key);
+            case Workload.SCAN:
+                return map.scan(key, operations.scanLengths[i]);
+            case Workload.UPDATE:
+                map.put(key, i);
+                return i;
+            default:
+                int newKey = nextInsertKey.getAndIncrement();
+                map.put(newKey, i);
+                return newKey;
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class ThreadOperations {
+        private byte[] operations = null;
+        private int[] keys = null;
+        private int[] scanLengths = null;
+        private int next = 0;
+
+        @Setup(Level.Trial)
+        public void generate(WorkloadBenchmark benchmark, ThreadParams threadParams) {
+            int thread = threadParams.getThreadIndex();
+            operations = benchmark.workload.generateOperations(OPERATIONS_PER_THREAD, thread);
+            // Inserting workloads draw offsets below the latest key, where rank 0 is the latest key itself.
+            keys = benchmark.workload == Workload.INSERT_LATEST
+                    ? benchmark.distribution.generateRanks(OPERATIONS_PER_THREAD, benchmark.mapSize, thread)
+                    : benchmark.generateKeys(thread);
+            scanLengths = Workload.generateScanLengths(OPERATIONS_PER_THREAD, thread);
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package ca.crimsonglow.skiplist.store;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Converts keys or values to and from bytes, so that they can be written to files.
+ *
+ * @param <T> The type of keys or values.
+ */
+public interface Codec<T> {
+    /**
+     * Gets a codec for byte arrays, which are written with a length prefix.
+     *
+     * @return The codec.
+     */
+    static Codec<byte[]> bytes() {
+        return new Codec<>() {
+            @Override
+            public void encode(byte[] value, DataOutput out) throws IOException {
+                out.writeInt(value.length);
+                out.write(value);
+            }
+
+            @Override
+            public byte[] decode(DataInput in) throws IOException {
+                byte[] value = new byte[in.readInt()];
+                in.readFully(value);
+                return value;
+            }
+        };
+    }
+
+    /**
+     * Gets a codec for strings, which are written as UTF-8 with a length prefix.
+     *
+     * @return The codec.
+     */
+    static Codec<String> strings() {
+        return new Codec<>() {
+            @Override
+            public void encode(String value, DataOutput out) throws IOException {
+                bytes().encode(value.getBytes(StandardCharsets.UTF_8), out);
+            }
+
+            @Override
+            public String decode(DataInput in) throws IOException {
+                return new String(bytes().decode(in), StandardCharsets.UTF_8);
+            }
+        };
+    }
+
+    /**
+     * Gets a codec for integers, which are written as four big-endian bytes.
+     *
+     * @return The codec.
+     */
+    static Codec<Integer> integers() {
+        return new Codec<>() {
+            @Override
+            public void encode(Integer value, DataOutput out) throws IOException {
+                out.writeInt(value);
+            }
+
+            @Override
+            public Integer decode(DataInput in) throws IOException {
+                return in.readInt();
+            }
+        };
+    }
+
+    /**
+     * Gets a codec for longs, which are written as eight big-endian bytes.
+     *
+     * @return The codec.
+     */
+    static Codec<Long> longs() {
+        return new Codec<>() {
+            @Override
+            public void encode(Long value, DataOutput out) throws IOException {
+                out.writeLong(value);
+            }
+
+            @Override
+            public Long decode(DataInput in) throws IOException {
+                return in.readLong();
+            }
+        };
+    }
+
+    /**
+     * Writes a key or value.
+     *
+     * @param value The key or value, which is not null.
+     * @param out   The output to write it to.
+     * @throws IOException If the output cannot be written.
+     */
+    void encode(T value, DataOutput out) throws IOException;
+
+    /**
+     * Reads a key or value written by {@link #encode(Object, DataOutput)}.
+     *
+     * @param in The input to read it from.
+     * @return The key or value.
+     * @throws IOException If the input cannot be read.
+     */
+    T decode(DataInput in) throws IOException;
+}
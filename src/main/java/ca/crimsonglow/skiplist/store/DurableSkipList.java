@@ -0,0 +1,281 @@
+package ca.crimsonglow.skiplist.store;
+
+import ca.crimsonglow.skiplist.SkipList;
+
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.BiConsumer;
+
+/**
+ * A {@link SkipList} whose modifications are recorded in a write-ahead log, so that its contents survive a restart.
+ * <p>
+ * Each {@link #put(Object, Object)} and {@link #remove(Object)} appends a record to the log before modifying the list,
+ * and returns once the record is as durable as the {@link SyncMode} requires. Records of concurrent writers are
+ * written, and forced, together. On opening, the records are read back, sorted by key with the latest record for each
+ * key kept, and appended to a fresh list with {@link SkipList#append(Object, Object)}, which links each node without a
+ * search. A record whose write was interrupted by a crash is discarded. {@link #checkpoint()} rewrites the log as one
+ * record per mapping, so that it does not grow without bound.
+ * <p>
+ * The list may be shared between threads. Modifications are visible to readers as soon as they are made, which may be
+ * before their records are durable.
+ *
+ * @param <K> The type of keys.
+ * @param <V> The type of values.
+ */
+public class DurableSkipList<K, V> implements Closeable {
+    /**
+     * The default interval between forces in {@link SyncMode#PERIODIC}.
+     */
+    public static final long DEFAULT_SYNC_INTERVAL_MS = 10;
+    // The types of records.
+    private static final byte PUT = 1;
+    private static final byte REMOVE = 2;
+    // The suffix of the log while it is being rewritten by a checkpoint.
+    private static final String TEMPORARY_SUFFIX = ".tmp";
+    private final Path path;
+    private final Comparator<? super K> comparator;
+    private final Codec<K> keyCodec;
+    private final Codec<V> valueCodec;
+    private final SyncMode syncMode;
+    private final long syncIntervalMs;
+    // Encodes records, reused between writes.
+    private final ByteArrayOutputStream recordBytes = new ByteArrayOutputStream();
+    private final DataOutputStream recordOut = new DataOutputStream(recordBytes);
+    private final SkipList<K, V> list;
+    private WriteAheadLog log;
+    private boolean closed;
+
+    /**
+     * Opens a list whose keys are ordered by their natural ordering, recovering its contents from its log.
+     *
+     * @param path       The path of the log, which is created if it does not exist.
+     * @param keyCodec   The codec for keys.
+     * @param valueCodec The codec for values.
+     * @param syncMode   When records are forced to storage.
+     * @throws IOException If the log cannot be read or opened.
+     */
+    public DurableSkipList(Path path, Codec<K> keyCodec, Codec<V> valueCodec, SyncMode syncMode) throws IOException {
+        this(path, null, keyCodec, valueCodec, syncMode, DEFAULT_SYNC_INTERVAL_MS);
+    }
+
+    /**
+     * Opens a list, recovering its contents from its log.
+     *
+     * @param path           The path of the log, which is created if it does not exist.
+     * @param comparator     The comparator used to order keys, or null to use their natural ordering.
+     * @param keyCodec       The codec for keys.
+     * @param valueCodec     The codec for values.
+     * @param syncMode       When records are forced to storage.
+     * @param syncIntervalMs The interval between forces in {@link SyncMode#PERIODIC}.
+     * @throws IOException If the log cannot be read or opened.
+     */
+    public DurableSkipList(Path path, Comparator<? super K> comparator, Codec<K> keyCodec, Codec<V> valueCodec,
+                           SyncMode syncMode, long syncIntervalMs) throws IOException {
+        if (syncIntervalMs <= 0) {
+            throw new IllegalArgumentException();
+        }
+
+        this.path = path;
+        this.comparator = comparator;
+        this.keyCodec = Objects.requireNonNull(keyCodec);
+        this.valueCodec = Objects.requireNonNull(valueCodec);
+        this.syncMode = Objects.requireNonNull(syncMode);
+        this.syncIntervalMs = syncIntervalMs;
+        list = new SkipList<>(comparator);
+        long validLength = recover();
+        log = new WriteAheadLog(path, validLength, syncMode, syncIntervalMs);
+    }
+
+    /**
+     * Gets the value of a key.
+     *
+     * @param key The key.
+     * @return The value, or null if the key is not mapped.
+     */
+    public synchronized V get(K key) {
+        return list.get(key);
+    }
+
+    /**
+     * Gets the number of mappings.
+     *
+     * @return The number of mappings.
+     */
+    public synchronized int size() {
+        return list.size();
+    }
+
+    /**
+     * Passes each mapping to a consumer, in ascending order of key. Writes wait until it completes.
+     *
+     * @param consumer The consumer.
+     */
+    public synchronized void forEach(BiConsumer<? super K, ? super V> consumer) {
+        list.forEach(consumer);
+    }
+
+    /**
+     * Maps a key to a value, and waits until the modification is durable.
+     *
+     * @param key   The key.
+     * @param value The value.
+     * @return The previous value of the key, or null if it was not mapped.
+     * @throws IOException If the log cannot be written.
+     */
+    public V put(K key, V value) throws IOException {
+        Objects.requireNonNull(key);
+        Objects.requireNonNull(value);
+        WriteAheadLog log;
+        long sequence;
+        V previous;
+        synchronized (this) {
+            checkOpen();
+            log = this.log;
+            sequence = log.append(encode(PUT, key, value));
+            previous = list.put(key, value);
+        }
+
+        log.await(sequence);
+        return previous;
+    }
+
+    /**
+     * Removes the mapping of a key, and waits until the modification is durable.
+     *
+     * @param key The key.
+     * @return The previous value of the key, or null if it was not mapped.
+     * @throws IOException If the log cannot be written.
+     */
+    public V remove(K key) throws IOException {
+        Objects.requireNonNull(key);
+        WriteAheadLog log;
+        long sequence;
+        V previous;
+        synchronized (this) {
+            checkOpen();
+            if (!list.containsKey(key)) {
+                return null;
+            }
+
+            log = this.log;
+            sequence = log.append(encode(REMOVE, key, null));
+            previous = list.remove(key);
+        }
+
+        log.await(sequence);
+        return previous;
+    }
+
+    /**
+     * Replaces the log with one that records only the current mappings. Writes wait until it completes.
+     *
+     * @throws IOException If the log cannot be written.
+     */
+    public synchronized void checkpoint() throws IOException {
+        checkOpen();
+        log.sync();
+        Path temporary = path.resolveSibling(path.getFileName() + TEMPORARY_SUFFIX);
+        try {
+            try (WriteAheadLog rewritten = new WriteAheadLog(temporary, 0, SyncMode.NONE, syncIntervalMs)) {
+                for (var e : list.entrySet()) {
+                    rewritten.append(encode(PUT, e.getKey(), e.getValue()));
+                }
+            }
+
+            Files.move(temporary, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temporary);
+            throw e;
+        }
+
+        // Every record of the old log has been forced, so threads still waiting on it are released at once.
+        log.close();
+        log = new WriteAheadLog(path, Files.size(path), syncMode, syncIntervalMs);
+    }
+
+    /**
+     * Forces the log to storage and closes it.
+     *
+     * @throws IOException If the log cannot be written or closed.
+     */
+    @Override
+    public synchronized void close() throws IOException {
+        if (!closed) {
+            closed = true;
+            log.close();
+        }
+    }
+
+    // Replays the log into the list, and returns the length of its complete records.
+    private long recover() throws IOException {
+        List<Record<K, V>> records = new ArrayList<>();
+        long validLength;
+        try {
+            validLength = WriteAheadLog.replay(path, bytes -> records.add(decode(bytes)));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+
+        // The sort is stable, so the records of each key stay in the order they were written.
+        records.sort((a, b) -> compare(a.key, b.key));
+        for (int i = 0; i < records.size(); ++i) {
+            Record<K, V> r = records.get(i);
+            boolean latest = i + 1 == records.size() || compare(r.key, records.get(i + 1).key) != 0;
+            if (latest && r.value != null) {
+                list.append(r.key, r.value);
+            }
+        }
+
+        return validLength;
+    }
+
+    @SuppressWarnings("unchecked")
+    private int compare(K a, K b) {
+        return comparator != null ? comparator.compare(a, b) : ((Comparable<? super K>) a).compareTo(b);
+    }
+
+    private byte[] encode(byte type, K key, V value) throws IOException {
+        recordBytes.reset();
+        recordOut.writeByte(type);
+        keyCodec.encode(key, recordOut);
+        if (type == PUT) {
+            valueCodec.encode(value, recordOut);
+        }
+
+        return recordBytes.toByteArray();
+    }
+
+    private Record<K, V> decode(byte[] bytes) {
+        try {
+            DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes));
+            byte type = in.readByte();
+            K key = keyCodec.decode(in);
+            return new Record<>(key, type == PUT ? valueCodec.decode(in) : null);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void checkOpen() {
+        if (closed) {
+            throw new IllegalStateException("The list is closed.");
+        }
+    }
+
+    // A decoded record, whose value is null if it records a removal.
+    private static final class Record<K, V> {
+        private final K key;
+        private final V value;
+
+        Record(K key, V value) {
+            this.key = key;
+            this.value = value;
+        }
+    }
+}
@@ -0,0 +1,618 @@
+package ca.crimsonglow.skiplist.store;
+
+import ca.crimsonglow.skiplist.SkipList;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.concurrent.*;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.BiConsumer;
+
+/**
+ * A key-value store of byte array keys and values, structured as a log-structured merge tree whose in-memory write
+ * buffer, or memtable, is a {@link SkipList}.
+ * <p>
+ * Writes go to the memtable. Once it holds roughly the configured number of bytes, it is frozen and a background thread
+ * writes it in key order to an immutable {@link SortedTable} in the store's directory. Removals are recorded as
+ * tombstones, which hide older values until compaction reaches the oldest table. Reads consult the memtable, then the
+ * frozen memtables and then the tables, from newest to oldest, and return the first value found. Compaction is size
+ * tiered: once the compaction threshold is reached by the number of consecutive tables of similar size, the background
+ * thread merges them into a single table, which is about that many times larger and so joins the next tier. Each entry
+ * is therefore rewritten once per tier, logarithmically many times in the size of the store, and lookups read a few
+ * tables per tier. Writes wait only if the background thread falls behind by more than {@link #MAX_FROZEN_MEMTABLES}
+ * memtables.
+ * <p>
+ * The live tables are listed, from newest to oldest, in a manifest that is replaced atomically whenever a table is
+ * added or compacted, so that a store reopened after a crash sees either the inputs of a compaction or its output, and
+ * never an older table without the newer one whose tombstones hide it. Tables that the manifest does not list are
+ * deleted on opening.
+ * <p>
+ * Keys are ordered lexicographically with bytes treated as unsigned. The arrays passed to the store are held by its
+ * memtable and must not be modified afterwards. The store may be shared between threads. Only tables are durable: the
+ * contents of the memtables are written by {@link #flush()} and {@link #close()}, and are lost if the process exits
+ * without calling either.
+ */
+public class LsmStore implements Closeable {
+    /**
+     * The default size of a memtable, in bytes.
+     */
+    public static final long DEFAULT_MEMTABLE_SIZE = 4 << 20;
+    /**
+     * The default size of a block of a table, in bytes.
+     */
+    public static final int DEFAULT_BLOCK_SIZE = 4096;
+    /**
+     * The default number of tables of similar size at which they are compacted.
+     */
+    public static final int DEFAULT_COMPACTION_THRESHOLD = 4;
+    /**
+     * The number of frozen memtables that may wait to be written before writes wait for the background thread.
+     */
+    public static final int MAX_FROZEN_MEMTABLES = 2;
+    // The estimated number of bytes used by each memtable entry besides its key and value.
+    private static final int ENTRY_OVERHEAD = 64;
+    // The greatest ratio between the sizes of tables in the same tier.
+    private static final int TIER_SIZE_RATIO = 2;
+    private static final String TABLE_SUFFIX = ".sst";
+    private static final String MANIFEST_NAME = "MANIFEST";
+    // The suffix of tables and manifests that are being written, which are deleted on opening.
+    private static final String TEMPORARY_SUFFIX = ".tmp";
+    private final Path directory;
+    private final long memtableSize;
+    private final int blockSize;
+    private final int compactionThreshold;
+    // Guards the fields below. Readers hold the read lock to use the memtable; writers and the background thread hold
+    // the write lock to modify it and to replace the lists of frozen memtables and tables.
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    // Signalled when a frozen memtable has been written or the background thread has failed.
+    private final Condition flushed = lock.writeLock().newCondition();
+    // Writes frozen memtables and compacts tables, one task at a time.
+    private final ExecutorService background;
+    private SkipList<byte[], byte[]> memtable = newMemtable();
+    // The estimated number of bytes in the memtable.
+    private long memtableBytes;
+    // The frozen memtables and the tables, from newest to oldest. They are replaced rather than modified.
+    private List<SkipList<byte[], byte[]>> frozen = List.of();
+    private List<SortedTable> tables;
+    // The number of the next table to be written.
+    private long nextTableNumber;
+    // The first failure of the background thread, after which the store rejects writes.
+    private IOException backgroundFailure;
+    private boolean closed;
+
+    /**
+     * Opens a store with default parameters, creating it if the directory is empty.
+     *
+     * @param directory The directory holding the tables of the store.
+     * @throws IOException If the tables cannot be read.
+     */
+    public LsmStore(Path directory) throws IOException {
+        this(directory, DEFAULT_MEMTABLE_SIZE, DEFAULT_BLOCK_SIZE, DEFAULT_COMPACTION_THRESHOLD);
+    }
+
+    /**
+     * Opens a store with the specified parameters, creating it if the directory is empty.
+     *
+     * @param directory           The directory holding the tables of the store.
+     * @param memtableSize        The approximate number of bytes at which a memtable is frozen and written to a table.
+     * @param blockSize           The approximate size of each block of a table, which is read whole by a lookup.
+     * @param compactionThreshold The number of consecutive tables of similar size at which they are merged into one.
+     * @throws IOException If the tables cannot be read.
+     */
+    public LsmStore(Path directory, long memtableSize, int blockSize, int compactionThreshold) throws IOException {
+        if (memtableSize <= 0 || blockSize <= 0 || compactionThreshold < 2) {
+            throw new IllegalArgumentException();
+        }
+
+        this.directory = Files.createDirectories(directory);
+        this.memtableSize = memtableSize;
+        this.blockSize = blockSize;
+        this.compactionThreshold = compactionThreshold;
+        this.tables = openTables();
+        background = Executors.newSingleThreadExecutor(r -> {
+            Thread t = new Thread(r, "lsm-store-" + directory.getFileName());
+            t.setDaemon(true);
+            return t;
+        });
+    }
+
+    /**
+     * Gets the value of a key.
+     *
+     * @param key The key.
+     * @return The value, or null if the store does not contain the key.
+     * @throws IOException If a table cannot be read.
+     */
+    public byte[] get(byte[] key) throws IOException {
+        Objects.requireNonNull(key);
+        List<SkipList<byte[], byte[]>> frozen;
+        List<SortedTable> tables;
+        lock.readLock().lock();
+        try {
+            checkOpen();
+            byte[] value = memtable.get(key);
+            if (value != null) {
+                return value == SortedTable.TOMBSTONE ? null : value;
+            }
+
+            // The frozen memtables and tables are immutable, so they are read without the lock.
+            frozen = this.frozen;
+            tables = this.tables;
+            tables.forEach(SortedTable::retain);
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        try {
+            for (SkipList<byte[], byte[]> m : frozen) {
+                byte[] value = m.get(key);
+                if (value != null) {
+                    return value == SortedTable.TOMBSTONE ? null : value;
+                }
+            }
+
+            for (SortedTable table : tables) {
+                byte[] value = table.get(key);
+                if (value != null) {
+                    return value == SortedTable.TOMBSTONE ? null : value;
+                }
+            }
+
+            return null;
+        } finally {
+            release(tables);
+        }
+    }
+
+    /**
+     * Maps a key to a value.
+     *
+     * @param key   The key.
+     * @param value The value.
+     * @throws IOException If the background thread has failed to write a table.
+     */
+    public void put(byte[] key, byte[] value) throws IOException {
+        write(Objects.requireNonNull(key), Objects.requireNonNull(value));
+    }
+
+    /**
+     * Removes the mapping of a key, if there is one.
+     *
+     * @param key The key.
+     * @throws IOException If the background thread has failed to write a table.
+     */
+    public void remove(byte[] key) throws IOException {
+        write(Objects.requireNonNull(key), SortedTable.TOMBSTONE);
+    }
+
+    /**
+     * Passes each mapping whose key is within a range to a consumer, in ascending order of key. Writes wait until the
+     * scan completes.
+     *
+     * @param fromKey  The least key, inclusive, or null to start at the first key.
+     * @param toKey    The greatest key, exclusive, or null to end at the last key.
+     * @param consumer The consumer.
+     * @throws IOException If a table cannot be read.
+     */
+    public void forEach(byte[] fromKey, byte[] toKey, BiConsumer<byte[], byte[]> consumer) throws IOException {
+        lock.readLock().lock();
+        try {
+            checkOpen();
+            List<Iterator<Map.Entry<byte[], byte[]>>> sources = new ArrayList<>();
+            sources.add(iterator(memtable, fromKey));
+            for (SkipList<byte[], byte[]> m : frozen) {
+                sources.add(iterator(m, fromKey));
+            }
+
+            for (SortedTable table : tables) {
+                sources.add(table.iterator(fromKey));
+            }
+
+            Iterator<Map.Entry<byte[], byte[]>> it = new MergingIterator(sources, true);
+            while (it.hasNext()) {
+                Map.Entry<byte[], byte[]> e = it.next();
+                if (toKey != null && Arrays.compareUnsigned(e.getKey(), toKey) >= 0) {
+                    break;
+                }
+
+                consumer.accept(e.getKey(), e.getValue());
+            }
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Writes the memtable and any frozen memtables to tables, and waits until they are durable.
+     *
+     * @throws IOException If a table cannot be written.
+     */
+    public void flush() throws IOException {
+        lock.writeLock().lock();
+        try {
+            checkOpen();
+            if (!memtable.isEmpty()) {
+                freeze();
+            }
+
+            while (!frozen.isEmpty() && backgroundFailure == null) {
+                flushed.awaitUninterruptibly();
+            }
+
+            checkBackgroundFailure();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Flushes the memtable and merges all tables into one, dropping removed keys and replaced values.
+     *
+     * @throws IOException If a table cannot be read or written.
+     */
+    public void compact() throws IOException {
+        flush();
+        try {
+            background.submit(() -> {
+                compactTables(0, tables.size());
+                return null;
+            }).get();
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof IOException ? (IOException) e.getCause() : new IOException(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException(e);
+        }
+    }
+
+    /**
+     * Gets the number of tables in the store.
+     *
+     * @return The number of tables.
+     */
+    public int getTableCount() {
+        lock.readLock().lock();
+        try {
+            return tables.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Flushes the memtable, waits for the background thread to finish and closes the tables.
+     *
+     * @throws IOException If a table cannot be written or closed.
+     */
+    @Override
+    public void close() throws IOException {
+        lock.writeLock().lock();
+        try {
+            if (closed) {
+                return;
+            }
+
+            if (!memtable.isEmpty() && backgroundFailure == null) {
+                freeze();
+            }
+
+            closed = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        background.shutdown();
+        boolean interrupted = false;
+        while (!background.isTerminated()) {
+            try {
+                background.awaitTermination(1, TimeUnit.MINUTES);
+            } catch (InterruptedException e) {
+                interrupted = true;
+            }
+        }
+
+        if (interrupted) {
+            Thread.currentThread().interrupt();
+        }
+
+        release(tables);
+        checkBackgroundFailure();
+    }
+
+    private void write(byte[] key, byte[] value) throws IOException {
+        lock.writeLock().lock();
+        try {
+            checkOpen();
+            checkBackgroundFailure();
+            byte[] previous = memtable.put(key, value);
+            memtableBytes += previous == null ? ENTRY_OVERHEAD + key.length + value.length : value.length - previous.length;
+            if (memtableBytes >= memtableSize) {
+                freeze();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Freezes the memtable and schedules it to be written, first waiting for room among the frozen memtables. The
+    // caller holds the write lock.
+    private void freeze() throws IOException {
+        while (frozen.size() >= MAX_FROZEN_MEMTABLES && backgroundFailure == null) {
+            flushed.awaitUninterruptibly();
+        }
+
+        checkBackgroundFailure();
+        List<SkipList<byte[], byte[]>> newFrozen = new ArrayList<>(frozen.size() + 1);
+        newFrozen.add(memtable);
+        newFrozen.addAll(frozen);
+        frozen = Collections.unmodifiableList(newFrozen);
+        memtable = newMemtable();
+        memtableBytes = 0;
+        background.execute(this::flushOldest);
+    }
+
+    // Writes the oldest frozen memtable to a table, and compacts every tier that has enough tables.
+    private void flushOldest() {
+        SkipList<byte[], byte[]> m;
+        long number;
+        lock.writeLock().lock();
+        try {
+            if (backgroundFailure != null) {
+                return;
+            }
+
+            m = frozen.get(frozen.size() - 1);
+            number = nextTableNumber++;
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        try {
+            SortedTable table = writeTable(number, m.entrySet().iterator());
+            List<SortedTable> newTables = new ArrayList<>(tables.size() + 1);
+            newTables.add(table);
+            newTables.addAll(tables);
+            writeManifest(newTables);
+            lock.writeLock().lock();
+            try {
+                tables = Collections.unmodifiableList(newTables);
+                frozen = frozen.subList(0, frozen.size() - 1);
+                flushed.signalAll();
+            } finally {
+                lock.writeLock().unlock();
+            }
+
+            for (int[] tier = findTier(); tier != null; tier = findTier()) {
+                compactTables(tier[0], tier[1]);
+            }
+        } catch (IOException e) {
+            fail(e);
+        }
+    }
+
+    // Finds the newest run of at least compactionThreshold consecutive tables whose sizes are within TIER_SIZE_RATIO of
+    // each other, as the indexes of its first table and of the table after its last, or null if there is none. Tables
+    // smaller than a memtable count as the size of one, so that tables flushed early join the smallest tier.
+    private int[] findTier() throws IOException {
+        List<SortedTable> tables = this.tables;
+        for (int from = 0; from + compactionThreshold <= tables.size(); ++from) {
+            long min = Long.MAX_VALUE;
+            long max = 0;
+            int to = from;
+            for (; to < tables.size(); ++to) {
+                long size = Math.max(memtableSize, tables.get(to).getFileSize());
+                if (Math.max(max, size) > TIER_SIZE_RATIO * Math.min(min, size)) {
+                    break;
+                }
+
+                min = Math.min(min, size);
+                max = Math.max(max, size);
+            }
+
+            if (to - from >= compactionThreshold) {
+                return new int[]{from, to};
+            }
+        }
+
+        return null;
+    }
+
+    // Merges a run of consecutive tables into one, which takes their place. Only the background thread adds or removes
+    // tables, so they cannot change meanwhile.
+    private void compactTables(int from, int to) throws IOException {
+        List<SortedTable> inputs;
+        long number;
+        lock.writeLock().lock();
+        try {
+            inputs = tables.subList(from, to);
+            number = nextTableNumber++;
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        if (inputs.size() < 2) {
+            return;
+        }
+
+        List<Iterator<Map.Entry<byte[], byte[]>>> sources = new ArrayList<>();
+        for (SortedTable table : inputs) {
+            sources.add(table.iterator(null));
+        }
+
+        SortedTable output;
+        try {
+            // Tombstones no longer hide anything once the inputs include the oldest table.
+            output = writeTable(number, new MergingIterator(sources, to == tables.size()));
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+
+        List<SortedTable> newTables = new ArrayList<>(tables.size() - inputs.size() + 1);
+        newTables.addAll(tables.subList(0, from));
+        newTables.add(output);
+        newTables.addAll(tables.subList(to, tables.size()));
+        // Once the manifest no longer lists the inputs, they may be deleted in any order.
+        writeManifest(newTables);
+        lock.writeLock().lock();
+        try {
+            tables = Collections.unmodifiableList(newTables);
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        for (SortedTable table : inputs) {
+            table.markObsolete();
+        }
+
+        release(inputs);
+    }
+
+    // Writes entries to a temporary file and then renames it, so that a table is never seen half written. The rename is
+    // forced before the table is listed in the manifest.
+    private SortedTable writeTable(long number, Iterator<? extends Map.Entry<byte[], byte[]>> entries) throws IOException {
+        String name = String.format("%016d", number);
+        Path temporary = directory.resolve(name + TEMPORARY_SUFFIX);
+        Path path = directory.resolve(name + TABLE_SUFFIX);
+        try {
+            SortedTable.write(temporary, entries, blockSize);
+            Files.move(temporary, path, StandardCopyOption.ATOMIC_MOVE);
+            forceDirectory();
+        } catch (IOException | RuntimeException e) {
+            Files.deleteIfExists(temporary);
+            throw e;
+        }
+
+        return SortedTable.open(path);
+    }
+
+    // Replaces the manifest with one listing tables, from newest to oldest.
+    private void writeManifest(List<SortedTable> tables) throws IOException {
+        StringBuilder names = new StringBuilder();
+        for (SortedTable table : tables) {
+            names.append(table.getPath().getFileName()).append('\n');
+        }
+
+        Path temporary = directory.resolve(MANIFEST_NAME + TEMPORARY_SUFFIX);
+        try (FileChannel out = FileChannel.open(temporary, StandardOpenOption.WRITE, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer buffer = StandardCharsets.UTF_8.encode(names.toString());
+            while (buffer.hasRemaining()) {
+                out.write(buffer);
+            }
+
+            out.force(true);
+        }
+
+        Files.move(temporary, directory.resolve(MANIFEST_NAME), StandardCopyOption.ATOMIC_MOVE,
+                StandardCopyOption.REPLACE_EXISTING);
+        forceDirectory();
+    }
+
+    // Forces the entries of the directory to storage, so that renames within it survive a crash.
+    private void forceDirectory() throws IOException {
+        try (FileChannel channel = FileChannel.open(directory, StandardOpenOption.READ)) {
+            channel.force(true);
+        }
+    }
+
+    // Opens the tables listed in the manifest from newest to oldest, and deletes any files that were left half written
+    // or that the manifest no longer lists.
+    private List<SortedTable> openTables() throws IOException {
+        Path manifest = directory.resolve(MANIFEST_NAME);
+        List<Path> paths = new ArrayList<>();
+        if (Files.exists(manifest)) {
+            for (String name : Files.readAllLines(manifest, StandardCharsets.UTF_8)) {
+                paths.add(directory.resolve(name));
+            }
+        }
+
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory)) {
+            for (Path path : stream) {
+                String name = path.getFileName().toString();
+                if (name.endsWith(TEMPORARY_SUFFIX)) {
+                    Files.delete(path);
+                } else if (name.endsWith(TABLE_SUFFIX)) {
+                    nextTableNumber = Math.max(nextTableNumber,
+                            Long.parseLong(name.substring(0, name.length() - TABLE_SUFFIX.length())) + 1);
+                    if (!paths.contains(path)) {
+                        Files.delete(path);
+                    }
+                }
+            }
+        }
+
+        List<SortedTable> tables = new ArrayList<>();
+        try {
+            for (Path path : paths) {
+                tables.add(SortedTable.open(path));
+            }
+        } catch (IOException | RuntimeException e) {
+            release(tables);
+            throw e;
+        }
+
+        return Collections.unmodifiableList(tables);
+    }
+
+    private void fail(IOException e) {
+        lock.writeLock().lock();
+        try {
+            if (backgroundFailure == null) {
+                backgroundFailure = e;
+            }
+
+            flushed.signalAll();
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void checkOpen() {
+        if (closed) {
+            throw new IllegalStateException("The store is closed.");
+        }
+    }
+
+    private void checkBackgroundFailure() throws IOException {
+        if (backgroundFailure != null) {
+            throw new IOException("A table could not be written.", backgroundFailure);
+        }
+    }
+
+    // Releases a reference to each table, and throws the first failure once all have been released.
+    private static void release(List<SortedTable> tables) throws IOException {
+        IOException failure = null;
+        for (SortedTable table : tables) {
+            try {
+                table.release();
+            } catch (IOException e) {
+                failure = failure == null ? e : failure;
+            }
+        }
+
+        if (failure != null) {
+            throw failure;
+        }
+    }
+
+    private static Iterator<Map.Entry<byte[], byte[]>> iterator(SkipList<byte[], byte[]> m, byte[] fromKey) {
+        return (fromKey == null ? m : m.tailMap(fromKey, true)).entrySet().iterator();
+    }
+
+    private static SkipList<byte[], byte[]> newMemtable() {
+        return new SkipList<>(Arrays::compareUnsigned);
+    }
+}
@@ -0,0 +1,100 @@
+package ca.crimsonglow.skiplist.store;
+
+import java.util.*;
+
+/**
+ * Merges iterators over byte array keys in ascending order into one iterator in ascending order. When several sources
+ * contain the same key, only the entry of the earliest source is returned, so sources are passed from newest to
+ * oldest.
+ */
+class MergingIterator implements Iterator<Map.Entry<byte[], byte[]>> {
+    // The sources that have entries left, ordered by their next key and then by their age.
+    private final PriorityQueue<Source> queue = new PriorityQueue<>();
+    private final boolean skipTombstones;
+    private Map.Entry<byte[], byte[]> next;
+
+    /**
+     * Creates a new merging iterator.
+     *
+     * @param sources        The sources, from newest to oldest.
+     * @param skipTombstones Whether to leave out keys whose newest value is {@link SortedTable#TOMBSTONE}. They must
+     *                       be kept unless the sources include the oldest data in the store, or the older values they
+     *                       hide would reappear.
+     */
+    MergingIterator(List<? extends Iterator<? extends Map.Entry<byte[], byte[]>>> sources, boolean skipTombstones) {
+        this.skipTombstones = skipTombstones;
+        for (int i = 0; i < sources.size(); ++i) {
+            Source source = new Source(sources.get(i), i);
+            if (source.advance()) {
+                queue.add(source);
+            }
+        }
+
+        advance();
+    }
+
+    @Override
+    public boolean hasNext() {
+        return next != null;
+    }
+
+    @Override
+    public Map.Entry<byte[], byte[]> next() {
+        if (next == null) {
+            throw new NoSuchElementException();
+        }
+
+        Map.Entry<byte[], byte[]> e = next;
+        advance();
+        return e;
+    }
+
+    private void advance() {
+        do {
+            Source source = queue.poll();
+            if (source == null) {
+                next = null;
+                return;
+            }
+
+            next = source.current;
+            if (source.advance()) {
+                queue.add(source);
+            }
+
+            // Older entries for the same key are hidden by this one.
+            while (!queue.isEmpty() && Arrays.equals(queue.peek().current.getKey(), next.getKey())) {
+                Source older = queue.poll();
+                if (older.advance()) {
+                    queue.add(older);
+                }
+            }
+        } while (skipTombstones && next.getValue() == SortedTable.TOMBSTONE);
+    }
+
+    private static class Source implements Comparable<Source> {
+        private final Iterator<? extends Map.Entry<byte[], byte[]>> iterator;
+        private final int age;
+        private Map.Entry<byte[], byte[]> current;
+
+        Source(Iterator<? extends Map.Entry<byte[], byte[]>> iterator, int age) {
+            this.iterator = iterator;
+            this.age = age;
+        }
+
+        boolean advance() {
+            if (!iterator.hasNext()) {
+                return false;
+            }
+
+            current = iterator.next();
+            return true;
+        }
+
+        @Override
+        public int compareTo(Source o) {
+            int c = Arrays.compareUnsigned(current.getKey(), o.current.getKey());
+            return c != 0 ? c : Integer.compare(age, o.age);
+        }
+    }
+}
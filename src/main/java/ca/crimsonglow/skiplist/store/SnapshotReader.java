@@ -0,0 +1,273 @@
+package ca.crimsonglow.skiplist.store;
+
+import ca.crimsonglow.skiplist.SkipList;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.LongBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.function.BiConsumer;
+
+/**
+ * Reads a snapshot written by {@link SnapshotWriter} by mapping it into memory.
+ * <p>
+ * Opening a snapshot reads only its footer, so lookups can be served from the mapped file at once: a lookup binary
+ * searches the restart points, decoding one key at each step, and then scans at most
+ * {@link SnapshotWriter#RESTART_INTERVAL} entries. Alternatively, {@link #load()} builds a {@link SkipList} in one
+ * sequential pass, appending each entry without a search. Files larger than 2 GiB are mapped in several segments,
+ * split at restart points.
+ * <p>
+ * A reader may be shared between threads. Mapped memory is released when the reader is garbage collected.
+ *
+ * @param <K> The type of keys.
+ * @param <V> The type of values.
+ */
+public class SnapshotReader<K, V> implements Closeable {
+    private final Comparator<? super K> comparator;
+    private final Codec<K> keyCodec;
+    private final Codec<V> valueCodec;
+    private final long entryCount;
+    private final int restartCount;
+    // The offset of each restart point.
+    private final LongBuffer restarts;
+    // The mapped segments of the entries, the offset of each and the index of its first restart point.
+    private final ByteBuffer[] segments;
+    private final long[] segmentOffsets;
+    private final int[] segmentFirstRestarts;
+
+    /**
+     * Opens a snapshot.
+     *
+     * @param path       The path of the snapshot.
+     * @param comparator The comparator with which the snapshot was written, or null for the natural ordering.
+     * @param keyCodec   The codec with which keys were written.
+     * @param valueCodec The codec with which values were written.
+     * @throws IOException If the snapshot cannot be read or is not complete.
+     */
+    public SnapshotReader(Path path, Comparator<? super K> comparator, Codec<K> keyCodec, Codec<V> valueCodec) throws IOException {
+        this(path, comparator, keyCodec, valueCodec, Integer.MAX_VALUE);
+    }
+
+    SnapshotReader(Path path, Comparator<? super K> comparator, Codec<K> keyCodec, Codec<V> valueCodec,
+                   long maxSegmentSize) throws IOException {
+        this.comparator = comparator;
+        this.keyCodec = keyCodec;
+        this.valueCodec = valueCodec;
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            long fileSize = channel.size();
+            if (fileSize < SnapshotWriter.HEADER_SIZE + SnapshotWriter.FOOTER_SIZE) {
+                throw new IOException("Truncated snapshot: " + path);
+            }
+
+            ByteBuffer footer = channel.map(FileChannel.MapMode.READ_ONLY, fileSize - SnapshotWriter.FOOTER_SIZE,
+                    SnapshotWriter.FOOTER_SIZE);
+            long restartsOffset = footer.getLong();
+            entryCount = footer.getLong();
+            restartCount = footer.getInt();
+            if (footer.getInt() != SnapshotWriter.MAGIC
+                    || channel.map(FileChannel.MapMode.READ_ONLY, 0, SnapshotWriter.HEADER_SIZE).getInt() != SnapshotWriter.MAGIC
+                    || restartsOffset + 8L * restartCount != fileSize - SnapshotWriter.FOOTER_SIZE
+                    || restartCount != (entryCount + SnapshotWriter.RESTART_INTERVAL - 1) / SnapshotWriter.RESTART_INTERVAL) {
+                throw new IOException("Corrupt snapshot: " + path);
+            }
+
+            restarts = channel.map(FileChannel.MapMode.READ_ONLY, restartsOffset, 8L * restartCount).asLongBuffer();
+
+            // Each segment ends at a restart point, so that no group of entries crosses segments.
+            List<ByteBuffer> segments = new ArrayList<>();
+            List<long[]> bounds = new ArrayList<>();
+            long start = SnapshotWriter.HEADER_SIZE;
+            int first = 0;
+            for (int r = 0; r < restartCount; ++r) {
+                long end = r + 1 < restartCount ? restarts.get(r + 1) : restartsOffset;
+                if (end - start > maxSegmentSize && r > first) {
+                    segments.add(channel.map(FileChannel.MapMode.READ_ONLY, start, restarts.get(r) - start));
+                    bounds.add(new long[]{start, first});
+                    start = restarts.get(r);
+                    first = r;
+                }
+
+                if (end - start > Integer.MAX_VALUE) {
+                    throw new IOException("Entries too large to map: " + path);
+                }
+            }
+
+            if (restartCount > 0) {
+                segments.add(channel.map(FileChannel.MapMode.READ_ONLY, start, restartsOffset - start));
+                bounds.add(new long[]{start, first});
+            }
+
+            this.segments = segments.toArray(new ByteBuffer[0]);
+            segmentOffsets = new long[bounds.size()];
+            segmentFirstRestarts = new int[bounds.size()];
+            for (int i = 0; i < bounds.size(); ++i) {
+                segmentOffsets[i] = bounds.get(i)[0];
+                segmentFirstRestarts[i] = (int) bounds.get(i)[1];
+            }
+        }
+    }
+
+    /**
+     * Gets the number of entries in the snapshot.
+     *
+     * @return The number of entries.
+     */
+    public long size() {
+        return entryCount;
+    }
+
+    /**
+     * Gets the value of a key from the mapped file.
+     *
+     * @param key The key.
+     * @return The value, or null if the snapshot does not contain the key.
+     * @throws IOException If a key or value cannot be decoded.
+     */
+    public V get(K key) throws IOException {
+        EntryCursor cursor = new EntryCursor();
+        int low = 0;
+        int high = restartCount - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            cursor.seek(mid);
+            cursor.next();
+            if (compare(cursor.key(), key) <= 0) {
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+
+        if (high < 0) {
+            return null;
+        }
+
+        cursor.seek(high);
+        for (int i = 0; i < SnapshotWriter.RESTART_INTERVAL && cursor.next(); ++i) {
+            int c = compare(cursor.key(), key);
+            if (c == 0) {
+                return cursor.value();
+            } else if (c > 0) {
+                return null;
+            }
+        }
+
+        return null;
+    }
+
+    /**
+     * Passes each entry to a consumer, in ascending order of key.
+     *
+     * @param consumer The consumer.
+     * @throws IOException If a key or value cannot be decoded.
+     */
+    public void forEach(BiConsumer<? super K, ? super V> consumer) throws IOException {
+        if (restartCount == 0) {
+            return;
+        }
+
+        EntryCursor cursor = new EntryCursor();
+        cursor.seek(0);
+        while (cursor.next()) {
+            consumer.accept(cursor.key(), cursor.value());
+        }
+    }
+
+    /**
+     * Builds a skip list holding every entry in one sequential pass.
+     *
+     * @return The skip list.
+     * @throws IOException If a key or value cannot be decoded.
+     */
+    public SkipList<K, V> load() throws IOException {
+        SkipList<K, V> list = new SkipList<>(comparator);
+        forEach(list::append);
+        return list;
+    }
+
+    /**
+     * Does nothing, since mapped memory cannot be released explicitly. It is released once the reader is unreachable.
+     */
+    @Override
+    public void close() {
+    }
+
+    @SuppressWarnings("unchecked")
+    private int compare(K a, K b) {
+        return comparator != null ? comparator.compare(a, b) : ((Comparable<? super K>) a).compareTo(b);
+    }
+
+    // Reads entries in order from a restart point, reconstructing each key from the previous one.
+    private class EntryCursor {
+        private final ByteBufferDataInput input = new ByteBufferDataInput(null);
+        private int segment;
+        private ByteBuffer buffer;
+        // The number of entries left to read.
+        private long remaining;
+        private byte[] keyBytes = new byte[64];
+        private int keyLength;
+        private int valueOffset;
+        private int valueLength;
+
+        void seek(int restart) {
+            int s = Arrays.binarySearch(segmentFirstRestarts, restart);
+            segment = s >= 0 ? s : -s - 2;
+            buffer = segments[segment].duplicate();
+            buffer.position((int) (restarts.get(restart) - segmentOffsets[segment]));
+            remaining = entryCount - (long) restart * SnapshotWriter.RESTART_INTERVAL;
+            keyLength = 0;
+        }
+
+        boolean next() {
+            if (remaining == 0) {
+                return false;
+            }
+
+            if (!buffer.hasRemaining()) {
+                buffer = segments[++segment].duplicate();
+            }
+
+            int shared = readVarInt();
+            int unshared = readVarInt();
+            valueLength = readVarInt();
+            keyLength = shared + unshared;
+            if (keyBytes.length < keyLength) {
+                keyBytes = Arrays.copyOf(keyBytes, Math.max(keyLength, 2 * keyBytes.length));
+            }
+
+            buffer.get(keyBytes, shared, unshared);
+            valueOffset = buffer.position();
+            buffer.position(valueOffset + valueLength);
+            remaining--;
+            return true;
+        }
+
+        K key() throws IOException {
+            return keyCodec.decode(input.reset(ByteBuffer.wrap(keyBytes, 0, keyLength)));
+        }
+
+        V value() throws IOException {
+            ByteBuffer value = buffer.duplicate();
+            value.limit(valueOffset + valueLength).position(valueOffset);
+            return valueCodec.decode(input.reset(value));
+        }
+
+        private int readVarInt() {
+            int v = 0;
+            for (int shift = 0; ; shift += 7) {
+                byte b = buffer.get();
+                v |= (b & 0x7f) << shift;
+                if (b >= 0) {
+                    return v;
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,227 @@
+package ca.crimsonglow.skiplist.store;
+
+import java.io.*;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Map;
+import java.util.SortedMap;
+
+/**
+ * Writes a sorted map to a compact binary snapshot, one entry at a time, to be read back by {@link SnapshotReader}.
+ * <p>
+ * Keys and values are encoded by codecs, and each key is stored as the length of the prefix it shares with the encoded
+ * previous key followed by the rest of its bytes. Every {@link #RESTART_INTERVAL}th key is stored whole, as a restart
+ * point, so that a reader can binary search the restart points and then scan at most that many entries. The file is
+ * laid out as an int magic number, the entries, the long offset of each restart point, and a footer of the offset of
+ * the restart points, the number of entries, the number of restart points and the magic number again. Each entry is
+ * laid out as the variable-length shared length, unshared length and value length, followed by the unshared key bytes
+ * and the value bytes.
+ * <p>
+ * The snapshot is written to a temporary file that replaces the target on {@link #close()}, so that a reader never sees
+ * a partial snapshot.
+ *
+ * @param <K> The type of keys.
+ * @param <V> The type of values.
+ */
+public class SnapshotWriter<K, V> implements Closeable {
+    /**
+     * The number of entries between keys that are stored whole.
+     */
+    public static final int RESTART_INTERVAL = 16;
+    static final int MAGIC = 0x534b534e;
+    static final int HEADER_SIZE = 4;
+    static final int FOOTER_SIZE = 24;
+    private static final String TEMPORARY_SUFFIX = ".tmp";
+    private final Path path;
+    private final Path temporary;
+    private final Comparator<? super K> comparator;
+    private final Codec<K> keyCodec;
+    private final Codec<V> valueCodec;
+    private final FileChannel channel;
+    private final OutputStream out;
+    // Encodes keys and values, reused between entries.
+    private final EncodingBuffer keyBytes = new EncodingBuffer();
+    private final EncodingBuffer valueBytes = new EncodingBuffer();
+    private final DataOutputStream keyOut = new DataOutputStream(keyBytes);
+    private final DataOutputStream valueOut = new DataOutputStream(valueBytes);
+    // The encoded previous key.
+    private byte[] previousKeyBytes = new byte[64];
+    private int previousKeyLength;
+    private K previousKey;
+    // The offsets of the restart points.
+    private long[] restarts = new long[64];
+    private long entryCount;
+    private long position;
+    private boolean closed;
+
+    /**
+     * Creates a writer.
+     *
+     * @param path       The path of the snapshot, which is replaced when the writer is closed.
+     * @param comparator The comparator used to order keys, or null to use their natural ordering.
+     * @param keyCodec   The codec for keys.
+     * @param valueCodec The codec for values.
+     * @throws IOException If the temporary file cannot be created.
+     */
+    public SnapshotWriter(Path path, Comparator<? super K> comparator, Codec<K> keyCodec, Codec<V> valueCodec) throws IOException {
+        this.path = path;
+        this.temporary = path.resolveSibling(path.getFileName() + TEMPORARY_SUFFIX);
+        this.comparator = comparator;
+        this.keyCodec = keyCodec;
+        this.valueCodec = valueCodec;
+        channel = FileChannel.open(temporary, StandardOpenOption.WRITE, StandardOpenOption.CREATE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        out = new BufferedOutputStream(Channels.newOutputStream(channel), 1 << 16);
+        writeInt(MAGIC);
+    }
+
+    /**
+     * Writes a snapshot of a sorted map, ordered by its comparator.
+     *
+     * @param path       The path of the snapshot, which is replaced.
+     * @param map        The map.
+     * @param keyCodec   The codec for keys.
+     * @param valueCodec The codec for values.
+     * @param <K>        The type of keys.
+     * @param <V>        The type of values.
+     * @throws IOException If the snapshot cannot be written.
+     */
+    public static <K, V> void write(Path path, SortedMap<K, V> map, Codec<K> keyCodec, Codec<V> valueCodec) throws IOException {
+        try (SnapshotWriter<K, V> writer = new SnapshotWriter<>(path, map.comparator(), keyCodec, valueCodec)) {
+            for (Map.Entry<K, V> e : map.entrySet()) {
+                writer.append(e.getKey(), e.getValue());
+            }
+        }
+    }
+
+    /**
+     * Writes an entry, whose key must be greater than that of every entry written before.
+     *
+     * @param key   The key.
+     * @param value The value, which must not be null.
+     * @throws IOException If the entry cannot be written.
+     * @throws IllegalArgumentException If the key is not greater than the previous key.
+     */
+    @SuppressWarnings("unchecked")
+    public void append(K key, V value) throws IOException {
+        if (closed) {
+            throw new IllegalStateException("The writer is closed.");
+        }
+
+        if (entryCount > 0 && (comparator != null ? comparator.compare(previousKey, key)
+                : ((Comparable<? super K>) previousKey).compareTo(key)) >= 0) {
+            throw new IllegalArgumentException("keys are not in strictly ascending order");
+        }
+
+        keyBytes.reset();
+        keyCodec.encode(key, keyOut);
+        valueBytes.reset();
+        valueCodec.encode(value, valueOut);
+        byte[] k = keyBytes.array();
+        int keyLength = keyBytes.size();
+        int shared = 0;
+        if (entryCount % RESTART_INTERVAL == 0) {
+            int restart = (int) (entryCount / RESTART_INTERVAL);
+            if (restart == restarts.length) {
+                restarts = Arrays.copyOf(restarts, 2 * restarts.length);
+            }
+
+            restarts[restart] = position;
+        } else {
+            int limit = Math.min(keyLength, previousKeyLength);
+            shared = Arrays.mismatch(k, 0, limit, previousKeyBytes, 0, limit);
+            shared = shared < 0 ? limit : shared;
+        }
+
+        writeVarInt(shared);
+        writeVarInt(keyLength - shared);
+        writeVarInt(valueBytes.size());
+        write(k, shared, keyLength - shared);
+        write(valueBytes.array(), 0, valueBytes.size());
+
+        if (previousKeyBytes.length < keyLength) {
+            previousKeyBytes = new byte[Math.max(keyLength, 2 * previousKeyBytes.length)];
+        }
+
+        System.arraycopy(k, 0, previousKeyBytes, 0, keyLength);
+        previousKeyLength = keyLength;
+        previousKey = key;
+        entryCount++;
+    }
+
+    /**
+     * Writes the restart points and footer, forces the snapshot to storage and moves it into place.
+     *
+     * @throws IOException If the snapshot cannot be written.
+     */
+    @Override
+    public void close() throws IOException {
+        if (closed) {
+            return;
+        }
+
+        closed = true;
+        try {
+            long restartsOffset = position;
+            int restartCount = (int) ((entryCount + RESTART_INTERVAL - 1) / RESTART_INTERVAL);
+            for (int i = 0; i < restartCount; ++i) {
+                writeLong(restarts[i]);
+            }
+
+            writeLong(restartsOffset);
+            writeLong(entryCount);
+            writeInt(restartCount);
+            writeInt(MAGIC);
+            out.flush();
+            channel.force(true);
+            channel.close();
+            Files.move(temporary, path, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            Files.deleteIfExists(temporary);
+            throw e;
+        }
+    }
+
+    private void write(byte[] b, int off, int len) throws IOException {
+        out.write(b, off, len);
+        position += len;
+    }
+
+    private void writeVarInt(int v) throws IOException {
+        while ((v & ~0x7f) != 0) {
+            out.write((v & 0x7f) | 0x80);
+            v >>>= 7;
+            position++;
+        }
+
+        out.write(v);
+        position++;
+    }
+
+    private void writeInt(int v) throws IOException {
+        for (int shift = 24; shift >= 0; shift -= 8) {
+            out.write(v >>> shift);
+        }
+
+        position += 4;
+    }
+
+    private void writeLong(long v) throws IOException {
+        writeInt((int) (v >>> 32));
+        writeInt((int) v);
+    }
+
+    // Exposes its array, so that encoded bytes need not be copied.
+    private static final class EncodingBuffer extends ByteArrayOutputStream {
+        byte[] array() {
+            return buf;
+        }
+    }
+}
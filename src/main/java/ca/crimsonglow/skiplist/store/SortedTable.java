@@ -0,0 +1,356 @@
+package ca.crimsonglow.skiplist.store;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * An immutable file of byte array keys and values in ascending order, written once by {@link #write(Path, Iterator,
+ * int)} and then read with positional reads, so that any number of threads may read it at once.
+ * <p>
+ * Entries are grouped into blocks of roughly the configured size. Each entry is laid out as an int key length, an int
+ * value length, or -1 for a tombstone, and then the key and value bytes. The blocks are followed by a sparse index of
+ * the first key, offset and length of each block, and the file ends with the offset of the index and a magic number.
+ * Only the index is held in memory; a lookup reads the single block that may contain its key.
+ * <p>
+ * A table is reference counted, so that readers may keep using it after it has been replaced by compaction. It is
+ * opened with one reference, and its file is closed once every reference has been released.
+ */
+class SortedTable {
+    /**
+     * Marks a removed key. It is compared by identity, so it is distinct from any empty value.
+     */
+    static final byte[] TOMBSTONE = new byte[0];
+    // Identifies a complete table file.
+    private static final int MAGIC = 0x534b5354;
+    // The size of the footer: the long offset of the index and the int magic number.
+    private static final int FOOTER_SIZE = 12;
+    // The size of the lengths that precede the bytes of each entry.
+    private static final int ENTRY_HEADER_SIZE = 8;
+    private final Path path;
+    private final FileChannel channel;
+    // The first key, offset and length of each block.
+    private final byte[][] firstKeys;
+    private final long[] offsets;
+    private final int[] lengths;
+    // The number of entries, including tombstones.
+    private final long entryCount;
+    // The references held by the store and by readers.
+    private final AtomicInteger references = new AtomicInteger(1);
+    // Whether to delete the file once it is closed.
+    private volatile boolean obsolete;
+
+    private SortedTable(Path path) throws IOException {
+        this.path = path;
+        channel = FileChannel.open(path, StandardOpenOption.READ);
+        try {
+            long fileSize = channel.size();
+            if (fileSize < FOOTER_SIZE) {
+                throw new IOException("Truncated table: " + path);
+            }
+
+            ByteBuffer footer = read(fileSize - FOOTER_SIZE, FOOTER_SIZE);
+            long indexOffset = footer.getLong();
+            if (footer.getInt() != MAGIC || indexOffset < 0 || indexOffset > fileSize - FOOTER_SIZE) {
+                throw new IOException("Corrupt table: " + path);
+            }
+
+            ByteBuffer index = read(indexOffset, (int) (fileSize - FOOTER_SIZE - indexOffset));
+            int blockCount = index.getInt();
+            entryCount = index.getLong();
+            firstKeys = new byte[blockCount][];
+            offsets = new long[blockCount];
+            lengths = new int[blockCount];
+            for (int i = 0; i < blockCount; ++i) {
+                firstKeys[i] = new byte[index.getInt()];
+                index.get(firstKeys[i]);
+                offsets[i] = index.getLong();
+                lengths[i] = index.getInt();
+            }
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    /**
+     * Opens a table written by {@link #write(Path, Iterator, int)}.
+     *
+     * @param path The path of the table.
+     * @return The table.
+     * @throws IOException If the table cannot be read or is not complete.
+     */
+    static SortedTable open(Path path) throws IOException {
+        return new SortedTable(path);
+    }
+
+    /**
+     * Writes entries to a new table, which must not already exist. The file is forced to storage before returning.
+     *
+     * @param path      The path of the table.
+     * @param entries   The entries to write, in strictly ascending order of key. Values may be {@link #TOMBSTONE}.
+     * @param blockSize The approximate number of bytes in each block.
+     * @throws IOException If the table cannot be written.
+     */
+    static void write(Path path, Iterator<? extends Map.Entry<byte[], byte[]>> entries, int blockSize) throws IOException {
+        try (FileChannel out = FileChannel.open(path, StandardOpenOption.WRITE, StandardOpenOption.CREATE_NEW)) {
+            ByteBuffer block = ByteBuffer.allocate(blockSize);
+            List<byte[]> firstKeys = new ArrayList<>();
+            List<long[]> extents = new ArrayList<>();
+            long position = 0;
+            long entryCount = 0;
+            while (entries.hasNext()) {
+                Map.Entry<byte[], byte[]> e = entries.next();
+                byte[] key = e.getKey();
+                byte[] value = e.getValue();
+                int valueLength = value == TOMBSTONE ? 0 : value.length;
+                int entrySize = ENTRY_HEADER_SIZE + key.length + valueLength;
+                if (block.position() > 0 && block.position() + entrySize > block.capacity()) {
+                    extents.add(new long[]{position, block.position()});
+                    position += writeFully(out, block.flip(), position);
+                    block = block.capacity() == blockSize ? block.clear() : ByteBuffer.allocate(blockSize);
+                }
+
+                if (block.position() == 0) {
+                    firstKeys.add(key);
+                    if (entrySize > block.capacity()) {
+                        block = ByteBuffer.allocate(entrySize);
+                    }
+                }
+
+                block.putInt(key.length).putInt(value == TOMBSTONE ? -1 : value.length).put(key);
+                if (value != TOMBSTONE) {
+                    block.put(value);
+                }
+
+                entryCount++;
+            }
+
+            if (block.position() > 0) {
+                extents.add(new long[]{position, block.position()});
+                position += writeFully(out, block.flip(), position);
+            }
+
+            int indexSize = 12 + FOOTER_SIZE;
+            for (byte[] key : firstKeys) {
+                indexSize += 16 + key.length;
+            }
+
+            ByteBuffer index = ByteBuffer.allocate(indexSize);
+            index.putInt(firstKeys.size()).putLong(entryCount);
+            for (int i = 0; i < firstKeys.size(); ++i) {
+                index.putInt(firstKeys.get(i).length).put(firstKeys.get(i));
+                index.putLong(extents.get(i)[0]).putInt((int) extents.get(i)[1]);
+            }
+
+            index.putLong(position).putInt(MAGIC);
+            writeFully(out, index.flip(), position);
+            out.force(true);
+        }
+    }
+
+    /**
+     * Gets the value of a key.
+     *
+     * @param key The key.
+     * @return The value, {@link #TOMBSTONE} if the key was removed, or null if the table does not contain the key.
+     * @throws IOException If the table cannot be read.
+     */
+    byte[] get(byte[] key) throws IOException {
+        int block = findBlock(key);
+        if (block < 0) {
+            return null;
+        }
+
+        ByteBuffer buffer = readBlock(block);
+        while (buffer.hasRemaining()) {
+            int keyLength = buffer.getInt();
+            int valueLength = buffer.getInt();
+            int c = compareKey(buffer, keyLength, key);
+            if (c == 0) {
+                buffer.position(buffer.position() + keyLength);
+                return readValue(buffer, valueLength);
+            } else if (c > 0) {
+                return null;
+            }
+
+            buffer.position(buffer.position() + keyLength + Math.max(0, valueLength));
+        }
+
+        return null;
+    }
+
+    /**
+     * Iterates over the entries of the table, including tombstones, in ascending order of key.
+     *
+     * @param fromKey The least key to return, or null to start at the first entry.
+     * @return An iterator that reads one block at a time. It fails with an {@link UncheckedIOException} if the
+     * table cannot be read.
+     */
+    Iterator<Map.Entry<byte[], byte[]>> iterator(byte[] fromKey) {
+        return new TableIterator(fromKey == null ? 0 : Math.max(0, findBlock(fromKey)), fromKey);
+    }
+
+    /**
+     * Gets the number of entries in the table, including tombstones.
+     *
+     * @return The number of entries.
+     */
+    long getEntryCount() {
+        return entryCount;
+    }
+
+    /**
+     * Gets the number of bytes in the file of the table.
+     *
+     * @return The size of the file.
+     * @throws IOException If the size cannot be read.
+     */
+    long getFileSize() throws IOException {
+        return channel.size();
+    }
+
+    Path getPath() {
+        return path;
+    }
+
+    /**
+     * Adds a reference to the table. The caller must already hold a reference, directly or through the store.
+     */
+    void retain() {
+        references.incrementAndGet();
+    }
+
+    /**
+     * Releases a reference to the table, closing it, and deleting it if it is obsolete, once none remain.
+     *
+     * @throws IOException If the table cannot be closed or deleted.
+     */
+    void release() throws IOException {
+        if (references.decrementAndGet() == 0) {
+            channel.close();
+            if (obsolete) {
+                Files.deleteIfExists(path);
+            }
+        }
+    }
+
+    /**
+     * Marks the table to be deleted once its last reference is released.
+     */
+    void markObsolete() {
+        obsolete = true;
+    }
+
+    // Gets the index of the last block whose first key is not greater than a key, or -1 if there is none.
+    private int findBlock(byte[] key) {
+        int low = 0;
+        int high = firstKeys.length - 1;
+        while (low <= high) {
+            int mid = (low + high) >>> 1;
+            if (Arrays.compareUnsigned(firstKeys[mid], key) <= 0) {
+                low = mid + 1;
+            } else {
+                high = mid - 1;
+            }
+        }
+
+        return high;
+    }
+
+    private ByteBuffer readBlock(int block) throws IOException {
+        return read(offsets[block], lengths[block]);
+    }
+
+    private ByteBuffer read(long position, int length) throws IOException {
+        ByteBuffer buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer, position + buffer.position()) < 0) {
+                throw new IOException("Truncated table: " + path);
+            }
+        }
+
+        return buffer.flip();
+    }
+
+    private static long writeFully(FileChannel out, ByteBuffer buffer, long position) throws IOException {
+        int length = buffer.remaining();
+        while (buffer.hasRemaining()) {
+            out.write(buffer, position + length - buffer.remaining());
+        }
+
+        return length;
+    }
+
+    // Compares the key at the position of a buffer with another key, without copying it.
+    private static int compareKey(ByteBuffer buffer, int keyLength, byte[] key) {
+        int offset = buffer.arrayOffset() + buffer.position();
+        return Arrays.compareUnsigned(buffer.array(), offset, offset + keyLength, key, 0, key.length);
+    }
+
+    private static byte[] readValue(ByteBuffer buffer, int valueLength) {
+        if (valueLength < 0) {
+            return TOMBSTONE;
+        }
+
+        byte[] value = new byte[valueLength];
+        buffer.get(value);
+        return value;
+    }
+
+    private class TableIterator implements Iterator<Map.Entry<byte[], byte[]>> {
+        private int nextBlock;
+        private ByteBuffer buffer;
+        private Map.Entry<byte[], byte[]> next;
+
+        TableIterator(int firstBlock, byte[] fromKey) {
+            nextBlock = firstBlock;
+            advance();
+            while (next != null && fromKey != null && Arrays.compareUnsigned(next.getKey(), fromKey) < 0) {
+                advance();
+            }
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        @Override
+        public Map.Entry<byte[], byte[]> next() {
+            if (next == null) {
+                throw new NoSuchElementException();
+            }
+
+            Map.Entry<byte[], byte[]> e = next;
+            advance();
+            return e;
+        }
+
+        private void advance() {
+            try {
+                while (buffer == null || !buffer.hasRemaining()) {
+                    if (nextBlock >= firstKeys.length) {
+                        next = null;
+                        return;
+                    }
+
+                    buffer = readBlock(nextBlock++);
+                }
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+
+            byte[] key = new byte[buffer.getInt()];
+            int valueLength = buffer.getInt();
+            buffer.get(key);
+            next = new AbstractMap.SimpleImmutableEntry<>(key, readValue(buffer, valueLength));
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package ca.crimsonglow.skiplist.store;
+
+/**
+ * When the records of a write-ahead log are forced to storage, trading the durability of recent writes for throughput.
+ */
+public enum SyncMode {
+    /**
+     * Each write returns once its record has been forced to storage. Concurrent writers share a single force.
+     */
+    ALWAYS,
+    /**
+     * Each write returns once its record has been written to the operating system, and the log is forced at a fixed
+     * interval. Writes since the last force are lost if the machine fails, but not if only the process does.
+     */
+    PERIODIC,
+    /**
+     * Each write returns once its record has been written to the operating system, which decides when to write it to
+     * storage. The log is forced only when it is closed.
+     */
+    NONE
+}
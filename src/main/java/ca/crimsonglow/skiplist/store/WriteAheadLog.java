@@ -0,0 +1,278 @@
+package ca.crimsonglow.skiplist.store;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Consumer;
+import java.util.zip.CRC32;
+
+/**
+ * An append-only file of records with group commit.
+ * <p>
+ * Records are appended to an in-memory buffer and numbered in order. A thread that waits for its record to be written
+ * becomes the leader if no other thread is writing: it takes the whole buffer, writes it with a single call and, if
+ * required, forces it to storage with a single {@link FileChannel#force(boolean)}, while records appended meanwhile
+ * collect in a second buffer for the next leader. Every thread whose record was in the batch is then released, so
+ * concurrent writers share both the system call and the force.
+ * <p>
+ * Each record is laid out as an int length, the int CRC-32 of its bytes and then the bytes. Replay stops at the first
+ * record that is incomplete or does not match its checksum, which is where a crash interrupted the last write.
+ */
+class WriteAheadLog implements Closeable {
+    // The size of the length and checksum that precede each record.
+    private static final int HEADER_SIZE = 8;
+    private static final int INITIAL_BUFFER_SIZE = 1 << 16;
+    private final FileChannel channel;
+    private final SyncMode syncMode;
+    // Forces the log periodically in SyncMode.PERIODIC.
+    private final ScheduledExecutorService syncer;
+    private final ReentrantLock lock = new ReentrantLock();
+    // Signalled when a leader has finished writing a batch.
+    private final Condition batchWritten = lock.newCondition();
+    private final CRC32 crc = new CRC32();
+    // Records appended but not yet taken by a leader, and the buffer to swap in when they are.
+    private ByteBuffer pending = ByteBuffer.allocate(INITIAL_BUFFER_SIZE);
+    private ByteBuffer spare = ByteBuffer.allocate(INITIAL_BUFFER_SIZE);
+    // The number of the last record appended, written to the file and forced to storage.
+    private long appended;
+    private long written;
+    private long synced;
+    // Whether a leader is writing a batch.
+    private boolean writing;
+    // The first failure to write, after which nothing more is written.
+    private IOException failure;
+    private boolean closed;
+
+    /**
+     * Opens a log for appending, after the last complete record. Any incomplete record at the end of the file is
+     * truncated.
+     *
+     * @param path           The path of the log, which is created if it does not exist.
+     * @param validLength    The length of the complete records at the start of the file, as returned by
+     *                       {@link #replay(Path, Consumer)}.
+     * @param syncMode       When records are forced to storage.
+     * @param syncIntervalMs The interval between forces in {@link SyncMode#PERIODIC}.
+     * @throws IOException If the log cannot be opened.
+     */
+    WriteAheadLog(Path path, long validLength, SyncMode syncMode, long syncIntervalMs) throws IOException {
+        this.syncMode = syncMode;
+        channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        channel.truncate(validLength);
+        channel.position(validLength);
+        if (syncMode == SyncMode.PERIODIC) {
+            syncer = Executors.newSingleThreadScheduledExecutor(r -> {
+                Thread t = new Thread(r, "write-ahead-log-sync");
+                t.setDaemon(true);
+                return t;
+            });
+            syncer.scheduleWithFixedDelay(this::syncQuietly, syncIntervalMs, syncIntervalMs, TimeUnit.MILLISECONDS);
+        } else {
+            syncer = null;
+        }
+    }
+
+    /**
+     * Reads the complete records of a log.
+     *
+     * @param path     The path of the log. If it does not exist, there are no records.
+     * @param consumer Receives the bytes of each record, in the order they were appended.
+     * @return The length of the complete records at the start of the file.
+     * @throws IOException If the log cannot be read.
+     */
+    static long replay(Path path, Consumer<byte[]> consumer) throws IOException {
+        if (!Files.exists(path)) {
+            return 0;
+        }
+
+        CRC32 crc = new CRC32();
+        long length = 0;
+        long fileSize = Files.size(path);
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(path)))) {
+            while (fileSize - length >= HEADER_SIZE) {
+                int recordLength = in.readInt();
+                int checksum = in.readInt();
+                if (recordLength < 0 || recordLength > fileSize - length - HEADER_SIZE) {
+                    break;
+                }
+
+                byte[] record = new byte[recordLength];
+                in.readFully(record);
+                crc.reset();
+                crc.update(record);
+                if ((int) crc.getValue() != checksum) {
+                    break;
+                }
+
+                consumer.accept(record);
+                length += HEADER_SIZE + recordLength;
+            }
+        }
+
+        return length;
+    }
+
+    /**
+     * Appends a record to the buffer. It is not written until a thread waits for it.
+     *
+     * @param record The bytes of the record.
+     * @return The number of the record, to pass to {@link #await(long)}.
+     * @throws IOException If the log has failed or is closed.
+     */
+    long append(byte[] record) throws IOException {
+        lock.lock();
+        try {
+            checkWritable();
+            if (pending.remaining() < HEADER_SIZE + record.length) {
+                ByteBuffer larger = ByteBuffer.allocate(Math.max(2 * pending.capacity(), pending.position() + HEADER_SIZE + record.length));
+                pending = larger.put(pending.flip());
+            }
+
+            crc.reset();
+            crc.update(record);
+            pending.putInt(record.length).putInt((int) crc.getValue()).put(record);
+            return ++appended;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Waits until a record is as durable as the sync mode requires: forced to storage in {@link SyncMode#ALWAYS}, and
+     * written to the operating system otherwise.
+     *
+     * @param sequence The number of the record.
+     * @throws IOException If the log cannot be written.
+     */
+    void await(long sequence) throws IOException {
+        await(sequence, syncMode == SyncMode.ALWAYS);
+    }
+
+    /**
+     * Writes every appended record and forces them to storage.
+     *
+     * @throws IOException If the log cannot be written.
+     */
+    void sync() throws IOException {
+        long sequence;
+        lock.lock();
+        try {
+            sequence = appended;
+        } finally {
+            lock.unlock();
+        }
+
+        await(sequence, true);
+    }
+
+    /**
+     * Syncs the log and closes it. Threads waiting for records that were appended before are released.
+     *
+     * @throws IOException If the log cannot be written or closed.
+     */
+    @Override
+    public void close() throws IOException {
+        // Interrupting a force would close the channel, so the syncer is left to finish.
+        if (syncer != null) {
+            syncer.shutdown();
+            boolean interrupted = false;
+            while (!syncer.isTerminated()) {
+                try {
+                    syncer.awaitTermination(1, TimeUnit.MINUTES);
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+
+        try {
+            sync();
+        } finally {
+            lock.lock();
+            try {
+                closed = true;
+                channel.close();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    private void await(long sequence, boolean force) throws IOException {
+        lock.lock();
+        try {
+            while ((force ? synced : written) < sequence) {
+                if (failure != null) {
+                    throw new IOException("The log could not be written.", failure);
+                }
+
+                if (writing) {
+                    batchWritten.awaitUninterruptibly();
+                    continue;
+                }
+
+                // Become the leader, and write every record appended so far.
+                writing = true;
+                ByteBuffer batch = pending.flip();
+                pending = spare;
+                long batchEnd = appended;
+                IOException error = null;
+                lock.unlock();
+                try {
+                    while (batch.hasRemaining()) {
+                        channel.write(batch);
+                    }
+
+                    if (force) {
+                        channel.force(false);
+                    }
+                } catch (IOException e) {
+                    error = e;
+                } finally {
+                    lock.lock();
+                    spare = batch.clear();
+                    writing = false;
+                    if (error != null) {
+                        failure = error;
+                    } else {
+                        written = batchEnd;
+                        synced = force ? batchEnd : synced;
+                    }
+
+                    batchWritten.signalAll();
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void syncQuietly() {
+        try {
+            sync();
+        } catch (IOException e) {
+            // The failure is kept and reported to the next writer.
+        }
+    }
+
+    private void checkWritable() throws IOException {
+        if (failure != null) {
+            throw new IOException("The log could not be written.", failure);
+        }
+
+        if (closed) {
+            throw new IllegalStateException("The log is closed.");
+        }
+    }
+}
@@ -0,0 +1,148 @@
+package ca.crimsonglow.skiplist;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import java.util.*;
+
+public class AggregatingSkipListTest {
+    @Rule
+    public ExpectedException thrown = ExpectedException.none();
+
+    private static AggregatingSkipList<Integer, Long, Long> newSumList() {
+        return new AggregatingSkipList<>(0.5, v -> v, 0L, Long::sum);
+    }
+
+    private static long sum(Map<Integer, Long> map) {
+        long sum = 0;
+        for (long value : map.values()) {
+            sum += value;
+        }
+
+        return sum;
+    }
+
+    @Test
+    public void testAggregate() {
+        AggregatingSkipList<Integer, Long, Long> list = newSumList();
+        Assert.assertEquals(Long.valueOf(0), list.aggregate());
+        for (int i = 1; i <= 100; ++i) {
+            list.put(i, (long) i);
+        }
+
+        Assert.assertEquals(Long.valueOf(5050), list.aggregate());
+        Assert.assertEquals(Long.valueOf(45), list.aggregate(1, 10));
+        Assert.assertEquals(Long.valueOf(55), list.aggregate(1, true, 10, true));
+        Assert.assertEquals(Long.valueOf(44), list.aggregate(1, false, 10, false));
+        Assert.assertEquals(Long.valueOf(0), list.aggregate(10, 10));
+        Assert.assertEquals(Long.valueOf(100), list.aggregate(100, true, 1000, true));
+
+        list.put(50, 0L);
+        list.remove(1);
+        Assert.assertEquals(Long.valueOf(5050 - 50 - 1), list.aggregate());
+    }
+
+    @Test
+    public void testMinimum() {
+        AggregatingSkipList<Integer, Integer, Integer> list = new AggregatingSkipList<>(v -> v, Integer.MAX_VALUE, Math::min);
+        for (int i = 0; i < 100; ++i) {
+            list.put(i, 1000 - i);
+        }
+
+        Assert.assertEquals(Integer.valueOf(901), list.aggregate());
+        Assert.assertEquals(Integer.valueOf(951), list.aggregate(10, 50));
+        list.put(20, -1);
+        Assert.assertEquals(Integer.valueOf(-1), list.aggregate(10, 50));
+        Assert.assertEquals(Integer.valueOf(Integer.MAX_VALUE), list.aggregate(200, 300));
+    }
+
+    @Test
+    public void testAggregateMatchesTreeMap() {
+        AggregatingSkipList<Integer, Long, Long> list = newSumList();
+        NavigableMap<Integer, Long> expected = new TreeMap<>();
+        Cursor<Integer, Long> cursor = list.cursor();
+        Random random = new Random(0);
+        for (int i = 0; i < 5000; ++i) {
+            int key = random.nextInt(1000);
+            long value = random.nextInt(100);
+            switch (random.nextInt(8)) {
+                case 0:
+                    Assert.assertEquals(expected.remove(key), list.remove(key));
+                    break;
+                case 1:
+                    if (cursor.seek(key)) {
+                        Assert.assertEquals(expected.put(key, value), cursor.setValue(value));
+                    } else {
+                        cursor.insertHere(key, value);
+                        expected.put(key, value);
+                    }
+                    break;
+                case 2:
+                    if (cursor.seek(key)) {
+                        Assert.assertEquals(expected.remove(key), cursor.removeHere());
+                    }
+                    break;
+                case 3:
+                    int last = expected.isEmpty() ? 0 : expected.lastKey();
+                    list.append(last + 1, value);
+                    expected.put(last + 1, value);
+                    break;
+                default:
+                    Assert.assertEquals(expected.put(key, value), list.put(key, value));
+                    break;
+            }
+
+            if (i % 50 == 0) {
+                int from = random.nextInt(1200);
+                int to = from + random.nextInt(1200 - from + 1);
+                Assert.assertEquals(Long.valueOf(sum(expected.subMap(from, to))), list.aggregate(from, to));
+                Assert.assertEquals(Long.valueOf(sum(expected.subMap(from, false, to, true))), list.aggregate(from, false, to, true));
+                Assert.assertEquals(Long.valueOf(sum(expected)), list.aggregate());
+            }
+        }
+    }
+
+    @Test
+    public void testEntryValuesWriteThrough() {
+        AggregatingSkipList<Integer, Long, Long> list = newSumList();
+        for (int i = 0; i < 100; ++i) {
+            list.put(i, 1L);
+        }
+
+        for (Map.Entry<Integer, Long> entry : list.subMap(10, 20).entrySet()) {
+            entry.setValue(2L);
+        }
+
+        Assert.assertEquals(Long.valueOf(110), list.aggregate());
+        Assert.assertEquals(Long.valueOf(20), list.aggregate(10, 20));
+    }
+
+    @Test
+    public void testBulkLoadAndClear() {
+        SortedMap<Integer, Long> sorted = new TreeMap<>();
+        for (int i = 0; i < 1000; ++i) {
+            sorted.put(i, (long) i);
+        }
+
+        AggregatingSkipList<Integer, Long, Long> list = newSumList();
+        list.putAll(sorted);
+        Assert.assertEquals(Long.valueOf(499500), list.aggregate());
+        Assert.assertEquals(Long.valueOf(4950), list.aggregate(0, 100));
+        list.pollFirstEntry();
+        list.pollLastEntry();
+        Assert.assertEquals(Long.valueOf(499500 - 999), list.aggregate());
+
+        list.clear();
+        Assert.assertEquals(Long.valueOf(0), list.aggregate());
+        list.put(1, 1L);
+        Assert.assertEquals(Long.valueOf(1), list.aggregate(0, 2));
+    }
+
+    @Test
+    public void testReversedRangeIsRejected() {
+        thrown.expect(IllegalArgumentException.class);
+        newSumList().aggregate(2, 1);
+    }
+}
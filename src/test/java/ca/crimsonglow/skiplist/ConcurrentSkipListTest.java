@@ -0,0 +1,173 @@
+package ca.crimsonglow.skiplist;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+public class ConcurrentSkipListTest {
+    private static final int THREADS = 4;
+
+    @Rule
+    public ExpectedException thrown = ExpectedException.none();
+
+    @Test
+    public void testPutGetRemove() {
+        Map<Integer, Integer> list = new ConcurrentSkipList<>();
+        Assert.assertNull(list.put(1, 1));
+        Assert.assertEquals(Integer.valueOf(1), list.put(1, 2));
+        Assert.assertEquals(Integer.valueOf(2), list.get(1));
+        Assert.assertEquals(1, list.size());
+        Assert.assertEquals(Integer.valueOf(2), list.remove(1));
+        Assert.assertNull(list.get(1));
+        Assert.assertTrue(list.isEmpty());
+    }
+
+    @Test
+    public void testKeySetSpliteratorIsSorted() {
+        ConcurrentSkipList<Integer, Integer> list = new ConcurrentSkipList<>();
+        for (int i = 0; i < 100; ++i) {
+            list.put(i, i);
+        }
+
+        for (NavigableSet<Integer> keys : Arrays.asList(list.navigableKeySet(), list.descendingKeySet(),
+                list.navigableKeySet().subSet(10, true, 20, false))) {
+            Spliterator<Integer> spliterator = keys.spliterator();
+            Assert.assertTrue(spliterator.hasCharacteristics(Spliterator.ORDERED | Spliterator.SORTED
+                    | Spliterator.DISTINCT));
+            Assert.assertEquals(keys.comparator(), spliterator.getComparator());
+        }
+    }
+
+    @Test
+    public void testNullValueIsNotAllowed() {
+        thrown.expect(NullPointerException.class);
+        new ConcurrentSkipList<Integer, Integer>().put(1, null);
+    }
+
+    @Test
+    public void testAtomicOperations() {
+        ConcurrentNavigableMap<Integer, Integer> list = new ConcurrentSkipList<>();
+        Assert.assertNull(list.putIfAbsent(1, 1));
+        Assert.assertEquals(Integer.valueOf(1), list.putIfAbsent(1, 2));
+        Assert.assertFalse(list.replace(1, 2, 3));
+        Assert.assertTrue(list.replace(1, 1, 3));
+        Assert.assertEquals(Integer.valueOf(4), list.compute(1, (k, v) -> v + 1));
+        Assert.assertEquals(Integer.valueOf(5), list.merge(1, 1, Integer::sum));
+        Assert.assertEquals(Integer.valueOf(7), list.computeIfAbsent(2, k -> 7));
+        Assert.assertNull(list.computeIfPresent(2, (k, v) -> null));
+        Assert.assertFalse(list.remove(1, 4));
+        Assert.assertTrue(list.remove(1, 5));
+        Assert.assertTrue(list.isEmpty());
+    }
+
+    @Test
+    public void testNavigationMatchesTreeMap() {
+        NavigableMap<Integer, Integer> list = new ConcurrentSkipList<>();
+        NavigableMap<Integer, Integer> expected = new TreeMap<>();
+        Random random = new Random(0);
+        for (int i = 0; i < 1000; ++i) {
+            int key = random.nextInt(2000);
+            list.put(key, i);
+            expected.put(key, i);
+        }
+
+        for (int key = -1; key <= 2000; ++key) {
+            Assert.assertEquals(expected.ceilingKey(key), list.ceilingKey(key));
+            Assert.assertEquals(expected.floorKey(key), list.floorKey(key));
+            Assert.assertEquals(expected.higherKey(key), list.higherKey(key));
+            Assert.assertEquals(expected.lowerKey(key), list.lowerKey(key));
+        }
+
+        Assert.assertEquals(expected.firstEntry(), list.firstEntry());
+        Assert.assertEquals(expected.lastEntry(), list.lastEntry());
+        Assert.assertEquals(expected, list);
+        Assert.assertEquals(new ArrayList<>(expected.keySet()), new ArrayList<>(list.keySet()));
+        Assert.assertEquals(new ArrayList<>(expected.subMap(100, 900).entrySet()), new ArrayList<>(list.subMap(100, 900).entrySet()));
+        Assert.assertEquals(new ArrayList<>(expected.descendingMap().headMap(1500).keySet()), new ArrayList<>(list.descendingMap().headMap(1500).keySet()));
+    }
+
+    @Test
+    public void testIteratorsAreWeaklyConsistent() {
+        Map<Integer, Integer> list = new ConcurrentSkipList<>();
+        for (int i = 0; i < 10; ++i) {
+            list.put(i, i);
+        }
+
+        Iterator<Integer> it = list.keySet().iterator();
+        it.next();
+        list.remove(5);
+        list.put(20, 20);
+        List<Integer> rest = new ArrayList<>();
+        it.forEachRemaining(rest::add);
+        Assert.assertEquals(Arrays.asList(1, 2, 3, 4, 6, 7, 8, 9, 20), rest);
+    }
+
+    @Test
+    public void testConcurrentPutAndRemove() throws Exception {
+        ConcurrentSkipList<Integer, Integer> list = new ConcurrentSkipList<>();
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < THREADS; ++t) {
+            int offset = t;
+            futures.add(executor.submit(() -> {
+                // Each thread owns the keys congruent to its offset, and removes every other key it inserts.
+                for (int i = offset; i < 20000; i += THREADS) {
+                    list.put(i, i);
+                }
+
+                for (int i = offset; i < 20000; i += 2 * THREADS) {
+                    list.remove(i);
+                }
+            }));
+        }
+
+        for (Future<?> future : futures) {
+            future.get();
+        }
+
+        executor.shutdown();
+        Assert.assertTrue(executor.awaitTermination(1, TimeUnit.MINUTES));
+        Assert.assertEquals(10000, list.size());
+        int expected = 0;
+        for (int key : list.keySet()) {
+            while (expected % (2 * THREADS) < THREADS) {
+                expected++;
+            }
+
+            Assert.assertEquals(expected, key);
+            expected++;
+        }
+    }
+
+    @Test
+    public void testConcurrentMerge() throws Exception {
+        ConcurrentSkipList<Integer, Integer> list = new ConcurrentSkipList<>();
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < THREADS; ++t) {
+            futures.add(executor.submit(() -> {
+                for (int i = 0; i < 10000; ++i) {
+                    list.merge(i % 100, 1, Integer::sum);
+                }
+            }));
+        }
+
+        for (Future<?> future : futures) {
+            future.get();
+        }
+
+        executor.shutdown();
+        Assert.assertTrue(executor.awaitTermination(1, TimeUnit.MINUTES));
+        for (int i = 0; i < 100; ++i) {
+            Assert.assertEquals(Integer.valueOf(100 * THREADS), list.get(i));
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package ca.crimsonglow.skiplist;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.*;
+
+public class IntIntSkipListTest {
+    @Test
+    public void testPutGetRemove() {
+        IntIntSkipList list = new IntIntSkipList();
+        Assert.assertFalse(list.containsKey(1));
+        Assert.assertEquals(IntIntSkipList.NO_ENTRY_VALUE, list.put(1, 10));
+        Assert.assertEquals(10, list.put(1, 20));
+        Assert.assertTrue(list.containsKey(1));
+        Assert.assertEquals(20, list.get(1));
+        Assert.assertEquals(1, list.size());
+        Assert.assertEquals(20, list.remove(1));
+        Assert.assertFalse(list.containsKey(1));
+        Assert.assertTrue(list.isEmpty());
+    }
+
+    @Test
+    public void testGetOrDefault() {
+        IntIntSkipList list = new IntIntSkipList();
+        Assert.assertEquals(-1, list.getOrDefault(1, -1));
+        list.put(1, 0);
+        Assert.assertEquals(0, list.getOrDefault(1, -1));
+    }
+
+    @Test
+    public void testClear() {
+        IntIntSkipList list = new IntIntSkipList();
+        for (int i = 0; i < 10; ++i) {
+            list.put(i, i);
+        }
+
+        list.clear();
+        Assert.assertTrue(list.isEmpty());
+        Assert.assertFalse(list.containsKey(1));
+    }
+
+    @Test
+    public void testMatchesTreeMap() {
+        IntIntSkipList list = new IntIntSkipList();
+        TreeMap<Integer, Integer> expected = new TreeMap<>();
+        Random random = new Random(0);
+        for (int i = 0; i < 10000; ++i) {
+            int key = random.nextInt(1000) - 500;
+            if (random.nextBoolean()) {
+                list.put(key, i);
+                expected.put(key, i);
+            } else {
+                list.remove(key);
+                expected.remove(key);
+            }
+        }
+
+        Assert.assertEquals(expected.size(), list.size());
+        Map<Integer, Integer> actual = new LinkedHashMap<>();
+        list.forEach(actual::put);
+        Assert.assertEquals(new ArrayList<>(expected.entrySet()), new ArrayList<>(actual.entrySet()));
+    }
+}
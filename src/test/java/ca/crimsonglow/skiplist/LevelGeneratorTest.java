@@ -0,0 +1,133 @@
+package ca.crimsonglow.skiplist;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+public class LevelGeneratorTest {
+    private static final int SAMPLES = 200000;
+
+    @Rule
+    public ExpectedException thrown = ExpectedException.none();
+
+    // Checks that each level is reached with the given probability of reaching the level beneath it.
+    private static void assertGeometric(LevelGenerator generator, double p) {
+        int[] counts = new int[LevelGenerator.MAX_LEVEL + 1];
+        for (int i = 0; i < SAMPLES; ++i) {
+            int level = generator.nextLevel();
+            Assert.assertTrue(level >= 0 && level <= generator.getMaxLevel());
+            counts[level]++;
+        }
+
+        int atLeast = SAMPLES;
+        for (int level = 1; level <= 3; ++level) {
+            int next = atLeast - counts[level - 1];
+            Assert.assertEquals(p, (double) next / atLeast, 0.05);
+            atLeast = next;
+        }
+    }
+
+    @Test
+    public void testDistributions() {
+        for (double p : new double[]{0.5, 0.25, 0.2, 0.125}) {
+            assertGeometric(LevelGenerator.splittable(p, 16), p);
+            assertGeometric(LevelGenerator.threadLocal(p, 16), p);
+            assertGeometric(LevelGenerator.seeded(p, 16, 42), p);
+            assertGeometric(LevelGenerator.iterative(p, 16), p);
+        }
+    }
+
+    @Test
+    public void testSeededIsDeterministic() {
+        LevelGenerator a = LevelGenerator.seeded(0.25, 16, 7);
+        LevelGenerator b = LevelGenerator.seeded(0.25, 16, 7);
+        for (int i = 0; i < 1000; ++i) {
+            Assert.assertEquals(a.nextLevel(), b.nextLevel());
+        }
+    }
+
+    @Test
+    public void testMaxLevelIsRespected() {
+        LevelGenerator generator = LevelGenerator.splittable(0.9, 3);
+        for (int i = 0; i < 1000; ++i) {
+            Assert.assertTrue(generator.nextLevel() <= 3);
+        }
+
+        Assert.assertEquals(5, LevelGenerator.splittable(1, 5).nextLevel());
+        Assert.assertEquals(0, LevelGenerator.splittable(0, 5).nextLevel());
+    }
+
+    @Test
+    public void testMaxLevelFor() {
+        Assert.assertEquals(10, LevelGenerator.maxLevelFor(1024, 0.5));
+        Assert.assertEquals(10, LevelGenerator.maxLevelFor(1000000, 0.25));
+        Assert.assertEquals(16, LevelGenerator.maxLevelFor(Integer.MAX_VALUE, 0.25));
+        Assert.assertEquals(0, LevelGenerator.maxLevelFor(1, 0.25));
+        Assert.assertEquals(LevelGenerator.MAX_LEVEL, LevelGenerator.maxLevelFor(Long.MAX_VALUE, 0.5));
+    }
+
+    @Test
+    public void testSkipListWithSeededGenerator() {
+        SkipList<Integer, Integer> list = new SkipList<>(LevelGenerator.seeded(0.5, LevelGenerator.maxLevelFor(1000, 0.5), 1));
+        for (int i = 999; i >= 0; --i) {
+            list.put(i, i);
+        }
+
+        Assert.assertEquals(1000, list.size());
+        Assert.assertEquals(Integer.valueOf(0), list.firstKey());
+        Assert.assertEquals(Integer.valueOf(500), list.get(500));
+    }
+
+    // Feeds a generator windows of operations with the given fraction of writes, whose searches take as long as
+    // expected at the generator's current probability.
+    private static void simulate(AdaptiveLevelGenerator generator, double writeFraction, int size, int windows) {
+        int operations = windows * AdaptiveLevelGenerator.SAMPLE_INTERVAL * AdaptiveLevelGenerator.SAMPLES_PER_WINDOW;
+        for (int i = 0; i < operations; ++i) {
+            boolean sampled = i % 100 < writeFraction * 100 ? generator.recordWrite() : generator.recordRead();
+            if (sampled) {
+                double expected = AdaptiveLevelGenerator.getExpectedSearchPathLength(generator.getProbability(), size);
+                generator.recordSearchPathLength((int) Math.round(expected), size);
+            }
+        }
+    }
+
+    @Test
+    public void testAdaptiveShiftsProbabilityWithWorkload() {
+        AdaptiveLevelGenerator readHeavy = (AdaptiveLevelGenerator) LevelGenerator.adaptive(0.0625, 16);
+        simulate(readHeavy, 0.05, 1000000, 20);
+        AdaptiveLevelGenerator writeHeavy = (AdaptiveLevelGenerator) LevelGenerator.adaptive(0.0625, 16);
+        simulate(writeHeavy, 0.95, 1000000, 20);
+
+        Assert.assertEquals(0.05, readHeavy.getWriteFraction(), 0.01);
+        Assert.assertEquals(0.95, writeHeavy.getWriteFraction(), 0.01);
+        Assert.assertTrue(readHeavy.getProbability() > 0.0625);
+        Assert.assertTrue(writeHeavy.getProbability() < readHeavy.getProbability());
+        Assert.assertTrue(readHeavy.getProbability() <= AdaptiveLevelGenerator.MAX_PROBABILITY);
+        assertGeometric(readHeavy, readHeavy.getProbability());
+    }
+
+    @Test
+    public void testAdaptiveObservesSkipList() {
+        AdaptiveLevelGenerator generator = (AdaptiveLevelGenerator) LevelGenerator.adaptive(0.5, 16);
+        SkipList<Integer, Integer> list = new SkipList<>(generator);
+        for (int i = 0; i < 100000; ++i) {
+            list.put(i * 7919 % 100000, i);
+        }
+
+        Assert.assertEquals(1.0, generator.getWriteFraction(), 0.01);
+        for (int i = 0; i < 1000000; ++i) {
+            list.get(i % 100000);
+        }
+
+        Assert.assertTrue(generator.getWriteFraction() < 0.2);
+        Assert.assertTrue(generator.getScale() > 0);
+        Assert.assertTrue(generator.getProbability() < 0.5);
+    }
+
+    @Test
+    public void testProbabilityOutOfRangeIsRejected() {
+        thrown.expect(IllegalArgumentException.class);
+        LevelGenerator.splittable(1.5, 16);
+    }
+}
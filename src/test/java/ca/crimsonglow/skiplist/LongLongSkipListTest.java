@@ -0,0 +1,64 @@
+package ca.crimsonglow.skiplist;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.*;
+
+public class LongLongSkipListTest {
+    @Test
+    public void testPutGetRemove() {
+        LongLongSkipList list = new LongLongSkipList();
+        Assert.assertFalse(list.containsKey(1));
+        Assert.assertEquals(LongLongSkipList.NO_ENTRY_VALUE, list.put(1L, 10L));
+        Assert.assertEquals(10L, list.put(1L, 20L));
+        Assert.assertTrue(list.containsKey(1));
+        Assert.assertEquals(20L, list.get(1));
+        Assert.assertEquals(1, list.size());
+        Assert.assertEquals(20L, list.remove(1));
+        Assert.assertFalse(list.containsKey(1));
+        Assert.assertTrue(list.isEmpty());
+    }
+
+    @Test
+    public void testGetOrDefault() {
+        LongLongSkipList list = new LongLongSkipList();
+        Assert.assertEquals(-1L, list.getOrDefault(1L, -1L));
+        list.put(1, 0);
+        Assert.assertEquals(0L, list.getOrDefault(1L, -1L));
+    }
+
+    @Test
+    public void testClear() {
+        LongLongSkipList list = new LongLongSkipList();
+        for (int i = 0; i < 10; ++i) {
+            list.put(i, i);
+        }
+
+        list.clear();
+        Assert.assertTrue(list.isEmpty());
+        Assert.assertFalse(list.containsKey(1));
+    }
+
+    @Test
+    public void testMatchesTreeMap() {
+        LongLongSkipList list = new LongLongSkipList();
+        TreeMap<Long, Long> expected = new TreeMap<>();
+        Random random = new Random(0);
+        for (int i = 0; i < 10000; ++i) {
+            long key = random.nextInt(1000) - 500 + ((long) Integer.MAX_VALUE << 1);
+            if (random.nextBoolean()) {
+                list.put(key, i);
+                expected.put(key, (long) i);
+            } else {
+                list.remove(key);
+                expected.remove(key);
+            }
+        }
+
+        Assert.assertEquals(expected.size(), list.size());
+        Map<Long, Long> actual = new LinkedHashMap<>();
+        list.forEach(actual::put);
+        Assert.assertEquals(new ArrayList<>(expected.entrySet()), new ArrayList<>(actual.entrySet()));
+    }
+}
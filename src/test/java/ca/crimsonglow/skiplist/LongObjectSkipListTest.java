@@ -0,0 +1,53 @@
+package ca.crimsonglow.skiplist;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.*;
+
+public class LongObjectSkipListTest {
+    @Test
+    public void testPutGetRemove() {
+        LongObjectSkipList<String> list = new LongObjectSkipList<>();
+        Assert.assertFalse(list.containsKey(1L));
+        Assert.assertNull(list.put(1L, "a"));
+        Assert.assertEquals("a", list.put(1L, "b"));
+        Assert.assertTrue(list.containsKey(1L));
+        Assert.assertEquals("b", list.get(1L));
+        Assert.assertEquals(1, list.size());
+        Assert.assertEquals("b", list.remove(1L));
+        Assert.assertNull(list.get(1L));
+        Assert.assertTrue(list.isEmpty());
+    }
+
+    @Test
+    public void testNullValueIsAllowed() {
+        LongObjectSkipList<String> list = new LongObjectSkipList<>();
+        list.put(1L, null);
+        Assert.assertTrue(list.containsKey(1L));
+        Assert.assertEquals("default", list.getOrDefault(2L, "default"));
+        Assert.assertNull(list.getOrDefault(1L, "default"));
+    }
+
+    @Test
+    public void testMatchesTreeMap() {
+        LongObjectSkipList<Integer> list = new LongObjectSkipList<>();
+        TreeMap<Long, Integer> expected = new TreeMap<>();
+        Random random = new Random(0);
+        for (int i = 0; i < 10000; ++i) {
+            long key = random.nextInt(1000) - 500L;
+            if (random.nextBoolean()) {
+                list.put(key, i);
+                expected.put(key, i);
+            } else {
+                list.remove(key);
+                expected.remove(key);
+            }
+        }
+
+        Assert.assertEquals(expected.size(), list.size());
+        Map<Long, Integer> actual = new LinkedHashMap<>();
+        list.forEach(actual::put);
+        Assert.assertEquals(new ArrayList<>(expected.entrySet()), new ArrayList<>(actual.entrySet()));
+    }
+}
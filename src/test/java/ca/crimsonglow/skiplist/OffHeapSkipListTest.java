@@ -0,0 +1,131 @@
+package ca.crimsonglow.skiplist;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+public class OffHeapSkipListTest {
+    @Rule
+    public ExpectedException thrown = ExpectedException.none();
+
+    private static byte[] bytes(String s) {
+        return s.getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Test
+    public void testPutGetRemove() {
+        OffHeapSkipList list = new OffHeapSkipList();
+        Assert.assertTrue(list.put(bytes("a"), bytes("1")));
+        Assert.assertFalse(list.put(bytes("a"), bytes("2")));
+        Assert.assertArrayEquals(bytes("2"), list.get(bytes("a")));
+        Assert.assertTrue(list.containsKey(bytes("a")));
+        Assert.assertEquals(1, list.size());
+        Assert.assertTrue(list.remove(bytes("a")));
+        Assert.assertFalse(list.remove(bytes("a")));
+        Assert.assertNull(list.get(bytes("a")));
+        Assert.assertTrue(list.isEmpty());
+    }
+
+    @Test
+    public void testReplaceWithDifferentLength() {
+        OffHeapSkipList list = new OffHeapSkipList();
+        list.put(bytes("key"), bytes("short"));
+        list.put(bytes("key"), bytes("a much longer value"));
+        Assert.assertArrayEquals(bytes("a much longer value"), list.get(bytes("key")));
+        list.put(bytes("key"), new byte[0]);
+        Assert.assertArrayEquals(new byte[0], list.get(bytes("key")));
+    }
+
+    @Test
+    public void testKeysArePrefixOrderedAndUnsigned() {
+        OffHeapSkipList list = new OffHeapSkipList();
+        byte[][] keys = {new byte[]{(byte) 0xff}, new byte[0], new byte[]{1, 2, 3, 4, 5, 6, 7, 8}, new byte[]{1, 2, 3, 4, 5, 6, 7, 8, 0}, new byte[]{1, 2, 3, 4, 5, 6, 7, (byte) 0x80}, new byte[]{0x7f}};
+        for (byte[] key : keys) {
+            list.put(key, key);
+        }
+
+        List<byte[]> actual = new ArrayList<>();
+        list.forEach((k, v) -> {
+            Assert.assertArrayEquals(k, v);
+            actual.add(k);
+        });
+
+        Assert.assertEquals(6, actual.size());
+        Assert.assertArrayEquals(new byte[0], actual.get(0));
+        Assert.assertArrayEquals(new byte[]{1, 2, 3, 4, 5, 6, 7, 8}, actual.get(1));
+        Assert.assertArrayEquals(new byte[]{1, 2, 3, 4, 5, 6, 7, 8, 0}, actual.get(2));
+        Assert.assertArrayEquals(new byte[]{1, 2, 3, 4, 5, 6, 7, (byte) 0x80}, actual.get(3));
+        Assert.assertArrayEquals(new byte[]{0x7f}, actual.get(4));
+        Assert.assertArrayEquals(new byte[]{(byte) 0xff}, actual.get(5));
+    }
+
+    @Test
+    public void testMatchesTreeMapAcrossSegments() {
+        // Small segments force nodes to be spread across many of them.
+        OffHeapSkipList list = new OffHeapSkipList(0.5, 512);
+        NavigableMap<byte[], byte[]> expected = new TreeMap<>(Arrays::compareUnsigned);
+        Random random = new Random(0);
+        for (int i = 0; i < 5000; ++i) {
+            byte[] key = new byte[1 + random.nextInt(20)];
+            random.nextBytes(key);
+            byte[] value = new byte[random.nextInt(30)];
+            random.nextBytes(value);
+            if (random.nextInt(4) == 0) {
+                Assert.assertEquals(expected.remove(key) != null, list.remove(key));
+            } else {
+                Assert.assertEquals(expected.put(key, value) == null, list.put(key, value));
+            }
+        }
+
+        Assert.assertEquals(expected.size(), list.size());
+        Assert.assertTrue(list.getReservedBytes() > 512);
+        for (Map.Entry<byte[], byte[]> e : expected.entrySet()) {
+            Assert.assertArrayEquals(e.getValue(), list.get(e.getKey()));
+        }
+
+        Iterator<Map.Entry<byte[], byte[]>> it = expected.entrySet().iterator();
+        list.forEach((k, v) -> {
+            Map.Entry<byte[], byte[]> e = it.next();
+            Assert.assertArrayEquals(e.getKey(), k);
+            Assert.assertArrayEquals(e.getValue(), v);
+        });
+        Assert.assertFalse(it.hasNext());
+    }
+
+    @Test
+    public void testClearReusesMemory() {
+        OffHeapSkipList list = new OffHeapSkipList(0.2, 1024);
+        for (int i = 0; i < 1000; ++i) {
+            list.put(bytes("key" + i), bytes("value" + i));
+        }
+
+        long reserved = list.getReservedBytes();
+        list.clear();
+        Assert.assertTrue(list.isEmpty());
+        Assert.assertNull(list.get(bytes("key1")));
+        Assert.assertTrue(list.getAllocatedBytes() < 1024);
+        Assert.assertEquals(reserved, list.getReservedBytes());
+
+        for (int i = 0; i < 1000; ++i) {
+            list.put(bytes("key" + i), bytes("value" + i));
+        }
+
+        Assert.assertEquals(1000, list.size());
+        Assert.assertArrayEquals(bytes("value999"), list.get(bytes("key999")));
+
+        list.release();
+        Assert.assertEquals(1024, list.getReservedBytes());
+        Assert.assertTrue(list.isEmpty());
+    }
+
+    @Test
+    public void testEntryLargerThanSegmentIsRejected() {
+        OffHeapSkipList list = new OffHeapSkipList(0.2, 512);
+        thrown.expect(IllegalArgumentException.class);
+        list.put(new byte[1024], new byte[0]);
+    }
+}
@@ -0,0 +1,91 @@
+package ca.crimsonglow.skiplist;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+public class OptimisticSkipListTest {
+    @Test
+    public void testMatchesTreeMap() {
+        OptimisticSkipList<Integer, Integer> map = new OptimisticSkipList<>();
+        NavigableMap<Integer, Integer> expected = new TreeMap<>();
+        Random random = new Random(0);
+        for (int i = 0; i < 20000; ++i) {
+            int key = random.nextInt(2000);
+            switch (random.nextInt(4)) {
+                case 0:
+                    Assert.assertEquals(expected.remove(key), map.remove(key));
+                    break;
+                case 1:
+                    Assert.assertEquals(expected.putIfAbsent(key, i), map.putIfAbsent(key, i));
+                    break;
+                default:
+                    Assert.assertEquals(expected.put(key, i), map.put(key, i));
+            }
+        }
+
+        Assert.assertEquals(expected, map);
+        Assert.assertEquals(new ArrayList<>(expected.entrySet()), new ArrayList<>(map.entrySet()));
+        for (int key = -1; key <= 2001; key += 3) {
+            Assert.assertEquals(expected.ceilingEntry(key), map.ceilingEntry(key));
+            Assert.assertEquals(expected.higherEntry(key), map.higherEntry(key));
+            Assert.assertEquals(expected.floorEntry(key), map.floorEntry(key));
+            Assert.assertEquals(expected.lowerEntry(key), map.lowerEntry(key));
+        }
+
+        Assert.assertEquals(expected.firstEntry(), map.firstEntry());
+        Assert.assertEquals(expected.lastEntry(), map.lastEntry());
+    }
+
+    @Test
+    public void testReadersNeverSeeTornState() throws Exception {
+        OptimisticSkipList<Integer, Integer> map = new OptimisticSkipList<>(Comparator.reverseOrder());
+        // Even keys are always present and map to themselves; odd keys come and go around them.
+        for (int key = 0; key < 2000; key += 2) {
+            map.put(key, key);
+        }
+
+        AtomicBoolean done = new AtomicBoolean();
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        try {
+            List<Future<Boolean>> readers = new ArrayList<>();
+            for (int r = 0; r < 3; ++r) {
+                int seed = r;
+                readers.add(executor.submit(() -> {
+                    Random random = new Random(seed);
+                    while (!done.get()) {
+                        int key = 2 * random.nextInt(1000);
+                        Map.Entry<Integer, Integer> floor = map.floorEntry(key);
+                        if (!Integer.valueOf(key).equals(map.get(key)) || floor == null || floor.getKey() < key) {
+                            return false;
+                        }
+                    }
+
+                    return true;
+                }));
+            }
+
+            Random random = new Random(0);
+            for (int i = 0; i < 200000; ++i) {
+                int key = 2 * random.nextInt(1000) + 1;
+                if (random.nextBoolean()) {
+                    map.put(key, key);
+                } else {
+                    map.remove(key);
+                }
+            }
+
+            done.set(true);
+            for (Future<Boolean> reader : readers) {
+                Assert.assertTrue(reader.get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
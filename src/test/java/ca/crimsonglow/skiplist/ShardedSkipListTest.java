@@ -0,0 +1,127 @@
+package ca.crimsonglow.skiplist;
+
+import org.junit.Assert;
+import org.junit.Test;
+
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+public class ShardedSkipListTest {
+    private static <K, V> List<Map.Entry<K, V>> toList(Iterator<Map.Entry<K, V>> it) {
+        List<Map.Entry<K, V>> entries = new ArrayList<>();
+        it.forEachRemaining(entries::add);
+        return entries;
+    }
+
+    @Test
+    public void testMatchesTreeMapWhileSplittingAndMerging() {
+        ShardedSkipList<Integer, Integer> map = new ShardedSkipList<>(null, 8);
+        NavigableMap<Integer, Integer> expected = new TreeMap<>();
+        Random random = new Random(0);
+        for (int i = 0; i < 100000; ++i) {
+            int key = random.nextInt(40000);
+            if (random.nextInt(4) == 0) {
+                Assert.assertEquals(expected.remove(key), map.remove(key));
+            } else {
+                Assert.assertEquals(expected.put(key, i), map.put(key, i));
+            }
+        }
+
+        Assert.assertTrue(map.getShardCount() > 4);
+        Assert.assertEquals(expected.size(), map.size());
+        Assert.assertEquals(new ArrayList<>(expected.entrySet()), new ArrayList<>(map.entrySet()));
+        Assert.assertEquals(new ArrayList<>(expected.subMap(1000, 30000).entrySet()), toList(map.iterator(1000, 30000)));
+        for (int key = 0; key < 40000; key += 7) {
+            Assert.assertEquals(expected.get(key), map.get(key));
+        }
+
+        int shardCount = map.getShardCount();
+        Iterator<Map.Entry<Integer, Integer>> it = map.entrySet().iterator();
+        while (it.hasNext()) {
+            if (it.next().getKey() % 50 != 0) {
+                it.remove();
+            }
+        }
+
+        expected.keySet().removeIf(key -> key % 50 != 0);
+        Assert.assertTrue(map.getShardCount() < shardCount);
+        Assert.assertEquals(expected, map);
+    }
+
+    @Test
+    public void testConditionalOperations() {
+        ShardedSkipList<String, Integer> map = new ShardedSkipList<>(Comparator.reverseOrder(), 4);
+        Assert.assertNull(map.putIfAbsent("a", 1));
+        Assert.assertEquals(Integer.valueOf(1), map.putIfAbsent("a", 2));
+        Assert.assertFalse(map.replace("a", 2, 3));
+        Assert.assertTrue(map.replace("a", 1, 3));
+        Assert.assertNull(map.replace("b", 1));
+        Assert.assertFalse(map.remove("a", 1));
+        Assert.assertTrue(map.remove("a", 3));
+        Assert.assertTrue(map.isEmpty());
+        Assert.assertEquals(Integer.valueOf(5), map.merge("c", 5, Integer::sum));
+        Assert.assertEquals(Integer.valueOf(7), map.merge("c", 2, Integer::sum));
+        map.put("d", 1);
+        Assert.assertEquals(List.of("d", "c"), new ArrayList<>(map.keySet()));
+    }
+
+    @Test
+    public void testConcurrentWritersAndIterators() throws Exception {
+        ShardedSkipList<Integer, Integer> map = new ShardedSkipList<>(null, 16);
+        ExecutorService executor = Executors.newFixedThreadPool(5);
+        try {
+            List<Future<?>> writers = new ArrayList<>();
+            for (int t = 0; t < 4; ++t) {
+                int thread = t;
+                writers.add(executor.submit(() -> {
+                    Random random = new Random(thread);
+                    for (int i = 0; i < 50000; ++i) {
+                        int key = random.nextInt(20000) * 4 + thread;
+                        if (random.nextInt(3) == 0) {
+                            map.remove(key);
+                        } else {
+                            map.put(key, key);
+                        }
+                    }
+
+                    // Leave a known set of keys behind.
+                    for (int key = thread; key < 80000; key += 4) {
+                        map.put(key, key);
+                    }
+                }));
+            }
+
+            Future<Boolean> reader = executor.submit(() -> {
+                while (writers.stream().anyMatch(w -> !w.isDone())) {
+                    Integer previous = null;
+                    for (Map.Entry<Integer, Integer> e : map.entrySet()) {
+                        if (!e.getKey().equals(e.getValue()) || (previous != null && previous >= e.getKey())) {
+                            return false;
+                        }
+
+                        previous = e.getKey();
+                    }
+                }
+
+                return true;
+            });
+
+            for (Future<?> writer : writers) {
+                writer.get();
+            }
+
+            Assert.assertTrue(reader.get());
+        } finally {
+            executor.shutdown();
+        }
+
+        Assert.assertEquals(80000, map.size());
+        Assert.assertTrue(map.getShardCount() > 1);
+        int expected = 0;
+        for (Map.Entry<Integer, Integer> e : map.entrySet()) {
+            Assert.assertEquals(Integer.valueOf(expected++), e.getKey());
+        }
+    }
+}
@@ -1,11 +1,23 @@
 package ca.crimsonglow.skiplist;
 
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
 import org.junit.Assert;
 import org.junit.Rule;
 import org.junit.Test;
 import org.junit.rules.ExpectedException;
 
+import javax.management.Attribute;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.openmbean.CompositeData;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
 import java.util.*;
+import java.util.stream.Collectors;
 
 public class SkipListTest {
     @Rule
@@ -147,13 +159,95 @@ public class SkipListTest {
     @Test
     public void testValues() {
         Map<Integer, Integer> list = new SkipList<>();
-        Set<Integer> expected = new HashSet<>();
+        List<Integer> expected = new ArrayList<>();
         for (int i = 0; i < 10; ++i) {
             list.put(i, i + 1);
             expected.add(i + 1);
         }
 
-        Assert.assertEquals(expected, list.values());
+        Assert.assertEquals(expected, new ArrayList<>(list.values()));
+    }
+
+    @Test
+    public void testValuesKeepsDuplicates() {
+        Map<Integer, Integer> list = new SkipList<>();
+        list.put(1, 0);
+        list.put(2, 0);
+        Assert.assertEquals(Arrays.asList(0, 0), new ArrayList<>(list.values()));
+    }
+
+    @Test
+    public void testViewsAreOrdered() {
+        Map<Integer, Integer> list = new SkipList<>();
+        for (int i = 9; i >= 0; --i) {
+            list.put(i, -i);
+        }
+
+        List<Integer> keys = new ArrayList<>();
+        for (Map.Entry<Integer, Integer> entry : list.entrySet()) {
+            keys.add(entry.getKey());
+        }
+
+        Assert.assertEquals(Arrays.asList(0, 1, 2, 3, 4, 5, 6, 7, 8, 9), keys);
+        Assert.assertEquals(keys, new ArrayList<>(list.keySet()));
+    }
+
+    @Test
+    public void testViewsAreLive() {
+        Map<Integer, Integer> list = new SkipList<>();
+        Set<Integer> keys = list.keySet();
+        Collection<Integer> values = list.values();
+        list.put(1, 2);
+        Assert.assertTrue(keys.contains(1));
+        Assert.assertTrue(values.contains(2));
+        keys.remove(1);
+        Assert.assertTrue(list.isEmpty());
+    }
+
+    @Test
+    public void testEntrySetValueWritesThrough() {
+        Map<Integer, Integer> list = new SkipList<>();
+        for (int i = 0; i < 10; ++i) {
+            list.put(i, i);
+        }
+
+        for (Map.Entry<Integer, Integer> entry : list.entrySet()) {
+            entry.setValue(entry.getValue() * 2);
+        }
+
+        for (int i = 0; i < 10; ++i) {
+            Assert.assertEquals(Integer.valueOf(i * 2), list.get(i));
+        }
+    }
+
+    @Test
+    public void testIteratorRemove() {
+        Map<Integer, Integer> list = new SkipList<>();
+        for (int i = 0; i < 10; ++i) {
+            list.put(i, i);
+        }
+
+        Iterator<Integer> it = list.values().iterator();
+        while (it.hasNext()) {
+            if (it.next() % 2 == 1) {
+                it.remove();
+            }
+        }
+
+        Assert.assertEquals(Arrays.asList(0, 2, 4, 6, 8), new ArrayList<>(list.keySet()));
+        Assert.assertEquals(5, list.size());
+    }
+
+    @Test
+    public void testIteratorFailsFast() {
+        Map<Integer, Integer> list = new SkipList<>();
+        list.put(1, 1);
+        list.put(2, 2);
+        Iterator<Integer> it = list.keySet().iterator();
+        it.next();
+        list.put(3, 3);
+        thrown.expect(ConcurrentModificationException.class);
+        it.next();
     }
 
     @Test
@@ -200,4 +294,874 @@ public class SkipListTest {
         Assert.assertEquals(1, list.size());
         Assert.assertEquals(Integer.valueOf(2), list.get(1));
     }
+
+    @Test
+    public void testFirstAndLastEntry() {
+        NavigableMap<Integer, Integer> list = new SkipList<>();
+        Assert.assertNull(list.firstEntry());
+        Assert.assertNull(list.lastEntry());
+        for (int i = 0; i < 10; ++i) {
+            list.put(i, i + 1);
+        }
+
+        Assert.assertEquals(new AbstractMap.SimpleEntry<>(0, 1), list.firstEntry());
+        Assert.assertEquals(new AbstractMap.SimpleEntry<>(9, 10), list.lastEntry());
+        Assert.assertEquals(Integer.valueOf(0), list.firstKey());
+        Assert.assertEquals(Integer.valueOf(9), list.lastKey());
+    }
+
+    @Test
+    public void testFirstKeyOfEmptyListThrows() {
+        thrown.expect(NoSuchElementException.class);
+        new SkipList<Integer, Integer>().firstKey();
+    }
+
+    @Test
+    public void testNavigation() {
+        NavigableMap<Integer, Integer> list = new SkipList<>();
+        for (int i = 0; i < 10; i += 2) {
+            list.put(i, i);
+        }
+
+        Assert.assertEquals(Integer.valueOf(4), list.ceilingKey(3));
+        Assert.assertEquals(Integer.valueOf(4), list.ceilingKey(4));
+        Assert.assertNull(list.ceilingKey(9));
+        Assert.assertEquals(Integer.valueOf(2), list.floorKey(3));
+        Assert.assertEquals(Integer.valueOf(4), list.floorKey(4));
+        Assert.assertNull(list.floorKey(-1));
+        Assert.assertEquals(Integer.valueOf(6), list.higherEntry(4).getKey());
+        Assert.assertNull(list.higherEntry(8));
+        Assert.assertEquals(Integer.valueOf(2), list.lowerEntry(4).getKey());
+        Assert.assertNull(list.lowerEntry(0));
+    }
+
+    @Test
+    public void testPollFirstAndLastEntry() {
+        NavigableMap<Integer, Integer> list = new SkipList<>();
+        for (int i = 0; i < 3; ++i) {
+            list.put(i, i);
+        }
+
+        Assert.assertEquals(Integer.valueOf(0), list.pollFirstEntry().getKey());
+        Assert.assertEquals(Integer.valueOf(2), list.pollLastEntry().getKey());
+        Assert.assertEquals(1, list.size());
+        Assert.assertEquals(Integer.valueOf(1), list.firstKey());
+    }
+
+    @Test
+    public void testSubMap() {
+        NavigableMap<Integer, Integer> list = new SkipList<>();
+        for (int i = 0; i < 10; ++i) {
+            list.put(i, i);
+        }
+
+        NavigableMap<Integer, Integer> sub = list.subMap(2, true, 6, false);
+        Assert.assertEquals(Arrays.asList(2, 3, 4, 5), new ArrayList<>(sub.keySet()));
+        Assert.assertEquals(4, sub.size());
+        Assert.assertNull(sub.get(6));
+        Assert.assertEquals(Integer.valueOf(2), sub.firstKey());
+        Assert.assertEquals(Integer.valueOf(5), sub.lastKey());
+
+        // Sub maps are live views of the list.
+        list.remove(3);
+        sub.put(5, 50);
+        Assert.assertEquals(Arrays.asList(2, 4, 5), new ArrayList<>(sub.keySet()));
+        Assert.assertEquals(Integer.valueOf(50), list.get(5));
+    }
+
+    @Test
+    public void testSubMapRejectsKeysOutOfRange() {
+        NavigableMap<Integer, Integer> list = new SkipList<>();
+        thrown.expect(IllegalArgumentException.class);
+        list.subMap(2, 6).put(6, 6);
+    }
+
+    @Test
+    public void testHeadMapAndTailMap() {
+        NavigableMap<Integer, Integer> list = new SkipList<>();
+        for (int i = 0; i < 10; ++i) {
+            list.put(i, i);
+        }
+
+        Assert.assertEquals(Arrays.asList(0, 1, 2), new ArrayList<>(list.headMap(3).keySet()));
+        Assert.assertEquals(Arrays.asList(0, 1, 2, 3), new ArrayList<>(list.headMap(3, true).keySet()));
+        Assert.assertEquals(Arrays.asList(7, 8, 9), new ArrayList<>(list.tailMap(7).keySet()));
+        Assert.assertEquals(Arrays.asList(8, 9), new ArrayList<>(list.tailMap(7, false).keySet()));
+    }
+
+    @Test
+    public void testDescendingMap() {
+        NavigableMap<Integer, Integer> list = new SkipList<>();
+        for (int i = 0; i < 5; ++i) {
+            list.put(i, i);
+        }
+
+        NavigableMap<Integer, Integer> descending = list.descendingMap();
+        Assert.assertEquals(Arrays.asList(4, 3, 2, 1, 0), new ArrayList<>(descending.keySet()));
+        Assert.assertEquals(Integer.valueOf(2), descending.ceilingKey(2));
+        Assert.assertEquals(Integer.valueOf(1), descending.higherKey(2));
+        Assert.assertEquals(Arrays.asList(3, 2), new ArrayList<>(descending.subMap(3, true, 1, false).keySet()));
+        Assert.assertEquals(Arrays.asList(0, 1, 2, 3, 4), new ArrayList<>(descending.descendingMap().keySet()));
+    }
+
+    @Test
+    public void testSubMapIteratorRemove() {
+        NavigableMap<Integer, Integer> list = new SkipList<>();
+        for (int i = 0; i < 10; ++i) {
+            list.put(i, i);
+        }
+
+        list.subMap(2, 8).keySet().removeIf(k -> k % 2 == 0);
+        Assert.assertEquals(Arrays.asList(0, 1, 3, 5, 7, 8, 9), new ArrayList<>(list.navigableKeySet()));
+    }
+
+    @Test
+    public void testNavigationMatchesTreeMap() {
+        NavigableMap<Integer, Integer> list = new SkipList<>();
+        NavigableMap<Integer, Integer> expected = new TreeMap<>();
+        Random random = new Random(0);
+        for (int i = 0; i < 1000; ++i) {
+            int key = random.nextInt(2000);
+            list.put(key, i);
+            expected.put(key, i);
+        }
+
+        for (int key = -1; key <= 2000; ++key) {
+            Assert.assertEquals(expected.ceilingKey(key), list.ceilingKey(key));
+            Assert.assertEquals(expected.floorKey(key), list.floorKey(key));
+            Assert.assertEquals(expected.higherKey(key), list.higherKey(key));
+            Assert.assertEquals(expected.lowerKey(key), list.lowerKey(key));
+        }
+
+        Assert.assertEquals(expected.subMap(100, 900), list.subMap(100, 900));
+        Assert.assertEquals(new ArrayList<>(expected.descendingMap().entrySet()), new ArrayList<>(list.descendingMap().entrySet()));
+    }
+
+    @Test
+    public void testFromSorted() {
+        NavigableMap<Integer, Integer> expected = new TreeMap<>();
+        for (int i = 0; i < 1000; ++i) {
+            expected.put(i * 2, i);
+        }
+
+        for (boolean balanced : new boolean[]{false, true}) {
+            SkipList<Integer, Integer> list = SkipList.fromSorted(expected.entrySet().iterator(), 0.25, balanced);
+            Assert.assertEquals(expected, list);
+            Assert.assertEquals(Integer.valueOf(1998), list.lastKey());
+
+            // The list must remain fully searchable and updatable after being built.
+            for (int key = -1; key <= 2000; ++key) {
+                Assert.assertEquals(expected.get(key), list.get(key));
+                Assert.assertEquals(expected.floorKey(key), list.floorKey(key));
+            }
+
+            list.put(7, 7);
+            list.remove(1998);
+            list.put(3000, 3000);
+            Assert.assertEquals(Integer.valueOf(3000), list.lastKey());
+            Assert.assertEquals(Integer.valueOf(7), list.get(7));
+            Assert.assertEquals(1001, list.size());
+        }
+    }
+
+    @Test
+    public void testFromSortedRejectsUnsortedInput() {
+        List<Map.Entry<Integer, Integer>> entries = Arrays.asList(
+                new AbstractMap.SimpleEntry<>(1, 1), new AbstractMap.SimpleEntry<>(1, 2));
+        thrown.expect(IllegalArgumentException.class);
+        SkipList.fromSorted(entries.iterator());
+    }
+
+    @Test
+    public void testPutAllFromSortedMap() {
+        SortedMap<Integer, Integer> sorted = new TreeMap<>();
+        for (int i = 0; i < 100; ++i) {
+            sorted.put(i, i);
+        }
+
+        Map<Integer, Integer> list = new SkipList<>();
+        list.putAll(sorted);
+        Assert.assertEquals(sorted, list);
+
+        // A sorted map in a different order, or a non-empty list, falls back to individual insertions.
+        SortedMap<Integer, Integer> reversed = new TreeMap<>(Collections.reverseOrder());
+        reversed.putAll(sorted);
+        reversed.put(-1, -1);
+        list.putAll(reversed);
+        Assert.assertEquals(101, list.size());
+        Assert.assertEquals(Integer.valueOf(-1), ((SkipList<Integer, Integer>) list).firstKey());
+
+        Map<Integer, Integer> other = new SkipList<>();
+        other.putAll(reversed);
+        Assert.assertEquals(list, other);
+    }
+
+    @Test
+    public void testAppend() {
+        SkipList<Integer, Integer> list = new SkipList<>();
+        for (int i = 0; i < 100; ++i) {
+            list.append(i, i);
+        }
+
+        // Removing the last key must let the next append reuse the position.
+        list.remove(99);
+        list.append(99, -99);
+        list.pollLastEntry();
+        list.pollLastEntry();
+        list.append(98, -98);
+        Assert.assertEquals(Integer.valueOf(98), list.lastKey());
+        Assert.assertEquals(Integer.valueOf(97), list.lowerKey(98));
+        Assert.assertEquals(99, list.size());
+
+        thrown.expect(IllegalArgumentException.class);
+        list.append(98, 0);
+    }
+
+    @Test
+    public void testAscendingPutsMatchTreeMap() {
+        NavigableMap<Integer, Integer> list = new SkipList<>();
+        NavigableMap<Integer, Integer> expected = new TreeMap<>();
+        Random random = new Random(0);
+        for (int i = 0; i < 5000; ++i) {
+            // Mostly increasing keys, with occasional removals of the current last key and inserts behind it.
+            int key = random.nextInt(10) == 0 ? random.nextInt(i + 1) : i;
+            if (random.nextInt(10) == 0 && !expected.isEmpty()) {
+                Assert.assertEquals(expected.pollLastEntry(), list.pollLastEntry());
+            }
+
+            Assert.assertEquals(expected.put(key, i), list.put(key, i));
+        }
+
+        Assert.assertEquals(expected, list);
+        Assert.assertEquals(expected.lastEntry(), list.lastEntry());
+        Assert.assertEquals(new ArrayList<>(expected.descendingKeySet()), new ArrayList<>(list.descendingKeySet()));
+    }
+
+    @Test
+    public void testCursorNavigation() {
+        SkipList<Integer, Integer> list = new SkipList<>();
+        for (int i = 0; i < 10; ++i) {
+            list.put(i * 10, i);
+        }
+
+        Cursor<Integer, Integer> cursor = list.cursor();
+        Assert.assertEquals(Integer.valueOf(0), cursor.getKey());
+        Assert.assertFalse(cursor.prev());
+        Assert.assertTrue(cursor.seek(50));
+        Assert.assertEquals(Integer.valueOf(5), cursor.getValue());
+        Assert.assertFalse(cursor.seek(55));
+        Assert.assertEquals(Integer.valueOf(60), cursor.getKey());
+        Assert.assertTrue(cursor.prev());
+        Assert.assertEquals(Integer.valueOf(50), cursor.getKey());
+        Assert.assertTrue(cursor.next());
+        Assert.assertEquals(Integer.valueOf(60), cursor.getKey());
+        Assert.assertFalse(cursor.seek(95));
+        Assert.assertFalse(cursor.hasEntry());
+        Assert.assertFalse(cursor.next());
+        Assert.assertTrue(cursor.prev());
+        Assert.assertEquals(Integer.valueOf(90), cursor.getKey());
+        Assert.assertTrue(cursor.seek(10));
+        Assert.assertEquals(Integer.valueOf(1), cursor.setValue(-1));
+        Assert.assertEquals(Integer.valueOf(-1), list.get(10));
+        Assert.assertTrue(cursor.first());
+        Assert.assertEquals(Integer.valueOf(0), cursor.getKey());
+    }
+
+    @Test
+    public void testCursorInsertAndRemove() {
+        SkipList<Integer, Integer> list = new SkipList<>();
+        Cursor<Integer, Integer> cursor = list.cursor();
+        cursor.insertHere(10, 10);
+        Assert.assertFalse(cursor.seek(5));
+        cursor.insertHere(5, 5);
+        Assert.assertFalse(cursor.seek(20));
+        cursor.insertHere(20, 20);
+        Assert.assertEquals(Integer.valueOf(20), cursor.getKey());
+        Assert.assertEquals(Arrays.asList(5, 10, 20), new ArrayList<>(list.keySet()));
+        Assert.assertEquals(Integer.valueOf(20), list.lastKey());
+
+        Assert.assertEquals(Integer.valueOf(20), cursor.removeHere());
+        Assert.assertFalse(cursor.hasEntry());
+        Assert.assertEquals(Integer.valueOf(10), list.lastKey());
+        Assert.assertTrue(cursor.seek(5));
+        Assert.assertEquals(Integer.valueOf(5), cursor.removeHere());
+        Assert.assertEquals(Integer.valueOf(10), cursor.getKey());
+        Assert.assertEquals(1, list.size());
+
+        thrown.expect(IllegalArgumentException.class);
+        cursor.insertHere(15, 15);
+    }
+
+    @Test
+    public void testCursorMatchesTreeMap() {
+        SkipList<Integer, Integer> list = new SkipList<>(0.5);
+        NavigableMap<Integer, Integer> expected = new TreeMap<>();
+        Cursor<Integer, Integer> cursor = list.cursor();
+        Random random = new Random(0);
+        int key = 0;
+        for (int i = 0; i < 20000; ++i) {
+            // Wander near the previous key, occasionally jumping or modifying the list behind the cursor's back.
+            key = random.nextInt(50) == 0 ? random.nextInt(10000) : Math.max(0, key + random.nextInt(21) - 10);
+            int op = random.nextInt(10);
+            if (op == 0) {
+                Assert.assertEquals(expected.put(key, i), list.put(key, i));
+                continue;
+            }
+
+            boolean found = cursor.seek(key);
+            Assert.assertEquals(expected.containsKey(key), found);
+            Assert.assertEquals(expected.ceilingKey(key), cursor.hasEntry() ? cursor.getKey() : null);
+            if (op < 4 && !found) {
+                cursor.insertHere(key, i);
+                expected.put(key, i);
+            } else if (op < 6 && found) {
+                Assert.assertEquals(expected.remove(key), cursor.removeHere());
+                Assert.assertEquals(expected.ceilingKey(key), cursor.hasEntry() ? cursor.getKey() : null);
+            } else if (op < 8) {
+                Integer lower = expected.lowerKey(key);
+                Assert.assertEquals(lower != null, cursor.prev());
+                if (lower != null) {
+                    Assert.assertEquals(lower, cursor.getKey());
+                }
+            } else if (cursor.hasEntry()) {
+                int current = cursor.getKey();
+                Integer higher = expected.higherKey(current);
+                Assert.assertEquals(higher != null, cursor.next());
+                Assert.assertEquals(higher, cursor.hasEntry() ? cursor.getKey() : null);
+            }
+        }
+
+        Assert.assertEquals(expected, list);
+        Assert.assertEquals(expected.lastKey(), list.lastKey());
+        Assert.assertEquals(new ArrayList<>(expected.descendingKeySet()), new ArrayList<>(list.descendingKeySet()));
+    }
+
+    @Test
+    public void testIndexedMatchesTreeMap() {
+        SkipList<Integer, Integer> list = new SkipList<>(0.5, true);
+        NavigableMap<Integer, Integer> expected = new TreeMap<>();
+        Cursor<Integer, Integer> cursor = list.cursor();
+        Random random = new Random(0);
+        for (int i = 0; i < 5000; ++i) {
+            int key = random.nextInt(2000);
+            switch (random.nextInt(6)) {
+                case 0:
+                    Assert.assertEquals(expected.remove(key), list.remove(key));
+                    break;
+                case 1:
+                    if (!cursor.seek(key)) {
+                        cursor.insertHere(key, i);
+                        expected.put(key, i);
+                    } else {
+                        Assert.assertEquals(expected.remove(key), cursor.removeHere());
+                    }
+                    break;
+                case 2:
+                    int last = expected.isEmpty() ? 0 : expected.lastKey();
+                    list.append(last + 1, i);
+                    expected.put(last + 1, i);
+                    break;
+                default:
+                    Assert.assertEquals(expected.put(key, i), list.put(key, i));
+                    break;
+            }
+        }
+
+        List<Integer> keys = new ArrayList<>(expected.keySet());
+        for (int i = 0; i < keys.size(); ++i) {
+            Assert.assertEquals(keys.get(i), list.getByIndex(i).getKey());
+            Assert.assertEquals(i, list.indexOf(keys.get(i)));
+        }
+
+        for (int key = -1; key <= expected.lastKey() + 1; ++key) {
+            Assert.assertEquals(expected.headMap(key).size(), list.rank(key));
+            if (!expected.containsKey(key)) {
+                Assert.assertEquals(-1, list.indexOf(key));
+            }
+        }
+
+        Assert.assertEquals(expected.subMap(100, 900).size(), list.subMap(100, 900).size());
+        Assert.assertEquals(expected.descendingMap().headMap(500, true).size(), list.descendingMap().headMap(500, true).size());
+        Assert.assertEquals(keys.subList(10, 20), new ArrayList<>(list.subMapByIndex(10, 20).keySet()));
+        Assert.assertEquals(keys.subList(10, keys.size()), new ArrayList<>(list.subMapByIndex(10, keys.size()).keySet()));
+        Assert.assertTrue(list.subMapByIndex(10, 10).isEmpty());
+        Assert.assertTrue(list.subMapByIndex(keys.size(), keys.size()).isEmpty());
+    }
+
+    @Test
+    public void testIndexedBulkLoadAndPoll() {
+        SortedMap<Integer, Integer> sorted = new TreeMap<>();
+        for (int i = 0; i < 1000; ++i) {
+            sorted.put(i, i);
+        }
+
+        SkipList<Integer, Integer> list = new SkipList<>(0.25, true);
+        list.putAll(sorted);
+        Assert.assertEquals(Integer.valueOf(500), list.getByIndex(500).getKey());
+        list.pollFirstEntry();
+        list.pollLastEntry();
+        Iterator<Integer> it = list.keySet().iterator();
+        it.next();
+        it.remove();
+        Assert.assertEquals(997, list.size());
+        Assert.assertEquals(Integer.valueOf(2), list.getByIndex(0).getKey());
+        Assert.assertEquals(Integer.valueOf(998), list.getByIndex(996).getKey());
+        Assert.assertEquals(498, list.indexOf(500));
+    }
+
+    @Test
+    public void testGetByIndexOutOfRange() {
+        SkipList<Integer, Integer> list = new SkipList<>(0.2, true);
+        list.put(1, 1);
+        thrown.expect(IndexOutOfBoundsException.class);
+        list.getByIndex(1);
+    }
+
+    @Test
+    public void testRebuildTowersPreservesMappings() {
+        SkipList<Integer, Integer> list = new SkipList<>(LevelGenerator.seeded(0.5, 16, 3), true);
+        NavigableMap<Integer, Integer> expected = new TreeMap<>();
+        for (int i = 0; i < 1000; ++i) {
+            list.put(i * 31 % 1000, i);
+            expected.put(i * 31 % 1000, i);
+        }
+
+        int rebuilt = 0;
+        for (int i = 0; i < 5; ++i) {
+            rebuilt += list.rebuildTowers(300);
+        }
+
+        Assert.assertTrue(rebuilt > 0);
+        Assert.assertEquals(expected, list);
+        for (int i = 0; i < 1000; ++i) {
+            Assert.assertEquals(i, list.rank(i));
+            Assert.assertEquals(Integer.valueOf(i), list.getByIndex(i).getKey());
+        }
+
+        list.clear();
+        Assert.assertEquals(0, list.rebuildTowers(10));
+    }
+
+    @Test
+    public void testComparatorMatchesTreeMap() {
+        Comparator<byte[]> order = Arrays::compareUnsigned;
+        SkipList<byte[], Integer> list = new SkipList<>(order, LevelGenerator.seeded(0.25, 16, 5), true);
+        NavigableMap<byte[], Integer> expected = new TreeMap<>(order);
+        Random random = new Random(0);
+        for (int i = 0; i < 5000; ++i) {
+            byte[] key = new byte[1 + random.nextInt(3)];
+            random.nextBytes(key);
+            if (random.nextInt(4) == 0) {
+                Assert.assertEquals(expected.remove(key), list.remove(key));
+            } else {
+                Assert.assertEquals(expected.put(key, i), list.put(key, i));
+            }
+        }
+
+        Assert.assertSame(order, list.comparator());
+        Assert.assertEquals(expected.size(), list.size());
+        Iterator<Map.Entry<byte[], Integer>> it = list.entrySet().iterator();
+        int index = 0;
+        for (Map.Entry<byte[], Integer> e : expected.entrySet()) {
+            Map.Entry<byte[], Integer> actual = it.next();
+            Assert.assertArrayEquals(e.getKey(), actual.getKey());
+            Assert.assertEquals(e.getValue(), actual.getValue());
+            Assert.assertEquals(e.getValue(), list.get(e.getKey().clone()));
+            Assert.assertEquals(index++, list.indexOf(e.getKey().clone()));
+        }
+
+        byte[] probe = {(byte) 0x80};
+        Assert.assertArrayEquals(expected.ceilingKey(probe), list.ceilingKey(probe));
+        Assert.assertArrayEquals(expected.lowerKey(probe), list.lowerKey(probe));
+        Assert.assertEquals(expected.headMap(probe).size(), list.headMap(probe).size());
+    }
+
+    @Test
+    public void testReverseComparator() {
+        SkipList<Integer, Integer> list = new SkipList<>(Comparator.reverseOrder());
+        for (int i = 0; i < 100; ++i) {
+            list.put(i, i);
+        }
+
+        Assert.assertEquals(Integer.valueOf(99), list.firstKey());
+        Assert.assertEquals(Integer.valueOf(0), list.lastKey());
+        Assert.assertEquals(Integer.valueOf(49), list.higherKey(50));
+        Assert.assertEquals(Integer.valueOf(99), list.descendingMap().lastKey());
+        Assert.assertTrue(list.descendingMap().comparator().compare(1, 2) < 0);
+
+        // A sorted map in the same order is appended in a single pass.
+        SkipList<Integer, Integer> copy = new SkipList<>(list.comparator());
+        TreeMap<Integer, Integer> sorted = new TreeMap<>(list.comparator());
+        sorted.putAll(list);
+        copy.putAll(sorted);
+        Assert.assertEquals(list, copy);
+        Assert.assertEquals(Integer.valueOf(99), copy.firstKey());
+    }
+
+    @Test
+    public void testEachNodeIsComparedOncePerOperation() {
+        List<Integer> compared = new ArrayList<>();
+        Comparator<Integer> counting = (a, b) -> {
+            compared.add(a);
+            return Integer.compare(a, b);
+        };
+
+        SkipList<Integer, Integer> list = new SkipList<>(counting, LevelGenerator.seeded(0.5, 16, 9), false);
+        for (int i = 0; i < 1000; ++i) {
+            list.put(i * 7 % 1000, i);
+        }
+
+        for (int i = -1; i <= 1000; ++i) {
+            int key = i;
+            for (Runnable operation : new Runnable[]{() -> list.get(key), () -> list.put(key, key), () -> list.remove(key)}) {
+                compared.clear();
+                operation.run();
+                Assert.assertEquals(compared.size(), new HashSet<>(compared).size());
+            }
+        }
+    }
+
+    @Test
+    public void testIndexOperationsRequireIndexedList() {
+        thrown.expect(UnsupportedOperationException.class);
+        new SkipList<Integer, Integer>().rank(1);
+    }
+
+    @Test
+    public void testSetOperationsMatchTreeMap() {
+        Random random = new Random(0);
+        SkipList<Integer, Integer> a = new SkipList<>();
+        SkipList<Integer, Integer> b = new SkipList<>();
+        TreeMap<Integer, Integer> expectedA = new TreeMap<>();
+        TreeMap<Integer, Integer> expectedB = new TreeMap<>();
+        for (int i = 0; i < 2000; ++i) {
+            int key = random.nextInt(3000);
+            a.put(key, i);
+            expectedA.put(key, i);
+            key = random.nextInt(3000);
+            b.put(key, -i);
+            expectedB.put(key, -i);
+        }
+
+        TreeMap<Integer, Integer> union = new TreeMap<>(expectedA);
+        union.putAll(expectedB);
+        Assert.assertEquals(new ArrayList<>(union.entrySet()), new ArrayList<>(a.union(b).entrySet()));
+
+        TreeMap<Integer, Integer> intersection = new TreeMap<>(expectedA);
+        intersection.keySet().retainAll(expectedB.keySet());
+        Assert.assertEquals(new ArrayList<>(intersection.entrySet()), new ArrayList<>(a.intersect(b).entrySet()));
+
+        TreeMap<Integer, Integer> difference = new TreeMap<>(expectedA);
+        difference.keySet().removeAll(expectedB.keySet());
+        Assert.assertEquals(new ArrayList<>(difference.entrySet()), new ArrayList<>(a.difference(b).entrySet()));
+
+        TreeMap<Integer, Integer> merged = new TreeMap<>(expectedA);
+        expectedB.forEach((k, v) -> merged.merge(k, v, Integer::sum));
+        Assert.assertEquals(new ArrayList<>(merged.entrySet()), new ArrayList<>(a.merge(b, Integer::sum).entrySet()));
+
+        // The operands are unchanged.
+        Assert.assertEquals(expectedA, a);
+        Assert.assertEquals(expectedB, b);
+    }
+
+    @Test
+    public void testSetOperationsRequireSameOrder() {
+        thrown.expect(IllegalArgumentException.class);
+        new SkipList<Integer, Integer>().union(new SkipList<>(Comparator.reverseOrder()));
+    }
+
+    @Test
+    public void testSpliceMatchesTreeMap() {
+        for (boolean indexed : new boolean[]{false, true}) {
+            // Ranges after, before and overlapping the keys of the list.
+            for (int[] range : new int[][]{{1000, 2000}, {-1000, 0}, {500, 1500}}) {
+                SkipList<Integer, Integer> list = new SkipList<>(0.5, indexed);
+                SkipList<Integer, Integer> other = new SkipList<>(0.5, indexed);
+                TreeMap<Integer, Integer> expected = new TreeMap<>();
+                for (int i = 0; i < 1000; i += 2) {
+                    list.put(i, i);
+                    expected.put(i, i);
+                }
+
+                for (int i = range[0]; i < range[1]; i += 3) {
+                    other.put(i, -i);
+                    expected.put(i, -i);
+                }
+
+                list.splice(other);
+                Assert.assertTrue(other.isEmpty());
+                Assert.assertEquals(expected, list);
+                Assert.assertEquals(new ArrayList<>(expected.entrySet()), new ArrayList<>(list.entrySet()));
+                for (int key = range[0] - 1; key <= range[1]; key += 7) {
+                    Assert.assertEquals(expected.get(key), list.get(key));
+                    Assert.assertEquals(expected.floorEntry(key), list.floorEntry(key));
+                    if (indexed) {
+                        Assert.assertEquals(expected.headMap(key).size(), list.rank(key));
+                    }
+                }
+
+                // Both lists remain usable.
+                list.put(5000, 5000);
+                list.remove(0);
+                other.put(1, 1);
+                expected.put(5000, 5000);
+                expected.remove(0);
+                Assert.assertEquals(expected, list);
+                Assert.assertEquals(Collections.singletonMap(1, 1), other);
+                if (indexed) {
+                    for (int i = 0; i < list.size(); i += 11) {
+                        Assert.assertEquals(expected.keySet().toArray()[i], list.getByIndex(i).getKey());
+                    }
+                }
+            }
+        }
+    }
+
+    @Test
+    public void testEqualsAndHashCode() {
+        SkipList<Integer, String> list = new SkipList<>();
+        SkipList<Integer, String> other = new SkipList<>();
+        Map<Integer, String> hashMap = new HashMap<>();
+        for (int i = 0; i < 100; ++i) {
+            list.put(i, Integer.toString(i));
+            other.put(99 - i, Integer.toString(99 - i));
+            hashMap.put(i, Integer.toString(i));
+        }
+
+        Assert.assertEquals(list, other);
+        Assert.assertEquals(list, hashMap);
+        Assert.assertEquals(hashMap, list);
+        Assert.assertEquals(hashMap.hashCode(), list.hashCode());
+        Assert.assertEquals(list.hashCode(), other.hashCode());
+
+        other.put(50, "fifty");
+        Assert.assertNotEquals(list, other);
+        other.put(50, "50");
+        other.put(100, null);
+        Assert.assertNotEquals(list, other);
+        list.put(101, null);
+        Assert.assertNotEquals(list, other);
+        Assert.assertNotEquals(list, new SkipList<String, String>());
+    }
+
+    @Test
+    public void testEqualsWithComparator() {
+        Comparator<byte[]> comparator = Arrays::compareUnsigned;
+        SkipList<byte[], Integer> list = new SkipList<>(comparator);
+        SkipList<byte[], Integer> other = new SkipList<>(comparator);
+        TreeMap<byte[], Integer> treeMap = new TreeMap<>(comparator);
+        for (int i = 0; i < 100; ++i) {
+            list.put(new byte[]{(byte) i, 1}, i);
+            other.put(new byte[]{(byte) i, 1}, i);
+            treeMap.put(new byte[]{(byte) i, 1}, i);
+        }
+
+        // Equal arrays are distinct objects, which only the comparator considers equal.
+        Assert.assertEquals(list, other);
+        Assert.assertEquals(list, treeMap);
+        Assert.assertEquals(treeMap, list);
+
+        other.put(new byte[]{50, 1}, -1);
+        Assert.assertNotEquals(list, other);
+    }
+
+    // Splits a spliterator recursively, collecting the elements of the pieces in encounter order.
+    private static <T> void splitAndCollect(Spliterator<T> spliterator, int depth, List<T> elements) {
+        Spliterator<T> prefix = depth > 0 ? spliterator.trySplit() : null;
+        if (prefix == null) {
+            spliterator.forEachRemaining(elements::add);
+            return;
+        }
+
+        splitAndCollect(prefix, depth - 1, elements);
+        splitAndCollect(spliterator, depth - 1, elements);
+    }
+
+    @Test
+    public void testSpliteratorsSplitInOrder() {
+        for (int size : new int[]{0, 1, 2, 10, 1000, 100000}) {
+            SkipList<Integer, Integer> list = new SkipList<>(Comparator.reverseOrder());
+            List<Integer> keys = new ArrayList<>();
+            for (int i = 0; i < size; ++i) {
+                list.put(i, i % 7);
+                keys.add(size - 1 - i);
+            }
+
+            for (int depth : new int[]{0, 1, 4, 20}) {
+                List<Integer> split = new ArrayList<>();
+                splitAndCollect(list.keySet().spliterator(), depth, split);
+                Assert.assertEquals(keys, split);
+            }
+
+            Spliterator<Integer> spliterator = list.keySet().spliterator();
+            Assert.assertEquals(size, spliterator.getExactSizeIfKnown());
+            Assert.assertTrue(spliterator.hasCharacteristics(Spliterator.ORDERED | Spliterator.SORTED
+                    | Spliterator.DISTINCT | Spliterator.NONNULL));
+            Assert.assertEquals(list.comparator(), spliterator.getComparator());
+            Assert.assertEquals(new ArrayList<>(list.entrySet()), list.entrySet().parallelStream().collect(Collectors.toList()));
+            Assert.assertEquals(new ArrayList<>(list.values()), list.values().parallelStream().collect(Collectors.toList()));
+            Assert.assertEquals(keys, list.navigableKeySet().parallelStream().collect(Collectors.toList()));
+            Assert.assertEquals(keys.stream().mapToLong(Integer::longValue).sum(),
+                    list.entrySet().parallelStream().mapToLong(Map.Entry::getKey).sum());
+        }
+    }
+
+    @Test
+    public void testViewSpliteratorsAreOrdered() {
+        SkipList<Integer, Integer> list = new SkipList<>();
+        for (int i = 0; i < 100; ++i) {
+            list.put(i, i % 7);
+        }
+
+        for (NavigableMap<Integer, Integer> view : Arrays.asList(list.subMap(10, true, 20, false), list.headMap(5, true),
+                list.tailMap(95, false), list.subMap(40, true, 40, false), list.descendingMap(),
+                list.subMap(10, true, 20, false).descendingMap())) {
+            Spliterator<Integer> keys = view.navigableKeySet().spliterator();
+            Assert.assertTrue(keys.hasCharacteristics(Spliterator.ORDERED | Spliterator.SORTED | Spliterator.DISTINCT));
+            Assert.assertEquals(view.comparator(), keys.getComparator());
+            Assert.assertTrue(view.entrySet().spliterator().hasCharacteristics(Spliterator.ORDERED));
+            Assert.assertTrue(view.values().spliterator().hasCharacteristics(Spliterator.ORDERED));
+            Assert.assertEquals(new ArrayList<>(view.keySet()), view.keySet().parallelStream().collect(Collectors.toList()));
+            Assert.assertEquals(new ArrayList<>(view.entrySet()),
+                    view.entrySet().parallelStream().collect(Collectors.toList()));
+            Assert.assertEquals(new ArrayList<>(view.values()), view.values().parallelStream().collect(Collectors.toList()));
+            Assert.assertEquals(new ArrayList<>(view.descendingKeySet()),
+                    view.descendingKeySet().stream().collect(Collectors.toList()));
+        }
+    }
+
+    @Test
+    public void testSpliteratorSplitsEvenly() {
+        SkipList<Integer, Integer> list = new SkipList<>(LevelGenerator.seeded(0.25, 16, 0));
+        for (int i = 0; i < 100000; ++i) {
+            list.append(i, i);
+        }
+
+        Spliterator<Map.Entry<Integer, Integer>> suffix = list.entrySet().spliterator();
+        Spliterator<Map.Entry<Integer, Integer>> prefix = suffix.trySplit();
+        Assert.assertNotNull(prefix);
+        long prefixSize = prefix.estimateSize();
+        Assert.assertEquals(100000, prefixSize + suffix.estimateSize());
+        Assert.assertFalse(prefix.hasCharacteristics(Spliterator.SIZED));
+
+        long[] count = new long[1];
+        prefix.forEachRemaining(e -> count[0]++);
+        Assert.assertTrue(count[0] > 10000 && count[0] < 90000);
+    }
+
+    @Test
+    public void testSpliteratorFailsFast() {
+        SkipList<Integer, Integer> list = new SkipList<>();
+        for (int i = 0; i < 10; ++i) {
+            list.put(i, i);
+        }
+
+        Spliterator<Integer> spliterator = list.keySet().spliterator();
+        Assert.assertTrue(spliterator.tryAdvance(key -> Assert.assertEquals(Integer.valueOf(0), key)));
+        // A partly traversed spliterator is not split.
+        Assert.assertNull(spliterator.trySplit());
+        Assert.assertEquals(9, spliterator.getExactSizeIfKnown());
+        list.put(10, 10);
+        thrown.expect(ConcurrentModificationException.class);
+        spliterator.forEachRemaining(key -> {
+        });
+    }
+
+    @Test
+    public void testSpliteratorFailsFastWhenFenceIsRemoved() {
+        SkipList<Integer, Integer> list = new SkipList<>(LevelGenerator.seeded(0.25, 16, 0));
+        for (int i = 0; i < 1000; ++i) {
+            list.append(i, i);
+        }
+
+        Spliterator<Integer> suffix = list.keySet().spliterator();
+        Spliterator<Integer> prefix = suffix.trySplit();
+        Assert.assertNotNull(prefix);
+        int[] fence = new int[1];
+        Assert.assertTrue(suffix.tryAdvance(key -> fence[0] = key));
+        // Removing the first key of the suffix unlinks the node that ends the prefix, so its walk runs to the end.
+        list.remove(fence[0]);
+        thrown.expect(ConcurrentModificationException.class);
+        prefix.forEachRemaining(key -> {
+        });
+    }
+
+    @Test
+    public void testStats() {
+        SkipList<Integer, Integer> list = new SkipList<>(LevelGenerator.seeded(0.25, 16, 0));
+        for (int i = 0; i < 10000; ++i) {
+            list.put(i * 7 % 10000, i);
+        }
+
+        SkipListStats stats = list.getStats();
+        Assert.assertEquals(0, stats.getOperationCount());
+        Assert.assertTrue(Double.isNaN(stats.getMeanHops()));
+        Assert.assertEquals(10000, stats.getSize());
+        Assert.assertEquals(10000, Arrays.stream(stats.getTowerHistogram()).sum());
+        Assert.assertEquals(stats.getHeadHeight(), stats.getTowerHistogram().length);
+        Assert.assertTrue(stats.getTowerHistogram()[0] > stats.getTowerHistogram()[1]);
+        Assert.assertTrue(stats.getHeadHeightRatio() > 0.5 && stats.getHeadHeightRatio() < 2);
+        // Every node is at least an object of 32 bytes, and a quarter of them carry an array of links.
+        Assert.assertTrue(stats.getBytesPerEntry() > 32 && stats.getBytesPerEntry() < 64);
+
+        list.setStatsEnabled(true);
+        for (int i = 0; i < 1000; ++i) {
+            list.get(i);
+            list.remove(i);
+            list.put(i, i);
+        }
+
+        stats = list.getStats();
+        Assert.assertTrue(list.isStatsEnabled());
+        Assert.assertEquals(3000, stats.getOperationCount());
+        Assert.assertTrue(stats.getMeanComparisons() > stats.getHeadHeight());
+        Assert.assertTrue(stats.getMeanHops() > 0 && stats.getMeanHops() < stats.getMeanComparisons());
+        Assert.assertTrue(stats.getMaxHops() >= stats.getMeanHops());
+        Assert.assertEquals(Integer.valueOf(5), list.get(5));
+
+        list.setStatsEnabled(false);
+        list.get(1);
+        Assert.assertEquals(0, list.getStats().getOperationCount());
+    }
+
+    @Test
+    public void testStatsMXBean() throws Exception {
+        SkipList<Integer, Integer> list = new SkipList<>();
+        list.put(1, 1);
+        MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+        ObjectName name = new ObjectName("ca.crimsonglow.skiplist:type=SkipList,name=test");
+        server.registerMBean(list.getStatsMXBean(), name);
+        try {
+            server.setAttribute(name, new Attribute("StatsEnabled", true));
+            list.get(1);
+            CompositeData stats = (CompositeData) server.getAttribute(name, "Stats");
+            Assert.assertEquals(1L, stats.get("operationCount"));
+            Assert.assertEquals(1, stats.get("size"));
+        } finally {
+            server.unregisterMBean(name);
+        }
+    }
+
+    @Test
+    public void testSlowOperationsAreRecorded() throws Exception {
+        SkipList<Integer, Integer> list = new SkipList<>();
+        list.setStatsEnabled(true);
+        Path file = Files.createTempFile("skip-list", ".jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable("ca.crimsonglow.skiplist.Operation").withThreshold(Duration.ZERO);
+            recording.start();
+            list.put(1, 1);
+            list.get(1);
+            recording.stop();
+            recording.dump(file);
+            List<String> operations = new ArrayList<>();
+            for (RecordedEvent event : RecordingFile.readAllEvents(file)) {
+                operations.add(event.getString("operation"));
+            }
+
+            Assert.assertEquals(List.of("put", "get"), operations);
+        } finally {
+            Files.delete(file);
+        }
+    }
 }
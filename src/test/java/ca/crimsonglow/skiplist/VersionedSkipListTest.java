@@ -0,0 +1,231 @@
+package ca.crimsonglow.skiplist;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+public class VersionedSkipListTest {
+    @Rule
+    public ExpectedException thrown = ExpectedException.none();
+
+    // Checks that a snapshot matches a copy of the list taken at the same time, through every kind of read.
+    private static void assertSnapshotEquals(NavigableMap<Integer, Integer> expected, NavigableMap<Integer, Integer> snapshot) {
+        Assert.assertEquals(expected.size(), snapshot.size());
+        Assert.assertEquals(new ArrayList<>(expected.entrySet()), new ArrayList<>(snapshot.entrySet()));
+        Assert.assertEquals(new ArrayList<>(expected.descendingMap().entrySet()), new ArrayList<>(snapshot.descendingMap().entrySet()));
+        for (int key = -1; key <= 101; key += 3) {
+            Assert.assertEquals(expected.get(key), snapshot.get(key));
+            Assert.assertEquals(expected.ceilingEntry(key), snapshot.ceilingEntry(key));
+            Assert.assertEquals(expected.higherEntry(key), snapshot.higherEntry(key));
+            Assert.assertEquals(expected.floorEntry(key), snapshot.floorEntry(key));
+            Assert.assertEquals(expected.lowerEntry(key), snapshot.lowerEntry(key));
+        }
+
+        Assert.assertEquals(expected.firstEntry(), snapshot.firstEntry());
+        Assert.assertEquals(expected.lastEntry(), snapshot.lastEntry());
+        Assert.assertEquals(expected.subMap(20, true, 60, false), snapshot.subMap(20, true, 60, false));
+        Assert.assertEquals(new ArrayList<>(expected.headMap(50, true).descendingKeySet()),
+                new ArrayList<>(snapshot.headMap(50, true).descendingKeySet()));
+        Assert.assertEquals(expected.tailMap(70, false).size(), snapshot.tailMap(70, false).size());
+        Assert.assertEquals(expected, snapshot);
+    }
+
+    @Test
+    public void testSnapshotIsUnaffectedByModifications() {
+        VersionedSkipList<Integer, Integer> list = new VersionedSkipList<>();
+        for (int i = 0; i < 100; i += 2) {
+            list.put(i, i);
+        }
+
+        NavigableMap<Integer, Integer> expected = new TreeMap<>(list);
+        NavigableMap<Integer, Integer> snapshot = list.snapshot();
+        for (int i = 0; i < 100; ++i) {
+            if (i % 3 == 0) {
+                list.remove(i);
+            } else {
+                list.put(i, -i);
+            }
+        }
+
+        list.put(0, 0);
+        list.remove(0);
+        assertSnapshotEquals(expected, snapshot);
+        Assert.assertNotEquals(expected, list);
+    }
+
+    @Test
+    public void testSnapshotsMatchCopiesUnderRandomModifications() {
+        VersionedSkipList<Integer, Integer> list = new VersionedSkipList<>(null, LevelGenerator.seeded(0.5, 16, 11));
+        List<NavigableMap<Integer, Integer>> snapshots = new ArrayList<>();
+        List<NavigableMap<Integer, Integer>> copies = new ArrayList<>();
+        NavigableMap<Integer, Integer> expected = new TreeMap<>();
+        Random random = new Random(0);
+        for (int i = 0; i < 20000; ++i) {
+            int key = random.nextInt(100);
+            switch (random.nextInt(4)) {
+                case 0:
+                    Assert.assertEquals(expected.remove(key), list.remove(key));
+                    break;
+                case 1:
+                    list.rebuildTowers(5);
+                    break;
+                default:
+                    Assert.assertEquals(expected.put(key, i), list.put(key, i));
+            }
+
+            if (i % 1000 == 0) {
+                snapshots.add(list.snapshot());
+                copies.add(new TreeMap<>(expected));
+            }
+        }
+
+        Assert.assertEquals(expected, list);
+        for (int i = 0; i < snapshots.size(); ++i) {
+            assertSnapshotEquals(copies.get(i), snapshots.get(i));
+        }
+    }
+
+    @Test
+    public void testSnapshotSurvivesClear() {
+        VersionedSkipList<Integer, Integer> list = new VersionedSkipList<>(Comparator.reverseOrder());
+        for (int i = 0; i < 10; ++i) {
+            list.put(i, i);
+        }
+
+        NavigableMap<Integer, Integer> snapshot = list.snapshot();
+        list.clear();
+        list.put(3, 30);
+        Assert.assertEquals(10, snapshot.size());
+        Assert.assertEquals(Integer.valueOf(9), snapshot.firstKey());
+        Assert.assertEquals(Integer.valueOf(3), snapshot.get(3));
+        Assert.assertEquals(Integer.valueOf(30), list.get(3));
+    }
+
+    @Test
+    public void testCollectedSnapshotsReleaseVersions() throws InterruptedException {
+        VersionedSkipList<Integer, Integer> list = new VersionedSkipList<>();
+        for (int i = 0; i < 100; ++i) {
+            list.put(i, i);
+        }
+
+        NavigableMap<Integer, Integer> snapshot = list.snapshot();
+        for (int i = 0; i < 50; ++i) {
+            list.put(i, -i);
+            list.remove(i + 50);
+        }
+
+        Assert.assertEquals(50, list.getNodesWithHistoryCount());
+        Assert.assertEquals(50, list.getGraveyard().size());
+        Assert.assertEquals(Integer.valueOf(75), snapshot.get(75));
+
+        // Collection is not guaranteed, so allow a few attempts.
+        snapshot = null;
+        for (int attempt = 0; attempt < 20 && !list.getGraveyard().isEmpty(); ++attempt) {
+            System.gc();
+            Thread.sleep(10);
+            list.put(1, 1);
+        }
+
+        Assert.assertEquals(0, list.getNodesWithHistoryCount());
+        Assert.assertTrue(list.getGraveyard().isEmpty());
+    }
+
+    @Test
+    public void testCollectedSnapshotReleasesOnlyItsVersions() throws InterruptedException {
+        VersionedSkipList<Integer, Integer> list = new VersionedSkipList<>();
+        for (int i = 0; i < 10; ++i) {
+            list.put(i, i);
+        }
+
+        NavigableMap<Integer, Integer> older = list.snapshot();
+        for (int i = 0; i < 10; ++i) {
+            list.put(i, 10 + i);
+        }
+
+        for (int i = 0; i < 5; ++i) {
+            list.remove(i);
+        }
+
+        NavigableMap<Integer, Integer> newer = list.snapshot();
+        for (int i = 5; i < 8; ++i) {
+            list.remove(i);
+        }
+
+        list.put(8, 28);
+        list.put(9, 29);
+        Assert.assertEquals(8, list.getGraveyard().size());
+        Assert.assertEquals(Integer.valueOf(0), older.get(0));
+
+        // Only the keys removed after the newer snapshot was taken remain in the graveyard once the older one is
+        // collected.
+        older = null;
+        for (int attempt = 0; attempt < 20 && list.getGraveyard().size() > 3; ++attempt) {
+            System.gc();
+            Thread.sleep(10);
+            list.put(8, 28);
+        }
+
+        Assert.assertEquals(3, list.getGraveyard().size());
+        Assert.assertEquals(2, list.getNodesWithHistoryCount());
+        Map<Integer, Integer> expected = new TreeMap<>();
+        for (int i = 5; i < 10; ++i) {
+            expected.put(i, 10 + i);
+        }
+
+        Assert.assertEquals(expected, newer);
+        Assert.assertEquals(Map.of(8, 28, 9, 29), list);
+    }
+
+    @Test
+    public void testSnapshotReadConcurrentlyWithWriter() throws Exception {
+        VersionedSkipList<Integer, Integer> list = new VersionedSkipList<>();
+        for (int i = 0; i < 10000; ++i) {
+            list.put(i, i);
+        }
+
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Random random = new Random(0);
+            for (int round = 0; round < 10; ++round) {
+                NavigableMap<Integer, Integer> expected = new TreeMap<>(list);
+                NavigableMap<Integer, Integer> snapshot = list.snapshot();
+                Future<Boolean> matches = executor.submit(() -> {
+                    for (int pass = 0; pass < 5; ++pass) {
+                        if (!expected.equals(snapshot) || !new ArrayList<>(expected.keySet()).equals(new ArrayList<>(snapshot.keySet()))) {
+                            return false;
+                        }
+                    }
+
+                    return true;
+                });
+
+                while (!matches.isDone()) {
+                    int key = random.nextInt(20000);
+                    if (random.nextBoolean()) {
+                        list.remove(key);
+                    } else {
+                        list.put(key, -key);
+                    }
+                }
+
+                Assert.assertTrue(matches.get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testSnapshotIsReadOnly() {
+        VersionedSkipList<Integer, Integer> list = new VersionedSkipList<>();
+        list.put(1, 1);
+        thrown.expect(UnsupportedOperationException.class);
+        list.snapshot().put(2, 2);
+    }
+}
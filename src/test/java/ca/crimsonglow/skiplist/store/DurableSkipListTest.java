@@ -0,0 +1,163 @@
+package ca.crimsonglow.skiplist.store;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+public class DurableSkipListTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+    @Rule
+    public ExpectedException thrown = ExpectedException.none();
+
+    private static NavigableMap<Integer, String> contents(DurableSkipList<Integer, String> list) {
+        NavigableMap<Integer, String> contents = new TreeMap<>();
+        list.forEach(contents::put);
+        return contents;
+    }
+
+    private Path newLog() throws IOException {
+        return folder.newFolder().toPath().resolve("log");
+    }
+
+    private static DurableSkipList<Integer, String> open(Path path, SyncMode syncMode) throws IOException {
+        return new DurableSkipList<>(path, Codec.integers(), Codec.strings(), syncMode);
+    }
+
+    @Test
+    public void testRecoveryMatchesTreeMapInEachSyncMode() throws IOException {
+        for (SyncMode syncMode : SyncMode.values()) {
+            Path path = newLog();
+            NavigableMap<Integer, String> expected = new TreeMap<>();
+            Random random = new Random(0);
+            try (DurableSkipList<Integer, String> list = open(path, syncMode)) {
+                for (int i = 0; i < 5000; ++i) {
+                    int key = random.nextInt(500);
+                    if (random.nextInt(3) == 0) {
+                        Assert.assertEquals(expected.remove(key), list.remove(key));
+                    } else {
+                        Assert.assertEquals(expected.put(key, "v" + i), list.put(key, "v" + i));
+                    }
+                }
+            }
+
+            try (DurableSkipList<Integer, String> list = open(path, syncMode)) {
+                Assert.assertEquals(expected, contents(list));
+                Assert.assertEquals(expected.size(), list.size());
+            }
+        }
+    }
+
+    @Test
+    public void testIncompleteRecordIsDiscarded() throws IOException {
+        Path path = newLog();
+        try (DurableSkipList<Integer, String> list = open(path, SyncMode.ALWAYS)) {
+            list.put(1, "one");
+            list.put(2, "two");
+        }
+
+        long length = Files.size(path);
+        Files.write(path, new byte[]{0, 0, 0, 20, 1, 2, 3}, StandardOpenOption.APPEND);
+        try (DurableSkipList<Integer, String> list = open(path, SyncMode.ALWAYS)) {
+            Assert.assertEquals(length, Files.size(path));
+            Assert.assertEquals(2, list.size());
+            list.put(3, "three");
+        }
+
+        // A record whose checksum does not match is also discarded, along with every record after it.
+        byte[] bytes = Files.readAllBytes(path);
+        bytes[(int) length + 8] ^= 1;
+        Files.write(path, bytes);
+        try (DurableSkipList<Integer, String> list = open(path, SyncMode.ALWAYS)) {
+            Assert.assertEquals(Map.of(1, "one", 2, "two"), contents(list));
+        }
+    }
+
+    @Test
+    public void testCheckpointRewritesLog() throws IOException {
+        Path path = newLog();
+        NavigableMap<Integer, String> expected = new TreeMap<>();
+        try (DurableSkipList<Integer, String> list = open(path, SyncMode.NONE)) {
+            for (int i = 0; i < 10000; ++i) {
+                list.put(i % 100, "v" + i);
+                expected.put(i % 100, "v" + i);
+            }
+
+            long length = Files.size(path);
+            list.checkpoint();
+            Assert.assertTrue(Files.size(path) < length / 50);
+            list.remove(7);
+            expected.remove(7);
+        }
+
+        try (DurableSkipList<Integer, String> list = open(path, SyncMode.NONE)) {
+            Assert.assertEquals(expected, contents(list));
+        }
+    }
+
+    @Test
+    public void testComparator() throws IOException {
+        Path path = newLog();
+        try (DurableSkipList<String, Long> list = new DurableSkipList<>(path, String.CASE_INSENSITIVE_ORDER,
+                Codec.strings(), Codec.longs(), SyncMode.PERIODIC, 1)) {
+            list.put("b", 1L);
+            list.put("A", 2L);
+            list.put("a", 3L);
+        }
+
+        try (DurableSkipList<String, Long> list = new DurableSkipList<>(path, String.CASE_INSENSITIVE_ORDER,
+                Codec.strings(), Codec.longs(), SyncMode.PERIODIC, 1)) {
+            Assert.assertEquals(2, list.size());
+            Assert.assertEquals(Long.valueOf(3), list.get("A"));
+        }
+    }
+
+    @Test
+    public void testConcurrentWritersShareForces() throws Exception {
+        Path path = newLog();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try (DurableSkipList<Integer, String> list = open(path, SyncMode.ALWAYS)) {
+            List<Future<?>> writers = new ArrayList<>();
+            for (int t = 0; t < 8; ++t) {
+                int thread = t;
+                writers.add(executor.submit(() -> {
+                    for (int i = 0; i < 200; ++i) {
+                        list.put(thread * 1000 + i, "t" + thread);
+                    }
+
+                    return null;
+                }));
+            }
+
+            for (Future<?> writer : writers) {
+                writer.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+
+        try (DurableSkipList<Integer, String> list = open(path, SyncMode.ALWAYS)) {
+            Assert.assertEquals(1600, list.size());
+            Assert.assertEquals("t7", list.get(7199));
+        }
+    }
+
+    @Test
+    public void testClosedListRejectsWrites() throws IOException {
+        DurableSkipList<Integer, String> list = open(newLog(), SyncMode.ALWAYS);
+        list.close();
+        thrown.expect(IllegalStateException.class);
+        list.put(1, "one");
+    }
+}
@@ -0,0 +1,244 @@
+package ca.crimsonglow.skiplist.store;
+
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.stream.Stream;
+
+public class LsmStoreTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+    @Rule
+    public ExpectedException thrown = ExpectedException.none();
+
+    private static byte[] key(int i) {
+        return ByteBuffer.allocate(4).putInt(i ^ Integer.MIN_VALUE).array();
+    }
+
+    private static byte[] value(int i) {
+        byte[] value = new byte[i % 50];
+        Arrays.fill(value, (byte) i);
+        return value;
+    }
+
+    private static void assertStoreEquals(NavigableMap<Integer, Integer> expected, LsmStore store, int keyRange) throws IOException {
+        for (int i = 0; i < keyRange; ++i) {
+            Integer v = expected.get(i);
+            Assert.assertArrayEquals(v == null ? null : value(v), store.get(key(i)));
+        }
+
+        List<Integer> keys = new ArrayList<>();
+        store.forEach(null, null, (k, v) -> {
+            int i = ByteBuffer.wrap(k).getInt() ^ Integer.MIN_VALUE;
+            Assert.assertArrayEquals(value(expected.get(i)), v);
+            keys.add(i);
+        });
+
+        Assert.assertEquals(new ArrayList<>(expected.keySet()), keys);
+    }
+
+    @Test
+    public void testMatchesTreeMapAcrossFlushesAndCompactions() throws IOException {
+        NavigableMap<Integer, Integer> expected = new TreeMap<>();
+        Random random = new Random(0);
+        try (LsmStore store = new LsmStore(folder.getRoot().toPath(), 4096, 256, 3)) {
+            for (int i = 0; i < 20000; ++i) {
+                int key = random.nextInt(2000);
+                if (random.nextInt(4) == 0) {
+                    expected.remove(key);
+                    store.remove(key(key));
+                } else {
+                    expected.put(key, i);
+                    store.put(key(key), value(i));
+                }
+
+                if (i % 5000 == 0) {
+                    assertStoreEquals(expected, store, 2000);
+                }
+            }
+
+            assertStoreEquals(expected, store, 2000);
+            store.compact();
+            Assert.assertEquals(1, store.getTableCount());
+            assertStoreEquals(expected, store, 2000);
+        }
+    }
+
+    @Test
+    public void testTombstoneHidesFlushedValue() throws IOException {
+        try (LsmStore store = new LsmStore(folder.getRoot().toPath())) {
+            store.put(key(1), value(1));
+            store.put(key(2), value(2));
+            store.flush();
+            store.remove(key(1));
+            Assert.assertNull(store.get(key(1)));
+            store.flush();
+            Assert.assertEquals(2, store.getTableCount());
+            Assert.assertNull(store.get(key(1)));
+            Assert.assertArrayEquals(value(2), store.get(key(2)));
+        }
+    }
+
+    @Test
+    public void testCompactionLeavesLargerTablesAlone() throws IOException {
+        Path directory = folder.getRoot().toPath();
+        NavigableMap<Integer, Integer> expected = new TreeMap<>();
+        try (LsmStore store = new LsmStore(directory, 1024, 256, 3)) {
+            for (int i = 0; i < 20000; ++i) {
+                expected.put(i, i);
+                store.put(key(i), value(i));
+            }
+
+            store.flush();
+            Path largest = getLargestTable(directory);
+            for (int i = 20000; i < 21000; ++i) {
+                expected.put(i, i);
+                store.put(key(i), value(i));
+            }
+
+            store.flush();
+            Assert.assertTrue(Files.exists(largest));
+            Assert.assertTrue(store.getTableCount() < 20);
+            assertStoreEquals(expected, store, 21000);
+        }
+    }
+
+    private static Path getLargestTable(Path directory) throws IOException {
+        try (Stream<Path> paths = Files.list(directory)) {
+            return paths.filter(p -> p.toString().endsWith(".sst"))
+                    .max(Comparator.comparingLong(p -> p.toFile().length()))
+                    .orElseThrow();
+        }
+    }
+
+    @Test
+    public void testTablesReplacedByCompactionStayDeleted() throws IOException {
+        Path directory = folder.getRoot().toPath();
+        Path backup = folder.newFolder().toPath();
+        try (LsmStore store = new LsmStore(directory)) {
+            store.put(key(1), value(1));
+            store.flush();
+            store.remove(key(1));
+            store.flush();
+            // A crash after compaction may leave behind any of the tables it replaced, such as the one holding the
+            // value, while the tombstone that hid it is gone.
+            try (Stream<Path> paths = Files.list(directory)) {
+                for (Path path : (Iterable<Path>) paths::iterator) {
+                    Files.copy(path, backup.resolve(path.getFileName()));
+                }
+            }
+
+            store.compact();
+        }
+
+        try (Stream<Path> paths = Files.list(backup)) {
+            for (Path path : (Iterable<Path>) paths::iterator) {
+                if (path.toString().endsWith(".sst")) {
+                    Files.copy(path, directory.resolve(path.getFileName()), StandardCopyOption.REPLACE_EXISTING);
+                }
+            }
+        }
+
+        try (LsmStore store = new LsmStore(directory)) {
+            Assert.assertNull(store.get(key(1)));
+            Assert.assertEquals(1, store.getTableCount());
+        }
+    }
+
+    @Test
+    public void testForEachRange() throws IOException {
+        try (LsmStore store = new LsmStore(folder.getRoot().toPath(), 1024, 128, 10)) {
+            for (int i = 0; i < 1000; ++i) {
+                store.put(key(i), value(i));
+            }
+
+            List<Integer> keys = new ArrayList<>();
+            store.forEach(key(100), key(200), (k, v) -> keys.add(ByteBuffer.wrap(k).getInt() ^ Integer.MIN_VALUE));
+            Assert.assertEquals(100, keys.size());
+            Assert.assertEquals(Integer.valueOf(100), keys.get(0));
+            Assert.assertEquals(Integer.valueOf(199), keys.get(99));
+        }
+    }
+
+    @Test
+    public void testReopenRecoversClosedStore() throws IOException {
+        Path directory = folder.getRoot().toPath();
+        NavigableMap<Integer, Integer> expected = new TreeMap<>();
+        try (LsmStore store = new LsmStore(directory, 2048, 256, 4)) {
+            for (int i = 0; i < 3000; ++i) {
+                expected.put(i % 700, i);
+                store.put(key(i % 700), value(i));
+            }
+        }
+
+        // A table that was being written when the process exited is discarded.
+        Files.write(directory.resolve("9999999999999999.tmp"), new byte[]{1, 2, 3});
+        try (LsmStore store = new LsmStore(directory, 2048, 256, 4)) {
+            assertStoreEquals(expected, store, 700);
+            store.remove(key(5));
+            expected.remove(5);
+        }
+
+        try (LsmStore store = new LsmStore(directory)) {
+            assertStoreEquals(expected, store, 700);
+        }
+
+        Assert.assertFalse(Files.exists(directory.resolve("9999999999999999.tmp")));
+    }
+
+    @Test
+    public void testConcurrentReadersAndWriter() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(3);
+        try (LsmStore store = new LsmStore(folder.getRoot().toPath(), 4096, 256, 3)) {
+            // Each key is written with ascending values, so a reader never sees a value go backwards.
+            List<Future<Boolean>> readers = new ArrayList<>();
+            for (int r = 0; r < 3; ++r) {
+                readers.add(executor.submit(() -> {
+                    int[] latest = new int[100];
+                    for (int pass = 0; pass < 2000; ++pass) {
+                        int key = pass % 100;
+                        byte[] value = store.get(key(key));
+                        int v = value == null ? 0 : ByteBuffer.wrap(value).getInt();
+                        if (v < latest[key]) {
+                            return false;
+                        }
+
+                        latest[key] = v;
+                    }
+
+                    return true;
+                }));
+            }
+
+            for (int i = 1; i <= 20000; ++i) {
+                store.put(key(i % 100), ByteBuffer.allocate(4).putInt(i).array());
+            }
+
+            for (Future<Boolean> reader : readers) {
+                Assert.assertTrue(reader.get());
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    public void testClosedStoreRejectsWrites() throws IOException {
+        LsmStore store = new LsmStore(folder.getRoot().toPath());
+        store.close();
+        thrown.expect(IllegalStateException.class);
+        store.put(key(1), value(1));
+    }
+}
@@ -0,0 +1,115 @@
+package ca.crimsonglow.skiplist.store;
+
+import ca.crimsonglow.skiplist.SkipList;
+import org.junit.Assert;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.ExpectedException;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+public class SnapshotReaderTest {
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+    @Rule
+    public ExpectedException thrown = ExpectedException.none();
+
+    private Path newSnapshot() throws IOException {
+        return folder.newFolder().toPath().resolve("snapshot");
+    }
+
+    private static SkipList<Long, String> newList(int size) {
+        SkipList<Long, String> list = new SkipList<>();
+        Random random = new Random(0);
+        for (int i = 0; i < size; ++i) {
+            long key = random.nextInt(4 * size) * 1000L;
+            list.put(key, "value" + key);
+        }
+
+        return list;
+    }
+
+    @Test
+    public void testLoadAndLookupsMatchList() throws IOException {
+        for (int size : new int[]{0, 1, 15, 16, 17, 1000}) {
+            Path path = newSnapshot();
+            SkipList<Long, String> list = newList(size);
+            SnapshotWriter.write(path, list, Codec.longs(), Codec.strings());
+            SnapshotReader<Long, String> reader = new SnapshotReader<>(path, null, Codec.longs(), Codec.strings());
+            Assert.assertEquals(list.size(), reader.size());
+            Assert.assertEquals(list, reader.load());
+            for (long key = -1000; key <= 4000L * size + 1000; key += 500) {
+                Assert.assertEquals(list.get(key), reader.get(key));
+            }
+        }
+    }
+
+    @Test
+    public void testKeysAreDeltaEncoded() throws IOException {
+        Path path = newSnapshot();
+        SkipList<String, byte[]> list = new SkipList<>();
+        String prefix = "a".repeat(100);
+        for (int i = 0; i < 1000; ++i) {
+            list.put(String.format("%s%04d", prefix, i), new byte[0]);
+        }
+
+        SnapshotWriter.write(path, list, Codec.strings(), Codec.bytes());
+        Assert.assertTrue(Files.size(path) < 1000 * 20);
+        SnapshotReader<String, byte[]> reader = new SnapshotReader<>(path, null, Codec.strings(), Codec.bytes());
+        Assert.assertEquals(list.keySet(), reader.load().keySet());
+        Assert.assertArrayEquals(new byte[0], reader.get(prefix + "0500"));
+    }
+
+    @Test
+    public void testSegmentsSplitAtRestartPoints() throws IOException {
+        Path path = newSnapshot();
+        SkipList<Long, String> list = newList(5000);
+        SnapshotWriter.write(path, list, Codec.longs(), Codec.strings());
+        SnapshotReader<Long, String> reader = new SnapshotReader<>(path, null, Codec.longs(), Codec.strings(), 1000);
+        Assert.assertEquals(list, reader.load());
+        for (Map.Entry<Long, String> e : list.entrySet()) {
+            Assert.assertEquals(e.getValue(), reader.get(e.getKey()));
+        }
+    }
+
+    @Test
+    public void testComparator() throws IOException {
+        Path path = newSnapshot();
+        SkipList<String, Integer> list = new SkipList<>(Comparator.reverseOrder());
+        for (int i = 0; i < 100; ++i) {
+            list.put("key" + i, i);
+        }
+
+        SnapshotWriter.write(path, list, Codec.strings(), Codec.integers());
+        SnapshotReader<String, Integer> reader = new SnapshotReader<>(path, Comparator.reverseOrder(), Codec.strings(),
+                Codec.integers());
+        SkipList<String, Integer> loaded = reader.load();
+        Assert.assertEquals(new ArrayList<>(list.keySet()), new ArrayList<>(loaded.keySet()));
+        Assert.assertEquals(Integer.valueOf(42), reader.get("key42"));
+        Assert.assertNull(reader.get("key420"));
+    }
+
+    @Test
+    public void testWriterRejectsUnorderedKeys() throws IOException {
+        Path path = newSnapshot();
+        try (SnapshotWriter<Integer, Integer> writer = new SnapshotWriter<>(path, null, Codec.integers(), Codec.integers())) {
+            writer.append(2, 2);
+            thrown.expect(IllegalArgumentException.class);
+            writer.append(1, 1);
+        }
+    }
+
+    @Test
+    public void testTruncatedSnapshotIsRejected() throws IOException {
+        Path path = newSnapshot();
+        SnapshotWriter.write(path, newList(100), Codec.longs(), Codec.strings());
+        byte[] bytes = Files.readAllBytes(path);
+        Files.write(path, Arrays.copyOf(bytes, bytes.length - 1));
+        thrown.expect(IOException.class);
+        new SnapshotReader<>(path, null, Codec.longs(), Codec.strings());
+    }
+}